@@ -0,0 +1,300 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.goldsprite.magicdungeon2.core.combat.CombatEngine;
+import com.goldsprite.magicdungeon2.core.combat.DamageType;
+import com.goldsprite.magicdungeon2.core.combat.WeaponRange;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAGIC_MP_COST;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_H;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_W;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.T_WALL;
+
+/**
+ * 战斗辅助工具
+ * 统一管理方向扫描、范围攻击、魔法攻击、远程玩家攻击请求和敌人攻击的逻辑
+ * <p>
+ * 状态变更（击杀/死亡）通过 {@link CombatListener} 回调给 {@link GameWorld}，
+ * 可见结果（伤害数值/日志）通过 {@link WorldEvent} 输出
+ */
+public class CombatHelper {
+
+    /** 战斗状态回调接口 */
+    public interface CombatListener {
+        /** 敌人被击杀（attackerGuid 为 {@link WorldEvent#LOCAL} 表示本地玩家） */
+        void onEnemyKilled(GameEntity enemy, int attackerGuid);
+        /** 本地玩家死亡 */
+        void onPlayerDeath();
+    }
+
+    private final int[][] map;
+    private final List<GameEntity> enemies;
+    private final GameEntity player;
+    private final Collection<RemoteActor> remotes;
+    private final Consumer<WorldEvent> events;
+    private CombatListener listener;
+    private EnemyHistory history; // 权威端延迟补偿（非权威端为 null）
+
+    // 方向扫描复用缓冲（单线程模拟）
+    private final List<GameEntity> scanBuffer = new ArrayList<>();
+    private static final int[][] DIRS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * @param player  本地玩家；无头服务器传 null
+     * @param remotes 权威端已知的远程玩家（非权威端为空集合）
+     */
+    public CombatHelper(int[][] map, List<GameEntity> enemies, GameEntity player,
+                        Collection<RemoteActor> remotes, Consumer<WorldEvent> events,
+                        CombatListener listener) {
+        this.map = map;
+        this.enemies = enemies;
+        this.player = player;
+        this.remotes = remotes;
+        this.events = events;
+        this.listener = listener;
+    }
+
+    public void setListener(CombatListener listener) {
+        this.listener = listener;
+    }
+
+    /** 权威端：设置敌人位置历史，远程攻击可按客户端所见 tick 回溯 */
+    public void setHistory(EnemyHistory history) {
+        this.history = history;
+    }
+
+    // ============ 玩家攻击 ============
+
+    /**
+     * 执行方向范围攻击（支持射程和穿透），返回是否命中
+     * 用于玩家物理攻击（Bump 式）
+     */
+    public boolean performRangedAttack(GameEntity attacker, int dx, int dy) {
+        WeaponRange wr = attacker.weaponRange;
+        List<GameEntity> hitTargets = scanEnemiesInDirection(attacker.x, attacker.y, dx, dy, wr.range, wr.piercing);
+
+        if (hitTargets.isEmpty()) return false;
+
+        attacker.triggerBump(dx, dy);
+        GameEntity first = hitTargets.get(0);
+        float baseDmg = Math.max(1, CombatEngine.calcPhysicalDamage(
+            attacker.stats.getATK(), first.stats.getDEF()));
+
+        for (int i = 0; i < hitTargets.size(); i++) {
+            GameEntity target = hitTargets.get(i);
+            float dmg = wr.piercing ? CombatEngine.calcPierceDamage(baseDmg, i) : baseDmg;
+            if (dmg < CombatEngine.MIN_DAMAGE_THRESHOLD) continue;
+
+            damageEnemy(target, dmg, DamageType.PHYSICAL, wr.piercing && i > 0, WorldEvent.LOCAL);
+            if (target.alive) {
+                events.accept(WorldEvent.log(String.format("攻击 %s: %.0f伤害 (HP:%.0f/%.0f)",
+                    target.texName, dmg, target.hp, target.getMaxHp())));
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 魔法攻击：消耗MP，沿面朝方向发射魔法弹
+     * 返回是否成功释放（MP不足返回false）
+     */
+    public boolean performMagicAttack() {
+        if (player.mp < MAGIC_MP_COST) {
+            events.accept(WorldEvent.mpInsufficient(player));
+            return false;
+        }
+
+        int dx = player.faceDx, dy = player.faceDy;
+        if (dx == 0 && dy == 0) dy = 1; // 默认朝上
+
+        player.mp -= MAGIC_MP_COST;
+        GameEntity target = scanFirstEnemy(player.x, player.y, dx, dy, WeaponRange.ENERGY.range);
+        if (target == null) {
+            events.accept(WorldEvent.log("魔法射向虚空..."));
+            return true;
+        }
+
+        float dmg = Math.max(1, CombatEngine.calcMagicDamage(
+            player.stats.getATK(), target.stats.getMDEF()));
+        damageEnemy(target, dmg, DamageType.MAGIC, false, WorldEvent.LOCAL);
+        if (target.alive) {
+            events.accept(WorldEvent.log(String.format("魔法攻击 %s: %.0f伤害 (HP:%.0f/%.0f)",
+                target.texName, dmg, target.hp, target.getMaxHp())));
+        }
+        return true;
+    }
+
+    /**
+     * 权威端结算远程玩家的攻击请求
+     * 物理攻击固定 MELEE 射程1；魔法攻击沿方向 ENERGY 射程，无穿透
+     * @return 命中的敌人（未命中返回 null）
+     */
+    public GameEntity applyRemoteAttack(int attackerGuid, DamageType type,
+                                        int ax, int ay, int dx, int dy, float atk) {
+        return applyRemoteAttack(attackerGuid, type, ax, ay, dx, dy, atk, -1);
+    }
+
+    /**
+     * 带延迟补偿的远程攻击结算：目标按 viewTick 时的敌人位置判定，伤害作用于该敌人的当前实体
+     * @param viewTick 客户端所见的房主 tick（小于 0 或历史中没有时按当前位置判定）
+     */
+    public GameEntity applyRemoteAttack(int attackerGuid, DamageType type,
+                                        int ax, int ay, int dx, int dy, float atk, long viewTick) {
+        GameEntity target;
+        float dmg;
+        if (type == DamageType.MAGIC) {
+            target = scanFirstEnemyAt(viewTick, ax, ay, dx, dy, WeaponRange.ENERGY.range);
+            if (target == null) return null;
+            dmg = Math.max(1, CombatEngine.calcMagicDamage(atk, target.stats.getMDEF()));
+        } else {
+            int cx = ax + dx, cy = ay + dy;
+            if (!isInBounds(cx, cy)) return null;
+            target = findEnemyAt(viewTick, cx, cy);
+            if (target == null) return null;
+            dmg = Math.max(1, CombatEngine.calcPhysicalDamage(atk, target.stats.getDEF()));
+        }
+        damageEnemy(target, dmg, type, false, attackerGuid);
+        return target;
+    }
+
+    // ============ 敌人攻击 ============
+
+    /**
+     * 敌人尝试远程攻击（检查四方向射程内是否有本地玩家或远程玩家）
+     * 返回是否成功发动攻击
+     */
+    public boolean tryRangedAttack(GameEntity e) {
+        if (e.weaponRange.range <= 1) return false; // MELEE 不需远程检查
+
+        for (int[] d : DIRS) {
+            for (int r = 1; r <= e.weaponRange.range; r++) {
+                int cx = e.x + d[0] * r, cy = e.y + d[1] * r;
+                if (!isInBounds(cx, cy) || map[cy][cx] == T_WALL) break;
+                if (player != null && player.alive && cx == player.x && cy == player.y) {
+                    meleeAttackPlayer(e, d[0], d[1]);
+                    return true;
+                }
+                RemoteActor ra = findRemote(cx, cy);
+                if (ra != null) {
+                    meleeAttackRemote(e, ra, d[0], d[1]);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** 敌人攻击本地玩家（走到玩家格子或远程命中） */
+    public void meleeAttackPlayer(GameEntity e, int mx, int my) {
+        e.triggerBump(mx, my);
+        float dmg = Math.max(1, CombatEngine.calcPhysicalDamage(
+            e.stats.getATK(), player.stats.getDEF()));
+        player.hp -= dmg;
+        events.accept(WorldEvent.playerDamaged(player, dmg));
+        if (player.hp <= 0 && listener != null) {
+            listener.onPlayerDeath();
+        }
+    }
+
+    /** 敌人攻击远程玩家（结果由网络层广播给目标客户端） */
+    public void meleeAttackRemote(GameEntity e, RemoteActor target, int mx, int my) {
+        e.triggerBump(mx, my);
+        float dmg = Math.max(1, CombatEngine.calcPhysicalDamage(e.stats.getATK(), target.def));
+        target.hp -= dmg; // 本地先扣，下一次同步以客户端上报为准
+        events.accept(WorldEvent.remotePlayerHurt(target.guid, dmg, target.hp, e));
+    }
+
+    // ============ 查询 ============
+
+    /** 在敌人列表中按坐标查找存活敌人 */
+    public GameEntity findEnemy(int x, int y) {
+        for (int i = 0; i < enemies.size(); i++) {
+            GameEntity e = enemies.get(i);
+            if (e.alive && e.x == x && e.y == y) return e;
+        }
+        return null;
+    }
+
+    /**
+     * 按 viewTick 时的位置查找敌人（返回其当前实体，期间已死亡则为 null）
+     * viewTick 小于 0 或历史中已没有该 tick 时退回当前位置
+     */
+    public GameEntity findEnemyAt(long viewTick, int x, int y) {
+        if (history == null || viewTick < 0) return findEnemy(x, y);
+        int id = history.enemyAt(viewTick, x, y);
+        if (id == -2) return findEnemy(x, y);
+        return id < 0 ? null : findEnemyById(id);
+    }
+
+    /** 按 id 查找存活敌人 */
+    public GameEntity findEnemyById(int enemyId) {
+        for (int i = 0; i < enemies.size(); i++) {
+            GameEntity e = enemies.get(i);
+            if (e.alive && e.enemyId == enemyId) return e;
+        }
+        return null;
+    }
+
+    /** 按坐标查找存活的远程玩家 */
+    public RemoteActor findRemote(int x, int y) {
+        for (RemoteActor ra : remotes) {
+            if (ra.isAlive() && ra.x == x && ra.y == y) return ra;
+        }
+        return null;
+    }
+
+    // ============ 内部辅助方法 ============
+
+    /** 在指定方向扫描敌人目标（返回复用缓冲，调用方不得持有） */
+    private List<GameEntity> scanEnemiesInDirection(int ox, int oy, int dx, int dy,
+                                                    int range, boolean piercing) {
+        scanBuffer.clear();
+        for (int r = 1; r <= range; r++) {
+            int cx = ox + dx * r;
+            int cy = oy + dy * r;
+            if (!isInBounds(cx, cy) || map[cy][cx] == T_WALL) break;
+            GameEntity target = findEnemy(cx, cy);
+            if (target != null) {
+                scanBuffer.add(target);
+                if (!piercing) break;
+            }
+        }
+        return scanBuffer;
+    }
+
+    /** 沿方向查找第一个敌人（遇墙停止） */
+    private GameEntity scanFirstEnemy(int ox, int oy, int dx, int dy, int range) {
+        return scanFirstEnemyAt(-1, ox, oy, dx, dy, range);
+    }
+
+    /** 按 viewTick 时的敌人位置沿方向查找第一个敌人（地图不随时间变化，墙按当前地图） */
+    private GameEntity scanFirstEnemyAt(long viewTick, int ox, int oy, int dx, int dy, int range) {
+        for (int r = 1; r <= range; r++) {
+            int cx = ox + dx * r, cy = oy + dy * r;
+            if (!isInBounds(cx, cy) || map[cy][cx] == T_WALL) break;
+            GameEntity target = findEnemyAt(viewTick, cx, cy);
+            if (target != null) return target;
+        }
+        return null;
+    }
+
+    /** 扣血 + 事件 + 死亡处理 */
+    private void damageEnemy(GameEntity target, float dmg, DamageType type, boolean pierced, int attackerGuid) {
+        target.hp -= dmg;
+        events.accept(WorldEvent.enemyDamaged(target, dmg, type, pierced, attackerGuid));
+        if (target.hp <= 0) {
+            target.alive = false;
+            enemies.remove(target);
+            events.accept(WorldEvent.enemyKilled(target, attackerGuid));
+            if (listener != null) listener.onEnemyKilled(target, attackerGuid);
+        }
+    }
+
+    /** 坐标边界检查 */
+    private boolean isInBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < MAP_W && y < MAP_H;
+    }
+}
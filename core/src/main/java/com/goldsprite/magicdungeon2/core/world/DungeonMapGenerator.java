@@ -0,0 +1,58 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import java.util.Random;
+
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_H;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_W;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.SPAWN_X;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.SPAWN_Y;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.T_FLOOR;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.T_STAIRS;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.T_WALL;
+
+/**
+ * 种子驱动的地图生成器
+ * 所有使用相同种子的端（含无头服务器）会生成完全一致的地图布局
+ */
+public final class DungeonMapGenerator {
+
+    private DungeonMapGenerator() {}
+
+    /** 新建地图数组并生成 */
+    public static int[][] generate(long seed) {
+        int[][] map = new int[MAP_H][MAP_W];
+        generate(seed, map);
+        return map;
+    }
+
+    /**
+     * 就地重新生成地图
+     * 换层时复用同一数组，保证 GameWorld 各子系统持有的引用始终指向当前层
+     */
+    public static void generate(long seed, int[][] map) {
+        Random rng = new Random(seed);
+
+        // 四周墙壁
+        for (int y = 0; y < MAP_H; y++)
+            for (int x = 0; x < MAP_W; x++)
+                map[y][x] = (x == 0 || y == 0 || x == MAP_W - 1 || y == MAP_H - 1) ? T_WALL : T_FLOOR;
+
+        // 随机内部墙壁（4~8块）
+        int wallCount = 4 + rng.nextInt(5);
+        for (int i = 0; i < wallCount; i++) {
+            int wx = 2 + rng.nextInt(MAP_W - 4);
+            int wy = 2 + rng.nextInt(MAP_H - 4);
+            // 不阻塞玩家出生点(4,4)
+            if (wx == SPAWN_X && wy == SPAWN_Y) continue;
+            map[wy][wx] = T_WALL;
+        }
+
+        // 随机楼梯位置（不在墙壁、不在出生点）
+        int sx, sy;
+        do {
+            sx = 1 + rng.nextInt(MAP_W - 2);
+            sy = 1 + rng.nextInt(MAP_H - 2);
+        } while (map[sy][sx] != T_FLOOR || (sx == SPAWN_X && sy == SPAWN_Y));
+        map[sy][sx] = T_STAIRS;
+    }
+}
@@ -0,0 +1,148 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.IDLE_CD_FACTOR;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_H;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_W;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.T_WALL;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.WANDER_CHANCE;
+
+/**
+ * 敌人AI系统
+ * 管理所有敌人的冷却驱动更新：仇恨追踪、随机游荡、自动攻击
+ * <p>
+ * 仇恨目标为最近的本地玩家或远程玩家；随机数由 {@link GameWorld} 注入，同种子可复现
+ */
+public class EnemyAI {
+
+    private final int[][] map;
+    private final List<GameEntity> enemies;
+    private final GameEntity player;
+    private final Collection<RemoteActor> remotes;
+    private final CombatHelper combatHelper;
+    private final Random random;
+
+    /**
+     * @param player  本地玩家；无头服务器传 null
+     * @param remotes 权威端已知的远程玩家
+     */
+    public EnemyAI(int[][] map, List<GameEntity> enemies, GameEntity player,
+                   Collection<RemoteActor> remotes, CombatHelper combatHelper, Random random) {
+        this.map = map;
+        this.enemies = enemies;
+        this.player = player;
+        this.remotes = remotes;
+        this.combatHelper = combatHelper;
+        this.random = random;
+    }
+
+    /**
+     * 更新所有敌人（各自独立冷却）
+     * @param delta 帧间隔（秒）
+     */
+    public void update(float delta) {
+        for (int i = enemies.size() - 1; i >= 0; i--) {
+            GameEntity e = enemies.get(i);
+            if (!e.alive) continue;
+
+            e.moveTimer -= delta;
+            if (e.moveTimer > 0) continue; // 冷却中，跳过
+
+            // 先检查是否可以在当前位置远程攻击
+            if (combatHelper.tryRangedAttack(e)) {
+                e.moveTimer = e.getAttackCooldown();
+                continue;
+            }
+
+            // AI 决策：寻找最近目标（曼哈顿距离）
+            int tx = 0, ty = 0, tg = GameEntity.NO_AGGRO;
+            float dist = Float.MAX_VALUE;
+            if (player != null && player.alive) {
+                dist = Math.abs(player.x - e.x) + Math.abs(player.y - e.y);
+                tx = player.x;
+                ty = player.y;
+                tg = WorldEvent.LOCAL;
+            }
+            for (RemoteActor ra : remotes) {
+                if (!ra.isAlive()) continue;
+                float d = Math.abs(ra.x - e.x) + Math.abs(ra.y - e.y);
+                if (d < dist) {
+                    dist = d;
+                    tx = ra.x;
+                    ty = ra.y;
+                    tg = ra.guid;
+                }
+            }
+
+            int dx = 0, dy = 0;
+            e.aggroGuid = dist <= e.aggroRange ? tg : GameEntity.NO_AGGRO;
+            if (dist <= e.aggroRange) {
+                // 追踪目标
+                dx = Integer.signum(tx - e.x);
+                dy = Integer.signum(ty - e.y);
+            } else {
+                // 随机游荡
+                if (random.nextFloat() < WANDER_CHANCE) {
+                    switch (random.nextInt(4)) {
+                        case 0: dx = 1; break;
+                        case 1: dx = -1; break;
+                        case 2: dy = 1; break;
+                        case 3: dy = -1; break;
+                    }
+                }
+            }
+
+            if (dx == 0 && dy == 0) {
+                e.moveTimer = e.getMoveCooldown() * IDLE_CD_FACTOR;
+                continue;
+            }
+
+            // 随机选择水平或垂直方向（避免对角线移动）
+            boolean horizontal = random.nextBoolean();
+            int mx, my;
+            if (horizontal) {
+                mx = dx; my = 0;
+                if (mx == 0 || !canMove(e, mx, 0)) { mx = 0; my = dy; }
+            } else {
+                mx = 0; my = dy;
+                if (my == 0 || !canMove(e, 0, my)) { mx = dx; my = 0; }
+            }
+
+            int nx = e.x + mx, ny = e.y + my;
+
+            // 走到玩家格子 = 近战攻击
+            RemoteActor remote;
+            if (player != null && player.alive && nx == player.x && ny == player.y) {
+                combatHelper.meleeAttackPlayer(e, mx, my);
+            } else if ((remote = combatHelper.findRemote(nx, ny)) != null) {
+                combatHelper.meleeAttackRemote(e, remote, mx, my);
+            } else if (canMove(e, mx, my)) {
+                e.x = nx;
+                e.y = ny;
+            }
+
+            e.moveTimer = e.getMoveCooldown();
+        }
+    }
+
+    // ============ 移动碰撞检测 ============
+
+    /**
+     * 检查敌人是否可以在指定方向移动
+     * 会检查边界、墙壁和其他敌人的占位
+     */
+    private boolean canMove(GameEntity e, int dx, int dy) {
+        int nx = e.x + dx, ny = e.y + dy;
+        if (nx < 0 || ny < 0 || nx >= MAP_W || ny >= MAP_H) return false;
+        if (map[ny][nx] == T_WALL) return false;
+        // 不能走到其他敌人身上
+        for (int i = 0; i < enemies.size(); i++) {
+            GameEntity other = enemies.get(i);
+            if (other != e && other.alive && other.x == nx && other.y == ny) return false;
+        }
+        return true;
+    }
+}
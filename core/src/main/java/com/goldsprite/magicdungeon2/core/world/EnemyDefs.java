@@ -0,0 +1,48 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.goldsprite.magicdungeon2.core.combat.WeaponRange;
+import com.goldsprite.magicdungeon2.core.stats.StatCalculator;
+import com.goldsprite.magicdungeon2.core.stats.StatData;
+import com.goldsprite.magicdungeon2.core.stats.StatType;
+
+/**
+ * 敌人定义工厂
+ * 集中管理所有敌人的属性配置，便于后续数据驱动扩展
+ */
+public class EnemyDefs {
+
+    /** 生成默认一批敌人实体（地牢基础怪物组） */
+    public static List<GameEntity> createDefaultEnemies() {
+        List<GameEntity> list = new ArrayList<>();
+        // 史莱姆：低攻低防，最慢
+        list.add(new GameEntity(2, 2, "slime",    20,  4, 1, 1.0f, 15, WeaponRange.MELEE));
+        // 骷髅：中等属性，长柄穿透武器
+        list.add(new GameEntity(6, 6, "skeleton", 35,  8, 3, 0.8f, 25, WeaponRange.POLEARM));
+        // 蝙蝠：低血低防，最快
+        list.add(new GameEntity(2, 6, "bat",      15,  6, 1, 0.4f, 20, WeaponRange.MELEE));
+        // 狼：高攻高经验
+        list.add(new GameEntity(6, 2, "wolf",     30, 10, 2, 0.6f, 30, WeaponRange.MELEE));
+        return list;
+    }
+
+    /** 创建玩家实体（初始属性） */
+    public static GameEntity createPlayer() {
+        return new GameEntity(WorldConfig.SPAWN_X, WorldConfig.SPAWN_Y, "player", 100, 12, 5, 0.2f, 0, WeaponRange.MELEE);
+    }
+
+    /** 玩家在该等级下可达到的最高攻击力（自由属性点全部加在 ATK 上），权威端校验客户端上报值用 */
+    public static float maxPlayerAtk(int level) {
+        GameEntity p = createPlayer();
+        p.stats.setLevel(level);
+        p.stats.setFreePoints(StatType.ATK, StatCalculator.totalFreePoints(level));
+        return p.stats.getATK();
+    }
+
+    /** 玩家冷却时间下限（移速/攻速达到上限时） */
+    public static float minPlayerCooldown() {
+        return createPlayer().moveDelay / StatData.SPEED_CAP;
+    }
+}
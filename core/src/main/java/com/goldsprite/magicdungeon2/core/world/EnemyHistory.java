@@ -0,0 +1,93 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 权威端敌人位置历史（延迟补偿用，预分配环形缓冲，每 tick 一帧）
+ * <p>
+ * 每帧记录该 tick 结束时所有存活敌人的 id 与格子坐标；
+ * 结算远程玩家攻击时按其"看到的 tick"回溯，查询当时占据某格的敌人。
+ */
+public class EnemyHistory {
+
+    private final long[] ticks;
+    private final int[] counts;
+    private final int[][] ids;
+    private final int[][] xs;
+    private final int[][] ys;
+    private long newestTick = -1;
+
+    public EnemyHistory(int capacity) {
+        int n = Math.max(1, capacity);
+        ticks = new long[n];
+        counts = new int[n];
+        ids = new int[n][16];
+        xs = new int[n][16];
+        ys = new int[n][16];
+        Arrays.fill(ticks, -1);
+    }
+
+    /** 记录 tick 结束时的敌人位置（覆盖最旧的一帧） */
+    public void record(long tick, List<GameEntity> enemies) {
+        int slot = slot(tick);
+        int n = 0;
+        for (int i = 0; i < enemies.size(); i++) {
+            GameEntity e = enemies.get(i);
+            if (!e.alive) continue;
+            if (n == ids[slot].length) grow(slot, n * 2);
+            ids[slot][n] = e.enemyId;
+            xs[slot][n] = e.x;
+            ys[slot][n] = e.y;
+            n++;
+        }
+        ticks[slot] = tick;
+        counts[slot] = n;
+        newestTick = tick;
+    }
+
+    /** 是否仍保留该 tick 的记录 */
+    public boolean has(long tick) {
+        return tick >= 0 && ticks[slot(tick)] == tick;
+    }
+
+    /**
+     * 该 tick 时占据 (x, y) 的敌人 id
+     * @return 敌人 id；该格无敌人返回 -1；没有该 tick 的记录返回 -2
+     */
+    public int enemyAt(long tick, int x, int y) {
+        if (!has(tick)) return -2;
+        int slot = slot(tick);
+        int[] sx = xs[slot], sy = ys[slot];
+        for (int i = 0, n = counts[slot]; i < n; i++) {
+            if (sx[i] == x && sy[i] == y) return ids[slot][i];
+        }
+        return -1;
+    }
+
+    /** 最近一次记录的 tick（尚无记录为 -1） */
+    public long getNewestTick() {
+        return newestTick;
+    }
+
+    public int capacity() {
+        return ticks.length;
+    }
+
+    /** 换层/重生后旧坐标失效 */
+    public void clear() {
+        Arrays.fill(ticks, -1);
+        Arrays.fill(counts, 0);
+        newestTick = -1;
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) ticks.length);
+    }
+
+    private void grow(int slot, int size) {
+        ids[slot] = Arrays.copyOf(ids[slot], size);
+        xs[slot] = Arrays.copyOf(xs[slot], size);
+        ys[slot] = Arrays.copyOf(ys[slot], size);
+    }
+}
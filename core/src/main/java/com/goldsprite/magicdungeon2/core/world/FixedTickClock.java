@@ -0,0 +1,56 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+/**
+ * 固定步长模拟时钟（累加器）
+ * <p>
+ * 把可变的渲染帧时间累加起来，按固定步长切成整数个 tick，
+ * 使模拟结果与帧率无关；剩余不足一步的时间以 {@link #getAlpha()} 给渲染插值。
+ * 单帧追赶步数有上限，卡顿后丢弃积压时间，避免"越慢越追、越追越慢"。
+ */
+public class FixedTickClock {
+
+    private final int tickRate;
+    private final float stepSeconds;
+    private final int maxStepsPerFrame;
+    private double accumulator;
+
+    public FixedTickClock(int tickRate) {
+        this(tickRate, WorldConfig.MAX_TICKS_PER_FRAME);
+    }
+
+    public FixedTickClock(int tickRate, int maxStepsPerFrame) {
+        if (tickRate <= 0) throw new IllegalArgumentException("tickRate 必须大于 0: " + tickRate);
+        this.tickRate = tickRate;
+        this.stepSeconds = 1f / tickRate;
+        this.maxStepsPerFrame = Math.max(1, maxStepsPerFrame);
+    }
+
+    /**
+     * 累加一帧时间
+     * @return 本帧应推进的 tick 数（可能为 0）
+     */
+    public int advance(float frameDelta) {
+        if (frameDelta > 0) accumulator += frameDelta;
+        int steps = 0;
+        while (accumulator >= stepSeconds && steps < maxStepsPerFrame) {
+            accumulator -= stepSeconds;
+            steps++;
+        }
+        // 追赶上限已满仍有积压：只保留不足一步的余量
+        if (accumulator >= stepSeconds) accumulator %= stepSeconds;
+        return steps;
+    }
+
+    /** 渲染插值系数 [0,1)：当前帧处于上一 tick 与下一 tick 之间的位置 */
+    public float getAlpha() {
+        return (float) (accumulator / stepSeconds);
+    }
+
+    /** 丢弃累积时间（换层/重连等跳变后调用） */
+    public void reset() {
+        accumulator = 0;
+    }
+
+    public int getTickRate() { return tickRate; }
+    public float getStepSeconds() { return stepSeconds; }
+}
@@ -0,0 +1,657 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import com.goldsprite.magicdungeon2.core.combat.DamageType;
+import com.goldsprite.magicdungeon2.core.growth.DeathPenalty;
+import com.goldsprite.magicdungeon2.core.growth.GrowthCalculator;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.ATTACK_POSITION_TOLERANCE;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.FLOOR_CHANGE_GRACE;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.INPUT_BACKLOG_LIMIT;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.INPUT_HISTORY_SIZE;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.LAG_COMP_HISTORY_TICKS;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.LAG_COMP_MAX_REWIND_TICKS;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_H;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MAP_W;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MP_FAIL_CD_FACTOR;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.MP_REGEN_RATE;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.REMOTE_INPUT_CAPACITY;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.SPAWN_X;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.SPAWN_Y;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.TICK_DT;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.T_STAIRS;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.T_WALL;
+
+/**
+ * 地牢世界模拟核心（纯 Java，不依赖 libGDX / GL）
+ * <p>
+ * 持有地图、本地玩家、敌人和远程玩家的全部规则状态，只通过
+ * {@link #tick(float, PlayerInput)} 推进，结果以 {@link WorldEvent} 事件流输出。
+ * 屏幕只负责把输入离散化为 {@link PlayerInput} 并渲染事件；
+ * 无头服务器、机器人、基准测试可直接以任意频率驱动。
+ * <p>
+ * 非线程安全：所有方法应在同一模拟线程调用。
+ */
+public class GameWorld {
+
+    /** 世界在联机拓扑中的角色 */
+    public enum Role {
+        /** 单人 / 联机房主：有本地玩家，敌人由本地权威模拟 */
+        AUTHORITY,
+        /** 联机客户端：有本地玩家，敌人来自网络复制（不跑AI，攻击转为请求事件）；本地移动为预测，按房主回执校正 */
+        REPLICA,
+        /** 无头服务器：无本地玩家，敌人权威模拟，远程玩家踏上楼梯即换层 */
+        DEDICATED
+    }
+
+    private final Role role;
+    private final Random random;
+
+    private final int[][] map = new int[MAP_H][MAP_W];
+    private final GameEntity player; // DEDICATED 为 null
+    private final List<GameEntity> enemies = new ArrayList<>();
+    private final Map<Integer, RemoteActor> remoteActors = new LinkedHashMap<>();
+    private final ArrayDeque<WorldEvent> events = new ArrayDeque<>();
+    private final Consumer<WorldEvent> emitter = events::add;
+
+    private final CombatHelper combatHelper;
+    private final GrowthHelper growthHelper;
+    private final EnemyAI enemyAI;
+
+    private long mapSeed;
+    private int currentFloor = 1;
+    private int nextEnemyId = 1;
+    private int killCount = 0;
+    private float gameTime = 0;
+    private long tickCount = 0;
+    private boolean floorChangePending = false;
+    private float floorChangeGrace = 0;
+    private int remoteSyncStamp = 0;
+
+    // 客户端预测：输入自动编号，未确认部分留待回执后重放
+    private final InputHistory inputHistory = new InputHistory(INPUT_HISTORY_SIZE);
+    private int nextInputSeq = 1;
+    private boolean replaying = false;
+
+    // 权威端：远程输入命令入队时的临时对象（队列内按值复制）
+    private final PlayerInput remoteInputScratch = new PlayerInput();
+
+    // 权威端延迟补偿与远程上报校验
+    private final EnemyHistory enemyHistory; // REPLICA 为 null
+    private final Map<Integer, Long> remoteXp = new LinkedHashMap<>(); // 权威端判给各远程玩家的累计经验
+    private final float minRemoteCooldown = EnemyDefs.minPlayerCooldown();
+    private int rewoundHits;
+    private int rejectedRemoteAttacks;
+    private int clampedRemoteStats;
+    private int skippedRemoteInputs;
+
+    // 死亡惩罚结果（非null时表示本地玩家处于死亡状态）
+    private DeathPenalty.DeathResult deathResult;
+
+    public GameWorld(Role role, long mapSeed) {
+        this(role, mapSeed, new Random());
+    }
+
+    /**
+     * @param random 世界内所有随机决策（AI/换层种子）的来源，传入定种子 Random 可完全复现
+     */
+    public GameWorld(Role role, long mapSeed, Random random) {
+        this.role = role;
+        this.random = random;
+        this.mapSeed = mapSeed;
+        this.player = role == Role.DEDICATED ? null : EnemyDefs.createPlayer();
+
+        Collection<RemoteActor> remotes = remoteActors.values();
+        combatHelper = new CombatHelper(map, enemies, player, remotes, emitter, new CombatHelper.CombatListener() {
+            @Override
+            public void onEnemyKilled(GameEntity enemy, int attackerGuid) {
+                if (attackerGuid != WorldEvent.LOCAL) {
+                    remoteXp.merge(attackerGuid, (long) enemy.xpReward, Long::sum);
+                    return;
+                }
+                if (growthHelper == null) return;
+                killCount++;
+                growthHelper.onEnemyKilled(enemy, killCount);
+            }
+            @Override
+            public void onPlayerDeath() {
+                handlePlayerDeath();
+            }
+        });
+        growthHelper = player != null ? new GrowthHelper(player, emitter) : null;
+        enemyAI = new EnemyAI(map, enemies, player, remotes, combatHelper, random);
+        enemyHistory = role != Role.REPLICA ? new EnemyHistory(LAG_COMP_HISTORY_TICKS) : null;
+        combatHelper.setHistory(enemyHistory);
+
+        DungeonMapGenerator.generate(mapSeed, map);
+        if (role != Role.REPLICA) spawnEnemies();
+    }
+
+    // ============ 模拟推进 ============
+
+    /**
+     * 推进一个模拟步
+     * @param dt    步长（秒），正常由 {@link FixedTickClock} 驱动，取 {@link WorldConfig#TICK_DT}
+     * @param input 本地玩家本步输入（无本地玩家或无输入时可为 null）
+     */
+    public void tick(float dt, PlayerInput input) {
+        tickCount++;
+
+        // 渲染插值起点：本步开始前的绘制坐标
+        if (player != null) player.snapshotDrawPos();
+        if (role != Role.REPLICA) {
+            for (int i = 0; i < enemies.size(); i++) {
+                enemies.get(i).snapshotDrawPos();
+            }
+        }
+
+        if (role == Role.REPLICA && player != null && input != null) {
+            input.seq = nextInputSeq++;
+            inputHistory.add(input);
+        }
+
+        if (player != null) {
+            if (player.alive) {
+                gameTime += dt;
+                updatePlayer(dt, input);
+            } else if (input != null && input.respawn) {
+                respawn();
+            }
+        }
+
+        if (role != Role.REPLICA) {
+            updateRemoteInputs(dt);
+            // 本地玩家死亡时敌人停止行动（单人）；有远程玩家时继续
+            if (player == null || player.alive || !remoteActors.isEmpty()) {
+                enemyAI.update(dt);
+            }
+            if (role == Role.DEDICATED) checkRemoteStairs(dt);
+        }
+
+        if (player != null) {
+            if (player.alive) {
+                // MP 自然回复
+                player.mp = Math.min(player.getMaxMp(),
+                    player.mp + player.getMaxMp() * MP_REGEN_RATE * dt);
+            }
+            player.updateVisuals(dt);
+        }
+        // 复制的敌人由网络层插值，这里只推进权威敌人的视觉坐标
+        if (role != Role.REPLICA) {
+            for (int i = 0; i < enemies.size(); i++) {
+                enemies.get(i).updateVisuals(dt);
+            }
+            // 本 tick 结束时的敌人位置（即本 tick 快照广播给客户端的位置）
+            enemyHistory.record(tickCount, enemies);
+        }
+    }
+
+    /** 更新本地玩家（冷却驱动） */
+    private void updatePlayer(float dt, PlayerInput input) {
+        player.moveTimer -= dt;
+        if (player.moveTimer > 0) return; // 冷却中，忽略输入
+        if (input == null) return;
+
+        // 魔法攻击
+        if (input.magic) {
+            if (role == Role.REPLICA) {
+                int fdx = player.faceDx, fdy = player.faceDy;
+                if (fdx == 0 && fdy == 0) fdy = 1;
+                if (!replaying) emitter.accept(WorldEvent.attackRequest(DamageType.MAGIC, fdx, fdy));
+                player.moveTimer = player.getAttackCooldown();
+            } else if (combatHelper.performMagicAttack()) {
+                player.moveTimer = player.getAttackCooldown();
+            } else {
+                player.moveTimer = player.getAttackCooldown() * MP_FAIL_CD_FACTOR;
+            }
+            return;
+        }
+
+        int dx = input.dx, dy = input.dy;
+        if (dx == 0 && dy == 0) return;
+
+        // 更新面朝方向
+        player.faceDx = dx;
+        player.faceDy = dy;
+
+        // 尝试武器范围攻击（Bump式物理攻击）
+        if (role == Role.REPLICA) {
+            // 客户端：攻击方向上有复制敌人时预测为攻击（房主按同一输入结算），结果以房主广播为准
+            if (combatHelper.findEnemy(player.x + dx, player.y + dy) != null) {
+                if (!replaying) {
+                    emitter.accept(WorldEvent.attackRequest(DamageType.PHYSICAL, dx, dy));
+                    player.triggerBump(dx, dy);
+                }
+                player.moveTimer = player.getAttackCooldown();
+                return;
+            }
+        } else if (combatHelper.performRangedAttack(player, dx, dy)) {
+            player.moveTimer = player.getAttackCooldown();
+            return;
+        }
+
+        // 无目标，尝试移动
+        int nx = player.x + dx, ny = player.y + dy;
+        if (nx < 0 || ny < 0 || nx >= MAP_W || ny >= MAP_H || map[ny][nx] == T_WALL) {
+            player.moveTimer = player.getMoveCooldown(); // 撞墙/边界也消耗冷却
+            return;
+        }
+
+        player.x = nx;
+        player.y = ny;
+        player.moveTimer = player.getMoveCooldown();
+
+        // 踩到楼梯：联机时只有权威端能触发换层
+        if (map[ny][nx] == T_STAIRS) {
+            if (role == Role.REPLICA) {
+                if (!replaying) emitter.accept(WorldEvent.log("等待房主触发换层..."));
+            } else if (!floorChangePending) {
+                floorChangePending = true;
+                long newSeed = random.nextLong();
+                emitter.accept(WorldEvent.log("踏上楼梯... 前往第" + (currentFloor + 1) + "层！"));
+                emitter.accept(WorldEvent.floorChange(newSeed, currentFloor + 1));
+            }
+        }
+    }
+
+    /**
+     * 权威端：按输入命令推进远程玩家（与客户端 REPLICA 分支的 updatePlayer 同一套规则）
+     * 每条命令对应客户端的一个 tick；积压过多时每 tick 多处理一条以追上
+     */
+    private void updateRemoteInputs(float dt) {
+        for (RemoteActor ra : remoteActors.values()) {
+            if (!ra.inputDriven) continue;
+            int budget = ra.pendingInputs.size() > INPUT_BACKLOG_LIMIT ? 2 : 1;
+            for (int i = 0; i < budget && ra.pendingInputs.size() > 0; i++) {
+                PlayerInput cmd = ra.pendingInputs.get(0);
+                stepRemote(ra, cmd, dt);
+                ra.lastProcessedSeq = cmd.seq;
+                ra.ackPending = true;
+                ra.pendingInputs.dropThrough(cmd.seq);
+            }
+        }
+    }
+
+    /**
+     * 远程玩家单条输入：冷却 → 魔法 → 相邻攻击 → 移动，攻击一律从权威坐标结算
+     * 敌人位置按客户端产生该输入时所见的 tick 回溯（与客户端做出攻击/移动判断时的画面一致）
+     */
+    private void stepRemote(RemoteActor ra, PlayerInput in, float dt) {
+        ra.moveTimer -= dt;
+        if (ra.moveTimer > 0 || !ra.isAlive()) return;
+        long viewTick = rewindTick(in.viewTick);
+
+        if (in.magic) {
+            int fdx = ra.faceDx, fdy = ra.faceDy;
+            if (fdx == 0 && fdy == 0) fdy = 1;
+            combatHelper.applyRemoteAttack(ra.guid, DamageType.MAGIC, ra.x, ra.y, fdx, fdy, ra.atk, viewTick);
+            ra.moveTimer = ra.attackCooldown;
+            return;
+        }
+
+        int dx = in.dx, dy = in.dy;
+        if (dx == 0 && dy == 0) return;
+        ra.faceDx = dx;
+        ra.faceDy = dy;
+
+        GameEntity target = combatHelper.findEnemyAt(viewTick, ra.x + dx, ra.y + dy);
+        if (target != null) {
+            if (target != combatHelper.findEnemy(ra.x + dx, ra.y + dy)) rewoundHits++;
+            combatHelper.applyRemoteAttack(ra.guid, DamageType.PHYSICAL, ra.x, ra.y, dx, dy, ra.atk, viewTick);
+            ra.moveTimer = ra.attackCooldown;
+            return;
+        }
+
+        int nx = ra.x + dx, ny = ra.y + dy;
+        ra.moveTimer = ra.moveCooldown;
+        if (nx < 0 || ny < 0 || nx >= MAP_W || ny >= MAP_H || map[ny][nx] == T_WALL) return;
+        ra.x = nx;
+        ra.y = ny;
+    }
+
+    /**
+     * 客户端所见 tick → 实际回溯的 tick：最多回溯 {@link WorldConfig#LAG_COMP_MAX_REWIND_TICKS}，
+     * 不晚于最近一次记录；未上报（0）或已无记录时返回 -1（按当前位置判定）
+     */
+    private long rewindTick(long viewTick) {
+        if (viewTick <= 0 || enemyHistory == null) return -1;
+        long newest = enemyHistory.getNewestTick();
+        long t = Math.max(viewTick, tickCount - LAG_COMP_MAX_REWIND_TICKS);
+        t = Math.min(t, newest);
+        return enemyHistory.has(t) ? t : -1;
+    }
+
+    /** 无头服务器：任一远程玩家踏上楼梯时立即换层 */
+    private void checkRemoteStairs(float dt) {
+        if (floorChangeGrace > 0) {
+            floorChangeGrace -= dt;
+            return;
+        }
+        for (RemoteActor ra : remoteActors.values()) {
+            if (ra.x < 0 || ra.y < 0 || ra.x >= MAP_W || ra.y >= MAP_H) continue;
+            if (map[ra.y][ra.x] == T_STAIRS) {
+                long newSeed = random.nextLong();
+                int floor = currentFloor + 1;
+                emitter.accept(WorldEvent.floorChange(newSeed, floor));
+                enterFloor(newSeed, floor);
+                return;
+            }
+        }
+    }
+
+    // ============ 层与重生 ============
+
+    /**
+     * 进入指定层（重建地图、重置玩家位置、权威端重新生成敌人）
+     * 有本地玩家时由表现层在收到 {@link WorldEvent.Type#FLOOR_CHANGE} 或网络换层信号并完成转场后调用
+     */
+    public void enterFloor(long seed, int floor) {
+        mapSeed = seed;
+        currentFloor = floor;
+        floorChangePending = false;
+        floorChangeGrace = FLOOR_CHANGE_GRACE;
+        DungeonMapGenerator.generate(seed, map);
+        if (enemyHistory != null) enemyHistory.clear();
+        if (player != null) player.placeAt(SPAWN_X, SPAWN_Y);
+        // 预测重新从出生点开始；权威端把输入驱动的远程玩家一并放回出生点
+        inputHistory.clear();
+        for (RemoteActor ra : remoteActors.values()) {
+            if (!ra.inputDriven) continue;
+            ra.x = SPAWN_X;
+            ra.y = SPAWN_Y;
+            ra.moveTimer = 0;
+            ra.pendingInputs.clear();
+        }
+        enemies.clear();
+        if (role != Role.REPLICA) spawnEnemies();
+        killCount = 0;
+    }
+
+    /** 死亡后重生（新地图，保留成长进度） */
+    public void respawn() {
+        mapSeed = random.nextLong();
+        DungeonMapGenerator.generate(mapSeed, map);
+        if (enemyHistory != null) enemyHistory.clear();
+        growthHelper.resetPlayerForRespawn();
+        enemies.clear();
+        if (role != Role.REPLICA) spawnEnemies();
+        killCount = 0;
+        deathResult = null;
+        gameTime = 0;
+        floorChangePending = false;
+    }
+
+    /** 生成敌人（不重建玩家，保留进度），为每个敌人分配唯一ID */
+    private void spawnEnemies() {
+        List<GameEntity> newEnemies = EnemyDefs.createDefaultEnemies();
+        for (int i = 0; i < newEnemies.size(); i++) {
+            newEnemies.get(i).enemyId = nextEnemyId++;
+        }
+        enemies.addAll(newEnemies);
+    }
+
+    private void handlePlayerDeath() {
+        if (deathResult != null) return; // 已结算
+        deathResult = growthHelper.handlePlayerDeath();
+        emitter.accept(WorldEvent.playerDied(player));
+    }
+
+    // ============ 网络输入（由联机适配层调用） ============
+
+    /**
+     * 权威端：结算远程玩家的攻击请求
+     * @return 命中的敌人（未命中返回 null），伤害结果同时以 ENEMY_DAMAGED 事件输出
+     */
+    public GameEntity applyRemoteAttack(int attackerGuid, DamageType type,
+                                        int ax, int ay, int dx, int dy, float atk) {
+        if (role == Role.REPLICA) return null;
+        return combatHelper.applyRemoteAttack(attackerGuid, type, ax, ay, dx, dy, atk);
+    }
+
+    /**
+     * 权威端：结算客户端上报坐标与攻击力的攻击请求（旧式，不带输入命令的客户端）
+     * 攻击者坐标取权威记录，上报坐标偏差超过 {@link WorldConfig#ATTACK_POSITION_TOLERANCE} 或方向非法时拒绝；
+     * 攻击力不超过该玩家按权威端记录的经验可达到的上限；敌人位置按 viewTick 回溯
+     * @return 命中的敌人（拒绝或未命中返回 null）
+     */
+    public GameEntity applyRemoteAttackRequest(int attackerGuid, DamageType type, float reportedX, float reportedY,
+                                               int dx, int dy, float reportedAtk, long viewTick) {
+        if (role == Role.REPLICA) return null;
+        RemoteActor ra = remoteActors.get(attackerGuid);
+        if (ra == null || !ra.isAlive()) return null;
+        boolean validDir = Math.abs(dx) + Math.abs(dy) == 1;
+        float drift = Math.abs(reportedX - ra.x) + Math.abs(reportedY - ra.y);
+        if (!validDir || drift > ATTACK_POSITION_TOLERANCE) {
+            rejectedRemoteAttacks++;
+            return null;
+        }
+        float atk = clampRemoteAtk(ra, reportedAtk);
+        return combatHelper.applyRemoteAttack(attackerGuid, type, ra.x, ra.y, dx, dy, atk, rewindTick(viewTick));
+    }
+
+    /** 客户端：应用房主判定的本地玩家受伤 */
+    public void applyPlayerHurt(float damage, float remainHp) {
+        if (player == null || !player.alive) return;
+        player.hp = remainHp;
+        emitter.accept(WorldEvent.playerDamaged(player, damage));
+        if (player.hp <= 0) handlePlayerDeath();
+    }
+
+    /** 客户端：房主确认本地玩家击杀了敌人 */
+    public void applyNetworkKill(int xpReward) {
+        if (growthHelper == null) return;
+        killCount++;
+        growthHelper.onEnemyKilledByNetwork(xpReward, killCount);
+    }
+
+    /** 开始一轮远程玩家同步（之后未被 {@link #updateRemoteActor} 触及的会在 {@link #endRemoteSync} 移除） */
+    public void beginRemoteSync() {
+        remoteSyncStamp++;
+    }
+
+    /** 新增或更新一个远程玩家（输入驱动的远程玩家只在首次出现时采用上报坐标） */
+    public RemoteActor updateRemoteActor(int guid, int x, int y, float hp, float def) {
+        RemoteActor ra = remoteActors.get(guid);
+        if (ra == null) {
+            ra = new RemoteActor(guid);
+            remoteActors.put(guid, ra);
+            ra.x = x;
+            ra.y = y;
+        } else if (!ra.inputDriven) {
+            ra.x = x;
+            ra.y = y;
+        }
+        ra.hp = hp;
+        ra.def = def;
+        ra.syncStamp = remoteSyncStamp;
+        return ra;
+    }
+
+    /**
+     * 权威端：为已知远程玩家排队一条输入命令，此后其位置改由权威端模拟
+     * 只接受紧接已入队序号的下一条：更小的视为冗余重发而忽略，更大的（前面有缺口）与队列已满时均不入队，
+     * 已入队序号不前进，客户端从回执的已入队序号之后继续重发
+     * @return 是否入队
+     */
+    public boolean queueRemoteInput(int guid, int seq, int dx, int dy, boolean magic) {
+        return queueRemoteInput(guid, seq, dx, dy, magic, 0);
+    }
+
+    /** @param viewTick 客户端产生该输入时所见敌人状态的房主 tick（延迟补偿回溯点，0 表示不回溯） */
+    public boolean queueRemoteInput(int guid, int seq, int dx, int dy, boolean magic, long viewTick) {
+        if (role == Role.REPLICA) return false;
+        RemoteActor ra = remoteActors.get(guid);
+        if (ra == null || seq != ra.lastQueuedSeq + 1) return false;
+        if (ra.pendingInputs.size() >= REMOTE_INPUT_CAPACITY) return false;
+        ra.inputDriven = true;
+        ra.lastQueuedSeq = seq;
+        PlayerInput cmd = remoteInputScratch.set(dx, dy, magic, false);
+        cmd.seq = seq;
+        cmd.viewTick = viewTick;
+        ra.pendingInputs.add(cmd);
+        return true;
+    }
+
+    /**
+     * 权威端：客户端的输入包从 firstSeq 开始（其重发窗口的起点），之前尚未入队的命令客户端已不再持有
+     * （超出其历史容量，或属于宽限期过后作废的旧会话），跳过这段缺口，否则之后的命令永远无法入队
+     * @return 跳过的命令数
+     */
+    public int skipRemoteInputsBefore(int guid, int firstSeq) {
+        if (role == Role.REPLICA) return 0;
+        RemoteActor ra = remoteActors.get(guid);
+        if (ra == null || firstSeq <= ra.lastQueuedSeq + 1) return 0;
+        int skipped = firstSeq - 1 - ra.lastQueuedSeq;
+        ra.lastQueuedSeq = firstSeq - 1;
+        skippedRemoteInputs += skipped;
+        return skipped;
+    }
+
+    /**
+     * 权威端：更新远程玩家上报的攻击力与冷却（由其属性决定）
+     * 超出该玩家按权威端记录的经验可达范围的值被钳制（攻击力不超过等级上限，冷却不低于属性上限对应的下限）
+     */
+    public void setRemoteCombatStats(int guid, float atk, float moveCooldown, float attackCooldown) {
+        RemoteActor ra = remoteActors.get(guid);
+        if (ra == null) return;
+        ra.atk = clampRemoteAtk(ra, atk);
+        boolean clamped = ra.atk != atk;
+        if (moveCooldown < minRemoteCooldown || attackCooldown < minRemoteCooldown) clamped = true;
+        ra.moveCooldown = Math.max(minRemoteCooldown, moveCooldown);
+        ra.attackCooldown = Math.max(minRemoteCooldown, attackCooldown);
+        if (clamped) clampedRemoteStats++;
+    }
+
+    /** 上报攻击力钳制到该玩家在权威端记录的经验所对应等级的上限（死亡降级只会更低，上限仍成立） */
+    private float clampRemoteAtk(RemoteActor ra, float atk) {
+        int level = GrowthCalculator.levelFromXp(remoteXp.getOrDefault(ra.guid, 0L));
+        if (level != ra.atkCapLevel) {
+            ra.atkCapLevel = level;
+            ra.atkCap = EnemyDefs.maxPlayerAtk(level);
+        }
+        return Math.max(0, Math.min(atk, ra.atkCap));
+    }
+
+    /**
+     * 权威端：远程玩家断线重连后换了 guid（会话恢复），把其远程角色、累计经验与敌人的追踪目标转到新 guid
+     * 新 guid 已有远程角色时以原角色为准（位置、输入序号延续断线前的权威记录）
+     * @return 原 guid 是否有远程角色
+     */
+    public boolean rebindRemoteActor(int oldGuid, int newGuid) {
+        if (oldGuid == newGuid) return false;
+        Long xp = remoteXp.remove(oldGuid);
+        if (xp != null) remoteXp.merge(newGuid, xp, Long::sum);
+        for (int i = 0; i < enemies.size(); i++) {
+            GameEntity e = enemies.get(i);
+            if (e.aggroGuid == oldGuid) e.aggroGuid = newGuid;
+        }
+        RemoteActor ra = remoteActors.remove(oldGuid);
+        if (ra == null) return false;
+        remoteActors.put(newGuid, new RemoteActor(newGuid, ra));
+        return true;
+    }
+
+    /** 按 guid 查找远程玩家（不存在返回 null） */
+    public RemoteActor getRemoteActor(int guid) {
+        return remoteActors.get(guid);
+    }
+
+    // ============ 客户端预测 ============
+
+    /**
+     * 客户端：以房主回执的权威状态为起点，重放尚未确认的输入
+     * 重放只推进移动/冷却规则，不产生事件
+     * @param ackSeq 房主已处理的最后一条输入序号
+     * @return 重放后的格子位置是否与原预测不同（发生校正）
+     */
+    public boolean reconcile(int ackSeq, int x, int y, float moveTimer, int faceDx, int faceDy) {
+        if (role != Role.REPLICA || player == null) return false;
+        inputHistory.dropThrough(ackSeq);
+        if (!player.alive) return false;
+
+        int predictedX = player.x, predictedY = player.y;
+        player.x = x;
+        player.y = y;
+        player.moveTimer = moveTimer;
+        player.faceDx = faceDx;
+        player.faceDy = faceDy;
+
+        replaying = true;
+        for (int i = 0; i < inputHistory.size(); i++) {
+            updatePlayer(TICK_DT, inputHistory.get(i));
+        }
+        replaying = false;
+        return player.x != predictedX || player.y != predictedY;
+    }
+
+    /** 客户端：尚未被房主确认的输入（按序号递增） */
+    public InputHistory getInputHistory() {
+        return inputHistory;
+    }
+
+    /** 结束同步：移除本轮未出现的远程玩家 */
+    public void endRemoteSync() {
+        Iterator<RemoteActor> it = remoteActors.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().syncStamp != remoteSyncStamp) it.remove();
+        }
+    }
+
+    // ============ 事件输出 ============
+
+    /**
+     * 按产生顺序取出并清空所有待处理事件
+     * @return 本次取出的事件数
+     */
+    public int drainEvents(Consumer<WorldEvent> sink) {
+        int n = 0;
+        WorldEvent e;
+        while ((e = events.poll()) != null) {
+            sink.accept(e);
+            n++;
+        }
+        return n;
+    }
+
+    // ============ 查询 ============
+
+    /** 通过 enemyId 查找敌人 */
+    public GameEntity findEnemyById(int enemyId) {
+        for (int i = 0; i < enemies.size(); i++) {
+            if (enemies.get(i).enemyId == enemyId) return enemies.get(i);
+        }
+        return null;
+    }
+
+    public Role getRole() { return role; }
+    public int[][] getMap() { return map; }
+    /** 本地玩家（无头服务器为 null） */
+    public GameEntity getPlayer() { return player; }
+    /** 敌人列表（客户端由网络层维护其内容） */
+    public List<GameEntity> getEnemies() { return enemies; }
+    public Collection<RemoteActor> getRemoteActors() { return remoteActors.values(); }
+    public long getMapSeed() { return mapSeed; }
+    public int getCurrentFloor() { return currentFloor; }
+    public int getKillCount() { return killCount; }
+    public float getGameTime() { return gameTime; }
+    public long getTickCount() { return tickCount; }
+    public DeathPenalty.DeathResult getDeathResult() { return deathResult; }
+    /** 权威端：敌人位置历史（延迟补偿） */
+    public EnemyHistory getEnemyHistory() { return enemyHistory; }
+    /** 权威端：按回溯位置命中、但按当前位置会落空的远程攻击次数 */
+    public int getRewoundHits() { return rewoundHits; }
+    /** 权威端：因坐标或方向不合法被拒绝的远程攻击请求数 */
+    public int getRejectedRemoteAttacks() { return rejectedRemoteAttacks; }
+    /** 权威端：攻击力/冷却被钳制的上报次数 */
+    public int getClampedRemoteStats() { return clampedRemoteStats; }
+    /** 权威端：客户端已不再持有、被跳过的远程输入命令数 */
+    public int getSkippedRemoteInputs() { return skippedRemoteInputs; }
+}
@@ -0,0 +1,123 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import java.util.function.Consumer;
+
+import com.goldsprite.magicdungeon2.core.growth.DeathPenalty;
+import com.goldsprite.magicdungeon2.core.growth.GrowthCalculator;
+import com.goldsprite.magicdungeon2.core.stats.StatType;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.GOLD_XP_RATIO;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.SPAWN_X;
+import static com.goldsprite.magicdungeon2.core.world.WorldConfig.SPAWN_Y;
+
+/**
+ * 成长系统辅助工具
+ * 处理击杀奖励（经验/金币/升级）、死亡惩罚、属性自动分配等逻辑
+ */
+public class GrowthHelper {
+
+    private final GameEntity player;
+    private final Consumer<WorldEvent> events;
+
+    public GrowthHelper(GameEntity player, Consumer<WorldEvent> events) {
+        this.player = player;
+        this.events = events;
+    }
+
+    // ============ 击杀奖励 ============
+
+    /**
+     * 击杀敌人时的奖励处理（经验、金币、升级）
+     * @param enemy  被击杀的敌人
+     * @param killCount  当前总击杀数（用于日志显示）
+     */
+    public void onEnemyKilled(GameEntity enemy, int killCount) {
+        player.totalXp += enemy.xpReward;
+        player.gold += (int) (enemy.xpReward * GOLD_XP_RATIO);
+
+        if (!checkLevelUp()) {
+            notifyLog(String.format("击败 %s！(+%dXP, 击杀:%d)",
+                enemy.texName, enemy.xpReward, killCount));
+        }
+    }
+
+    /**
+     * 网络击杀奖励处理（客户端收到房主广播的击杀确认后调用）
+     * @param xpReward 本次击杀获得的经验值
+     * @param killCount 当前击杀总数
+     */
+    public void onEnemyKilledByNetwork(int xpReward, int killCount) {
+        player.totalXp += xpReward;
+        player.gold += (int) (xpReward * GOLD_XP_RATIO);
+
+        if (!checkLevelUp()) {
+            notifyLog(String.format("击败敌人！(+%dXP, 击杀:%d)", xpReward, killCount));
+        }
+    }
+
+    /** 按累计经验检查升级，升级时回满并输出事件 */
+    private boolean checkLevelUp() {
+        int oldLevel = player.stats.getLevel();
+        int newLevel = GrowthCalculator.levelFromXp(player.totalXp);
+        if (newLevel <= oldLevel) return false;
+
+        player.stats.setLevel(newLevel);
+        autoAllocateFreePoints(player);
+        player.hp = player.getMaxHp(); // 升级回满
+        player.mp = player.getMaxMp();
+
+        events.accept(WorldEvent.levelUp(player, newLevel));
+        notifyLog(String.format("升级至 Lv.%d！属性全面提升！", newLevel));
+        return true;
+    }
+
+    // ============ 死亡惩罚 ============
+
+    /**
+     * 处理玩家死亡（计算惩罚并应用）
+     * @return 死亡惩罚结果，用于界面显示
+     */
+    public DeathPenalty.DeathResult handlePlayerDeath() {
+        player.alive = false;
+        DeathPenalty.DeathResult result = DeathPenalty.calcPenalty(player.totalXp, player.gold);
+        DeathPenalty.applyLevelLoss(player.stats, result.levelBefore, result.levelAfter);
+        player.totalXp = result.xpAfter;
+        player.gold = Math.max(0, player.gold - result.goldDropped);
+        notifyLog("你被击败了...按R重生");
+        return result;
+    }
+
+    // ============ 属性分配 ============
+
+    /** 自动均匀分配自由属性点到 HP/ATK/DEF */
+    public static void autoAllocateFreePoints(GameEntity e) {
+        StatType[] targets = {StatType.HP, StatType.ATK, StatType.DEF};
+        while (e.stats.getRemainingFreePoints() > 0) {
+            boolean allocated = false;
+            for (StatType type : targets) {
+                if (e.stats.getRemainingFreePoints() <= 0) break;
+                if (e.stats.addFreePoints(type, 1)) allocated = true;
+            }
+            if (!allocated) break; // 安全退出
+        }
+    }
+
+    // ============ 重生 ============
+
+    /**
+     * 重置玩家状态用于重生
+     * 注意：地图重建和敌人重生由 {@link GameWorld} 负责
+     */
+    public void resetPlayerForRespawn() {
+        player.placeAt(SPAWN_X, SPAWN_Y);
+        player.hp = player.getMaxHp();
+        player.mp = player.getMaxMp();
+        player.alive = true;
+        player.moveTimer = 0;
+        notifyLog("重生！继续冒险...");
+    }
+
+    /** 输出日志事件 */
+    private void notifyLog(String text) {
+        events.accept(WorldEvent.log(text));
+    }
+}
@@ -0,0 +1,49 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+/**
+ * 客户端预测输入历史（预分配环形缓冲，按序号递增）
+ * <p>
+ * 记录已在本地执行、尚未被房主确认的输入命令；
+ * 收到回执后丢弃已确认部分，其余在权威状态上重放。
+ * 权威端也用它存放远程玩家待模拟的输入命令（{@link RemoteActor}）。
+ */
+public class InputHistory {
+
+    private final PlayerInput[] ring;
+    private int head;
+    private int size;
+
+    public InputHistory(int capacity) {
+        ring = new PlayerInput[Math.max(1, capacity)];
+        for (int i = 0; i < ring.length; i++) ring[i] = new PlayerInput();
+    }
+
+    /** 追加一条输入的副本（已满时覆盖最旧的一条） */
+    public void add(PlayerInput input) {
+        int slot = (head + size) % ring.length;
+        if (size == ring.length) head = (head + 1) % ring.length;
+        else size++;
+        ring[slot].copyFrom(input);
+    }
+
+    /** 丢弃序号不大于 seq 的输入（已被房主处理） */
+    public void dropThrough(int seq) {
+        while (size > 0 && ring[head].seq <= seq) {
+            head = (head + 1) % ring.length;
+            size--;
+        }
+    }
+
+    /** 第 i 条未确认输入（0 为最旧），返回内部对象，调用方不得持有 */
+    public PlayerInput get(int i) {
+        return ring[(head + i) % ring.length];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        head = size = 0;
+    }
+}
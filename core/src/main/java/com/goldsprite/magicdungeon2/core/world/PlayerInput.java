@@ -0,0 +1,47 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+/**
+ * 本地玩家单 tick 输入（已离散化，与输入设备无关）
+ * 可复用同一实例，每 tick 由表现层填充后传入 {@link GameWorld#tick}
+ * 渲染帧率高于模拟频率时，按下瞬间类输入在帧间累积，直到被某个 tick 消费
+ */
+public class PlayerInput {
+    /** 移动/攻击方向（四向，-1/0/1，不允许同时非零） */
+    public int dx, dy;
+    /** 魔法攻击（按下瞬间） */
+    public boolean magic;
+    /** 死亡后请求重生（按下瞬间） */
+    public boolean respawn;
+    /** 输入命令序号（联机客户端由 GameWorld 自动编号，0 表示未编号） */
+    public int seq;
+    /** 权威端：客户端产生该输入时所见敌人状态的房主 tick（延迟补偿回溯点，0 表示不回溯） */
+    public long viewTick;
+
+    public PlayerInput set(int dx, int dy, boolean magic, boolean respawn) {
+        this.dx = dx;
+        this.dy = dy;
+        this.magic = magic;
+        this.respawn = respawn;
+        return this;
+    }
+
+    public void clear() {
+        dx = dy = 0;
+        magic = respawn = false;
+    }
+
+    public PlayerInput copyFrom(PlayerInput other) {
+        this.dx = other.dx;
+        this.dy = other.dy;
+        this.magic = other.magic;
+        this.respawn = other.respawn;
+        this.seq = other.seq;
+        this.viewTick = other.viewTick;
+        return this;
+    }
+
+    /** 清除"按下瞬间"类输入（被一个 tick 消费后调用，方向保持不变） */
+    public void clearTriggers() {
+        magic = respawn = false;
+    }
+}
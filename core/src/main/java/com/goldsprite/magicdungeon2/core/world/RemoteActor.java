@@ -0,0 +1,73 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+/**
+ * 权威端视角下的远程玩家（由网络层每 tick 同步）
+ * 世界只关心其格子位置、血量与防御，用于敌人寻敌/攻击判定和楼梯检测
+ * <p>
+ * 收到过输入命令的远程玩家转为输入驱动：位置由权威端按命令模拟，
+ * 不再采信客户端上报的坐标（首次出现时的上报坐标作为初始位置）。
+ */
+public class RemoteActor {
+    public final int guid;
+    public int x, y;
+    public float hp;
+    public float def;
+    /** 同步标记：网络层标记-清除用 */
+    int syncStamp;
+
+    // --- 输入驱动（客户端预测模式） ---
+    /** 是否由输入命令驱动位置 */
+    public boolean inputDriven;
+    public float moveTimer;
+    public int faceDx = 0, faceDy = 1;
+    /** 客户端上报的攻击力与冷却（由其属性计算；权威端按其记录的经验限制在该等级可达范围内） */
+    public float atk, moveCooldown = 0.2f, attackCooldown = 0.2f;
+    /** 已模拟的最后一条输入序号（回执给客户端，作为其重放起点） */
+    public int lastProcessedSeq;
+    /** 已入队的最后一条输入序号（回执给客户端，作为其重发窗口的起点） */
+    public int lastQueuedSeq;
+    /** 攻击力上限缓存（按权威端记录的等级） */
+    int atkCapLevel = -1;
+    float atkCap;
+    boolean ackPending;
+    /** 待模拟的输入命令（预分配环形缓冲，入队时复制，不随命令分配） */
+    final InputHistory pendingInputs = new InputHistory(WorldConfig.REMOTE_INPUT_CAPACITY);
+
+    public RemoteActor(int guid) {
+        this.guid = guid;
+    }
+
+    /** 断线重连换了 guid：复制全部状态（含待模拟的输入）到新 guid */
+    RemoteActor(int guid, RemoteActor from) {
+        this.guid = guid;
+        x = from.x;
+        y = from.y;
+        hp = from.hp;
+        def = from.def;
+        syncStamp = from.syncStamp;
+        inputDriven = from.inputDriven;
+        moveTimer = from.moveTimer;
+        faceDx = from.faceDx;
+        faceDy = from.faceDy;
+        atk = from.atk;
+        moveCooldown = from.moveCooldown;
+        attackCooldown = from.attackCooldown;
+        lastProcessedSeq = from.lastProcessedSeq;
+        lastQueuedSeq = from.lastQueuedSeq;
+        atkCapLevel = from.atkCapLevel;
+        atkCap = from.atkCap;
+        ackPending = from.ackPending;
+        for (int i = 0; i < from.pendingInputs.size(); i++) pendingInputs.add(from.pendingInputs.get(i));
+    }
+
+    public boolean isAlive() {
+        return hp > 0;
+    }
+
+    /** 上一 tick 是否处理了新输入（读取后清除），网络层据此发送回执 */
+    public boolean consumeAckPending() {
+        boolean pending = ackPending;
+        ackPending = false;
+        return pending;
+    }
+}
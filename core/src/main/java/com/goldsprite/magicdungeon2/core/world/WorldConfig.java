@@ -0,0 +1,82 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+/**
+ * 世界模拟常量（纯 Java，不依赖图形库）
+ * 表现层的 GameConfig 直接引用这里的数值，保证单机/联机/无头服务器规则一致
+ */
+public final class WorldConfig {
+
+    private WorldConfig() {}
+
+    // ============ 地图 ============
+    /** 地图宽度（格子数） */
+    public static final int MAP_W = 15;
+    /** 地图高度（格子数） */
+    public static final int MAP_H = 15;
+    /** 格子像素尺寸（视觉坐标单位） */
+    public static final int TILE = 32;
+    /** 玩家出生点 */
+    public static final int SPAWN_X = 4, SPAWN_Y = 4;
+
+    // ============ 图块类型 ============
+    public static final int T_FLOOR = 0;
+    public static final int T_WALL = 1;
+    public static final int T_STAIRS = 2;
+
+    // ============ 模拟时钟 ============
+    /** 固定模拟频率（Hz）：单机、联机、无头服务器统一按此步长推进世界 */
+    public static final int TICK_RATE = 30;
+    /** 固定模拟步长（秒） */
+    public static final float TICK_DT = 1f / TICK_RATE;
+    /** 单帧最多追赶的 tick 数（超出部分丢弃） */
+    public static final int MAX_TICKS_PER_FRAME = 5;
+
+    // ============ 客户端预测 ============
+    /** 未确认输入历史容量（tick 数，30Hz 下约 4 秒） */
+    public static final int INPUT_HISTORY_SIZE = 128;
+    /** 权威端远程玩家输入积压超过该数时，每 tick 多处理一条以追上 */
+    public static final int INPUT_BACKLOG_LIMIT = 3;
+    /**
+     * 权威端每个远程玩家的待模拟输入容量（预分配，30Hz 下约 1 秒）；也是客户端每个输入包的重发窗口，
+     * 满时被拒绝的命令仍在客户端窗口内（窗口从房主回执的已入队序号之后开始），随后续包补入
+     */
+    public static final int REMOTE_INPUT_CAPACITY = 32;
+
+    // ============ 延迟补偿 ============
+    /** 权威端保留的敌人位置历史（tick 数，30Hz 下约 0.5 秒） */
+    public static final int LAG_COMP_HISTORY_TICKS = 16;
+    /** 结算远程攻击时最多回溯的 tick 数（30Hz 下 300ms，覆盖 150ms 单程延迟 + 快照间隔） */
+    public static final int LAG_COMP_MAX_REWIND_TICKS = 9;
+    /** 旧式攻击请求上报坐标与权威坐标的最大允许偏差（曼哈顿距离，格） */
+    public static final int ATTACK_POSITION_TOLERANCE = 2;
+
+    // ============ 视觉插值 ============
+    /** 视觉插值速度（像素/秒） */
+    public static final float VISUAL_SPEED = 256f;
+    /** Bump 攻击动画衰减系数 */
+    public static final float BUMP_DECAY = 10f;
+    /** Bump 攻击偏移比例（格子尺寸的百分比） */
+    public static final float BUMP_OFFSET_RATIO = 0.3f;
+
+    // ============ 战斗 ============
+    /** 魔法攻击MP消耗 */
+    public static final int MAGIC_MP_COST = 10;
+    /** MP不足时的短冷却倍率（防止连按） */
+    public static final float MP_FAIL_CD_FACTOR = 0.3f;
+
+    // ============ 敌人AI ============
+    /** 随机游荡概率 */
+    public static final float WANDER_CHANCE = 0.3f;
+    /** 空闲时冷却缩短倍率 */
+    public static final float IDLE_CD_FACTOR = 0.5f;
+
+    // ============ 成长系统 ============
+    /** MP 自然回复速率（每秒恢复最大MP的百分比） */
+    public static final float MP_REGEN_RATE = 0.05f;
+    /** 击杀金币 = 经验奖励 × 此系数 */
+    public static final float GOLD_XP_RATIO = 0.5f;
+
+    // ============ 换层 ============
+    /** 换层后忽略远程玩家楼梯判定的时间（秒），等待客户端完成转场并上报新位置 */
+    public static final float FLOOR_CHANGE_GRACE = 2f;
+}
@@ -0,0 +1,134 @@
+package com.goldsprite.magicdungeon2.core.world;
+
+import com.goldsprite.magicdungeon2.core.combat.DamageType;
+
+/**
+ * 世界事件（模拟层 → 表现层/网络层的单向输出）
+ * <p>
+ * 模拟层不知道飘字、颜色、音效或网络包，只描述"发生了什么"；
+ * 屏幕据此生成飘字/日志，房主权威层据此广播结果。
+ */
+public class WorldEvent {
+    public enum Type {
+        /** 敌人受到伤害: entity=敌人, amount=伤害, damageType, pierced=穿透后续目标, guid=攻击者 */
+        ENEMY_DAMAGED,
+        /** 敌人被击杀: entity=敌人, guid=攻击者 */
+        ENEMY_KILLED,
+        /** 本地玩家受到伤害: entity=玩家, amount=伤害 */
+        PLAYER_DAMAGED,
+        /** 本地玩家死亡（死亡惩罚已结算，见 {@link GameWorld#getDeathResult()}） */
+        PLAYER_DIED,
+        /** 远程玩家被敌人攻击: guid=目标, amount=伤害, remainHp, entity=发动攻击的敌人 */
+        REMOTE_PLAYER_HURT,
+        /** 本地玩家升级: intValue=新等级 */
+        LEVEL_UP,
+        /** 魔法攻击 MP 不足 */
+        MP_INSUFFICIENT,
+        /** 非权威端（客户端）预测的攻击（房主按同一输入命令结算）: damageType, dx/dy=方向 */
+        ATTACK_REQUEST,
+        /** 权威端决定换层: seed=新层种子, intValue=新层数 */
+        FLOOR_CHANGE,
+        /** 日志文本: text */
+        LOG
+    }
+
+    /** 本地玩家（或无主）的攻击者标识 */
+    public static final int LOCAL = -1;
+
+    public final Type type;
+    public GameEntity entity;
+    public float amount;
+    public float remainHp;
+    public int guid = LOCAL;
+    public int intValue;
+    public int dx, dy;
+    public long seed;
+    public DamageType damageType;
+    public boolean pierced;
+    public String text;
+
+    private WorldEvent(Type type) {
+        this.type = type;
+    }
+
+    public static WorldEvent enemyDamaged(GameEntity enemy, float dmg, DamageType damageType,
+                                          boolean pierced, int attackerGuid) {
+        WorldEvent e = new WorldEvent(Type.ENEMY_DAMAGED);
+        e.entity = enemy;
+        e.amount = dmg;
+        e.remainHp = enemy.hp;
+        e.damageType = damageType;
+        e.pierced = pierced;
+        e.guid = attackerGuid;
+        return e;
+    }
+
+    public static WorldEvent enemyKilled(GameEntity enemy, int attackerGuid) {
+        WorldEvent e = new WorldEvent(Type.ENEMY_KILLED);
+        e.entity = enemy;
+        e.guid = attackerGuid;
+        return e;
+    }
+
+    public static WorldEvent playerDamaged(GameEntity player, float dmg) {
+        WorldEvent e = new WorldEvent(Type.PLAYER_DAMAGED);
+        e.entity = player;
+        e.amount = dmg;
+        e.remainHp = player.hp;
+        return e;
+    }
+
+    public static WorldEvent playerDied(GameEntity player) {
+        WorldEvent e = new WorldEvent(Type.PLAYER_DIED);
+        e.entity = player;
+        return e;
+    }
+
+    public static WorldEvent remotePlayerHurt(int targetGuid, float dmg, float remainHp, GameEntity attacker) {
+        WorldEvent e = new WorldEvent(Type.REMOTE_PLAYER_HURT);
+        e.guid = targetGuid;
+        e.amount = dmg;
+        e.remainHp = remainHp;
+        e.entity = attacker;
+        return e;
+    }
+
+    public static WorldEvent levelUp(GameEntity player, int level) {
+        WorldEvent e = new WorldEvent(Type.LEVEL_UP);
+        e.entity = player;
+        e.intValue = level;
+        return e;
+    }
+
+    public static WorldEvent mpInsufficient(GameEntity player) {
+        WorldEvent e = new WorldEvent(Type.MP_INSUFFICIENT);
+        e.entity = player;
+        return e;
+    }
+
+    public static WorldEvent attackRequest(DamageType damageType, int dx, int dy) {
+        WorldEvent e = new WorldEvent(Type.ATTACK_REQUEST);
+        e.damageType = damageType;
+        e.dx = dx;
+        e.dy = dy;
+        return e;
+    }
+
+    public static WorldEvent floorChange(long seed, int floor) {
+        WorldEvent e = new WorldEvent(Type.FLOOR_CHANGE);
+        e.seed = seed;
+        e.intValue = floor;
+        return e;
+    }
+
+    public static WorldEvent log(String text) {
+        WorldEvent e = new WorldEvent(Type.LOG);
+        e.text = text;
+        return e;
+    }
+
+    @Override
+    public String toString() {
+        return "WorldEvent{" + type + (text != null ? ", " + text : "") + "}";
+    }
+}
@@ -0,0 +1,51 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputAckBroadcastPacket;
+
+/**
+ * 客户端预测适配层（与 {@link LanHostAuthority} 对应）
+ * <p>
+ * 本地玩家照常在 REPLICA 世界中立即移动（预测），同时把编号输入发给房主；
+ * 收到房主回执后以权威状态为起点重放未确认输入，位置不一致时即被校正。
+ */
+public class LanClientPredictor {
+
+    private final LanMultiplayerService lanService;
+    private final GameWorld world;
+    private int correctionCount;
+
+    public LanClientPredictor(LanMultiplayerService lanService, GameWorld world) {
+        this.lanService = lanService;
+        this.world = world;
+    }
+
+    /** 每 tick 调用（world.tick 之后）：发送未确认输入 */
+    public void onTick() {
+        GameEntity player = world.getPlayer();
+        if (player == null) return;
+        lanService.sendInputCommands(world.getInputHistory(),
+            player.stats.getATK(), player.getMoveCooldown(), player.getAttackCooldown());
+    }
+
+    /** 每帧调用：应用最新回执并重放 */
+    public void update() {
+        LanPlayerInputAckBroadcastPacket ack = lanService.pollInputAck();
+        if (ack == null) return;
+        if (world.reconcile(ack.getAckSeq(), ack.getX(), ack.getY(), ack.getMoveTimer(),
+            ack.getFaceDx(), ack.getFaceDy())) {
+            correctionCount++;
+        }
+    }
+
+    /** 累计校正次数（预测与权威结果不一致） */
+    public int getCorrectionCount() {
+        return correctionCount;
+    }
+
+    /** 尚未被房主确认的输入条数（约等于以 tick 计的往返延迟） */
+    public int getUnackedInputCount() {
+        return world.getInputHistory().size();
+    }
+}
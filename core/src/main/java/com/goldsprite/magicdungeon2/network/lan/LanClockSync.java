@@ -0,0 +1,156 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+/**
+ * 客户端对房主时钟的 NTP 式估计（偏移 + 往返时延）
+ * <p>
+ * 客户端定期发 PING（带本地发送时刻 t0），房主立即回 PONG（带房主时刻 t1 与当前 tick 的开始时刻），
+ * 客户端收到时刻为 t2：往返 rtt = t2 - t0，偏移 = t1 - (t0 + rtt / 2)。
+ * <ul>
+ *   <li>过滤：保留最近 {@link #WINDOW} 个样本，取往返最小的样本的偏移（排队最少、最对称）；
+ *       往返超过窗口最小值 2 倍 + {@link #OUTLIER_SLACK_US} 的样本视为离群，不参与估计</li>
+ *   <li>平滑：估计值变化小于 {@link #SNAP_THRESHOLD_US} 时按比例逐步靠拢（时钟不跳变），否则直接跳变</li>
+ *   <li>tick：每个被采纳的样本更新"房主 tick ↔ 房主时刻"的锚点，由此推算任意本地时刻的房主 tick（含小数）</li>
+ * </ul>
+ * 前 {@link #FAST_SAMPLES} 个样本快速采集，之后按 {@link #PING_INTERVAL_US} 间隔跟踪时钟漂移。
+ * 所有时刻均为微秒，本地时刻来自单调时钟（与墙上时间无关，设备间不需要对时）。
+ * 线程约定：{@link #onPong} 在网络线程调用，查询在游戏线程调用；估计结果整体发布为不可变对象。
+ */
+public class LanClockSync {
+    public static final int WINDOW = 8;
+    public static final int FAST_SAMPLES = 5;
+    public static final long FAST_PING_INTERVAL_US = 100_000L;
+    public static final long PING_INTERVAL_US = 2_000_000L;
+    /** 离群判定在 2 倍最小往返之外额外容忍的抖动 */
+    public static final long OUTLIER_SLACK_US = 2_000L;
+    /** 估计值变化超过该值时直接跳变（重连、房主卡顿恢复） */
+    public static final long SNAP_THRESHOLD_US = 50_000L;
+    private static final double SLEW_RATE = 0.25;
+
+    private final double tickMicros;
+    private final long[] rtts = new long[WINDOW];
+    private final long[] offsets = new long[WINDOW];
+    private int count;
+    private int next;
+    private int samples;
+    private long rejected;
+    private long lastPingUs;
+    private boolean pinged;
+    private volatile Estimate estimate;
+
+    /** @param tickSeconds 房主模拟步长（秒） */
+    public LanClockSync(float tickSeconds) {
+        this.tickMicros = tickSeconds * 1_000_000.0;
+    }
+
+    /** 是否该发下一个 PING（发出后调用 {@link #onPingSent}） */
+    public synchronized boolean shouldPing(long localUs) {
+        if (!pinged) return true;
+        long interval = samples < FAST_SAMPLES ? FAST_PING_INTERVAL_US : PING_INTERVAL_US;
+        return localUs - lastPingUs >= interval;
+    }
+
+    public synchronized void onPingSent(long localUs) {
+        lastPingUs = localUs;
+        pinged = true;
+    }
+
+    /**
+     * 收到 PONG
+     * @param clientSendUs 回传的本地发送时刻 t0
+     * @param serverUs 房主回复时刻 t1
+     * @param serverTick 房主回复时的 tick
+     * @param tickStartUs 该 tick 开始的房主时刻
+     * @param localRecvUs 本地收到时刻 t2
+     * @return 是否被采纳（离群或非法样本返回 false）
+     */
+    public synchronized boolean onPong(long clientSendUs, long serverUs, long serverTick, long tickStartUs,
+                                       long localRecvUs) {
+        long rtt = localRecvUs - clientSendUs;
+        if (rtt < 0) {
+            rejected++;
+            return false;
+        }
+        long offset = serverUs - (clientSendUs + rtt / 2);
+        rtts[next] = rtt;
+        offsets[next] = offset;
+        next = (next + 1) % WINDOW;
+        if (count < WINDOW) count++;
+        samples++;
+
+        int best = 0;
+        for (int i = 1; i < count; i++) if (rtts[i] < rtts[best]) best = i;
+        if (rtt > rtts[best] * 2 + OUTLIER_SLACK_US) {
+            rejected++;
+            return false;
+        }
+
+        Estimate prev = estimate;
+        double target = offsets[best];
+        double applied = prev == null || Math.abs(target - prev.offsetUs) > SNAP_THRESHOLD_US
+            ? target
+            : prev.offsetUs + (target - prev.offsetUs) * SLEW_RATE;
+        estimate = new Estimate(applied, rtts[best], serverTick, tickStartUs);
+        return true;
+    }
+
+    public boolean isSynced() {
+        return estimate != null;
+    }
+
+    /** 本地时刻对应的房主时刻（微秒）；未同步时原样返回 */
+    public long toServerMicros(long localUs) {
+        Estimate e = estimate;
+        return e == null ? localUs : localUs + Math.round(e.offsetUs);
+    }
+
+    /** 本地时刻对应的房主 tick（含小数）；未同步时返回 NaN */
+    public double serverTickAt(long localUs) {
+        Estimate e = estimate;
+        if (e == null) return Double.NaN;
+        return e.anchorTick + (localUs + e.offsetUs - e.anchorTickStartUs) / tickMicros;
+    }
+
+    /** 房主时钟 - 本地时钟（毫秒）；未同步时为 0 */
+    public double getOffsetMs() {
+        Estimate e = estimate;
+        return e == null ? 0.0 : e.offsetUs / 1000.0;
+    }
+
+    /** 窗口内最小往返时延（毫秒）；未同步时为 -1 */
+    public float getRttMs() {
+        Estimate e = estimate;
+        return e == null ? -1f : e.rttUs / 1000f;
+    }
+
+    public synchronized int getSampleCount() {
+        return samples;
+    }
+
+    /** 被判为离群而丢弃的样本数 */
+    public synchronized long getRejectedCount() {
+        return rejected;
+    }
+
+    /** 断线 / 换房主后清空 */
+    public synchronized void reset() {
+        count = next = samples = 0;
+        rejected = 0L;
+        pinged = false;
+        estimate = null;
+    }
+
+    /** 一次估计结果（不可变，整体发布） */
+    private static final class Estimate {
+        final double offsetUs;
+        final long rttUs;
+        final long anchorTick;
+        final long anchorTickStartUs;
+
+        Estimate(double offsetUs, long rttUs, long anchorTick, long anchorTickStartUs) {
+            this.offsetUs = offsetUs;
+            this.rttUs = rttUs;
+            this.anchorTick = anchorTick;
+            this.anchorTickStartUs = anchorTickStartUs;
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.goldsprite.magicdungeon2.core.combat.DamageType;
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.RemoteActor;
+import com.goldsprite.magicdungeon2.core.world.WorldEvent;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanAttackRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanSessionResumeRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.replication.EnemyReplicator;
+import com.goldsprite.magicdungeon2.network.lan.replication.InterestManager;
+
+/**
+ * 房主权威网络适配层（联机房主 / 无头服务器共用）
+ * <p>
+ * 把网络输入（远程玩家状态、编号输入命令、攻击请求）喂给 {@link GameWorld}，
+ * 再把输入回执、世界事件（伤害结果、远程玩家受伤、换层）和敌人快照发出去。
+ * 远程玩家位置由房主按输入命令模拟，攻击一律从权威坐标结算，不采信客户端上报坐标；
+ * 敌人位置按客户端所见的房主 tick 回溯（延迟补偿）。规则与校验本身全部在 GameWorld 中，这里不做任何判定。
+ * 敌人与其他玩家按各客户端的关注区域（{@link InterestManager}）过滤后下发。
+ * 断线重连的玩家先把远程角色转到新 guid，再随本 tick 的敌人广播下发一次全量状态（会话恢复）。
+ */
+public class LanHostAuthority {
+
+    private final LanMultiplayerService lanService;
+    private final GameWorld world;
+    // 敌人快照复用：列表与快照对象只在游戏线程使用，broadcastEnemyStates 调用期间读取，不外泄
+    private final ArrayList<EnemyStateSnapshot> snapshots = new ArrayList<>();
+    private final ArrayList<EnemyStateSnapshot> snapshotPool = new ArrayList<>();
+    // 队列消费回调只创建一次，每 tick drain 不分配
+    private final Consumer<LanAttackRequestPacket> attackHandler = this::applyAttackRequest;
+    private final Consumer<LanPlayerInputRequestPacket> inputHandler = this::queueInputCommand;
+    private final Consumer<LanSessionResumeRequestPacket> resumeHandler = this::applyResume;
+    // 本 tick 重连、待下发全量状态的请求（游戏线程内使用）
+    private final ArrayList<LanSessionResumeRequestPacket> resyncs = new ArrayList<>();
+
+    public LanHostAuthority(LanMultiplayerService lanService, GameWorld world) {
+        this.lanService = lanService;
+        this.world = world;
+    }
+
+    /**
+     * 每 tick 调用（world.tick 之后、drain 世界事件之前）：
+     * 转移重连玩家 + 同步远程玩家 + 回执上一 tick 处理的输入 + 排队新输入 + 结算攻击请求
+     * + 更新关注区域 + 广播敌人状态（含重连玩家的全量状态）
+     */
+    public void update() {
+        lanService.drainResumeRequests(resumeHandler);
+        syncRemoteActors();
+        sendInputAcks();
+        queueInputCommands();
+
+        lanService.drainAttackRequests(attackHandler);
+
+        updateInterest();
+        broadcastEnemyStates();
+    }
+
+    /** 旧式攻击请求（不带输入命令的客户端）：上报坐标与攻击力由世界按权威记录校验 */
+    private void applyAttackRequest(LanAttackRequestPacket req) {
+        DamageType type = "magic".equals(req.getAttackType()) ? DamageType.MAGIC : DamageType.PHYSICAL;
+        world.applyRemoteAttackRequest(req.getOwnerGuid(), type, req.getX(), req.getY(),
+            req.getDx(), req.getDy(), req.getAtk(), req.getViewTick());
+    }
+
+    /** 重连玩家：远程角色与玩家记录转到新 guid（原槽位已过期时按新玩家处理），全量状态在本 tick 广播敌人时下发 */
+    private void applyResume(LanSessionResumeRequestPacket req) {
+        int previous = req.getPreviousGuid();
+        if (previous >= 0) {
+            world.rebindRemoteActor(previous, req.getOwnerGuid());
+            lanService.rebindResumedPlayer(previous, req.getOwnerGuid());
+        }
+        resyncs.add(req);
+    }
+
+    /** 转发需要通知客户端的世界事件 */
+    public void onWorldEvent(WorldEvent e) {
+        switch (e.type) {
+            case ENEMY_DAMAGED:
+                // 本地玩家（房主）造成的伤害不广播，客户端通过敌人快照看到结果
+                if (e.guid == WorldEvent.LOCAL) break;
+                lanService.broadcastDamageResult(e.entity.enemyId, e.amount, e.remainHp,
+                    e.remainHp <= 0, e.guid, e.entity.xpReward);
+                break;
+            case REMOTE_PLAYER_HURT:
+                lanService.broadcastPlayerHurt(e.guid, e.amount, e.remainHp, e.entity.enemyId);
+                break;
+            case FLOOR_CHANGE:
+                lanService.getInterest().clearEnemies();
+                lanService.broadcastFloorChange(e.seed, e.intValue);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /** 远程玩家表 → 世界中的 RemoteActor（标记-清除） */
+    private void syncRemoteActors() {
+        world.beginRemoteSync();
+        RemotePlayerView view = lanService.getRemotePlayerView();
+        for (int i = 0, n = view.size(); i < n; i++) {
+            LanRoomPlayer rp = view.get(i);
+            // 尚未上报过位置的玩家不参与判定
+            if (rp.getX() == 0 && rp.getY() == 0 && rp.getVx() == 0 && rp.getVy() == 0) continue;
+            world.updateRemoteActor(rp.getGuid(), (int) rp.getX(), (int) rp.getY(), rp.getHp(), rp.getDef());
+        }
+        world.endRemoteSync();
+    }
+
+    /** 输入命令包 → 世界的远程玩家输入队列（冗余重发的旧序号由世界去重） */
+    private void queueInputCommands() {
+        lanService.drainInputCommands(inputHandler);
+    }
+
+    private void queueInputCommand(LanPlayerInputRequestPacket pkt) {
+        int guid = pkt.getOwnerGuid();
+        byte[] codes = pkt.getInputs();
+        if (codes == null) return;
+        world.setRemoteCombatStats(guid, pkt.getAtk(), pkt.getMoveCooldown(), pkt.getAttackCooldown());
+        world.skipRemoteInputsBefore(guid, pkt.getFirstSeq());
+        for (int i = 0; i < codes.length; i++) {
+            byte c = codes[i];
+            world.queueRemoteInput(guid, pkt.getFirstSeq() + i,
+                LanPlayerInputRequestPacket.decodeDx(c), LanPlayerInputRequestPacket.decodeDy(c),
+                LanPlayerInputRequestPacket.decodeMagic(c), pkt.viewTickAt(i));
+        }
+    }
+
+    /** 对上一 tick 处理过输入的远程玩家发送回执 */
+    private void sendInputAcks() {
+        for (RemoteActor ra : world.getRemoteActors()) {
+            if (!ra.consumeAckPending()) continue;
+            lanService.sendInputAck(ra.guid, ra.lastProcessedSeq, ra.lastQueuedSeq,
+                ra.x, ra.y, ra.moveTimer, ra.faceDx, ra.faceDy);
+        }
+    }
+
+    /**
+     * 以各远程玩家的权威位置为关注点更新关注区域，玩家进出某客户端的关注区域时发送显隐消息
+     * （房主本地玩家也是其他客户端可见的玩家；房主自己的客户端不过滤）
+     */
+    private void updateInterest() {
+        InterestManager interest = lanService.getInterest();
+        interest.setMap(world.getMap());
+        for (RemoteActor ra : world.getRemoteActors()) interest.setFocus(ra.guid, ra.x, ra.y);
+        GameEntity local = lanService.isDedicated() ? null : world.getPlayer();
+        int localGuid = lanService.getLocalGuid();
+        for (RemoteActor viewer : world.getRemoteActors()) {
+            for (RemoteActor subject : world.getRemoteActors()) {
+                updatePlayerInterest(interest, viewer.guid, subject.guid, subject.x, subject.y);
+            }
+            if (local != null && localGuid >= 0) {
+                updatePlayerInterest(interest, viewer.guid, localGuid, local.x, local.y);
+            }
+        }
+    }
+
+    private void updatePlayerInterest(InterestManager interest, int viewer, int subject, int x, int y) {
+        int change = interest.updatePlayer(viewer, subject, x, y);
+        if (change != InterestManager.UNCHANGED) {
+            lanService.sendPlayerVisibility(viewer, subject, change == InterestManager.ENTER);
+        }
+    }
+
+    /** 广播敌人状态给客户端（快照对象按下标复用；各客户端以自己的权威位置为关注点，远处敌人降频） */
+    private void broadcastEnemyStates() {
+        EnemyReplicator replicator = lanService.getEnemyReplicator();
+        for (RemoteActor ra : world.getRemoteActors()) replicator.setFocus(ra.guid, ra.x, ra.y);
+
+        List<GameEntity> enemies = world.getEnemies();
+        long now = lanService.getTransport().currentTimeMillis();
+        snapshots.clear();
+        for (int i = 0; i < enemies.size(); i++) {
+            GameEntity e = enemies.get(i);
+            if (snapshotPool.size() <= i) snapshotPool.add(new EnemyStateSnapshot());
+            snapshots.add(snapshotPool.get(i).set(
+                e.enemyId, e.texName, e.x, e.y, e.visualX, e.visualY,
+                e.hp, e.getMaxHp(), e.alive, "idle", now).withAggro(e.aggroGuid));
+        }
+        for (int i = 0; i < resyncs.size(); i++) {
+            LanSessionResumeRequestPacket req = resyncs.get(i);
+            int guid = req.getOwnerGuid();
+            lanService.sendResync(guid, req.getPreviousGuid(), world.getMapSeed(), world.getCurrentFloor(),
+                world.getRemoteActor(guid), snapshots);
+        }
+        resyncs.clear();
+        lanService.broadcastEnemyStates(snapshots);
+    }
+}
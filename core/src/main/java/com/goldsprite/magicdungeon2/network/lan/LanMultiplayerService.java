@@ -1,41 +1,76 @@
 package com.goldsprite.magicdungeon2.network.lan;
 
-import java.net.InetAddress;
-import java.net.InetSocketAddress;
+import java.io.File;
+import java.io.IOException;
+import java.security.SecureRandom;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ThreadLocalRandom;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntToLongFunction;
+
+import com.goldsprite.magicdungeon2.core.world.InputHistory;
+import com.goldsprite.magicdungeon2.core.world.PlayerInput;
+import com.goldsprite.magicdungeon2.core.world.RemoteActor;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomAnnouncer;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomInfo;
 import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanAttackRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanClockPingRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanClockPongBroadcastPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanCommands;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyAckRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyDeltaBroadcastPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemySyncBroadcastPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanFloorChangeBroadcastPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanGameStartBroadcastPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanGameStartRequestPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerHurtBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputAckBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputRequestPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerStateSnapshot;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerSyncBroadcastPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerSyncRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerVisibilityBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanReliableAckRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanReliableBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanRoomJoinRequestPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanRoomPlayersRequestPacket;
 import com.goldsprite.magicdungeon2.network.lan.packet.LanRoomPlayersResponsePacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanSessionResumeRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanSessionResyncBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.record.LanSessionLog;
+import com.goldsprite.magicdungeon2.network.lan.record.LanSessionRecorder;
+import com.goldsprite.magicdungeon2.network.lan.reliable.ReliableReceiver;
+import com.goldsprite.magicdungeon2.network.lan.reliable.ReliableSender;
+import com.goldsprite.magicdungeon2.network.lan.replication.EnemyDeltaReceiver;
+import com.goldsprite.magicdungeon2.network.lan.replication.EnemyReplicator;
+import com.goldsprite.magicdungeon2.network.lan.replication.InterestManager;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanNetStats;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanClientTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanServerTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.QueuedLanServer;
+import com.goldsprite.magicdungeon2.network.lan.transport.QueuedLanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.UdpLanTransport;
 
 import com.goldsprite.gdengine.log.DLog;
 
 import goldsprite.myUdpNetty.codec.PacketCodeC;
 import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
-import goldsprite.myUdpNetty.codec.packets.BroadcastRequestPacket;
-import goldsprite.myUdpNetty.codec.packets.BroadcastResponsePacket;
-import goldsprite.myUdpNetty.codec.packets.LoginRequestPacket;
-import goldsprite.myUdpNetty.codec.packets.LoginResponsePacket;
-import goldsprite.myUdpNetty.handlers.PacketsHandler;
-import goldsprite.myUdpNetty.other.ClientInfoStatus;
-import goldsprite.myUdpNetty.starter.Client;
-import goldsprite.myUdpNetty.starter.Server;
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
 
 public class LanMultiplayerService {
     public enum Mode {
@@ -46,23 +81,55 @@ public class LanMultiplayerService {
 
     private volatile Mode mode = Mode.NONE;
     private volatile String localName = "";
+    private volatile String requestedRoom; // 客户端：登录后选择的房间（null = 默认房间）
     private volatile int localGuid = -1;
     private volatile boolean connected = false;
+    private volatile boolean dedicated = false; // 独立服务器模式（无本地 Client）
 
-    private volatile Server server;
-    private volatile Client client;
+    // 传输层：默认 UDP，测试可换成进程内回环（须在 startHost/join 之前设置）
+    private volatile LanTransport transport = new QueuedLanTransport(new UdpLanTransport()); // 广播只在游戏线程入队
+    private volatile LanServerTransport server;
+    private volatile LanClientTransport client;
 
     private final ConcurrentLinkedQueue<LanNetworkEvent> eventQueue = new ConcurrentLinkedQueue<>();
     private final ConcurrentHashMap<Integer, LanRoomPlayer> players = new ConcurrentHashMap<>();
+    // 远程玩家视图：成员或可见字段变化时递增 playersVersion，成员变化时另外递增 membersVersion；
+    // 记录原地更新，视图只在成员版本不一致时重建
+    private final AtomicLong playersVersion = new AtomicLong();
+    private final AtomicLong membersVersion = new AtomicLong();
+    private volatile RemotePlayerView playersView = RemotePlayerView.EMPTY;
     private final ConcurrentHashMap<Integer, LanPlayerStateSnapshot> playerStates = new ConcurrentHashMap<>();
     private volatile long lastSyncMillis = 0L;
-    private volatile long syncIntervalMs = 16L; // 默认 60Hz (1000ms / 16ms ≈ 62.5Hz)
-    // 敌人状态广播节流（房主用）
+    // 模拟 tick：本端发包时打戳；客户端记录收到的服务器最大 tick
+    private volatile long localTick = 0L;
+    private volatile long localTickStartMicros; // 当前 tick 开始的本地单调时刻（房主回 PONG 用）
+    private static final double TICK_MICROS = WorldConfig.TICK_DT * 1_000_000.0;
+    // 时钟同步：客户端对房主时钟的估计；插值延迟用于推算屏幕上所见状态的 tick
+    private final LanClockSync clockSync = new LanClockSync(WorldConfig.TICK_DT);
+    private volatile float interpolationDelay = SnapshotInterpolator.DEFAULT_DELAY;
+    private volatile long latestServerTick = -1L;
+    // 本地玩家状态同步：有变化时最快每 syncIntervalMs 一次（按到房主的链路自适应放大），无变化只发心跳
+    private volatile long syncIntervalMs = LanSyncRate.TICK_INTERVAL_MS;
+    private final LanSyncRate syncRate = new LanSyncRate();
+    private float lastSentX, lastSentY, lastSentVx, lastSentVy;
+    private float lastSentHp, lastSentMaxHp, lastSentAtk, lastSentDef;
+    private int lastSentLevel;
+    private String lastSentAction;
+    private boolean hasSentState;
+    /** 视觉坐标变化小于该值（像素）视为静止 */
+    private static final float VISUAL_EPSILON = 0.5f;
+    // 敌人状态广播节流（房主用）：全局最快每 enemyBroadcastIntervalMs 一次，各客户端再按链路自适应放大
     private volatile long lastEnemyBroadcastMillis = 0L;
-    private volatile long enemyBroadcastIntervalMs = 16L; // 敌人状态广播间隔（20Hz，不需要像玩家同步那么频繁）
+    private volatile long enemyBroadcastIntervalMs = LanSyncRate.TICK_INTERVAL_MS;
 
     // Phase 1: 共享地图种子
     private volatile long pendingMapSeed = 0L;
+    private volatile int pendingFloor = 1;
+
+    // 房间发现（房主端信标）
+    private volatile int hostPort = -1;
+    private volatile int hostedFloor = 0; // 0 = 尚未开始
+    private LanRoomAnnouncer announcer;
 
     // Phase 2: 攻击请求队列（服务器收到客户端攻击请求后放入，房主游戏循环处理）
     private final ConcurrentLinkedQueue<LanAttackRequestPacket> pendingAttackRequests = new ConcurrentLinkedQueue<>();
@@ -72,144 +139,340 @@ public class LanMultiplayerService {
     private final ConcurrentLinkedQueue<LanPlayerHurtBroadcastPacket> pendingPlayerHurts = new ConcurrentLinkedQueue<>();
     // Phase 2: 最新敌人状态缓存（客户端接收房主广播的敌人状态）
     private volatile List<EnemyStateSnapshot> latestEnemyStates = new ArrayList<>();
+    private volatile long latestEnemyStatesTick = 0L; // 最新敌人状态对应的房主 tick
+    // 客户端预测：房主收到的输入命令；客户端收到的最新输入回执（只保留序号最大的一条）
+    private final ConcurrentLinkedQueue<LanPlayerInputRequestPacket> pendingInputCommands = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<LanPlayerInputAckBroadcastPacket> latestInputAck = new AtomicReference<>();
+    private volatile int lastInputAckSeq = -1;
+    private volatile int lastInputQueuedSeq = -1; // 房主回执的已入队序号（重发窗口起点）
+    /** 每个输入包携带的输入条数上限：与房主端队列容量相同，房主停顿期间积压的命令也都在重发窗口内 */
+    private static final int MAX_REDUNDANT_INPUTS = WorldConfig.REMOTE_INPUT_CAPACITY;
+    private final byte[] inputCodes = new byte[MAX_REDUNDANT_INPUTS]; // 输入编码缓冲（游戏线程复用，包构造时即编码进报文体）
+
+    // 敌人增量同步：房主按客户端已确认基线发送字段级增量，客户端还原后写入 latestEnemyStates
+    private volatile boolean enemyDeltaEnabled = true;
+    // 敌人增量按客户端字节预算与优先级取舍（见 EnemyReplicator），关闭时每次携带全部变化
+    private volatile boolean enemyBudgetEnabled = true;
+    private static final int MIN_ENEMY_BYTE_BUDGET = 64;
+    private final EnemyReplicator enemyReplicator = new EnemyReplicator();
+    // 房主端关注区域：按距离与视线过滤每个客户端收到的敌人与其他玩家
+    private final InterestManager interest = new InterestManager();
+    // 客户端：房主通知已离开关注区域的玩家（之后迟到的状态同步忽略，直到再次进入）
+    private final Set<Integer> hiddenPlayers = ConcurrentHashMap.newKeySet();
+    private final EnemyDeltaReceiver enemyDeltaReceiver = new EnemyDeltaReceiver();
+
+    // 发送合并：房主端每个客户端每 tick 合并为一个数据报；客户端按类型把拆出的消息交给对应处理
+    private volatile boolean bundlingEnabled = true;
+    private final LanPacketBundler bundler = new LanPacketBundler();
+    private final Consumer<LanBroadcastPacket> rawSender = this::sendRaw;
+    private final Map<Class<?>, Consumer<LanBroadcastPacket>> broadcastConsumers = new ConcurrentHashMap<>();
+
+    // 网络统计：按包类型/对端计数，RTT 由敌人增量确认（房主端）与输入回执（客户端）估算
+    private final LanNetStats netStats = new LanNetStats();
+
+    // 会话录制：收发的每个包追加到内存映射日志（null = 未录制），跨 stop / 重新开房保留，直到 stopRecording
+    private volatile LanSessionRecorder recorder;
+
+    // 可靠有序通道：开始游戏、换层、伤害结果、玩家受伤按客户端编号，确认/重传/按序交付；状态同步仍走不可靠路径
+    private volatile boolean reliableEnabled = true;
+    private final ReliableSender reliableSender = new ReliableSender();
+    private final ReliableReceiver reliableReceiver = new ReliableReceiver();
+    private final Map<Class<?>, Consumer<LanBroadcastPacket>> reliableConsumers = new ConcurrentHashMap<>();
+    private final Consumer<LanReliableBroadcastPacket> reliableDeliver = this::deliverReliable;
+    private final IntToLongFunction reliableRto = guid -> ReliableSender.rtoFor(netStats.getPeer(guid));
+    private final Consumer<LanBroadcastPacket> reliableResender = packet -> {
+        LanServerTransport s = server;
+        if (s != null) sendToClient(s, packet);
+    };
+
+    // 会话恢复：房主按令牌保留断线玩家的槽位（宽限期内重连即接管）；客户端保留令牌，房主静默超时后自动重连
+    public static final long DEFAULT_HOST_TIMEOUT_MS = 3000L;
+    /** 重连后未收到全量状态时重发恢复请求的间隔（毫秒） */
+    private static final long RESUME_RETRY_MS = 500L;
+    private static final SecureRandom TOKEN_RANDOM = new SecureRandom();
+    private final LanSessionSlots sessions = new LanSessionSlots();
+    private final ConcurrentLinkedQueue<LanSessionResumeRequestPacket> pendingResumes = new ConcurrentLinkedQueue<>();
+    private final IntConsumer sessionExpiredHandler = this::onSessionExpired;
+    private volatile String joinHostIp;     // 客户端：加入时的房主地址（重连用）
+    private volatile int joinHostPort = -1;
+    private volatile long resumeToken;
+    private volatile int resumeGuid = -1;   // 客户端：重连中为断线前的 guid，收到全量状态后清除
+    private volatile boolean resuming;      // 客户端：重连的登录尚未完成
+    private volatile boolean awaitingResync; // 客户端：已登录、等待房主的全量状态
+    private volatile long resumeRequestMillis;
+    private volatile long resumeStartedMillis;
+    private volatile long lastHostPacketMillis;
+    private volatile long hostTimeoutMs = DEFAULT_HOST_TIMEOUT_MS;
 
     private static volatile boolean protocolRegistered = false;
     private static final String LAN_TAG = "LAN";
 
+    /** 替换传输层（如 {@link com.goldsprite.magicdungeon2.network.lan.transport.LoopbackLanTransport}）；会先停止当前会话 */
+    public synchronized void setTransport(LanTransport transport) {
+        stop();
+        this.transport = transport;
+    }
+
+    public LanTransport getTransport() {
+        return transport;
+    }
+
     public synchronized void startHost(String playerName, int serverPort) {
         stop();
         localName = playerName;
         ensureLanProtocolRegistered();
 
-        String localIp = resolveLocalIp();
-        server = new Server();
-        server.startAsync(new InetSocketAddress("0.0.0.0", serverPort), new InetSocketAddress(localIp, serverPort), false);
-        
-        if (!registerServerSubscribers()) {
-            stop();
-            return;
-        }
+        String localIp = transport.getLocalAddress();
+        if (!startServerInternal(serverPort)) return;
 
         startClientInternal(playerName, localIp, serverPort);
         mode = Mode.HOST;
+        hostPort = serverPort;
 
         eventQueue.offer(LanNetworkEvent.info("房主已启动: " + localIp + ":" + serverPort));
     }
 
+    /**
+     * 独立服务器模式：只启动 Server，不创建本地 Client 与本地玩家
+     * 房主权威逻辑由无头服务器的游戏循环驱动，所有 broadcast* 方法直接经由 server 发送
+     */
+    public synchronized void startDedicated(int serverPort) {
+        stop();
+        localName = "server";
+        ensureLanProtocolRegistered();
+
+        String localIp = transport.getLocalAddress();
+        if (!startServerInternal(serverPort)) return;
+
+        mode = Mode.HOST;
+        dedicated = true;
+        connected = true;
+        hostPort = serverPort;
+        eventQueue.offer(LanNetworkEvent.info("独立服务器已启动: " + localIp + ":" + serverPort));
+    }
+
     public synchronized void join(String playerName, String hostIp, int hostPort) {
+        join(playerName, hostIp, hostPort, null);
+    }
+
+    /**
+     * 加入同一端口上运行多个房间的服务器中的指定房间（见 {@link com.goldsprite.magicdungeon2.network.lan.transport.LanRoomRouter}）
+     * @param roomName 房间名；null 或不存在时进入默认房间
+     */
+    public synchronized void join(String playerName, String hostIp, int hostPort, String roomName) {
         stop();
         localName = playerName;
+        requestedRoom = roomName;
+        joinHostIp = hostIp;
+        joinHostPort = hostPort;
+        resumeToken = TOKEN_RANDOM.nextLong();
         ensureLanProtocolRegistered();
         startClientInternal(playerName, hostIp, hostPort);
         mode = Mode.CLIENT;
         eventQueue.offer(LanNetworkEvent.info("正在加入房间: " + hostIp + ":" + hostPort));
     }
 
+    private boolean startServerInternal(int serverPort) {
+        server = transport.startServer(serverPort);
+        if (server == null) {
+            eventQueue.offer(LanNetworkEvent.error("房主启动失败（端口占用或处理器初始化超时）: " + serverPort));
+            stop();
+            return false;
+        }
+        registerServerSubscribers(server);
+        return true;
+    }
+
     private void startClientInternal(String playerName, String hostIp, int hostPort) {
-        int localPort = randomUdpPort();
-        client = new Client();
-        client.start(new InetSocketAddress("0.0.0.0", localPort), new InetSocketAddress(hostIp, hostPort), false);
+        client = transport.connect(hostIp, hostPort);
 
         registerPacketSubscribers(client);
 
-        LoginRequestPacket login = new LoginRequestPacket(-1, playerName, "lan");
-        client.sendPacket(login, LoginResponsePacket.class, rep -> {
-            if (IStatus.isSuccessStatus(rep)) {
-                localGuid = rep.getOwnerGuid();
-                client.setOwnerGuid(localGuid);
-                connected = true;
-                eventQueue.offer(LanNetworkEvent.loginSuccess("登录成功: guid=" + localGuid));
-                requestRoomPlayers();
-            } else {
-                connected = false;
-                eventQueue.offer(LanNetworkEvent.loginFailed("登录失败: " + IStatus.getStatusMsg(rep)));
+        client.login(playerName, guid -> {
+            localGuid = guid;
+            LanSessionRecorder r = recorder;
+            if (r != null) r.recordLogin(LanSessionLog.ENDPOINT_CLIENT, localTick, nowMicros(), guid);
+            String room = requestedRoom;
+            LanClientTransport c = client;
+            if (room != null && c != null && mode == Mode.CLIENT) sendToServer(c, new LanRoomJoinRequestPacket(guid, room));
+            // 登记恢复令牌（重连时带上断线前的 guid，收到全量状态前定期重发），须在选择房间之后、其他请求之前
+            long now = transport.currentTimeMillis();
+            if (c != null && mode == Mode.CLIENT) {
+                sendToServer(c, new LanSessionResumeRequestPacket(guid, resumeToken, resumeGuid));
+                awaitingResync = resumeGuid >= 0;
+                resumeRequestMillis = now;
             }
+            resuming = false;
+            lastHostPacketMillis = now;
+            connected = true;
+            eventQueue.offer(LanNetworkEvent.loginSuccess("登录成功: guid=" + localGuid));
+            requestRoomPlayers();
+        }, reason -> {
+            connected = false;
+            eventQueue.offer(LanNetworkEvent.loginFailed("登录失败: " + reason));
         });
     }
 
-    private void registerPacketSubscribers(Client c) {
-        PacketsHandler handler = c.getPacketsHandler();
-        if (handler == null) return;
+    private void registerPacketSubscribers(LanClientTransport handler) {
 
-        handler.addSubscriber(LanPlayerSyncBroadcastPacket.class, packet -> {
+        subscribeBroadcast(handler, LanPlayerSyncBroadcastPacket.class, packet -> {
             LanPlayerStateSnapshot state = packet.getState();
             if (state == null) {
                 DLog.logT(LAN_TAG, "收到SyncBroadcast但state=null");
                 return;
             }
             if (state.getPlayerGuid() == localGuid) return;
+            if (hiddenPlayers.contains(state.getPlayerGuid())) return;
+            state.setTimestamp(transport.currentTimeMillis());
+            fillKnownName(state);
             DLog.infoT(LAN_TAG, "收到同步: guid=%d pos=(%.1f,%.1f) vis=(%.1f,%.1f) hp=%.0f lv=%d",
                 state.getPlayerGuid(), state.getX(), state.getY(),
                 state.getVx(), state.getVy(), state.getHp(), state.getLevel());
-            players.put(state.getPlayerGuid(), toLanRoomPlayer(state));
+            putPlayer(state);
         });
 
-        handler.addSubscriber(LanRoomPlayersResponsePacket.class, packet -> {
+        subscribeBroadcast(handler, LanRoomPlayersResponsePacket.class, packet -> {
             if (packet.getPlayers() == null) return;
             for (LanPlayerStateSnapshot state : packet.getPlayers()) {
                 if (state == null || state.getPlayerGuid() == localGuid) continue;
-                players.put(state.getPlayerGuid(), toLanRoomPlayer(state));
+                if (hiddenPlayers.contains(state.getPlayerGuid())) continue;
+                putPlayer(state);
             }
             eventQueue.offer(LanNetworkEvent.info("房间成员刷新: " + packet.getPlayers().size()));
         });
 
-        handler.addSubscriber(BroadcastResponsePacket.class, packet -> {
-            String msg = packet.getMessage();
-            eventQueue.offer(LanNetworkEvent.chat(msg));
+        handler.setChatListener(msg -> eventQueue.offer(LanNetworkEvent.chat(msg)));
+
+        // 关注区域：玩家进入（携带最新状态立即显示）/ 离开（移除并忽略迟到的同步）
+        subscribeBroadcast(handler, LanPlayerVisibilityBroadcastPacket.class, packet -> {
+            int guid = packet.getSubjectGuid();
+            if (guid == localGuid) return;
+            if (!packet.isVisible()) {
+                hiddenPlayers.add(guid);
+                if (players.remove(guid) != null) membersChanged();
+                return;
+            }
+            hiddenPlayers.remove(guid);
+            LanPlayerStateSnapshot state = packet.getState();
+            if (state != null) {
+                state.setTimestamp(transport.currentTimeMillis());
+                fillKnownName(state);
+                putPlayer(state);
+            }
         });
 
         // 专用包：服务器广播"开始游戏"信号（携带地图种子）
-        handler.addSubscriber(LanGameStartBroadcastPacket.class, packet -> {
+        subscribeBroadcast(handler, LanGameStartBroadcastPacket.class, packet -> {
             pendingMapSeed = packet.getMapSeed();
-            eventQueue.offer(LanNetworkEvent.gameStartWithSeed("房主已开始游戏！", packet.getMapSeed()));
+            pendingFloor = packet.getFloor();
+            eventQueue.offer(LanNetworkEvent.gameStartWithSeed("房主已开始游戏！", packet.getMapSeed(), packet.getFloor()));
         });
 
         // Phase 2: 敌人状态广播（客户端接收）
-        handler.addSubscriber(LanEnemySyncBroadcastPacket.class, packet -> {
+        subscribeBroadcast(handler, LanEnemySyncBroadcastPacket.class, packet -> {
             if (mode == Mode.HOST) return; // 房主自己是权威端，忽略
             if (packet.getEnemies() != null) {
                 latestEnemyStates = packet.getEnemies();
+                latestEnemyStatesTick = packet.getTick(); // 先写列表后写 tick，读端先读 tick
             }
         });
 
+        // 敌人增量同步（客户端接收，还原后回发确认）
+        subscribeBroadcast(handler, LanEnemyDeltaBroadcastPacket.class, packet -> {
+            if (mode == Mode.HOST) return;
+            netStats.onSequence(LanNetStats.HOST_PEER, packet.getSeq(), packet.getSeq());
+            List<EnemyStateSnapshot> states = enemyDeltaReceiver.apply(packet);
+            if (states != null) {
+                latestEnemyStates = states;
+                latestEnemyStatesTick = packet.getTick();
+            }
+            sendEnemyAck();
+        });
+
         // Phase 2: 伤害结果广播
-        handler.addSubscriber(LanDamageResultBroadcastPacket.class, packet -> {
+        subscribeBroadcast(handler, LanDamageResultBroadcastPacket.class, packet -> {
             pendingDamageResults.offer(packet);
         });
 
         // Phase 2: 玩家受伤广播
-        handler.addSubscriber(LanPlayerHurtBroadcastPacket.class, packet -> {
+        subscribeBroadcast(handler, LanPlayerHurtBroadcastPacket.class, packet -> {
             pendingPlayerHurts.offer(packet);
         });
 
+        // 客户端预测：输入回执（乱序到达的旧回执丢弃）
+        subscribeBroadcast(handler, LanPlayerInputAckBroadcastPacket.class, packet -> {
+            netStats.onProbeAcked(LanNetStats.HOST_PEER, packet.getAckSeq(), transport.nanoTime());
+            if (packet.getQueuedSeq() > lastInputQueuedSeq) lastInputQueuedSeq = packet.getQueuedSeq();
+            if (packet.getAckSeq() <= lastInputAckSeq) return;
+            lastInputAckSeq = packet.getAckSeq();
+            latestInputAck.set(packet);
+        });
+
         // Phase 5: 换层广播
-        handler.addSubscriber(LanFloorChangeBroadcastPacket.class, packet -> {
+        subscribeBroadcast(handler, LanFloorChangeBroadcastPacket.class, packet -> {
             if (mode == Mode.HOST) return; // 房主自己处理换层
             eventQueue.offer(LanNetworkEvent.floorChange(
                 "进入第" + packet.getFloor() + "层！",
                 packet.getNewSeed(), packet.getFloor()));
         });
-    }
 
-    private boolean registerServerSubscribers() {
-        if (server == null) return false;
-        PacketsHandler handler = null;
-        for (int i = 0; i < 30; i++) { // 最多等待 3 秒
-            handler = server.getPacketsHandler();
-            if (handler != null) break;
-            sleepSilently(100);
-        }
-        if (handler == null) {
-            eventQueue.offer(LanNetworkEvent.error("房主处理器初始化超时"));
-            return false;
-        }
+        // 时钟同步：PONG 交给估计器（网络线程，收到时刻立即取样）
+        subscribeBroadcast(handler, LanClockPongBroadcastPacket.class, packet -> {
+            if (mode == Mode.HOST) return;
+            clockSync.onPong(packet.getClientTime(), packet.getServerTime(), packet.getTick(),
+                packet.getTickStart(), nowMicros());
+        });
 
-        handler.addSubscriber(LanPlayerSyncRequestPacket.class, this::onPlayerSyncRequest);
-        handler.addSubscriber(LanRoomPlayersRequestPacket.class, this::onRoomPlayersRequest);
-        handler.addSubscriber(LanGameStartRequestPacket.class, this::onGameStartRequest);
+        // 会话恢复：敌人关键帧作为增量基线并回发确认，层与玩家状态交给游戏线程
+        subscribeBroadcast(handler, LanSessionResyncBroadcastPacket.class, packet -> {
+            if (mode == Mode.HOST || !awaitingResync) return; // 重发请求换来的重复全量状态
+            awaitingResync = false;
+            resumeGuid = -1;
+            LanEnemyDeltaBroadcastPacket keyframe = packet.getEnemyKeyframe();
+            if (keyframe != null) {
+                List<EnemyStateSnapshot> states = enemyDeltaReceiver.apply(keyframe);
+                if (states != null) {
+                    latestEnemyStates = states;
+                    latestEnemyStatesTick = packet.getTick();
+                }
+                sendEnemyAck();
+            }
+            pendingMapSeed = packet.getMapSeed();
+            pendingFloor = packet.getFloor();
+            eventQueue.offer(LanNetworkEvent.resync(packet.isResumed() ? "会话已恢复" : "已重新加入（原位置已失效）",
+                packet.getMapSeed(), packet.getFloor(), packet.getPlayerState()));
+        });
+
+        // 发送合并：按固定顺序拆包，逐条交给上面注册的处理
+        handler.subscribe(LanTickBundleBroadcastPacket.class, bundle -> {
+            lastHostPacketMillis = transport.currentTimeMillis();
+            netStats.recordReceived(bundle, LanNetStats.HOST_PEER);
+            recordInbound(LanSessionLog.ENDPOINT_CLIENT, LanNetStats.HOST_PEER, bundle);
+            bundle.forEachMessage(this::dispatchBroadcast);
+        });
+    }
+
+    private void registerServerSubscribers(LanServerTransport handler) {
+        subscribeRequest(handler, LanPlayerSyncRequestPacket.class, this::onPlayerSyncRequest);
+        subscribeRequest(handler, LanRoomPlayersRequestPacket.class, this::onRoomPlayersRequest);
+        subscribeRequest(handler, LanGameStartRequestPacket.class, this::onGameStartRequest);
+        subscribeRequest(handler, LanClockPingRequestPacket.class, this::onClockPing);
+        subscribeRequest(handler, LanSessionResumeRequestPacket.class, this::onSessionResumeRequest);
         // Phase 2: 服务器接收客户端攻击请求，放入队列交由房主游戏逻辑处理
-        handler.addSubscriber(LanAttackRequestPacket.class, this::onAttackRequest);
-        return true;
+        subscribeRequest(handler, LanAttackRequestPacket.class, this::onAttackRequest);
+        subscribeRequest(handler, LanPlayerInputRequestPacket.class, packet -> {
+            byte[] inputs = packet.getInputs();
+            if (inputs != null && inputs.length > 0) {
+                netStats.onSequence(packet.getOwnerGuid(), packet.getFirstSeq(), packet.getFirstSeq() + inputs.length - 1);
+            }
+            pendingInputCommands.offer(packet);
+        });
+        subscribeRequest(handler, LanEnemyAckRequestPacket.class, packet -> {
+            netStats.onProbeAcked(packet.getOwnerGuid(), packet.getAckSeq(), transport.nanoTime());
+            enemyReplicator.onAck(packet.getOwnerGuid(), packet.getEpoch(), packet.getAckSeq());
+        });
+        subscribeRequest(handler, LanReliableAckRequestPacket.class, packet ->
+            reliableSender.onAck(packet.getOwnerGuid(), packet.getAckSeq(), packet.getAckBits()));
     }
 
     /** 服务器收到房主的"开始游戏"请求，向所有客户端广播（含地图种子） */
@@ -217,15 +480,37 @@ public class LanMultiplayerService {
         if (server == null) return;
         long seed = packet.getMapSeed();
         try {
-            server.clients.forEach((targetGuid, ignored) -> {
+            server.forEachClient(targetGuid -> {
                 LanGameStartBroadcastPacket rep = new LanGameStartBroadcastPacket(targetGuid, IStatus.RETURN_SUCCESS, seed);
-                server.sendPacket(rep);
+                sendToClient(server, rep);
             });
         } catch (Exception e) {
             DLog.logT(LAN_TAG, "onGameStartRequest广播异常: %s", e.getMessage());
         }
     }
 
+    /** 房主收到时钟 PING：不经发送合并立即回 PONG（包头 tick 即当前 tick） */
+    private void onClockPing(LanClockPingRequestPacket packet) {
+        if (server == null) return;
+        long tickStart = localTickStartMicros;
+        sendRaw(new LanClockPongBroadcastPacket(packet.getOwnerGuid(), IStatus.RETURN_SUCCESS,
+            packet.getClientTime(), nowMicros(), tickStart));
+    }
+
+    /**
+     * 服务器收到令牌登记：首次加入只建立槽位；重连时由新 guid 接管原槽位，
+     * 校验后的请求（previousGuid 为接管的原 guid，槽位已过期为 -1）交给房主游戏线程转移玩家并下发全量状态
+     */
+    private void onSessionResumeRequest(LanSessionResumeRequestPacket packet) {
+        int guid = packet.getOwnerGuid();
+        int previous = sessions.bind(packet.getToken(), guid, packet.getPreviousGuid() >= 0);
+        if (packet.getPreviousGuid() < 0) return;
+        pendingResumes.offer(new LanSessionResumeRequestPacket(guid, packet.getToken(), previous));
+        eventQueue.offer(LanNetworkEvent.info(previous >= 0
+            ? "玩家重连: guid=" + previous + " → " + guid
+            : "玩家重连（槽位已过期）: guid=" + guid));
+    }
+
     /** 服务器收到客户端攻击请求，放入待处理队列（房主游戏线程消费） */
     private void onAttackRequest(LanAttackRequestPacket packet) {
         pendingAttackRequests.offer(packet);
@@ -234,33 +519,45 @@ public class LanMultiplayerService {
     private void onPlayerSyncRequest(LanPlayerSyncRequestPacket packet) {
         if (server == null) return;
         int ownerGuid = packet.getOwnerGuid();
-        ClientInfoStatus info = server.clients.get(ownerGuid);
-        if (info == null) {
+        if (sessions.isReplaced(ownerGuid)) return; // 已被重连替换的旧连接迟到的同步
+        String name = server.getClientName(ownerGuid);
+        if (name == null) {
             DLog.logT(LAN_TAG, "onPlayerSyncRequest: 找不到client info, guid=%d", ownerGuid);
             return;
         }
 
-        LanPlayerStateSnapshot state = new LanPlayerStateSnapshot(
-            ownerGuid,
-            info.name,
-            packet.getX(),
-            packet.getY(),
-            packet.getVx(),
-            packet.getVy(),
-            packet.getAction(),
-            packet.getTimestamp(),
-            packet.getHp(),
-            packet.getMaxHp(),
-            packet.getLevel(),
-            packet.getAtk(),
-            packet.getDef()
-        );
-        playerStates.put(ownerGuid, state);
+        // 每个玩家一份快照原地更新（只在网络线程写；成员列表应答时复制后再交给发送）
+        LanPlayerStateSnapshot state = playerStates.get(ownerGuid);
+        if (state == null) {
+            state = new LanPlayerStateSnapshot();
+            state.setPlayerGuid(ownerGuid);
+            playerStates.put(ownerGuid, state);
+        }
+        state.setPlayerName(name);
+        state.setX(packet.getX());
+        state.setY(packet.getY());
+        state.setVx(packet.getVx());
+        state.setVy(packet.getVy());
+        state.setAction(packet.getAction());
+        state.setTimestamp(transport.currentTimeMillis());
+        state.setHp(packet.getHp());
+        state.setMaxHp(packet.getMaxHp());
+        state.setLevel(packet.getLevel());
+        state.setAtk(packet.getAtk());
+        state.setDef(packet.getDef());
+        state.setTick(packet.getTick());
+        // 独立服务器没有本地 Client 订阅广播，直接在服务端维护远程玩家表
+        if (dedicated) {
+            putPlayer(state);
+        }
 
         try {
-            server.clients.forEach((targetGuid, ignored) -> {
-                LanPlayerSyncBroadcastPacket rep = new LanPlayerSyncBroadcastPacket(targetGuid, IStatus.RETURN_SUCCESS, state);
-                server.sendPacket(rep);
+            String body = LanPlayerSyncBroadcastPacket.encode(state); // 只编码一次，各客户端共享报文体
+            server.forEachClient(targetGuid -> {
+                // 不在该客户端关注区域内的玩家不转发（进入时由显隐消息补发最新状态）
+                if (interest.isPlayerHidden(targetGuid, ownerGuid)) return;
+                LanPlayerSyncBroadcastPacket rep = new LanPlayerSyncBroadcastPacket(targetGuid, IStatus.RETURN_SUCCESS, body);
+                sendToClient(server, rep);
             });
         } catch (Exception e) {
             DLog.logT(LAN_TAG, "onPlayerSyncRequest广播异常: %s", e.getMessage());
@@ -272,18 +569,21 @@ public class LanMultiplayerService {
         int responseOwner = packet.getOwnerGuid();
         List<LanPlayerStateSnapshot> snapshots = new ArrayList<>();
         try {
-            server.clients.forEach((guid, info) -> {
+            server.forEachClient(guid -> {
+                if (sessions.isReplaced(guid)) return;
+                String name = server.getClientName(guid);
+                if (name == null) return;
                 LanPlayerStateSnapshot state = playerStates.get(guid);
                 if (state == null) {
-                    state = new LanPlayerStateSnapshot(guid, info.name, 0f, 0f, 0f, 0f, "idle", System.currentTimeMillis());
+                    state = new LanPlayerStateSnapshot(guid, name, 0f, 0f, 0f, 0f, "idle", transport.currentTimeMillis());
                     playerStates.put(guid, state);
                 }
-                state.setPlayerName(info.name);
-                snapshots.add(state);
+                state.setPlayerName(name);
+                snapshots.add(copyOf(state)); // 原地更新的快照不交给异步发送
             });
 
             LanRoomPlayersResponsePacket rep = new LanRoomPlayersResponsePacket(responseOwner, IStatus.RETURN_SUCCESS, snapshots);
-            server.sendPacket(rep);
+            sendToClient(server, rep);
         } catch (Exception e) {
             DLog.logT(LAN_TAG, "onRoomPlayersRequest异常: %s", e.getMessage());
         }
@@ -296,18 +596,49 @@ public class LanMultiplayerService {
                 connected, client == null ? "null" : "ok", localGuid);
             return;
         }
-        long now = System.currentTimeMillis();
-        if (now - lastSyncMillis < syncIntervalMs) return;
+        maybeSendClockPing();
+        long now = transport.currentTimeMillis();
+        long since = now - lastSyncMillis;
+        boolean changed = !hasSentState || stateChanged(x, y, vx, vy, action, hp, maxHp, level, atk, def);
+        if (changed) {
+            long interval = syncRate.intervalFor(netStats.getPeer(LanNetStats.HOST_PEER), syncIntervalMs);
+            if (since < interval) return;
+        } else if (!syncRate.heartbeatDue(since)) {
+            return;
+        }
         lastSyncMillis = now;
+        lastSentX = x;
+        lastSentY = y;
+        lastSentVx = vx;
+        lastSentVy = vy;
+        lastSentAction = action;
+        lastSentHp = hp;
+        lastSentMaxHp = maxHp;
+        lastSentLevel = level;
+        lastSentAtk = atk;
+        lastSentDef = def;
+        hasSentState = true;
 
         DLog.infoT(LAN_TAG, "发送同步: pos=(%.1f,%.1f) vis=(%.1f,%.1f) hp=%.0f lv=%d",
             x, y, vx, vy, hp, level);
 
         LanPlayerSyncRequestPacket packet = new LanPlayerSyncRequestPacket(
-            localGuid, x, y, vx, vy, action, now, hp, maxHp, level, atk, def);
-        client.sendPacket(packet);
+            localGuid, x, y, vx, vy, action, hp, maxHp, level, atk, def);
+        // 已对时的客户端按房主 tick 打戳：各端的远程玩家插值与敌人插值使用同一时间轴
+        sendToServer(client, packet, isClockSynced() ? (long) Math.floor(getServerTick()) : localTick);
     }
 
+    /** 与上次发出的状态相比是否有需要同步的变化（视觉坐标允许亚像素误差） */
+    private boolean stateChanged(float x, float y, float vx, float vy, String action,
+                                 float hp, float maxHp, int level, float atk, float def) {
+        return x != lastSentX || y != lastSentY
+            || Math.abs(vx - lastSentVx) > VISUAL_EPSILON || Math.abs(vy - lastSentVy) > VISUAL_EPSILON
+            || hp != lastSentHp || maxHp != lastSentMaxHp || level != lastSentLevel
+            || atk != lastSentAtk || def != lastSentDef
+            || (action == null ? lastSentAction != null : !action.equals(lastSentAction));
+    }
+
+    /** 本地玩家状态有变化时的最短发送间隔（基础值，实际按链路放大） */
     public void setSyncIntervalMs(long ms) {
         this.syncIntervalMs = ms;
     }
@@ -316,6 +647,20 @@ public class LanMultiplayerService {
         return syncIntervalMs;
     }
 
+    /** 自适应同步频率参数（心跳、最大间隔、RTT 阈值、带宽预算） */
+    public LanSyncRate getSyncRate() {
+        return syncRate;
+    }
+
+    /** 敌人状态有变化时的最短广播间隔（基础值，各客户端按链路放大） */
+    public void setEnemyBroadcastIntervalMs(long ms) {
+        this.enemyBroadcastIntervalMs = ms;
+    }
+
+    public long getEnemyBroadcastIntervalMs() {
+        return enemyBroadcastIntervalMs;
+    }
+
     public void requestRoomPlayers() {
         if (!connected || client == null || localGuid < 0) return;
         requestRoomPlayersInternal();
@@ -323,29 +668,110 @@ public class LanMultiplayerService {
 
     private void requestRoomPlayersInternal() {
         LanRoomPlayersRequestPacket packet = new LanRoomPlayersRequestPacket(localGuid);
-        client.sendPacket(packet);
+        sendToServer(client, packet);
     }
 
     /** 房主调用：通知所有客户端"开始游戏"（通过专用包类型发送，携带地图种子） */
     public void broadcastGameStart(long mapSeed) {
+        if (mode == Mode.HOST) hostedFloor = 1;
+        pendingFloor = 1;
+        if (dedicated) {
+            this.pendingMapSeed = mapSeed;
+            if (server == null) return;
+            server.forEachClient(targetGuid -> sendGameStartTo(targetGuid, mapSeed));
+            return;
+        }
         if (!connected || client == null || localGuid < 0) return;
         this.pendingMapSeed = mapSeed;
-        client.sendPacket(new LanGameStartRequestPacket(localGuid, mapSeed));
+        sendToServer(client, new LanGameStartRequestPacket(localGuid, mapSeed));
+    }
+
+    /** 服务端直接向单个客户端发送"开始游戏"（从第 1 层开始） */
+    public void sendGameStartTo(int targetGuid, long mapSeed) {
+        sendGameStartTo(targetGuid, mapSeed, 1);
+    }
+
+    /** 服务端直接向单个客户端发送"开始游戏"（独立服务器给中途加入的玩家用，带当前层数） */
+    public void sendGameStartTo(int targetGuid, long mapSeed, int floor) {
+        LanServerTransport s = server;
+        if (s == null) return;
+        try {
+            sendToClient(s, new LanGameStartBroadcastPacket(targetGuid, IStatus.RETURN_SUCCESS, mapSeed, floor));
+        } catch (Exception e) {
+            DLog.logT(LAN_TAG, "sendGameStartTo异常: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * 服务端：收集当前已登录的客户端 guid（写入调用方提供的集合）
+     * 独立服务器据此检测新加入/离开的玩家
+     */
+    public void collectClientGuids(Collection<Integer> out) {
+        LanServerTransport s = server;
+        if (s == null) return;
+        s.forEachClient(out::add);
+    }
+
+    /**
+     * 服务端：移除已不在已登录客户端表中的玩家记录（独立服务器每 tick 调用）
+     * 断线后仍在会话恢复宽限期内的玩家保留，等待重连接管
+     */
+    public void pruneDisconnectedPlayers() {
+        LanServerTransport s = server;
+        if (s == null) return;
+        updateSessions(s);
+        if (players.keySet().removeIf(guid -> !s.hasClient(guid) && !sessions.isHeld(guid))) membersChanged();
+        playerStates.keySet().removeIf(guid -> !s.hasClient(guid) && !sessions.isHeld(guid));
     }
 
     public void sendChat(String msg) {
         if (!connected || client == null || localGuid < 0) return;
         String safeMsg = msg == null ? "" : msg.trim();
         if (safeMsg.isEmpty()) return;
-        client.sendPacket(new BroadcastRequestPacket(localGuid, safeMsg));
+        client.sendChat(localGuid, safeMsg);
     }
 
     public synchronized void stop() {
         connected = false;
+        dedicated = false;
         mode = Mode.NONE;
         localGuid = -1;
+        latestServerTick = -1L;
         players.clear();
+        membersChanged();
+        netStats.reset();
+        hasSentState = false;
+        lastSyncMillis = 0L; // 换传输层后时间基准可能不同
+        lastEnemyBroadcastMillis = 0L;
         playerStates.clear();
+        enemyReplicator.clear();
+        interest.clear();
+        hiddenPlayers.clear();
+        enemyDeltaReceiver.reset();
+        latestEnemyStates = new ArrayList<>();
+        latestEnemyStatesTick = 0L;
+        pendingInputCommands.clear();
+        latestInputAck.set(null);
+        lastInputAckSeq = -1;
+        lastInputQueuedSeq = -1;
+        bundler.clear();
+        reliableSender.clear();
+        reliableReceiver.reset();
+        clockSync.reset();
+        sessions.clear();
+        pendingResumes.clear();
+        joinHostIp = null;
+        joinHostPort = -1;
+        resumeGuid = -1;
+        resuming = false;
+        awaitingResync = false;
+        lastHostPacketMillis = 0L;
+        hostPort = -1;
+        hostedFloor = 0;
+        if (announcer != null) {
+            announcer.stop();
+            announcer = null;
+        }
 
         if (client != null) {
             client.stop();
@@ -359,37 +785,582 @@ public class LanMultiplayerService {
         eventQueue.offer(LanNetworkEvent.info("联机会话已停止"));
     }
 
+    // ============ 房间发现 ============
+
+    /**
+     * 房主：开始在局域网广播本房间信标（见 {@link LanRoomAnnouncer}），大厅的房间列表据此发现本房间
+     * 会话停止时信标随之停止；非房主或独立服务器（由服务器统一广播各房间）返回 false
+     */
+    public synchronized boolean startDiscoveryBeacon() {
+        if (mode != Mode.HOST || dedicated) return false;
+        if (announcer != null) return true;
+        LanRoomAnnouncer a = new LanRoomAnnouncer();
+        a.addRoom(this::describeRoom);
+        if (!a.start()) return false;
+        announcer = a;
+        return true;
+    }
+
+    /** 本房间的信标信息（房主昵称、端口、人数、层数）；未处于房主模式返回 null（信标暂停公布） */
+    public LanRoomInfo describeRoom() {
+        int port = hostPort;
+        if (mode != Mode.HOST || dedicated || !connected || port < 0) return null;
+        return new LanRoomInfo(localName, null, port, getRemotePlayerCount() + 1, hostedFloor);
+    }
+
+    // ============ 时钟同步 / 房主时间 ============
+
+    /** 客户端：按 {@link LanClockSync} 的节奏发时钟 PING（前几个样本快速采集，之后低频跟踪漂移） */
+    private void maybeSendClockPing() {
+        LanClientTransport cl = client;
+        if (mode != Mode.CLIENT || cl == null || localGuid < 0) return;
+        long now = nowMicros();
+        if (!clockSync.shouldPing(now)) return;
+        clockSync.onPingSent(now);
+        sendToServer(cl, new LanClockPingRequestPacket(localGuid, now));
+    }
+
+    private long nowMicros() {
+        return transport.nanoTime() / 1000L;
+    }
+
+    /** 是否已有房主时间（房主恒为 true；客户端收到首个有效 PONG 后为 true） */
+    public boolean isClockSynced() {
+        return mode == Mode.HOST || clockSync.isSynced();
+    }
+
+    /** 估计的房主单调时钟（微秒）；房主返回自身时钟，客户端未同步时返回本地时钟 */
+    public long getServerTimeMicros() {
+        long now = nowMicros();
+        return mode == Mode.HOST ? now : clockSync.toServerMicros(now);
+    }
+
+    /**
+     * 估计的房主当前 tick（含小数）
+     * 房主为本地 tick 加上本 tick 已过去的比例；客户端未同步时退回已收到的最大服务器 tick
+     */
+    public double getServerTick() {
+        long now = nowMicros();
+        if (mode == Mode.HOST) return localTick + Math.min(1.0, (now - localTickStartMicros) / TICK_MICROS);
+        double t = clockSync.serverTickAt(now);
+        return Double.isNaN(t) ? Math.max(0L, latestServerTick) : t;
+    }
+
+    /**
+     * 快照插值的回放时钟（房主 tick 时间轴上的秒）：估计的当前房主时间减去单程时延，即此刻应刚好到达的快照时间
+     * 与快照实际到达的抖动无关；未同步时返回 NaN（插值退回以最新快照为基准）
+     */
+    public double getSnapshotClock() {
+        if (!isClockSynced()) return Double.NaN;
+        float rttMs = mode == Mode.HOST ? 0f : clockSync.getRttMs();
+        return getServerTick() * WorldConfig.TICK_DT - rttMs / 2000.0;
+    }
+
+    /**
+     * 客户端屏幕上所见敌人状态对应的房主 tick（延迟补偿的回溯目标）
+     * 已对时：回放时钟减去插值延迟，且不超过已收到的最新敌人 tick；未对时退回最新敌人 tick；0 = 尚未收到
+     */
+    public long getViewTick() {
+        long latest = latestEnemyStatesTick;
+        if (latest <= 0) return latest;
+        double clock = getSnapshotClock();
+        if (Double.isNaN(clock)) return latest;
+        long view = (long) Math.floor((clock - interpolationDelay) / WorldConfig.TICK_DT);
+        return Math.max(1L, Math.min(latest, view));
+    }
+
+    /** 插值回放延迟（秒），应与各插值缓冲的设置一致 */
+    public void setInterpolationDelay(float seconds) {
+        this.interpolationDelay = Math.max(0f, seconds);
+    }
+
+    public float getInterpolationDelay() {
+        return interpolationDelay;
+    }
+
+    /** 客户端时钟估计器（偏移、往返时延、样本数） */
+    public LanClockSync getClockSync() {
+        return clockSync;
+    }
+
+    // ============ 会话录制 ============
+
+    /**
+     * 开始录制：之后收发的每个包连同本地 tick 与时刻追加到 path（覆盖已有文件），见 {@link LanSessionRecorder}
+     * 要完整回放应在开房 / 加入之前开始；录制跨 stop 与重新开房保留，直到 {@link #stopRecording()}
+     * @return 文件创建失败返回 false（并产生错误事件）
+     */
+    public boolean startRecording(File path) {
+        stopRecording();
+        try {
+            LanSessionRecorder r = new LanSessionRecorder(path);
+            r.recordSession(localTick, nowMicros(), mode.name(), localGuid, localName);
+            if (localGuid >= 0) r.recordLogin(LanSessionLog.ENDPOINT_CLIENT, localTick, nowMicros(), localGuid);
+            recorder = r;
+            eventQueue.offer(LanNetworkEvent.info("开始录制: " + path));
+            return true;
+        } catch (IOException e) {
+            eventQueue.offer(LanNetworkEvent.error("录制失败: " + e.getMessage()));
+            return false;
+        }
+    }
+
+    /** 停止录制并落盘（未录制时无操作） */
+    public void stopRecording() {
+        LanSessionRecorder r = recorder;
+        if (r == null) return;
+        recorder = null;
+        try {
+            r.close();
+            eventQueue.offer(LanNetworkEvent.info("录制结束: " + r.getEntryCount() + " 条, " + r.getBytesWritten() + " 字节"));
+        } catch (IOException e) {
+            eventQueue.offer(LanNetworkEvent.error("录制落盘失败: " + e.getMessage()));
+        }
+    }
+
+    /** 当前录制（未录制时为 null） */
+    public LanSessionRecorder getRecorder() {
+        return recorder;
+    }
+
+    private void recordInbound(int endpoint, int peer, Packet packet) {
+        LanSessionRecorder r = recorder;
+        if (r != null) r.recordInbound(endpoint, localTick, nowMicros(), peer, packet);
+    }
+
+    private void recordOutbound(int endpoint, int peer, Packet packet) {
+        LanSessionRecorder r = recorder;
+        if (r != null) r.recordOutbound(endpoint, localTick, nowMicros(), peer, packet);
+    }
+
+    // ============ 会话恢复 ============
+
+    /**
+     * 客户端：断线重连并恢复会话——以同一令牌重新登录，房主把原玩家转到传输层新分配的 guid，
+     * 并下发一个紧凑全量状态（{@link LanNetworkEvent.Type#RESYNC}），之后照常接收增量
+     * <p>
+     * 远程玩家表、敌人缓存、时钟同步与输入序号保留（画面不闪、预测不中断），只重置按连接计的协议状态。
+     * 登录未完成时可再次调用（重试）。
+     * @return 不是客户端会话或从未登录成功时返回 false（只能重新加入）
+     */
+    public synchronized boolean resume() {
+        if (mode != Mode.CLIENT || joinHostIp == null) return false;
+        int previous = localGuid >= 0 ? localGuid : resumeGuid;
+        if (previous < 0) return false;
+        resumeGuid = previous;
+        connected = false;
+        localGuid = -1;
+        resuming = true;
+        awaitingResync = false;
+        resumeStartedMillis = transport.currentTimeMillis();
+        if (client != null) {
+            client.stop();
+            client = null;
+        }
+        hasSentState = false;
+        lastSyncMillis = 0L;
+        hiddenPlayers.clear();
+        enemyDeltaReceiver.reset();
+        reliableReceiver.reset();
+        startClientInternal(localName, joinHostIp, joinHostPort);
+        eventQueue.offer(LanNetworkEvent.info("连接中断，正在恢复会话..."));
+        return true;
+    }
+
+    /**
+     * 客户端每帧调用：超过 {@link #getHostTimeoutMs()} 未收到房主任何包视为断线，自动 {@link #resume()}；
+     * 重连的登录超过同样时长仍未完成时再次尝试，登录后未收到全量状态时重发恢复请求。房主与独立服务器无操作
+     */
+    public void updateConnection() {
+        if (mode != Mode.CLIENT) return;
+        long now = transport.currentTimeMillis();
+        if (resuming) {
+            if (now - resumeStartedMillis >= hostTimeoutMs) resume();
+            return;
+        }
+        long last = lastHostPacketMillis;
+        if (connected && last > 0L && now - last >= hostTimeoutMs) {
+            resume();
+            return;
+        }
+        LanClientTransport c = client;
+        if (awaitingResync && connected && c != null && now - resumeRequestMillis >= RESUME_RETRY_MS) {
+            resumeRequestMillis = now;
+            sendToServer(c, new LanSessionResumeRequestPacket(localGuid, resumeToken, resumeGuid));
+        }
+    }
+
+    /** 客户端：是否正在重连（登录尚未完成） */
+    public boolean isResuming() {
+        return resuming;
+    }
+
+    /** 客户端判定房主断线的静默时长（毫秒）；须大于房主的最长发送间隔（敌人关键帧、时钟 PONG 约 2 秒） */
+    public void setHostTimeoutMs(long ms) {
+        this.hostTimeoutMs = Math.max(1L, ms);
+    }
+
+    public long getHostTimeoutMs() {
+        return hostTimeoutMs;
+    }
+
+    /** 房主端会话槽位（宽限期设置、接管与过期计数） */
+    public LanSessionSlots getSessions() {
+        return sessions;
+    }
+
+    /**
+     * 房主（游戏线程）：把重连玩家的记录从原 guid 转到新 guid（新 guid 已上报过状态时以新状态为准），
+     * 并通知其他客户端原 guid 已离开其关注区域（之后以新 guid 重新进入）
+     */
+    public void rebindResumedPlayer(int previousGuid, int guid) {
+        LanPlayerStateSnapshot state = playerStates.remove(previousGuid);
+        if (state != null) {
+            state.setPlayerGuid(guid);
+            playerStates.putIfAbsent(guid, state);
+        }
+        if (players.remove(previousGuid) != null) membersChanged();
+        // 房主世界按玩家表同步远程角色：新 guid 立即入表，转过去的远程角色不会在本 tick 被清除
+        LanPlayerStateSnapshot current = playerStates.get(guid);
+        if (current != null) putPlayer(current);
+        LanServerTransport s = server;
+        if (s == null) return;
+        s.forEachClient(viewer -> {
+            if (viewer == guid || viewer == localGuid || sessions.isReplaced(viewer)) return;
+            sendPlayerVisibility(viewer, previousGuid, false);
+        });
+    }
+
+    /**
+     * 房主（游戏线程）：向重连的客户端下发紧凑全量状态，走可靠有序通道
+     * 敌人部分为增量复制器给该客户端生成的关键帧（按关注区域过滤），客户端确认后即以它为增量基线；
+     * 关闭增量同步时不带敌人，由全量广播补上
+     * @param actor 该玩家在房主世界中的远程角色（血量与格子坐标以它为准，可为 null）
+     * @param enemies 房主当前的敌人快照（只在调用期间读取）
+     */
+    public void sendResync(int targetGuid, int previousGuid, long mapSeed, int floor,
+                           RemoteActor actor, List<EnemyStateSnapshot> enemies) {
+        LanServerTransport s = server;
+        if (s == null || !connected || !s.hasClient(targetGuid)) return;
+        try {
+            String player = null;
+            LanPlayerStateSnapshot state = playerStates.get(targetGuid);
+            if (state != null) {
+                LanPlayerStateSnapshot c = copyOf(state);
+                if (actor != null) {
+                    c.setX(actor.x);
+                    c.setY(actor.y);
+                    c.setHp(actor.hp);
+                }
+                player = LanPlayerSyncBroadcastPacket.encode(c);
+            }
+            String keyframe = null;
+            if (enemyDeltaEnabled && enemies != null) {
+                LanEnemyDeltaBroadcastPacket delta = enemyReplicator.buildFor(targetGuid,
+                    interest.filterEnemies(targetGuid, enemies), transport.currentTimeMillis());
+                if (delta != null) {
+                    netStats.onProbeSent(targetGuid, delta.getSeq(), transport.nanoTime());
+                    keyframe = delta.getBody();
+                }
+            }
+            sendToClient(s, new LanSessionResyncBroadcastPacket(targetGuid, IStatus.RETURN_SUCCESS,
+                previousGuid, mapSeed, floor, player, keyframe));
+        } catch (Exception e) {
+            DLog.logT(LAN_TAG, "sendResync异常: %s", e.getMessage());
+        }
+    }
+
+    /** 已断线的槽位进入宽限期，宽限期已过的作废 */
+    private void updateSessions(LanServerTransport s) {
+        sessions.update(s::hasClient, transport.currentTimeMillis(), sessionExpiredHandler);
+    }
+
+    /** 宽限期已过仍未重连：清理原 guid 的玩家记录（房主世界中的远程角色随玩家表移除） */
+    private void onSessionExpired(int guid) {
+        playerStates.remove(guid);
+        if (players.remove(guid) != null) membersChanged();
+        eventQueue.offer(LanNetworkEvent.info("玩家未在宽限期内重连: guid=" + guid));
+    }
+
+    /** 客户端：回发已应用的最新敌人快照序号 */
+    private void sendEnemyAck() {
+        LanClientTransport cl = client;
+        int acked = enemyDeltaReceiver.getLastAppliedSeq();
+        if (cl != null && localGuid >= 0 && acked >= 0) {
+            sendToServer(cl, new LanEnemyAckRequestPacket(localGuid, enemyDeltaReceiver.getEpoch(), acked));
+        }
+    }
+
+    // ============ 模拟 tick 打戳 ============
+
+    /** 游戏循环每个固定 tick 调用：此后本端发出的所有 LAN 包都携带该 tick 号 */
+    public void setLocalTick(long tick) {
+        if (tick != localTick) localTickStartMicros = nowMicros();
+        this.localTick = tick;
+    }
+
+    public long getLocalTick() {
+        return localTick;
+    }
+
+    /** 客户端：已收到的服务器最大 tick 号（尚未收到时为 -1） */
+    public long getLatestServerTick() {
+        return latestServerTick;
+    }
+
+    private void sendToServer(LanClientTransport c, LanRequestPacket packet) {
+        sendToServer(c, packet, localTick);
+    }
+
+    private void sendToServer(LanClientTransport c, LanRequestPacket packet, long tick) {
+        packet.setTick(tick);
+        netStats.recordSent(packet, LanNetStats.HOST_PEER);
+        recordOutbound(LanSessionLog.ENDPOINT_CLIENT, LanNetStats.HOST_PEER, packet);
+        c.send(packet);
+    }
+
+    /**
+     * 服务端发包：开启合并时先进入目标客户端的待发包，由 {@link #flushOutgoing()} 统一发出
+     * 可靠类型的包先在可靠通道登记序号（保存副本用于重传）
+     * 所有权：包交出后归传输层（异步编码发送），调用方不得再修改或复用；可复用的是包外的快照、增量等中间对象
+     */
+    private void sendToClient(LanServerTransport s, LanBroadcastPacket packet) {
+        if (reliableEnabled && packet instanceof LanReliableBroadcastPacket) {
+            LanReliableBroadcastPacket rp = (LanReliableBroadcastPacket) packet;
+            if (rp.getReliableSeq() == 0) { // 重传的副本已带序号
+                reliableSender.register(rp, transport.currentTimeMillis(), reliableRto.applyAsLong(rp.getOwnerGuid()));
+            }
+        }
+        if (bundlingEnabled) {
+            bundler.offer(packet, rawSender);
+            return;
+        }
+        packet.setTick(localTick);
+        netStats.recordSent(packet, packet.getOwnerGuid());
+        recordOutbound(LanSessionLog.ENDPOINT_SERVER, packet.getOwnerGuid(), packet);
+        s.send(packet);
+    }
+
+    /** 实际发出一个数据报（tick 按发出时刻打戳） */
+    private void sendRaw(LanBroadcastPacket packet) {
+        LanServerTransport s = server;
+        if (s == null) return;
+        packet.setTick(localTick);
+        netStats.recordSent(packet, packet.getOwnerGuid());
+        recordOutbound(LanSessionLog.ENDPOINT_SERVER, packet.getOwnerGuid(), packet);
+        s.send(packet);
+    }
+
+    /**
+     * 服务端每 tick 结束时调用（世界事件转发之后）：重传可靠通道中已超时的包，再把各客户端的待发消息合并发出
+     * 非服务端时无操作
+     */
+    public void flushOutgoing() {
+        LanServerTransport s = server;
+        if (s == null) return;
+        try {
+            updateSessions(s);
+            reliableSender.retainClients(s::hasClient);
+            reliableSender.resend(transport.currentTimeMillis(), reliableRto, reliableResender);
+            bundler.retainClients(s::hasClient);
+            bundler.flush(rawSender);
+            netStats.retainPeers(s::hasClient);
+        } catch (Exception e) {
+            DLog.logT(LAN_TAG, "flushOutgoing异常: %s", e.getMessage());
+        }
+    }
+
+    /** 是否把同一 tick 发往同一客户端的消息合并为一个数据报（关闭时立即逐条发送） */
+    public void setBundlingEnabled(boolean enabled) {
+        if (!enabled) flushOutgoing();
+        this.bundlingEnabled = enabled;
+    }
+
+    public boolean isBundlingEnabled() {
+        return bundlingEnabled;
+    }
+
+    /** 网络统计（按包类型/对端的收发、RTT、丢失与 drain 耗时） */
+    public LanNetStats getNetStats() {
+        return netStats;
+    }
+
+    /** 游戏线程每帧或每 tick 调用：刷新统计速率，按配置周期输出 JSON */
+    public void updateNetStats() {
+        netStats.update(transport.currentTimeMillis());
+    }
+
+    /** 开始游戏、换层、伤害结果、玩家受伤是否走可靠有序通道（关闭时与状态同步一样只发一次） */
+    public void setReliableEnabled(boolean enabled) {
+        this.reliableEnabled = enabled;
+        if (!enabled) reliableSender.clear();
+    }
+
+    public boolean isReliableEnabled() {
+        return reliableEnabled;
+    }
+
+    /** 房主端可靠通道（未确认数、重传计数） */
+    public ReliableSender getReliableSender() {
+        return reliableSender;
+    }
+
+    /** 客户端可靠通道（已交付、重复计数） */
+    public ReliableReceiver getReliableReceiver() {
+        return reliableReceiver;
+    }
+
+    /** 房主端发送合并器（数据报大小上限、发送计数） */
+    public LanPacketBundler getBundler() {
+        return bundler;
+    }
+
+    /** 服务端的每客户端发送队列（传输未包装 {@link QueuedLanTransport} 或未启动服务端时为 null） */
+    public QueuedLanServer getSendQueue() {
+        LanServerTransport s = server;
+        return s instanceof QueuedLanServer ? (QueuedLanServer) s : null;
+    }
+
+    /**
+     * 注册广播包订阅：先记录服务器 tick，再交给具体处理（同时登记给合并包拆包使用）
+     * 带序号的可靠包先经可靠通道去重、排序，按序交出时才交给具体处理
+     */
+    @SuppressWarnings("unchecked")
+    private <T extends LanBroadcastPacket> void subscribeBroadcast(LanClientTransport handler, Class<T> type, Consumer<T> consumer) {
+        reliableConsumers.put(type, packet -> consumer.accept((T) packet));
+        Consumer<LanBroadcastPacket> wrapped = packet -> {
+            long tick = packet.getTick();
+            if (tick > latestServerTick) latestServerTick = tick;
+            if (packet instanceof LanReliableBroadcastPacket && ((LanReliableBroadcastPacket) packet).getReliableSeq() > 0) {
+                onReliableReceived((LanReliableBroadcastPacket) packet);
+                return;
+            }
+            consumer.accept((T) packet);
+        };
+        broadcastConsumers.put(type, wrapped);
+        handler.subscribe(type, packet -> {
+            lastHostPacketMillis = transport.currentTimeMillis();
+            netStats.recordReceived(packet, LanNetStats.HOST_PEER);
+            recordInbound(LanSessionLog.ENDPOINT_CLIENT, LanNetStats.HOST_PEER, packet);
+            wrapped.accept(packet);
+        });
+    }
+
+    /** 注册服务端请求包订阅：先计入来源客户端的接收统计 */
+    private <T extends LanRequestPacket> void subscribeRequest(LanServerTransport handler, Class<T> type, Consumer<T> consumer) {
+        handler.subscribe(type, packet -> {
+            netStats.recordReceived(packet, packet.getOwnerGuid());
+            recordInbound(LanSessionLog.ENDPOINT_SERVER, packet.getOwnerGuid(), packet);
+            consumer.accept(packet);
+        });
+    }
+
+    /** 客户端收到可靠包：交给可靠通道按序交付，无论是否重复都回发确认 */
+    private void onReliableReceived(LanReliableBroadcastPacket packet) {
+        reliableReceiver.receive(packet, reliableDeliver);
+        LanClientTransport cl = client;
+        if (cl != null && localGuid >= 0) {
+            sendToServer(cl, new LanReliableAckRequestPacket(localGuid,
+                reliableReceiver.getAckSeq(), reliableReceiver.getAckBits()));
+        }
+    }
+
+    /** 可靠通道按序交出的包：按类型交给具体处理 */
+    private void deliverReliable(LanReliableBroadcastPacket packet) {
+        Consumer<LanBroadcastPacket> consumer = reliableConsumers.get(packet.getClass());
+        if (consumer != null) consumer.accept(packet);
+    }
+
+    /** 合并包拆出的单条消息：按类型找到对应处理 */
+    private void dispatchBroadcast(LanBroadcastPacket packet) {
+        Consumer<LanBroadcastPacket> consumer = broadcastConsumers.get(packet.getClass());
+        if (consumer != null) consumer.accept(packet);
+    }
+
     // ============ Phase 2+: 房主权威广播方法（直接通过 server 广播） ============
 
-    /** 房主广播所有敌人状态给全体客户端（带节流，避免每帧都广播） */
+    /**
+     * 房主广播所有敌人状态给全体客户端（带节流，避免每帧都广播）
+     * 增量模式下每个客户端只收到相对其已确认基线的字段变化，无变化时不发包
+     * <p>
+     * 所有权：states 只在调用期间读取，调用方可复用列表与快照对象；
+     * 全量模式需要把列表放进异步发送的包，内部会先复制一份。
+     */
     public void broadcastEnemyStates(List<EnemyStateSnapshot> states) {
         if (server == null || !connected) return;
-        long now = System.currentTimeMillis();
+        long now = transport.currentTimeMillis();
         if (now - lastEnemyBroadcastMillis < enemyBroadcastIntervalMs) return;
         lastEnemyBroadcastMillis = now;
         try {
-            server.clients.forEach((targetGuid, ignored) -> {
+            if (enemyDeltaEnabled) {
+                enemyReplicator.retainClients(server::hasClient);
+            }
+            interest.retainViewers(server::hasClient);
+            // 未启用关注区域时全量列表各客户端共享，只复制一份
+            List<EnemyStateSnapshot> sharedStates = enemyDeltaEnabled || interest.isEnabled() ? null : copyOf(states);
+            server.forEachClient(targetGuid -> {
                 // 不发给自己（房主已有本地数据）
                 if (targetGuid == localGuid) return;
+                // 只发该客户端关注区域内的敌人：新进入的作为新实体下发，离开的进入移除列表
+                List<EnemyStateSnapshot> visible = interest.filterEnemies(targetGuid, states);
+                if (enemyDeltaEnabled) {
+                    long interval = syncRate.intervalFor(netStats.getPeer(targetGuid), enemyBroadcastIntervalMs);
+                    int budget = enemyBudgetEnabled ? enemyByteBudget(interval) : 0;
+                    LanEnemyDeltaBroadcastPacket delta = enemyReplicator.buildFor(targetGuid, visible, now, interval, budget);
+                    if (delta == null) return;
+                    netStats.onProbeSent(targetGuid, delta.getSeq(), transport.nanoTime());
+                    sendToClient(server, delta);
+                    return;
+                }
                 LanEnemySyncBroadcastPacket rep = new LanEnemySyncBroadcastPacket(
-                    targetGuid, IStatus.RETURN_SUCCESS, states);
-                server.sendPacket(rep);
+                    targetGuid, IStatus.RETURN_SUCCESS, sharedStates != null ? sharedStates : copyOf(visible));
+                sendToClient(server, rep);
             });
         } catch (Exception e) {
             DLog.logT(LAN_TAG, "broadcastEnemyStates异常: %s", e.getMessage());
         }
     }
 
+    /**
+     * 房主通知客户端：某个玩家进入 / 离开其关注区域（游戏线程调用，走可靠有序通道）
+     * 进入时附带该玩家最新状态，客户端无需等待下一次状态同步即可显示
+     */
+    public void sendPlayerVisibility(int viewerGuid, int subjectGuid, boolean visible) {
+        LanServerTransport s = server;
+        if (s == null || !connected || !s.hasClient(viewerGuid)) return;
+        String body = null;
+        if (visible) {
+            // 快照由网络线程原地更新，此处读到的最多是相邻两次同步的混合，下一次同步即覆盖
+            LanPlayerStateSnapshot state = playerStates.get(subjectGuid);
+            if (state != null) body = LanPlayerSyncBroadcastPacket.encode(state);
+        }
+        try {
+            sendToClient(s, new LanPlayerVisibilityBroadcastPacket(viewerGuid, IStatus.RETURN_SUCCESS,
+                subjectGuid, visible, body));
+        } catch (Exception e) {
+            DLog.logT(LAN_TAG, "sendPlayerVisibility异常: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * 单个敌人增量包的字节预算：把每个对端的字节率预算折算到本次发送间隔
+     * （报文体 base64 后约为 4/3），不超过单个数据报上限
+     */
+    private int enemyByteBudget(long intervalMs) {
+        float bytes = syncRate.getBandwidthBudget() * intervalMs / 1000f * 0.75f;
+        return (int) Math.max(MIN_ENEMY_BYTE_BUDGET, Math.min(EnemyReplicator.DATAGRAM_BUDGET, bytes));
+    }
+
     /** 房主广播伤害判定结果给全体客户端 */
     public void broadcastDamageResult(int enemyId, float damage, float remainHp,
                                        boolean killed, int attackerGuid, int xpReward) {
         if (server == null || !connected) return;
         try {
-            server.clients.forEach((targetGuid, ignored) -> {
+            server.forEachClient(targetGuid -> {
                 LanDamageResultBroadcastPacket rep = new LanDamageResultBroadcastPacket(
                     targetGuid, IStatus.RETURN_SUCCESS,
                     enemyId, damage, remainHp, killed, attackerGuid, xpReward);
-                server.sendPacket(rep);
+                sendToClient(server, rep);
             });
         } catch (Exception e) {
             DLog.logT(LAN_TAG, "broadcastDamageResult异常: %s", e.getMessage());
@@ -400,11 +1371,11 @@ public class LanMultiplayerService {
     public void broadcastPlayerHurt(int targetGuid, float damage, float remainHp, int attackerEnemyId) {
         if (server == null || !connected) return;
         try {
-            server.clients.forEach((tGuid, ignored) -> {
+            server.forEachClient(tGuid -> {
                 LanPlayerHurtBroadcastPacket rep = new LanPlayerHurtBroadcastPacket(
                     tGuid, IStatus.RETURN_SUCCESS,
                     targetGuid, damage, remainHp, attackerEnemyId);
-                server.sendPacket(rep);
+                sendToClient(server, rep);
             });
         } catch (Exception e) {
             DLog.logT(LAN_TAG, "broadcastPlayerHurt异常: %s", e.getMessage());
@@ -414,22 +1385,82 @@ public class LanMultiplayerService {
     /** 房主广播换层信号给全体客户端 */
     public void broadcastFloorChange(long newSeed, int floor) {
         if (server == null || !connected) return;
+        hostedFloor = floor;
         try {
-            server.clients.forEach((targetGuid, ignored) -> {
+            server.forEachClient(targetGuid -> {
                 LanFloorChangeBroadcastPacket rep = new LanFloorChangeBroadcastPacket(
                     targetGuid, IStatus.RETURN_SUCCESS, newSeed, floor);
-                server.sendPacket(rep);
+                sendToClient(server, rep);
             });
         } catch (Exception e) {
             DLog.logT(LAN_TAG, "broadcastFloorChange异常: %s", e.getMessage());
         }
     }
 
-    /** 客户端发送攻击请求给服务器（由房主处理） */
+    /** 客户端发送攻击请求给服务器（由房主处理；附带所见敌人状态的房主 tick 供延迟补偿） */
     public void sendAttackRequest(String attackType, float x, float y, int dx, int dy, float atk) {
         if (!connected || client == null || localGuid < 0) return;
-        LanAttackRequestPacket packet = new LanAttackRequestPacket(localGuid, attackType, x, y, dx, dy, atk);
-        client.sendPacket(packet);
+        LanAttackRequestPacket packet = new LanAttackRequestPacket(localGuid, attackType, x, y, dx, dy, atk,
+            getViewTick());
+        sendToServer(client, packet);
+    }
+
+    // ============ 客户端预测：输入命令与回执 ============
+
+    /**
+     * 客户端每 tick 调用：从房主回执的已入队序号之后开始发送未确认输入（最多 {@value #MAX_REDUNDANT_INPUTS} 条）
+     * 房主只按序号连续入队，被拒绝的命令在回执推进前一直留在窗口内重发
+     */
+    public void sendInputCommands(InputHistory history, float atk, float moveCooldown, float attackCooldown) {
+        if (!connected || client == null || localGuid < 0 || history.size() == 0) return;
+        maybeSendClockPing();
+        int queued = lastInputQueuedSeq;
+        int start = 0;
+        while (start < history.size() && history.get(start).seq <= queued) start++;
+        int count = Math.min(history.size() - start, MAX_REDUNDANT_INPUTS);
+        if (count == 0) return;
+        byte[] codes = inputCodes;
+        for (int i = 0; i < count; i++) {
+            PlayerInput in = history.get(start + i);
+            codes[i] = LanPlayerInputRequestPacket.encode(in.dx, in.dy, in.magic);
+        }
+        sendToServer(client, new LanPlayerInputRequestPacket(localGuid, history.get(start).seq, codes, count,
+            atk, moveCooldown, attackCooldown, getViewTick()));
+        // 本包最后一条输入序号作为 RTT 探针：房主处理后回执（含房主端排队的 tick 延迟，估算偏大）
+        netStats.onProbeSent(LanNetStats.HOST_PEER, history.get(start + count - 1).seq, transport.nanoTime());
+    }
+
+    /** 房主：向单个客户端回执已处理的输入与权威移动状态 */
+    public void sendInputAck(int targetGuid, int ackSeq, int queuedSeq, int x, int y, float moveTimer,
+                             int faceDx, int faceDy) {
+        LanServerTransport s = server;
+        if (s == null || !connected) return;
+        try {
+            sendToClient(s, new LanPlayerInputAckBroadcastPacket(targetGuid, IStatus.RETURN_SUCCESS,
+                ackSeq, queuedSeq, x, y, moveTimer, faceDx, faceDy));
+        } catch (Exception e) {
+            DLog.logT(LAN_TAG, "sendInputAck异常: %s", e.getMessage());
+        }
+    }
+
+    /** 房主读取待处理的输入命令包 */
+    public List<LanPlayerInputRequestPacket> drainInputCommands() {
+        List<LanPlayerInputRequestPacket> list = new ArrayList<>();
+        drainInputCommands(list::add);
+        return list;
+    }
+
+    /** 房主逐条处理待处理的输入命令包（零分配：逐条交给 consumer，consumer 应为调用方复用的字段） */
+    public void drainInputCommands(Consumer<? super LanPlayerInputRequestPacket> consumer) {
+        long start = System.nanoTime();
+        LanPlayerInputRequestPacket pkt;
+        while ((pkt = pendingInputCommands.poll()) != null) consumer.accept(pkt);
+        netStats.recordDrain(LanNetStats.DRAIN_INPUTS, System.nanoTime() - start);
+    }
+
+    /** 客户端取出最新的输入回执（无新回执返回 null） */
+    public LanPlayerInputAckBroadcastPacket pollInputAck() {
+        return latestInputAck.getAndSet(null);
     }
 
     // ============ Phase 2+: 队列读取方法（游戏线程消费） ============
@@ -437,50 +1468,141 @@ public class LanMultiplayerService {
     /** 房主读取待处理的攻击请求 */
     public List<LanAttackRequestPacket> drainAttackRequests() {
         List<LanAttackRequestPacket> list = new ArrayList<>();
-        LanAttackRequestPacket req;
-        while ((req = pendingAttackRequests.poll()) != null) list.add(req);
+        drainAttackRequests(list::add);
         return list;
     }
 
+    /** 房主逐条处理待处理的攻击请求（零分配：逐条交给 consumer，consumer 应为调用方复用的字段） */
+    public void drainAttackRequests(Consumer<? super LanAttackRequestPacket> consumer) {
+        long start = System.nanoTime();
+        LanAttackRequestPacket req;
+        while ((req = pendingAttackRequests.poll()) != null) consumer.accept(req);
+        netStats.recordDrain(LanNetStats.DRAIN_ATTACKS, System.nanoTime() - start);
+    }
+
+    /**
+     * 房主逐条处理已校验的重连请求（previousGuid 为接管的原 guid，槽位已过期为 -1）
+     * 由 {@link LanHostAuthority} 转移世界中的远程角色并调用 {@link #rebindResumedPlayer} 与 {@link #sendResync}
+     */
+    public void drainResumeRequests(Consumer<? super LanSessionResumeRequestPacket> consumer) {
+        LanSessionResumeRequestPacket req;
+        while ((req = pendingResumes.poll()) != null) consumer.accept(req);
+    }
+
     /** 客户端读取待处理的伤害结果 */
     public List<LanDamageResultBroadcastPacket> drainDamageResults() {
         List<LanDamageResultBroadcastPacket> list = new ArrayList<>();
-        LanDamageResultBroadcastPacket pkt;
-        while ((pkt = pendingDamageResults.poll()) != null) list.add(pkt);
+        drainDamageResults(list::add);
         return list;
     }
 
+    /** 逐条处理待处理的伤害结果（零分配：逐条交给 consumer，consumer 应为调用方复用的字段） */
+    public void drainDamageResults(Consumer<? super LanDamageResultBroadcastPacket> consumer) {
+        long start = System.nanoTime();
+        LanDamageResultBroadcastPacket pkt;
+        while ((pkt = pendingDamageResults.poll()) != null) consumer.accept(pkt);
+        netStats.recordDrain(LanNetStats.DRAIN_DAMAGE_RESULTS, System.nanoTime() - start);
+    }
+
     /** 客户端读取待处理的玩家受伤通知 */
     public List<LanPlayerHurtBroadcastPacket> drainPlayerHurts() {
         List<LanPlayerHurtBroadcastPacket> list = new ArrayList<>();
-        LanPlayerHurtBroadcastPacket pkt;
-        while ((pkt = pendingPlayerHurts.poll()) != null) list.add(pkt);
+        drainPlayerHurts(list::add);
         return list;
     }
 
+    /** 逐条处理待处理的玩家受伤通知（零分配：逐条交给 consumer，consumer 应为调用方复用的字段） */
+    public void drainPlayerHurts(Consumer<? super LanPlayerHurtBroadcastPacket> consumer) {
+        long start = System.nanoTime();
+        LanPlayerHurtBroadcastPacket pkt;
+        while ((pkt = pendingPlayerHurts.poll()) != null) consumer.accept(pkt);
+        netStats.recordDrain(LanNetStats.DRAIN_PLAYER_HURTS, System.nanoTime() - start);
+    }
+
     /** 客户端获取最新的敌人状态快照列表 */
     public List<EnemyStateSnapshot> getLatestEnemyStates() {
         return latestEnemyStates;
     }
 
+    /** 最新敌人状态对应的房主 tick（快照插值的时间基准；应先于 {@link #getLatestEnemyStates()} 读取） */
+    public long getLatestEnemyStatesTick() {
+        return latestEnemyStatesTick;
+    }
+
+    /** 是否启用敌人增量同步（关闭时回退为每次全量广播） */
+    public void setEnemyDeltaEnabled(boolean enabled) {
+        this.enemyDeltaEnabled = enabled;
+        enemyReplicator.clear();
+    }
+
+    public boolean isEnemyDeltaEnabled() {
+        return enemyDeltaEnabled;
+    }
+
+    /** 是否按带宽预算与优先级取舍敌人增量（预算来自 {@link LanSyncRate#getBandwidthBudget()}） */
+    public void setEnemyBudgetEnabled(boolean enabled) {
+        this.enemyBudgetEnabled = enabled;
+    }
+
+    public boolean isEnemyBudgetEnabled() {
+        return enemyBudgetEnabled;
+    }
+
+    /** 房主端关注区域管理（视野半径、开关） */
+    public InterestManager getInterest() {
+        return interest;
+    }
+
+    /** 房主端增量复制器（可调整关键帧间隔） */
+    public EnemyReplicator getEnemyReplicator() {
+        return enemyReplicator;
+    }
+
     /** 获取待消费的地图种子（GAME_START 时设置） */
     public long getPendingMapSeed() {
         return pendingMapSeed;
     }
 
+    /** 获取待消费的层数（GAME_START 时设置，中途加入时可能大于 1） */
+    public int getPendingFloor() {
+        return pendingFloor;
+    }
+
     public List<LanNetworkEvent> drainEvents() {
         List<LanNetworkEvent> list = new ArrayList<>();
-        LanNetworkEvent event;
-        while ((event = eventQueue.poll()) != null) {
-            list.add(event);
-        }
+        drainEvents(list::add);
         return list;
     }
 
+    /** 逐条处理网络事件（零分配：逐条交给 consumer，consumer 应为调用方复用的字段） */
+    public void drainEvents(Consumer<? super LanNetworkEvent> consumer) {
+        long start = System.nanoTime();
+        LanNetworkEvent event;
+        while ((event = eventQueue.poll()) != null) consumer.accept(event);
+        netStats.recordDrain(LanNetStats.DRAIN_EVENTS, System.nanoTime() - start);
+    }
+
+    /** 远程玩家只读列表（按 guid 升序；即 {@link #getRemotePlayerView()} 的列表，未变化时不分配） */
     public List<LanRoomPlayer> getRemotePlayers() {
-        List<LanRoomPlayer> list = new ArrayList<>(players.values());
-        list.sort(Comparator.comparingInt(LanRoomPlayer::getGuid));
-        return list;
+        return getRemotePlayerView().getPlayers();
+    }
+
+    /**
+     * 远程玩家视图：成员未变化时返回同一实例（仅推进版本号），成员变化后首次读取时重建
+     * 先读版本号再拷贝，拷贝期间若有新变化，下次读取会再重建一次
+     */
+    public RemotePlayerView getRemotePlayerView() {
+        RemotePlayerView view = playersView;
+        long members = membersVersion.get();
+        long version = playersVersion.get();
+        if (view.getMembersVersion() == members) {
+            // 成员版本为 0 时从未有人入表，EMPTY 的版本同样为 0，不会走到推进
+            if (view.getVersion() != version) view.advanceVersion(version);
+            return view;
+        }
+        view = new RemotePlayerView(members, version, players.values().toArray(new LanRoomPlayer[0]));
+        playersView = view;
+        return view;
     }
 
     public int getRemotePlayerCount() {
@@ -495,6 +1617,11 @@ public class LanMultiplayerService {
         return mode;
     }
 
+    /** 是否为独立服务器模式（无本地玩家） */
+    public boolean isDedicated() {
+        return dedicated;
+    }
+
     public String getLocalName() {
         return localName;
     }
@@ -503,6 +1630,46 @@ public class LanMultiplayerService {
         return localGuid;
     }
 
+    private static List<EnemyStateSnapshot> copyOf(List<EnemyStateSnapshot> states) {
+        List<EnemyStateSnapshot> list = new ArrayList<>(states.size());
+        for (int i = 0; i < states.size(); i++) list.add(new EnemyStateSnapshot().copyFrom(states.get(i)));
+        return list;
+    }
+
+    private static LanPlayerStateSnapshot copyOf(LanPlayerStateSnapshot s) {
+        LanPlayerStateSnapshot c = new LanPlayerStateSnapshot(s.getPlayerGuid(), s.getPlayerName(),
+            s.getX(), s.getY(), s.getVx(), s.getVy(), s.getAction(), s.getTimestamp(),
+            s.getHp(), s.getMaxHp(), s.getLevel(), s.getAtk(), s.getDef());
+        c.setTick(s.getTick());
+        return c;
+    }
+
+    /** 写入远程玩家表：已有记录原地更新，仅可见字段变化时推进版本；新玩家入表时使视图失效 */
+    private void putPlayer(LanPlayerStateSnapshot state) {
+        LanRoomPlayer known = players.get(state.getPlayerGuid());
+        if (known == null) {
+            known = players.putIfAbsent(state.getPlayerGuid(), toLanRoomPlayer(state));
+            if (known == null) {
+                membersChanged();
+                return;
+            }
+        }
+        if (known.updateFrom(state)) playersVersion.incrementAndGet();
+    }
+
+    /** 玩家表成员变化：视图需重建 */
+    private void membersChanged() {
+        membersVersion.incrementAndGet();
+        playersVersion.incrementAndGet();
+    }
+
+    /** 高频同步不带名字：沿用房间成员列表下发的名字 */
+    private void fillKnownName(LanPlayerStateSnapshot state) {
+        if (state.getPlayerName() != null) return;
+        LanRoomPlayer known = players.get(state.getPlayerGuid());
+        state.setPlayerName(known != null ? known.getName() : "#" + state.getPlayerGuid());
+    }
+
     private LanRoomPlayer toLanRoomPlayer(LanPlayerStateSnapshot state) {
         return new LanRoomPlayer(
             state.getPlayerGuid(),
@@ -513,6 +1680,7 @@ public class LanMultiplayerService {
             state.getVy(),
             state.getAction(),
             state.getTimestamp(),
+            state.getTick(),
             state.getHp(),
             state.getMaxHp(),
             state.getLevel(),
@@ -521,7 +1689,8 @@ public class LanMultiplayerService {
         );
     }
 
-    private static synchronized void ensureLanProtocolRegistered() {
+    /** 注册 LAN 协议的全部包类型（幂等；启动服务/路由器时自动调用） */
+    public static synchronized void ensureLanProtocolRegistered() {
         if (protocolRegistered) return;
         PacketCodeC.INSTANCE.registerPacketType(LanCommands.PLAYER_SYNC_REQUEST, LanPlayerSyncRequestPacket.class);
         PacketCodeC.INSTANCE.registerPacketType(LanCommands.PLAYER_SYNC_BROADCAST, LanPlayerSyncBroadcastPacket.class);
@@ -535,26 +1704,26 @@ public class LanMultiplayerService {
         PacketCodeC.INSTANCE.registerPacketType(LanCommands.DAMAGE_RESULT_BROADCAST, LanDamageResultBroadcastPacket.class);
         PacketCodeC.INSTANCE.registerPacketType(LanCommands.PLAYER_HURT_BROADCAST, LanPlayerHurtBroadcastPacket.class);
         PacketCodeC.INSTANCE.registerPacketType(LanCommands.FLOOR_CHANGE_BROADCAST, LanFloorChangeBroadcastPacket.class);
+        // 敌人增量同步
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.ENEMY_DELTA_BROADCAST, LanEnemyDeltaBroadcastPacket.class);
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.ENEMY_ACK_REQUEST, LanEnemyAckRequestPacket.class);
+        // 客户端预测
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.PLAYER_INPUT_REQUEST, LanPlayerInputRequestPacket.class);
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.PLAYER_INPUT_ACK, LanPlayerInputAckBroadcastPacket.class);
+        // 发送合并
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.TICK_BUNDLE_BROADCAST, LanTickBundleBroadcastPacket.class);
+        // 可靠有序通道
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.RELIABLE_ACK_REQUEST, LanReliableAckRequestPacket.class);
+        // 多房间
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.ROOM_JOIN_REQUEST, LanRoomJoinRequestPacket.class);
+        // 关注区域
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.PLAYER_VISIBILITY_BROADCAST, LanPlayerVisibilityBroadcastPacket.class);
+        // 时钟同步
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.CLOCK_PING_REQUEST, LanClockPingRequestPacket.class);
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.CLOCK_PONG_BROADCAST, LanClockPongBroadcastPacket.class);
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.SESSION_RESUME_REQUEST, LanSessionResumeRequestPacket.class);
+        PacketCodeC.INSTANCE.registerPacketType(LanCommands.SESSION_RESYNC_BROADCAST, LanSessionResyncBroadcastPacket.class);
         protocolRegistered = true;
     }
 
-    private static String resolveLocalIp() {
-        try {
-            return InetAddress.getLocalHost().getHostAddress();
-        } catch (Exception e) {
-            return "127.0.0.1";
-        }
-    }
-
-    private static int randomUdpPort() {
-        return ThreadLocalRandom.current().nextInt(30000, 45000);
-    }
-
-    private static void sleepSilently(long millis) {
-        try {
-            Thread.sleep(millis);
-        } catch (InterruptedException ignored) {
-            Thread.currentThread().interrupt();
-        }
-    }
 }
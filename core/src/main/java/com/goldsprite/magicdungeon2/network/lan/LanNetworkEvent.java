@@ -1,5 +1,7 @@
 package com.goldsprite.magicdungeon2.network.lan;
 
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerStateSnapshot;
+
 public class LanNetworkEvent {
     public enum Type {
         INFO,
@@ -8,14 +10,16 @@ public class LanNetworkEvent {
         LOGIN_SUCCESS,
         LOGIN_FAILED,
         GAME_START,
-        FLOOR_CHANGE   // 换层信号（携带新种子和层数）
+        FLOOR_CHANGE,  // 换层信号（携带新种子和层数）
+        RESYNC         // 会话恢复后的全量状态（携带当前层种子、层数和房主记录的玩家状态）
     }
 
     private final Type type;
     private final String message;
     private final long timestamp;
-    private long mapSeed;   // GAME_START / FLOOR_CHANGE 时携带的种子
-    private int floor;      // FLOOR_CHANGE 时携带的层数
+    private long mapSeed;   // GAME_START / FLOOR_CHANGE / RESYNC 时携带的种子
+    private int floor;      // GAME_START / FLOOR_CHANGE / RESYNC 时携带的层数
+    private LanPlayerStateSnapshot playerState; // RESYNC 时房主记录的本地玩家状态（可为 null）
 
     private LanNetworkEvent(Type type, String message, long timestamp) {
         this.type = type;
@@ -49,8 +53,14 @@ public class LanNetworkEvent {
 
     /** 创建带有地图种子的开始游戏事件 */
     public static LanNetworkEvent gameStartWithSeed(String message, long mapSeed) {
+        return gameStartWithSeed(message, mapSeed, 1);
+    }
+
+    /** 创建带有地图种子与层数的开始游戏事件（中途加入时层数可能大于 1） */
+    public static LanNetworkEvent gameStartWithSeed(String message, long mapSeed, int floor) {
         LanNetworkEvent e = new LanNetworkEvent(Type.GAME_START, message, System.currentTimeMillis());
         e.mapSeed = mapSeed;
+        e.floor = floor;
         return e;
     }
 
@@ -62,6 +72,15 @@ public class LanNetworkEvent {
         return e;
     }
 
+    /** 创建会话恢复事件 */
+    public static LanNetworkEvent resync(String message, long mapSeed, int floor, LanPlayerStateSnapshot playerState) {
+        LanNetworkEvent e = new LanNetworkEvent(Type.RESYNC, message, System.currentTimeMillis());
+        e.mapSeed = mapSeed;
+        e.floor = floor;
+        e.playerState = playerState;
+        return e;
+    }
+
     public Type getType() {
         return type;
     }
@@ -76,4 +95,5 @@ public class LanNetworkEvent {
 
     public long getMapSeed() { return mapSeed; }
     public int getFloor() { return floor; }
+    public LanPlayerStateSnapshot getPlayerState() { return playerState; }
 }
@@ -0,0 +1,169 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+import com.goldsprite.magicdungeon2.network.lan.packet.CompactPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemySyncBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerHurtBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputAckBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * 房主端按客户端合并发送
+ * <p>
+ * 一个 tick 内发往同一客户端的可合并消息（玩家同步、敌人状态、输入回执、伤害、受伤）先放进该客户端的待发包，
+ * tick 结束时 {@link #flush} 统一发出，每个客户端通常只产生一个数据报。
+ * 待发包的估算大小超过单个数据报上限时先把已有内容发出，保证每个数据报不超过 MTU；
+ * 只有一条消息时直接发原包，不套合并包。
+ * 不可合并的消息（开始游戏、换层等）发送前先冲刷该客户端的待发包，保持与之前消息的先后顺序。
+ * <p>
+ * 线程约定：游戏线程与网络线程（转发玩家同步）都会调用，所有方法加锁。
+ */
+public class LanPacketBundler {
+    /** 默认单个数据报的负载上限（字节），低于以太网 MTU 减去 IP/UDP 头，避免分片 */
+    public static final int DEFAULT_MAX_DATAGRAM_BYTES = 1200;
+    /** 合并包自身的报文开销估算（命令字、guid、返回码、tick 等） */
+    public static final int BUNDLE_OVERHEAD_BYTES = 64;
+    /** 紧凑包外层字段（guid、返回码、tick、报文体字段名）的开销估算 */
+    private static final int COMPACT_OVERHEAD_BYTES = 60;
+
+    private final Map<Integer, Pending> pending = new HashMap<>();
+    private int maxDatagramBytes = DEFAULT_MAX_DATAGRAM_BYTES;
+
+    private long datagramsSent;
+    private long messagesSent;
+
+    /**
+     * 放入一条发往 packet.getOwnerGuid() 的消息
+     * @param sender 实际发送（待发包超限或遇到不可合并消息时会被立即调用）
+     */
+    public synchronized void offer(LanBroadcastPacket packet, Consumer<LanBroadcastPacket> sender) {
+        int target = packet.getOwnerGuid();
+        if (!LanTickBundleBroadcastPacket.isBundleable(packet)) {
+            Pending p = pending.get(target);
+            if (p != null) emit(p, sender);
+            send(packet, 1, sender);
+            return;
+        }
+        Pending p = pending.get(target);
+        if (p == null) {
+            p = new Pending(target);
+            pending.put(target, p);
+        }
+        int size = estimateBytes(packet);
+        if (p.count > 0 && p.bytes + size > maxDatagramBytes) emit(p, sender);
+        if (!p.add(packet)) {
+            emit(p, sender);
+            p.add(packet);
+        }
+        p.bytes += size;
+    }
+
+    /** tick 结束时调用：发出所有客户端的待发包 */
+    public synchronized void flush(Consumer<LanBroadcastPacket> sender) {
+        for (Pending p : pending.values()) emit(p, sender);
+    }
+
+    /** 丢弃已断线客户端的待发包 */
+    public synchronized void retainClients(IntPredicate alive) {
+        pending.keySet().removeIf(guid -> !alive.test(guid));
+    }
+
+    public synchronized void clear() {
+        pending.clear();
+    }
+
+    public synchronized void setMaxDatagramBytes(int bytes) {
+        this.maxDatagramBytes = Math.max(BUNDLE_OVERHEAD_BYTES * 2, bytes);
+    }
+
+    public synchronized int getMaxDatagramBytes() {
+        return maxDatagramBytes;
+    }
+
+    /** 累计发出的数据报数 */
+    public synchronized long getDatagramsSent() {
+        return datagramsSent;
+    }
+
+    /** 累计发出的消息条数（合并前） */
+    public synchronized long getMessagesSent() {
+        return messagesSent;
+    }
+
+    private void emit(Pending p, Consumer<LanBroadcastPacket> sender) {
+        if (p.count == 0) return;
+        int messages = p.bundle == null ? 1 : p.bundle.getMessageCount();
+        if (messages > 1) send(p.bundle, messages, sender);
+        else send(p.bundle == null ? p.first : p.bundle.getFirstMessage(), 1, sender); // 被覆盖后只剩一条
+        p.reset();
+    }
+
+    private void send(LanBroadcastPacket packet, int messages, Consumer<LanBroadcastPacket> sender) {
+        datagramsSent++;
+        messagesSent += messages;
+        sender.accept(packet);
+    }
+
+    /**
+     * 消息编码后大小的保守估算（字节）
+     * 紧凑报文体按实际长度加外层字段开销计算；其余包按字段名 + 典型数值长度估算，宁大勿小
+     */
+    public static int estimateBytes(LanBroadcastPacket packet) {
+        if (packet instanceof CompactPacket) {
+            String body = ((CompactPacket) packet).getBody();
+            return COMPACT_OVERHEAD_BYTES + (body == null ? 0 : body.length());
+        }
+        if (packet instanceof LanDamageResultBroadcastPacket) return 190; // 含可靠通道序号
+        if (packet instanceof LanPlayerHurtBroadcastPacket) return 160;
+        if (packet instanceof LanPlayerInputAckBroadcastPacket) return 150;
+        if (packet instanceof LanEnemySyncBroadcastPacket) {
+            LanEnemySyncBroadcastPacket p = (LanEnemySyncBroadcastPacket) packet;
+            return 80 + (p.getEnemies() == null ? 0 : p.getEnemies().size() * 190);
+        }
+        return 200;
+    }
+
+    /** 单个客户端的待发内容：只有一条时保存原包，第二条到达时才创建合并包 */
+    private static final class Pending {
+        final int target;
+        LanBroadcastPacket first;
+        LanTickBundleBroadcastPacket bundle;
+        int count;
+        int bytes = BUNDLE_OVERHEAD_BYTES;
+
+        Pending(int target) {
+            this.target = target;
+        }
+
+        boolean add(LanBroadcastPacket packet) {
+            if (count == 0) {
+                first = packet;
+                count = 1;
+                return true;
+            }
+            if (bundle == null) {
+                bundle = new LanTickBundleBroadcastPacket(target, IStatus.RETURN_SUCCESS);
+                bundle.add(first);
+            }
+            if (!bundle.add(packet)) return false;
+            count++;
+            return true;
+        }
+
+        void reset() {
+            // 合并包已交给异步发送，不复用
+            first = null;
+            bundle = null;
+            count = 0;
+            bytes = BUNDLE_OVERHEAD_BYTES;
+        }
+    }
+}
@@ -1,20 +1,31 @@
 package com.goldsprite.magicdungeon2.network.lan;
 
+import java.util.Objects;
+
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerStateSnapshot;
+
+/**
+ * 远程玩家记录
+ * <p>
+ * 同一 guid 的记录在玩家表中长期存在，收到新状态时由 {@link LanMultiplayerService} 原地更新，
+ * 调用方持有的引用始终读到最新状态。
+ */
 public class LanRoomPlayer {
     private final int guid;
-    private final String name;
-    private final float x;
-    private final float y;
-    private final float vx;
-    private final float vy;
-    private final String action;
-    private final long timestamp;
+    private String name;
+    private float x;
+    private float y;
+    private float vx;
+    private float vy;
+    private String action;
+    private long timestamp;
+    private long tick; // 该玩家发送状态时的模拟 tick 号
     // Phase 3/4 扩展字段
-    private final float hp;
-    private final float maxHp;
-    private final int level;
-    private final float atk;
-    private final float def;
+    private float hp;
+    private float maxHp;
+    private int level;
+    private float atk;
+    private float def;
 
     public LanRoomPlayer(int guid, String name, float x, float y, float vx, float vy, String action, long timestamp) {
         this(guid, name, x, y, vx, vy, action, timestamp, 0, 0, 0, 0, 0);
@@ -23,6 +34,13 @@ public class LanRoomPlayer {
     public LanRoomPlayer(int guid, String name, float x, float y, float vx, float vy,
                           String action, long timestamp,
                           float hp, float maxHp, int level, float atk, float def) {
+        this(guid, name, x, y, vx, vy, action, timestamp, 0L, hp, maxHp, level, atk, def);
+    }
+
+    /** 完整构造（含模拟 tick 号） */
+    public LanRoomPlayer(int guid, String name, float x, float y, float vx, float vy,
+                          String action, long timestamp, long tick,
+                          float hp, float maxHp, int level, float atk, float def) {
         this.guid = guid;
         this.name = name;
         this.x = x;
@@ -31,6 +49,7 @@ public class LanRoomPlayer {
         this.vy = vy;
         this.action = action;
         this.timestamp = timestamp;
+        this.tick = tick;
         this.hp = hp;
         this.maxHp = maxHp;
         this.level = level;
@@ -38,6 +57,33 @@ public class LanRoomPlayer {
         this.def = def;
     }
 
+    /**
+     * 按新状态原地更新（同包由服务维护玩家表时调用）
+     * @return 名字、位置、动作或属性是否有变化；时间戳与 tick 总是更新但不计入
+     */
+    boolean updateFrom(LanPlayerStateSnapshot s) {
+        boolean changed = !Objects.equals(name, s.getPlayerName()) || !Objects.equals(action, s.getAction())
+            || x != s.getX() || y != s.getY() || vx != s.getVx() || vy != s.getVy()
+            || hp != s.getHp() || maxHp != s.getMaxHp() || level != s.getLevel()
+            || atk != s.getAtk() || def != s.getDef();
+        if (changed) {
+            name = s.getPlayerName();
+            action = s.getAction();
+            x = s.getX();
+            y = s.getY();
+            vx = s.getVx();
+            vy = s.getVy();
+            hp = s.getHp();
+            maxHp = s.getMaxHp();
+            level = s.getLevel();
+            atk = s.getAtk();
+            def = s.getDef();
+        }
+        timestamp = s.getTimestamp();
+        tick = s.getTick();
+        return changed;
+    }
+
     public int getGuid() {
         return guid;
     }
@@ -70,6 +116,10 @@ public class LanRoomPlayer {
         return timestamp;
     }
 
+    public long getTick() {
+        return tick;
+    }
+
     // ============ Phase 3/4 扩展 ============
 
     public float getHp() { return hp; }
@@ -0,0 +1,149 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+
+/**
+ * 房主端会话槽位（断线重连）
+ * <p>
+ * 客户端登录后以随机令牌登记（{@link com.goldsprite.magicdungeon2.network.lan.packet.LanSessionResumeRequestPacket}），
+ * 槽位记录该令牌当前对应的 guid。客户端断线（传输层不再有该 guid）后槽位进入宽限期，
+ * 期间玩家记录与房主世界中的远程角色保持原样；同一令牌重新登录即接管槽位（传输层分配的新 guid 替换原 guid），
+ * 宽限期过后槽位作废，由调用方清理原 guid 的玩家记录。
+ * <p>
+ * 房主尚未察觉断线（传输层超时比客户端的静默检测长）时，持有令牌的重连同样接管槽位；
+ * 被替换的原 guid 在传输层移除它之前记为"已替换"，其迟到的请求应当忽略。
+ * <p>
+ * 线程约定：登记来自网络线程，{@link #update} 在游戏线程，方法均加锁（每个客户端一个槽位，开销可忽略）。
+ */
+public class LanSessionSlots {
+    /** 默认宽限期（毫秒） */
+    public static final long DEFAULT_GRACE_MS = 10_000L;
+
+    private final Map<Long, Slot> byToken = new HashMap<>();
+    private final Map<Integer, Slot> byGuid = new HashMap<>();
+    private final Set<Integer> replaced = new HashSet<>();
+    private long graceMs = DEFAULT_GRACE_MS;
+    private long resumed;
+    private long expired;
+
+    /** 从大厅首次加入时登记，同 {@link #bind(long, int, boolean)} */
+    public synchronized int bind(long token, int guid) {
+        return bind(token, guid, false);
+    }
+
+    /**
+     * 登记令牌：新令牌建立槽位；已有槽位（仍连接或在宽限期内）时由新 guid 接管
+     * 同一 guid 重复登记（客户端重发的请求）返回与首次相同的结果
+     * @param resume 客户端声明自己是断线重连（已在游戏中，槽位过期时也不需要"开始游戏"）
+     * @return 被接管的原 guid；新令牌（首次加入或槽位已过期）返回 -1
+     */
+    public synchronized int bind(long token, int guid, boolean resume) {
+        Slot slot = byToken.get(token);
+        if (slot == null) {
+            slot = new Slot();
+            byToken.put(token, slot);
+            slot.guid = guid;
+            slot.resume = resume;
+            byGuid.put(guid, slot);
+            return -1;
+        }
+        if (slot.guid == guid) return slot.previousGuid;
+        int previous = slot.guid;
+        byGuid.remove(previous);
+        replaced.add(previous);
+        slot.previousGuid = previous;
+        slot.resume = true;
+        slot.guid = guid;
+        slot.heldUntil = -1L;
+        byGuid.put(guid, slot);
+        resumed++;
+        return previous;
+    }
+
+    /**
+     * 游戏线程每 tick 调用：已断线的槽位进入宽限期，宽限期已过的作废
+     * @param alive 传输层是否仍有该 guid
+     * @param onExpired 作废槽位的 guid（调用方清理其玩家记录）
+     */
+    public synchronized void update(IntPredicate alive, long now, IntConsumer onExpired) {
+        Iterator<Slot> it = byToken.values().iterator();
+        while (it.hasNext()) {
+            Slot slot = it.next();
+            if (slot.heldUntil < 0L) {
+                if (!alive.test(slot.guid)) slot.heldUntil = now + graceMs;
+                continue;
+            }
+            if (now < slot.heldUntil) continue;
+            it.remove();
+            byGuid.remove(slot.guid);
+            expired++;
+            onExpired.accept(slot.guid);
+        }
+        replaced.removeIf(guid -> !alive.test(guid));
+    }
+
+    /** 该 guid 已断线、槽位仍在宽限期内（玩家记录保留） */
+    public synchronized boolean isHeld(int guid) {
+        Slot slot = byGuid.get(guid);
+        return slot != null && slot.heldUntil >= 0L;
+    }
+
+    /** 该 guid 已登记令牌 */
+    public synchronized boolean isBound(int guid) {
+        return byGuid.containsKey(guid);
+    }
+
+    /** 该 guid 以断线重连登记（接管了原槽位，或声明重连但原槽位已过期） */
+    public synchronized boolean isResume(int guid) {
+        Slot slot = byGuid.get(guid);
+        return slot != null && slot.resume;
+    }
+
+    /** 该 guid 已被同一令牌的重连替换（传输层尚未移除它） */
+    public synchronized boolean isReplaced(int guid) {
+        return replaced.contains(guid);
+    }
+
+    public synchronized void clear() {
+        byToken.clear();
+        byGuid.clear();
+        replaced.clear();
+    }
+
+    /** 断线后保留槽位的时长（毫秒） */
+    public synchronized void setGraceMs(long graceMs) {
+        this.graceMs = Math.max(0L, graceMs);
+    }
+
+    public synchronized long getGraceMs() {
+        return graceMs;
+    }
+
+    /** 已登记的槽位数（含宽限期内的） */
+    public synchronized int size() {
+        return byToken.size();
+    }
+
+    /** 累计接管次数 */
+    public synchronized long getResumed() {
+        return resumed;
+    }
+
+    /** 累计因宽限期已过作废的槽位数 */
+    public synchronized long getExpired() {
+        return expired;
+    }
+
+    private static final class Slot {
+        int guid;
+        int previousGuid = -1; // 最近一次被接管的 guid
+        boolean resume;        // 当前 guid 以断线重连登记
+        long heldUntil = -1L;  // < 0 = 连接中
+    }
+}
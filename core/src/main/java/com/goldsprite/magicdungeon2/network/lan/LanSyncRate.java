@@ -0,0 +1,68 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanPeerStats;
+
+/**
+ * 自适应同步频率
+ * <p>
+ * 状态只在有意义的变化时发送，静止时只按心跳间隔发送；发送间隔按对端实测情况放大：
+ * <ul>
+ *   <li>RTT：平滑 RTT + 2×抖动超过阈值视为链路拥塞，按比例放大间隔</li>
+ *   <li>带宽：按平均数据报大小估算"以基础间隔发送"所需的字节率，超过预算时按比例放大</li>
+ * </ul>
+ * 带宽项用平均包大小而非实测速率计算，降频后不会因速率回落又立即升频（避免来回振荡）。
+ * 放大后的间隔不超过 {@link #getMaxIntervalMs()}，且不低于调用方给出的基础间隔。
+ */
+public class LanSyncRate {
+    /** 一个模拟 tick 的毫秒数：状态每 tick 才变化一次，更快发送没有意义 */
+    public static final long TICK_INTERVAL_MS = Math.round(WorldConfig.TICK_DT * 1000);
+    /** 无变化时的心跳间隔（毫秒），用于新加入者与丢包后的兜底 */
+    public static final long DEFAULT_HEARTBEAT_MS = 1000L;
+
+    private volatile long maxIntervalMs = 200L;
+    private volatile long heartbeatMs = DEFAULT_HEARTBEAT_MS;
+    private volatile float rttThresholdMs = 100f;
+    private volatile float bandwidthBudget = 48 * 1024f; // 每个对端的字节/秒预算
+
+    /**
+     * 发往/来自该对端的状态同步间隔
+     * @param peer 对端统计（尚无数据时为 null，返回基础间隔）
+     * @param baseMs 基础间隔
+     */
+    public long intervalFor(LanPeerStats peer, long baseMs) {
+        if (peer == null) return baseMs;
+        float scale = 1f;
+        float srtt = peer.getSrttMs();
+        if (srtt > 0) {
+            float rtt = srtt + 2f * peer.getRttVarMs();
+            if (rtt > rttThresholdMs) scale = rtt / rttThresholdMs;
+        }
+        long datagrams = peer.getSentDatagrams();
+        if (datagrams > 0 && baseMs > 0) {
+            float avgBytes = (float) peer.getSentBytes() / datagrams;
+            float needed = avgBytes * 1000f / baseMs;
+            if (needed > bandwidthBudget) scale = Math.max(scale, needed / bandwidthBudget);
+        }
+        long interval = (long) (baseMs * scale);
+        return Math.max(baseMs, Math.min(maxIntervalMs, interval));
+    }
+
+    /** 距上次发送是否已到心跳时间 */
+    public boolean heartbeatDue(long sinceLastMs) {
+        return sinceLastMs >= heartbeatMs;
+    }
+
+    public long getMaxIntervalMs() { return maxIntervalMs; }
+    public void setMaxIntervalMs(long ms) { this.maxIntervalMs = ms; }
+
+    public long getHeartbeatMs() { return heartbeatMs; }
+    public void setHeartbeatMs(long ms) { this.heartbeatMs = ms; }
+
+    public float getRttThresholdMs() { return rttThresholdMs; }
+    public void setRttThresholdMs(float ms) { this.rttThresholdMs = ms; }
+
+    public float getBandwidthBudget() { return bandwidthBudget; }
+    /** 每个对端的字节/秒预算 */
+    public void setBandwidthBudget(float bytesPerSec) { this.bandwidthBudget = bytesPerSec; }
+}
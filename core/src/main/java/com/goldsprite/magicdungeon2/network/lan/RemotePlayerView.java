@@ -0,0 +1,74 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 远程玩家表的不可变视图（按 guid 升序）
+ * <p>
+ * 玩家记录由 {@link LanMultiplayerService} 原地更新，视图只在成员变化后按需重建；
+ * 成员或可见字段变化时版本号单调递增，调用方可用 {@link #getVersion()} 判断是否需要刷新自己的缓存。
+ * 热路径请用 {@link #size()} / {@link #get(int)} 按下标遍历，避免创建迭代器。
+ */
+public final class RemotePlayerView {
+    public static final RemotePlayerView EMPTY = new RemotePlayerView(0L, 0L, new LanRoomPlayer[0]);
+
+    private final long membersVersion;
+    private volatile long version;
+    private final LanRoomPlayer[] players;
+    private final List<LanRoomPlayer> list;
+
+    /** @param players 调用方交出所有权，不可再修改 */
+    RemotePlayerView(long membersVersion, long version, LanRoomPlayer[] players) {
+        Arrays.sort(players, (a, b) -> Integer.compare(a.getGuid(), b.getGuid()));
+        this.membersVersion = membersVersion;
+        this.version = version;
+        this.players = players;
+        this.list = Collections.unmodifiableList(Arrays.asList(players));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /** 构建时的成员版本：成员未变化时服务沿用本视图 */
+    long getMembersVersion() {
+        return membersVersion;
+    }
+
+    /** 成员不变、仅可见字段变化时由服务推进版本号 */
+    void advanceVersion(long version) {
+        this.version = version;
+    }
+
+    public int size() {
+        return players.length;
+    }
+
+    public boolean isEmpty() {
+        return players.length == 0;
+    }
+
+    public LanRoomPlayer get(int index) {
+        return players[index];
+    }
+
+    /** 按 guid 二分查找，不存在返回 null */
+    public LanRoomPlayer find(int guid) {
+        int lo = 0, hi = players.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int g = players[mid].getGuid();
+            if (g < guid) lo = mid + 1;
+            else if (g > guid) hi = mid - 1;
+            else return players[mid];
+        }
+        return null;
+    }
+
+    /** 只读列表（随视图一起创建，重复调用不分配） */
+    public List<LanRoomPlayer> getPlayers() {
+        return list;
+    }
+}
@@ -0,0 +1,195 @@
+package com.goldsprite.magicdungeon2.network.lan;
+
+/**
+ * 快照插值缓冲（每个网络实体一份；预分配环形缓冲，压入/采样均零分配）
+ * <p>
+ * 按发送方时间（模拟 tick × 步长，单位秒）保存最近 N 个位置快照，
+ * 本地维护一条"回放时钟"，始终落后最新快照 delay 秒，在其两侧的快照之间线性插值。
+ * 抖动/丢包导致快照断档时，沿最后两个快照的速度外推，外推时长有上限，超出后停在上限处。
+ * 回放时钟按帧时间推进并缓慢向目标靠拢；偏差过大（重连、长时间卡顿）时直接跳变。
+ * 目标默认为"最新快照时间 - delay"；已与房主对时时改用 {@link #advance(float, double)}，
+ * 以估计的房主时钟为目标，不受快照到达抖动影响。
+ */
+public class SnapshotInterpolator {
+    public static final int DEFAULT_CAPACITY = 16;
+    /** 默认回放延迟（秒），约 3 个 30Hz tick，可吸收 1~2 个包的抖动 */
+    public static final float DEFAULT_DELAY = 0.1f;
+    /** 默认最大外推时长（秒） */
+    public static final float DEFAULT_MAX_EXTRAPOLATION = 0.1f;
+
+    private static final float DRIFT_CORRECTION_RATE = 1f; // 每秒向目标回放时间收敛的比例
+    private static final float RESYNC_THRESHOLD = 1f;      // 回放时钟偏差超过该秒数直接跳变
+
+    private final double[] times;
+    private final float[] xs;
+    private final float[] ys;
+    private int head;
+    private int size;
+
+    private double renderTime;
+    private boolean clockStarted;
+    private boolean extrapolating;
+
+    private float delay = DEFAULT_DELAY;
+    private float maxExtrapolation = DEFAULT_MAX_EXTRAPOLATION;
+    private float snapDistance = Float.MAX_VALUE;
+
+    public SnapshotInterpolator() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SnapshotInterpolator(int capacity) {
+        int cap = Math.max(2, capacity);
+        times = new double[cap];
+        xs = new float[cap];
+        ys = new float[cap];
+    }
+
+    /**
+     * 压入一个快照
+     * 时间不晚于最新快照的（乱序/重复）会被丢弃；与上一快照距离超过 snapDistance 视为瞬移，清空历史
+     * @return 是否被接受
+     */
+    public boolean push(double time, float x, float y) {
+        if (size > 0) {
+            int last = index(size - 1);
+            if (times[last] - time > RESYNC_THRESHOLD) {
+                // 发送方时间轴整体回退（重连、切换为房主时钟打戳）：丢弃旧时间轴
+                size = 0;
+                renderTime = time - delay;
+            } else if (time <= times[last]) {
+                return false;
+            }
+        }
+        if (size > 0) {
+            int last = index(size - 1);
+            float ddx = x - xs[last], ddy = y - ys[last];
+            if (ddx * ddx + ddy * ddy > snapDistance * snapDistance) {
+                size = 0;
+                renderTime = time - delay;
+            }
+        }
+        int slot = index(size);
+        if (size == times.length) head = (head + 1) % times.length;
+        else size++;
+        times[slot] = time;
+        xs[slot] = x;
+        ys[slot] = y;
+        if (!clockStarted) {
+            renderTime = time - delay;
+            clockStarted = true;
+        }
+        return true;
+    }
+
+    /** 推进回放时钟（每帧调用一次），以最新快照时间为基准 */
+    public void advance(float dt) {
+        if (!clockStarted) return;
+        advanceToward(dt, times[index(size - 1)]);
+    }
+
+    /**
+     * 推进回放时钟（每帧调用一次），以外部时钟为基准
+     * @param clock 此刻应刚好到达的快照时间（与 {@link #push} 同一时间轴，秒）
+     */
+    public void advance(float dt, double clock) {
+        if (!clockStarted) return;
+        advanceToward(dt, clock);
+    }
+
+    private void advanceToward(float dt, double newestTime) {
+        renderTime += dt;
+        double error = (newestTime - delay) - renderTime;
+        if (Math.abs(error) > RESYNC_THRESHOLD) {
+            renderTime += error;
+        } else {
+            renderTime += error * Math.min(1f, DRIFT_CORRECTION_RATE * dt);
+        }
+    }
+
+    /**
+     * 在当前回放时间采样位置，写入调用方提供的 out[0]=x, out[1]=y
+     * @return 缓冲为空时返回 false（out 不变）
+     */
+    public boolean sample(float[] out) {
+        extrapolating = false;
+        if (size == 0) return false;
+        int newest = index(size - 1);
+        if (size == 1 || renderTime >= times[newest]) {
+            extrapolate(newest, out);
+            return true;
+        }
+        if (renderTime <= times[head]) {
+            out[0] = xs[head];
+            out[1] = ys[head];
+            return true;
+        }
+        // 从新到旧找到 renderTime 所在区间（N 很小，线性扫描即可）
+        for (int i = size - 2; i >= 0; i--) {
+            int a = index(i);
+            if (times[a] <= renderTime) {
+                int b = index(i + 1);
+                float t = (float) ((renderTime - times[a]) / (times[b] - times[a]));
+                out[0] = xs[a] + (xs[b] - xs[a]) * t;
+                out[1] = ys[a] + (ys[b] - ys[a]) * t;
+                return true;
+            }
+        }
+        out[0] = xs[head];
+        out[1] = ys[head];
+        return true;
+    }
+
+    /** 最新收到的原始位置（无平滑），写入 out */
+    public boolean sampleLatest(float[] out) {
+        if (size == 0) return false;
+        int newest = index(size - 1);
+        out[0] = xs[newest];
+        out[1] = ys[newest];
+        return true;
+    }
+
+    /** 清空快照与回放时钟（换层、重连后调用） */
+    public void clear() {
+        head = size = 0;
+        clockStarted = false;
+        extrapolating = false;
+    }
+
+    /** 回放时间超过最新快照：沿最后两个快照的速度外推（有上限） */
+    private void extrapolate(int newest, float[] out) {
+        out[0] = xs[newest];
+        out[1] = ys[newest];
+        if (size < 2 || renderTime <= times[newest]) return;
+        int prev = index(size - 2);
+        double span = times[newest] - times[prev];
+        if (span <= 0) return;
+        float ahead = (float) Math.min(renderTime - times[newest], maxExtrapolation);
+        float k = (float) (ahead / span);
+        out[0] += (xs[newest] - xs[prev]) * k;
+        out[1] += (ys[newest] - ys[prev]) * k;
+        extrapolating = ahead > 0;
+    }
+
+    private int index(int i) {
+        return (head + i) % times.length;
+    }
+
+    // ============ 配置与查询 ============
+
+    public void setDelay(float seconds) { this.delay = Math.max(0f, seconds); }
+    public float getDelay() { return delay; }
+
+    public void setMaxExtrapolation(float seconds) { this.maxExtrapolation = Math.max(0f, seconds); }
+    public float getMaxExtrapolation() { return maxExtrapolation; }
+
+    /** 相邻快照距离超过该值视为瞬移（不插值），默认关闭 */
+    public void setSnapDistance(float distance) { this.snapDistance = distance; }
+
+    /** 上一次 {@link #sample} 是否处于外推状态（快照断档） */
+    public boolean isExtrapolating() { return extrapolating; }
+
+    public int size() { return size; }
+    public int capacity() { return times.length; }
+    public double getRenderTime() { return renderTime; }
+}
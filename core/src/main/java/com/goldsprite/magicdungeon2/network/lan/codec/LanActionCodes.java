@@ -0,0 +1,37 @@
+package com.goldsprite.magicdungeon2.network.lan.codec;
+
+/**
+ * 动作状态字符串的枚举编码
+ * 常用动作 1 字节；未登记的动作写 {@link #CUSTOM} 后跟原字符串，保证兼容
+ */
+public final class LanActionCodes {
+    private static final String[] NAMES = {"idle", "walk", "move", "attack", "hurt", "die"};
+    private static final int CUSTOM = 0x7F;
+    private static final int NULL = 0x7E;
+
+    private LanActionCodes() {}
+
+    public static void write(LanWireWriter w, String action) {
+        if (action == null) {
+            w.writeByte(NULL);
+            return;
+        }
+        for (int i = 0; i < NAMES.length; i++) {
+            if (NAMES[i].equals(action)) {
+                w.writeByte(i);
+                return;
+            }
+        }
+        w.writeByte(CUSTOM);
+        w.writeString(action);
+    }
+
+    /** 读出动作名（登记过的动作返回常量字符串，不分配） */
+    public static String read(LanWireReader r) {
+        int code = r.readByte();
+        if (code == NULL) return null;
+        if (code == CUSTOM) return r.readString();
+        if (code < NAMES.length) return NAMES[code];
+        throw new IllegalArgumentException("未知动作编码: " + code);
+    }
+}
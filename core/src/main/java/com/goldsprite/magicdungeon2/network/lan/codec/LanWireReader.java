@@ -0,0 +1,81 @@
+package com.goldsprite.magicdungeon2.network.lan.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 紧凑二进制编码读取器，与 {@link LanWireWriter} 对应
+ * 越界读取抛出 {@link IllegalArgumentException}，由包的解码方法统一处理
+ */
+public final class LanWireReader {
+    private final byte[] buf;
+    private final int limit;
+    private int pos;
+
+    public LanWireReader(byte[] buf) {
+        this(buf, buf.length);
+    }
+
+    /** 只读取前 length 字节（复用的接收缓冲） */
+    public LanWireReader(byte[] buf, int length) {
+        this.buf = buf;
+        this.limit = Math.min(length, buf.length);
+    }
+
+    /** 从报文体构造（null 视为空） */
+    public static LanWireReader fromBase64(String body) {
+        return new LanWireReader(body == null ? new byte[0] : Base64.getDecoder().decode(body));
+    }
+
+    public int readByte() {
+        if (pos >= limit) throw new IllegalArgumentException("报文体长度不足: " + limit);
+        return buf[pos++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("变长整数过长");
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            int b = readByte();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalArgumentException("变长整数过长");
+    }
+
+    public int readSignedVarInt() {
+        int v = readVarInt();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    public float readFixed() {
+        return readSignedVarInt() / (float) LanWireWriter.FIXED_SCALE;
+    }
+
+    public boolean readBoolean() {
+        return readByte() != 0;
+    }
+
+    public String readString() {
+        int n = readVarInt();
+        if (n == 0) return null;
+        n -= 1;
+        if (n > limit - pos) throw new IllegalArgumentException("字符串长度越界: " + n);
+        String s = new String(buf, pos, n, StandardCharsets.UTF_8);
+        pos += n;
+        return s;
+    }
+
+    public boolean hasRemaining() {
+        return pos < limit;
+    }
+}
@@ -0,0 +1,103 @@
+package com.goldsprite.magicdungeon2.network.lan.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 紧凑二进制编码写入器（LAN 高频包的报文体）
+ * <p>
+ * 整数使用 LEB128 变长编码（小值 1 字节），有符号值先做 zigzag；
+ * 浮点按 1/{@value #FIXED_SCALE} 定点量化后按有符号变长整数写入（整数与 0.5/0.25 精确无损）。
+ * 每个线程复用一个实例（{@link #local()}），编码过程复用缓冲，只在生成报文体时分配。
+ */
+public final class LanWireWriter {
+    /** 定点量化倍率：坐标/血量等浮点保留 1/16 精度 */
+    public static final int FIXED_SCALE = 16;
+
+    private static final ThreadLocal<LanWireWriter> LOCAL = ThreadLocal.withInitial(LanWireWriter::new);
+
+    private byte[] buf = new byte[64];
+    private int len;
+
+    /** 当前线程复用的写入器（已清空） */
+    public static LanWireWriter local() {
+        return LOCAL.get().reset();
+    }
+
+    public LanWireWriter reset() {
+        len = 0;
+        return this;
+    }
+
+    public void writeByte(int v) {
+        ensure(1);
+        buf[len++] = (byte) v;
+    }
+
+    /** 无符号变长整数（负数会占满 5 字节，应改用 {@link #writeSignedVarInt}） */
+    public void writeVarInt(int v) {
+        ensure(5);
+        while ((v & ~0x7F) != 0) {
+            buf[len++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[len++] = (byte) v;
+    }
+
+    public void writeVarLong(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf[len++] = (byte) ((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        buf[len++] = (byte) v;
+    }
+
+    public void writeSignedVarInt(int v) {
+        writeVarInt((v << 1) ^ (v >> 31));
+    }
+
+    /** 定点量化浮点 */
+    public void writeFixed(float v) {
+        writeSignedVarInt(Math.round(v * FIXED_SCALE));
+    }
+
+    public void writeBoolean(boolean v) {
+        writeByte(v ? 1 : 0);
+    }
+
+    /** 字符串：长度+1 的变长整数（0 表示 null）后跟 UTF-8 */
+    public void writeString(String s) {
+        if (s == null) {
+            writeVarInt(0);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(bytes.length + 1);
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buf, len, bytes.length);
+        len += bytes.length;
+    }
+
+    public int length() {
+        return len;
+    }
+
+    /** 复制到调用方的缓冲（直接作为数据报发送时使用），返回字节数；放不下抛出 {@link IllegalArgumentException} */
+    public int copyTo(byte[] dst) {
+        if (len > dst.length) throw new IllegalArgumentException("缓冲不足: " + len + " > " + dst.length);
+        System.arraycopy(buf, 0, dst, 0, len);
+        return len;
+    }
+
+    /** 报文体（编解码器以文本承载，Base64 比数字数组紧凑得多） */
+    public String toBase64() {
+        return Base64.getEncoder().withoutPadding().encodeToString(Arrays.copyOf(buf, len));
+    }
+
+    private void ensure(int extra) {
+        if (len + extra <= buf.length) return;
+        buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+    }
+}
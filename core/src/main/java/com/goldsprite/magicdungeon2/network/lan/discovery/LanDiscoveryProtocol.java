@@ -0,0 +1,111 @@
+package com.goldsprite.magicdungeon2.network.lan.discovery;
+
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireReader;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireWriter;
+
+/**
+ * 房间发现的数据报格式（独立于游戏端口与 TestNetty 编解码，裸 UDP）
+ * <p>
+ * 每个数据报以 2 字节魔数 + 1 字节版本 + 1 字节类型开头：
+ * <ul>
+ *   <li>BEACON：房主 → 广播，变长整数编码的端口/人数/层数 + 展示名 + 房间名</li>
+ *   <li>PING：浏览端 → 信标来源地址，携带浏览端的纳秒时间戳</li>
+ *   <li>PONG：房主原样回传时间戳，浏览端据此计算往返时间（不依赖两端时钟同步）</li>
+ * </ul>
+ * 魔数或版本不符的数据报一律忽略（同一端口上可能有其他程序的广播）。
+ */
+public final class LanDiscoveryProtocol {
+    /** 浏览端监听的广播端口 */
+    public static final int DEFAULT_PORT = 25570;
+    /** 接收缓冲大小：名字截断后信标远小于此值 */
+    public static final int MAX_DATAGRAM = 512;
+    /** 展示名/房间名最多保留的字符数 */
+    public static final int MAX_NAME_CHARS = 32;
+
+    public static final int TYPE_BEACON = 1;
+    public static final int TYPE_PING = 2;
+    public static final int TYPE_PONG = 3;
+
+    private static final int MAGIC_0 = 'M';
+    private static final int MAGIC_1 = 'D';
+    private static final int VERSION = 1;
+
+    private LanDiscoveryProtocol() {
+    }
+
+    /** 编码信标，返回字节数 */
+    public static int writeBeacon(LanRoomInfo info, byte[] out) {
+        LanWireWriter w = header(TYPE_BEACON);
+        w.writeVarInt(info.getPort());
+        w.writeVarInt(Math.max(0, info.getPlayers()));
+        w.writeVarInt(Math.max(0, info.getFloor()));
+        w.writeString(truncate(info.getHostName()));
+        w.writeString(truncate(info.getRoomName()));
+        return w.copyTo(out);
+    }
+
+    public static int writePing(long nonce, byte[] out) {
+        LanWireWriter w = header(TYPE_PING);
+        w.writeVarLong(nonce);
+        return w.copyTo(out);
+    }
+
+    public static int writePong(long nonce, byte[] out) {
+        LanWireWriter w = header(TYPE_PONG);
+        w.writeVarLong(nonce);
+        return w.copyTo(out);
+    }
+
+    /** 数据报类型；不是本协议的数据报返回 -1 */
+    public static int typeOf(byte[] data, int length) {
+        if (length < 4 || data[0] != MAGIC_0 || data[1] != MAGIC_1 || data[2] != VERSION) return -1;
+        return data[3];
+    }
+
+    /** 解码信标；格式错误返回 null */
+    public static LanRoomInfo readBeacon(byte[] data, int length) {
+        if (typeOf(data, length) != TYPE_BEACON) return null;
+        try {
+            LanWireReader r = body(data, length);
+            int port = r.readVarInt();
+            int players = r.readVarInt();
+            int floor = r.readVarInt();
+            String hostName = r.readString();
+            String roomName = r.readString();
+            if (port <= 0 || port > 0xFFFF) return null;
+            return new LanRoomInfo(hostName, roomName, port, players, floor);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** 解码 PING/PONG 的时间戳；格式错误返回 -1 */
+    public static long readNonce(byte[] data, int length) {
+        int type = typeOf(data, length);
+        if (type != TYPE_PING && type != TYPE_PONG) return -1L;
+        try {
+            return body(data, length).readVarLong();
+        } catch (IllegalArgumentException e) {
+            return -1L;
+        }
+    }
+
+    private static LanWireWriter header(int type) {
+        LanWireWriter w = LanWireWriter.local();
+        w.writeByte(MAGIC_0);
+        w.writeByte(MAGIC_1);
+        w.writeByte(VERSION);
+        w.writeByte(type);
+        return w;
+    }
+
+    private static LanWireReader body(byte[] data, int length) {
+        LanWireReader r = new LanWireReader(data, length);
+        for (int i = 0; i < 4; i++) r.readByte();
+        return r;
+    }
+
+    private static String truncate(String s) {
+        return s == null || s.length() <= MAX_NAME_CHARS ? s : s.substring(0, MAX_NAME_CHARS);
+    }
+}
@@ -0,0 +1,131 @@
+package com.goldsprite.magicdungeon2.network.lan.discovery;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import com.goldsprite.gdengine.log.DLog;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanAddresses;
+
+/**
+ * 房主端房间信标：每 {@link #BEACON_INTERVAL_MS} 毫秒向各接口广播地址发送一次信标，并回应浏览端的 PING
+ * <p>
+ * 一个信标器可以登记多个房间（独立服务器每个房间一个信标）；房间信息在发送时现取，
+ * 返回 null 表示该房间暂不公布。广播目标每 {@link #TARGET_REFRESH_BEACONS} 个周期重新枚举一次
+ * （笔记本切换网络后仍能被发现）；本机没有可广播的接口时退回只发往 127.0.0.1。
+ */
+public class LanRoomAnnouncer {
+    private static final String TAG = "LAN";
+    public static final long BEACON_INTERVAL_MS = 1000L;
+    private static final int TARGET_REFRESH_BEACONS = 10;
+
+    private final int discoveryPort;
+    private final List<Supplier<LanRoomInfo>> rooms = new CopyOnWriteArrayList<>();
+    private volatile DatagramSocket socket;
+    private Thread thread;
+
+    public LanRoomAnnouncer() {
+        this(LanDiscoveryProtocol.DEFAULT_PORT);
+    }
+
+    public LanRoomAnnouncer(int discoveryPort) {
+        this.discoveryPort = discoveryPort;
+    }
+
+    /** 登记一个房间（可在运行中追加） */
+    public void addRoom(Supplier<LanRoomInfo> room) {
+        rooms.add(room);
+    }
+
+    /** 开始广播；套接字创建失败返回 false（不影响联机本身） */
+    public synchronized boolean start() {
+        if (socket != null) return true;
+        DatagramSocket s;
+        try {
+            s = new DatagramSocket(0);
+            s.setBroadcast(true);
+        } catch (Exception e) {
+            DLog.logT(TAG, "房间信标启动失败: %s", e.getMessage());
+            return false;
+        }
+        socket = s;
+        thread = new Thread(() -> run(s), "lan-room-announcer");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public synchronized void stop() {
+        DatagramSocket s = socket;
+        socket = null;
+        if (s != null) s.close();
+        thread = null;
+    }
+
+    public boolean isRunning() {
+        return socket != null;
+    }
+
+    private void run(DatagramSocket s) {
+        byte[] recv = new byte[LanDiscoveryProtocol.MAX_DATAGRAM];
+        byte[] send = new byte[LanDiscoveryProtocol.MAX_DATAGRAM];
+        DatagramPacket in = new DatagramPacket(recv, recv.length);
+        DatagramPacket out = new DatagramPacket(send, send.length);
+        List<InetSocketAddress> targets = new ArrayList<>();
+        long nextBeacon = 0L;
+        int beacons = 0;
+        while (socket == s) {
+            try {
+                long now = System.currentTimeMillis();
+                if (now >= nextBeacon) {
+                    if (beacons++ % TARGET_REFRESH_BEACONS == 0) refreshTargets(targets);
+                    sendBeacons(s, out, targets);
+                    nextBeacon = now + BEACON_INTERVAL_MS;
+                }
+                s.setSoTimeout((int) Math.max(1L, nextBeacon - now));
+                in.setLength(recv.length);
+                s.receive(in);
+                if (LanDiscoveryProtocol.typeOf(recv, in.getLength()) == LanDiscoveryProtocol.TYPE_PING) {
+                    long nonce = LanDiscoveryProtocol.readNonce(recv, in.getLength());
+                    out.setLength(LanDiscoveryProtocol.writePong(nonce, send));
+                    out.setSocketAddress(in.getSocketAddress());
+                    s.send(out);
+                }
+            } catch (SocketTimeoutException ignored) {
+                // 到下一个信标时间
+            } catch (Exception e) {
+                if (socket == s) DLog.logT(TAG, "房间信标异常: %s", e.getMessage());
+            }
+        }
+    }
+
+    private void sendBeacons(DatagramSocket s, DatagramPacket out, List<InetSocketAddress> targets) {
+        for (int i = 0; i < rooms.size(); i++) {
+            LanRoomInfo info = rooms.get(i).get();
+            if (info == null) continue;
+            out.setLength(LanDiscoveryProtocol.writeBeacon(info, out.getData()));
+            for (int t = 0; t < targets.size(); t++) {
+                out.setSocketAddress(targets.get(t));
+                try {
+                    s.send(out);
+                } catch (Exception ignored) {
+                    // 某个接口暂时不可达（如刚断开的 Wi-Fi），其余目标照发
+                }
+            }
+        }
+    }
+
+    private void refreshTargets(List<InetSocketAddress> targets) {
+        targets.clear();
+        for (InetAddress addr : LanAddresses.broadcastAddresses()) {
+            targets.add(new InetSocketAddress(addr, discoveryPort));
+        }
+        if (targets.isEmpty()) targets.add(new InetSocketAddress(InetAddress.getLoopbackAddress(), discoveryPort));
+    }
+}
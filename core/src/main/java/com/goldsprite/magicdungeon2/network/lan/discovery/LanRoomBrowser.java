@@ -0,0 +1,126 @@
+package com.goldsprite.magicdungeon2.network.lan.discovery;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.List;
+
+import com.goldsprite.gdengine.log.DLog;
+
+/**
+ * 客户端房间浏览：在发现端口监听房主信标，维护带 TTL 的 {@link LanRoomCache}，并向每个主机周期性测 ping
+ * <p>
+ * 后台守护线程接收数据报，接收缓冲与发送缓冲预分配复用；每个主机每
+ * {@link LanRoomCache#PING_INTERVAL_MS} 毫秒最多一个 PING，开着大厅常驻运行的开销可以忽略。
+ * 发现端口以地址复用方式绑定，同一台机器上可同时打开多个大厅。
+ */
+public class LanRoomBrowser {
+    private static final String TAG = "LAN";
+    /** 接收超时，也是淘汰检查的最大间隔 */
+    private static final int RECEIVE_TIMEOUT_MS = 250;
+    /** 超过此值的往返时间视为过期 PONG（如上一次浏览会话残留） */
+    private static final long MAX_RTT_NANOS = 5_000_000_000L;
+
+    private final int port;
+    private final LanRoomCache cache;
+    private volatile DatagramSocket socket;
+    private Thread thread;
+
+    public LanRoomBrowser() {
+        this(LanDiscoveryProtocol.DEFAULT_PORT);
+    }
+
+    public LanRoomBrowser(int port) {
+        this.port = port;
+        this.cache = new LanRoomCache();
+    }
+
+    /** 开始监听；端口无法绑定时返回 false（大厅仍可手动输入 IP） */
+    public synchronized boolean start() {
+        if (socket != null) return true;
+        try {
+            DatagramSocket s = new DatagramSocket(null);
+            s.setReuseAddress(true);
+            s.setBroadcast(true);
+            s.bind(new InetSocketAddress(port));
+            s.setSoTimeout(RECEIVE_TIMEOUT_MS);
+            socket = s;
+        } catch (Exception e) {
+            DLog.logT(TAG, "房间发现监听失败 (端口 %d): %s", port, e.getMessage());
+            return false;
+        }
+        DatagramSocket s = socket;
+        thread = new Thread(() -> run(s), "lan-room-browser");
+        thread.setDaemon(true);
+        thread.start();
+        return true;
+    }
+
+    public synchronized void stop() {
+        DatagramSocket s = socket;
+        socket = null;
+        if (s != null) s.close();
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        cache.clear();
+    }
+
+    public boolean isRunning() {
+        return socket != null;
+    }
+
+    /** 当前发现的房间（不可变快照，可在渲染线程每帧调用） */
+    public List<LanRoomCache.Entry> getRooms() {
+        return cache.getRooms();
+    }
+
+    public LanRoomCache getCache() {
+        return cache;
+    }
+
+    /** 只服务启动时的套接字：stop 后立刻 start 不会让旧线程接着读新套接字 */
+    private void run(DatagramSocket s) {
+        byte[] recv = new byte[LanDiscoveryProtocol.MAX_DATAGRAM];
+        byte[] send = new byte[LanDiscoveryProtocol.MAX_DATAGRAM];
+        DatagramPacket in = new DatagramPacket(recv, recv.length);
+        DatagramPacket out = new DatagramPacket(send, send.length);
+        while (socket == s) {
+            try {
+                in.setLength(recv.length);
+                s.receive(in);
+                handle(s, in, out);
+            } catch (SocketTimeoutException ignored) {
+                // 无数据报，继续做淘汰检查
+            } catch (Exception e) {
+                if (socket == s) DLog.logT(TAG, "房间发现接收异常: %s", e.getMessage());
+            }
+            cache.evictExpired(System.currentTimeMillis());
+        }
+    }
+
+    private void handle(DatagramSocket s, DatagramPacket in, DatagramPacket out) throws Exception {
+        byte[] data = in.getData();
+        int length = in.getLength();
+        int type = LanDiscoveryProtocol.typeOf(data, length);
+        String hostIp = in.getAddress().getHostAddress();
+        if (type == LanDiscoveryProtocol.TYPE_BEACON) {
+            LanRoomInfo info = LanDiscoveryProtocol.readBeacon(data, length);
+            if (info == null) return;
+            cache.onBeacon(hostIp, info, System.currentTimeMillis());
+            if (cache.shouldPing(hostIp, System.currentTimeMillis())) {
+                // 发往信标的来源地址（房主的发现套接字），由它回 PONG
+                out.setLength(LanDiscoveryProtocol.writePing(System.nanoTime(), out.getData()));
+                out.setSocketAddress(in.getSocketAddress());
+                s.send(out);
+            }
+        } else if (type == LanDiscoveryProtocol.TYPE_PONG) {
+            long nonce = LanDiscoveryProtocol.readNonce(data, length);
+            long rtt = System.nanoTime() - nonce;
+            if (rtt < 0 || rtt > MAX_RTT_NANOS) return;
+            cache.onPong(hostIp, rtt / 1_000_000f);
+        }
+    }
+}
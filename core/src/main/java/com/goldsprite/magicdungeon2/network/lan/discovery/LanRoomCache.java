@@ -0,0 +1,154 @@
+package com.goldsprite.magicdungeon2.network.lan.discovery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 房间列表缓存：按信标刷新、超过 TTL 未再收到信标即淘汰
+ * <p>
+ * 写入（信标/PONG/淘汰）由浏览线程执行并持锁；列表只在内容变化时重建为不可变快照，
+ * 大厅每帧调用 {@link #getRooms()} 只读一个 volatile 引用，不加锁也不分配。
+ * 引用不变即内容不变，界面可据此跳过重建。
+ */
+public class LanRoomCache {
+    /** 默认 TTL：约 3 个信标周期，容忍偶发丢包 */
+    public static final long DEFAULT_TTL_MS = 3500L;
+    /** 同一主机两次测 ping 的最小间隔 */
+    public static final long PING_INTERVAL_MS = 2000L;
+
+    private final long ttlMs;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final Map<String, Long> lastPingSent = new HashMap<>();
+    private final Map<String, Float> hostPing = new HashMap<>();
+    private volatile List<Entry> view = Collections.emptyList();
+
+    public LanRoomCache() {
+        this(DEFAULT_TTL_MS);
+    }
+
+    public LanRoomCache(long ttlMs) {
+        this.ttlMs = ttlMs;
+    }
+
+    /** 收到信标：新增或刷新房间 */
+    public synchronized void onBeacon(String hostIp, LanRoomInfo info, long nowMs) {
+        String key = keyOf(hostIp, info);
+        Entry old = entries.get(key);
+        if (old != null && old.info.equals(info)) {
+            old.lastSeenMs = nowMs;
+            return;
+        }
+        Float ping = hostPing.get(hostIp);
+        entries.put(key, new Entry(hostIp, info, ping == null ? -1f : ping, nowMs));
+        publish();
+    }
+
+    /** 收到该主机的 PONG：更新其全部房间的 ping（同一主机的多个房间共用） */
+    public synchronized void onPong(String hostIp, float rttMs) {
+        Float old = hostPing.put(hostIp, rttMs);
+        if (old != null && Math.round(old) == Math.round(rttMs)) return;
+        boolean changed = false;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            if (!entry.hostIp.equals(hostIp)) continue;
+            Entry updated = new Entry(hostIp, entry.info, rttMs, entry.lastSeenMs);
+            e.setValue(updated);
+            changed = true;
+        }
+        if (changed) publish();
+    }
+
+    /** 是否该向该主机发 PING（是则记下发送时间） */
+    public synchronized boolean shouldPing(String hostIp, long nowMs) {
+        Long last = lastPingSent.get(hostIp);
+        if (last != null && nowMs - last < PING_INTERVAL_MS) return false;
+        lastPingSent.put(hostIp, nowMs);
+        return true;
+    }
+
+    /** 淘汰超过 TTL 未刷新的房间，返回淘汰数量 */
+    public synchronized int evictExpired(long nowMs) {
+        int before = entries.size();
+        entries.values().removeIf(e -> nowMs - e.lastSeenMs > ttlMs);
+        int removed = before - entries.size();
+        if (removed == 0) return 0;
+        lastPingSent.keySet().removeIf(ip -> !hasHost(ip));
+        hostPing.keySet().removeIf(ip -> !hasHost(ip));
+        publish();
+        return removed;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        lastPingSent.clear();
+        hostPing.clear();
+        publish();
+    }
+
+    /** 当前房间列表（不可变快照，按展示名排序；无锁读取） */
+    public List<Entry> getRooms() {
+        return view;
+    }
+
+    public long getTtlMs() {
+        return ttlMs;
+    }
+
+    private boolean hasHost(String hostIp) {
+        for (Entry e : entries.values()) {
+            if (e.hostIp.equals(hostIp)) return true;
+        }
+        return false;
+    }
+
+    private void publish() {
+        List<Entry> list = new ArrayList<>(entries.values());
+        list.sort((a, b) -> {
+            int c = a.info.getHostName().compareTo(b.info.getHostName());
+            return c != 0 ? c : a.key.compareTo(b.key);
+        });
+        view = Collections.unmodifiableList(list);
+    }
+
+    private static String keyOf(String hostIp, LanRoomInfo info) {
+        String room = info.getRoomName();
+        return hostIp + ":" + info.getPort() + (room == null ? "" : "/" + room);
+    }
+
+    /** 一个已发现的房间；info 与 ping 不变，lastSeenMs 随信标刷新 */
+    public static final class Entry {
+        private final String key;
+        private final String hostIp;
+        private final LanRoomInfo info;
+        private final float pingMs;
+        private volatile long lastSeenMs;
+
+        Entry(String hostIp, LanRoomInfo info, float pingMs, long lastSeenMs) {
+            this.key = keyOf(hostIp, info);
+            this.hostIp = hostIp;
+            this.info = info;
+            this.pingMs = pingMs;
+            this.lastSeenMs = lastSeenMs;
+        }
+
+        public String getHostIp() {
+            return hostIp;
+        }
+
+        public LanRoomInfo getInfo() {
+            return info;
+        }
+
+        /** 往返时间（毫秒），尚未测得为 -1 */
+        public float getPingMs() {
+            return pingMs;
+        }
+
+        public long getLastSeenMs() {
+            return lastSeenMs;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.goldsprite.magicdungeon2.network.lan.discovery;
+
+import java.util.Objects;
+
+/**
+ * 房间信标携带的房间信息（不可变）
+ * <p>
+ * hostName 为展示名（房主昵称或服务器房间名）；roomName 为加入时传给
+ * {@link com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService#join(String, String, int, String)} 的房间名，
+ * 单房间主机为 null。floor 为 0 表示仍在大厅、尚未开始。
+ */
+public final class LanRoomInfo {
+    private final String hostName;
+    private final String roomName;
+    private final int port;
+    private final int players;
+    private final int floor;
+
+    public LanRoomInfo(String hostName, String roomName, int port, int players, int floor) {
+        this.hostName = hostName == null ? "" : hostName;
+        this.roomName = roomName;
+        this.port = port;
+        this.players = players;
+        this.floor = floor;
+    }
+
+    public String getHostName() {
+        return hostName;
+    }
+
+    public String getRoomName() {
+        return roomName;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getPlayers() {
+        return players;
+    }
+
+    public int getFloor() {
+        return floor;
+    }
+
+    public boolean isInGame() {
+        return floor > 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LanRoomInfo)) return false;
+        LanRoomInfo other = (LanRoomInfo) o;
+        return port == other.port && players == other.players && floor == other.floor
+            && hostName.equals(other.hostName) && Objects.equals(roomName, other.roomName);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(hostName, roomName, port, players, floor);
+    }
+
+    @Override
+    public String toString() {
+        return hostName + (roomName == null ? "" : "/" + roomName) + ":" + port
+            + " players=" + players + " floor=" + floor;
+    }
+}
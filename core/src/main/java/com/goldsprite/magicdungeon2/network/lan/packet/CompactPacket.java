@@ -0,0 +1,12 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 使用紧凑二进制报文体的 LAN 包
+ * <p>
+ * 类型化字段声明为 transient（编解码器不序列化），构造时编码为 Base64 报文体 body 随包发送，
+ * 接收端首次读取字段时解码。仍通过 PacketCodeC.registerPacketType 按命令字注册，外层协议不变。
+ */
+public interface CompactPacket {
+    /** 报文体（Base64）；其长度约等于上线字节数，用于合并发送的数据报大小估算 */
+    String getBody();
+}
@@ -0,0 +1,83 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 敌人状态字段级增量 — 相对客户端已确认基线的变化
+ * <p>
+ * 除 enemyId 外每个字段对应位掩码中的一位：未置位表示"与基线相同，未变化"，读取时返回 null
+ * （字符串字段设为 null 等同未变化）。
+ * 字段以原始类型保存，房主端复用增量对象时设置字段不装箱；同包的编码器按掩码直接读取原始值。
+ * 上线时按字段位掩码编码（见 {@link LanEnemyDeltaBroadcastPacket}），未变化的字段不占报文。
+ */
+public class EnemyStateDelta {
+    public static final int TYPE = 1, X = 1 << 1, Y = 1 << 2, VISUAL_X = 1 << 3, VISUAL_Y = 1 << 4,
+        HP = 1 << 5, MAX_HP = 1 << 6, ALIVE = 1 << 7, ACTION = 1 << 8;
+
+    private int enemyId;
+    int mask;
+    String enemyType;
+    int x, y;
+    float visualX, visualY;
+    float hp, maxHp;
+    boolean alive;
+    String action;
+
+    public EnemyStateDelta() {}
+
+    public EnemyStateDelta(int enemyId) {
+        this.enemyId = enemyId;
+    }
+
+    /** 重置为"无变化"（房主端复用增量对象） */
+    public EnemyStateDelta reset(int enemyId) {
+        this.enemyId = enemyId;
+        mask = 0;
+        enemyType = null;
+        action = null;
+        return this;
+    }
+
+    /** 是否没有任何字段变化 */
+    public boolean isEmpty() {
+        return mask == 0;
+    }
+
+    /** 字段是否有变化（field 为本类的字段位常量） */
+    public boolean has(int field) {
+        return (mask & field) != 0;
+    }
+
+    /** 变化字段的位掩码 */
+    public int getMask() { return mask; }
+
+    // ============ Getters & Setters ============
+
+    public int getEnemyId() { return enemyId; }
+    public void setEnemyId(int enemyId) { this.enemyId = enemyId; }
+
+    public String getEnemyType() { return has(TYPE) ? enemyType : null; }
+    public void setEnemyType(String enemyType) { this.enemyType = enemyType; mask = enemyType != null ? mask | TYPE : mask & ~TYPE; }
+
+    public Integer getX() { return has(X) ? x : null; }
+    public void setX(int x) { this.x = x; mask |= X; }
+
+    public Integer getY() { return has(Y) ? y : null; }
+    public void setY(int y) { this.y = y; mask |= Y; }
+
+    public Float getVisualX() { return has(VISUAL_X) ? visualX : null; }
+    public void setVisualX(float visualX) { this.visualX = visualX; mask |= VISUAL_X; }
+
+    public Float getVisualY() { return has(VISUAL_Y) ? visualY : null; }
+    public void setVisualY(float visualY) { this.visualY = visualY; mask |= VISUAL_Y; }
+
+    public Float getHp() { return has(HP) ? hp : null; }
+    public void setHp(float hp) { this.hp = hp; mask |= HP; }
+
+    public Float getMaxHp() { return has(MAX_HP) ? maxHp : null; }
+    public void setMaxHp(float maxHp) { this.maxHp = maxHp; mask |= MAX_HP; }
+
+    public Boolean getAlive() { return has(ALIVE) ? alive : null; }
+    public void setAlive(boolean alive) { this.alive = alive; mask |= ALIVE; }
+
+    public String getAction() { return has(ACTION) ? action : null; }
+    public void setAction(String action) { this.action = action; mask = action != null ? mask | ACTION : mask & ~ACTION; }
+}
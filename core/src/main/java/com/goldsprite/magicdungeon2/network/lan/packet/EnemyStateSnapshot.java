@@ -13,6 +13,8 @@ public class EnemyStateSnapshot {
     private boolean alive;      // 是否存活
     private String action;      // 动作状态（idle/walk/attack/hurt/die）
     private long timestamp;
+    // 房主端附加信息，不上线：该敌人正在追踪的玩家（带宽预算按此提高对被追踪客户端的优先级）
+    private transient int aggroGuid = Integer.MIN_VALUE;
 
     public EnemyStateSnapshot() {}
 
@@ -32,6 +34,37 @@ public class EnemyStateSnapshot {
         this.timestamp = timestamp;
     }
 
+    /** 整体改写（房主端复用快照对象，避免每 tick 新建） */
+    public EnemyStateSnapshot set(int enemyId, String enemyType, int x, int y,
+                                  float visualX, float visualY, float hp, float maxHp,
+                                  boolean alive, String action, long timestamp) {
+        this.enemyId = enemyId;
+        this.enemyType = enemyType;
+        this.x = x;
+        this.y = y;
+        this.visualX = visualX;
+        this.visualY = visualY;
+        this.hp = hp;
+        this.maxHp = maxHp;
+        this.alive = alive;
+        this.action = action;
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    public EnemyStateSnapshot copyFrom(EnemyStateSnapshot s) {
+        return set(s.enemyId, s.enemyType, s.x, s.y, s.visualX, s.visualY,
+            s.hp, s.maxHp, s.alive, s.action, s.timestamp);
+    }
+
+    /** 房主端：附带敌人正在追踪的玩家（不参与编码与比较） */
+    public EnemyStateSnapshot withAggro(int aggroGuid) {
+        this.aggroGuid = aggroGuid;
+        return this;
+    }
+
+    public int getAggroGuid() { return aggroGuid; }
+
     // ============ Getters & Setters ============
 
     public int getEnemyId() { return enemyId; }
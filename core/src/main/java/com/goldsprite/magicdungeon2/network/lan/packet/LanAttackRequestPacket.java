@@ -1,19 +1,24 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
-
 /**
  * 客户端向服务器发送攻击请求
- * 服务器将请求转交给房主处理（房主权威判定）
+ * 服务器将请求转交给房主处理（房主权威判定）：坐标与攻击力只用于校验，
+ * 敌人位置按 viewTick（客户端所见的房主 tick）回溯
  */
-public class LanAttackRequestPacket extends Packet {
+public class LanAttackRequestPacket extends LanRequestPacket {
     private String attackType;  // "physical" 或 "magic"
     private float x, y;        // 攻击者当前网格坐标
     private int dx, dy;        // 攻击方向
     private float atk;         // 攻击者的ATK属性值
+    private long viewTick;     // 客户端所见敌人状态的房主 tick（0 = 未知）
 
     public LanAttackRequestPacket(int ownerGuid, String attackType,
                                   float x, float y, int dx, int dy, float atk) {
+        this(ownerGuid, attackType, x, y, dx, dy, atk, 0L);
+    }
+
+    public LanAttackRequestPacket(int ownerGuid, String attackType,
+                                  float x, float y, int dx, int dy, float atk, long viewTick) {
         super(ownerGuid);
         this.attackType = attackType;
         this.x = x;
@@ -21,6 +26,7 @@ public class LanAttackRequestPacket extends Packet {
         this.dx = dx;
         this.dy = dy;
         this.atk = atk;
+        this.viewTick = viewTick;
     }
 
     @Override
@@ -34,4 +40,5 @@ public class LanAttackRequestPacket extends Packet {
     public int getDx() { return dx; }
     public int getDy() { return dy; }
     public float getAtk() { return atk; }
+    public long getViewTick() { return viewTick; }
 }
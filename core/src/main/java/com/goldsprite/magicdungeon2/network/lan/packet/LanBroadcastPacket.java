@@ -0,0 +1,19 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
+
+/**
+ * 服务器 → 客户端的 LAN 专用包基类
+ * 携带服务器（权威端）发送时的模拟 tick 号，由 LanMultiplayerService 统一打戳
+ */
+public abstract class LanBroadcastPacket extends ResponsePacket {
+    private long tick;
+
+    protected LanBroadcastPacket(int ownerGuid, int repCode) {
+        super(ownerGuid, repCode);
+    }
+
+    /** 服务器模拟 tick 号（单调递增） */
+    public long getTick() { return tick; }
+    public void setTick(long tick) { this.tick = tick; }
+}
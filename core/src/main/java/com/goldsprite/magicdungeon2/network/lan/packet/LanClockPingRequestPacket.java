@@ -0,0 +1,21 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 客户端 → 服务器：时钟同步 PING，携带客户端单调时钟的发送时刻（微秒）
+ * 房主收到后立即回 {@link LanClockPongBroadcastPacket}
+ */
+public class LanClockPingRequestPacket extends LanRequestPacket {
+    private long clientTime;
+
+    public LanClockPingRequestPacket(int ownerGuid, long clientTime) {
+        super(ownerGuid);
+        this.clientTime = clientTime;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.CLOCK_PING_REQUEST;
+    }
+
+    public long getClientTime() { return clientTime; }
+}
@@ -0,0 +1,29 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 房主 → 单个客户端：时钟同步 PONG
+ * 原样回传 PING 的发送时刻，附房主单调时钟的回复时刻与当前 tick（包头 tick）的开始时刻，均为微秒；
+ * 不经发送合并，收到 PING 后立即发出
+ */
+public class LanClockPongBroadcastPacket extends LanBroadcastPacket {
+    private long clientTime;   // 回传的客户端发送时刻
+    private long serverTime;   // 房主回复时刻
+    private long tickStart;    // 包头 tick 开始的房主时刻
+
+    public LanClockPongBroadcastPacket(int ownerGuid, int repCode,
+                                       long clientTime, long serverTime, long tickStart) {
+        super(ownerGuid, repCode);
+        this.clientTime = clientTime;
+        this.serverTime = serverTime;
+        this.tickStart = tickStart;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.CLOCK_PONG_BROADCAST;
+    }
+
+    public long getClientTime() { return clientTime; }
+    public long getServerTime() { return serverTime; }
+    public long getTickStart() { return tickStart; }
+}
@@ -14,4 +14,32 @@ public interface LanCommands {
     byte DAMAGE_RESULT_BROADCAST = 49;  // 房主 → 全体：伤害判定结果
     byte PLAYER_HURT_BROADCAST = 50;    // 房主 → 全体：玩家被敌人攻击
     byte FLOOR_CHANGE_BROADCAST = 51;   // 房主 → 全体：换层信号
+
+    // ============ 增量同步 ============
+    byte ENEMY_DELTA_BROADCAST = 52;    // 房主 → 单个客户端：敌人状态增量（相对已确认基线）
+    byte ENEMY_ACK_REQUEST = 53;        // 客户端 → 服务器：确认已应用的敌人快照序号
+
+    // ============ 客户端预测 ============
+    byte PLAYER_INPUT_REQUEST = 54;     // 客户端 → 服务器：编号输入命令（含最近未确认的冗余）
+    byte PLAYER_INPUT_ACK = 55;         // 房主 → 单个客户端：已处理的最后输入序号 + 权威移动状态
+
+    // ============ 发送合并 ============
+    byte TICK_BUNDLE_BROADCAST = 56;    // 房主 → 单个客户端：同一 tick 内产生的多条消息合并为一个数据报
+
+    // ============ 可靠有序通道 ============
+    byte RELIABLE_ACK_REQUEST = 57;     // 客户端 → 服务器：可靠通道累计确认 + 选择确认位图
+
+    // ============ 多房间 ============
+    byte ROOM_JOIN_REQUEST = 58;        // 客户端 → 服务器：登录后选择同一端口上的房间
+
+    // ============ 关注区域 ============
+    byte PLAYER_VISIBILITY_BROADCAST = 59; // 房主 → 单个客户端：玩家进入/离开其关注区域
+
+    // ============ 时钟同步 ============
+    byte CLOCK_PING_REQUEST = 60;       // 客户端 → 服务器：时钟同步 PING（客户端发送时刻）
+    byte CLOCK_PONG_BROADCAST = 61;     // 房主 → 单个客户端：回传发送时刻 + 房主时刻 + tick 开始时刻
+
+    // ============ 会话恢复 ============
+    byte SESSION_RESUME_REQUEST = 62;   // 客户端 → 服务器：登录后登记恢复令牌（重连时携带断线前的 guid）
+    byte SESSION_RESYNC_BROADCAST = 63; // 房主 → 单个客户端：重连后的紧凑全量状态（层种子、层数、玩家状态、敌人关键帧）
 }
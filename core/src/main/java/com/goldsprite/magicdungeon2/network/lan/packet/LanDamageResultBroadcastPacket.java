@@ -1,12 +1,10 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
-
 /**
  * 房主向全体客户端广播伤害判定结果
- * 用于各端同步显示伤害飘字和更新敌人血量
+ * 用于各端同步显示伤害飘字和更新敌人血量；击杀时发放经验与金币，走可靠有序通道
  */
-public class LanDamageResultBroadcastPacket extends ResponsePacket {
+public class LanDamageResultBroadcastPacket extends LanReliableBroadcastPacket {
     private int enemyId;        // 被攻击的敌人ID
     private float damage;       // 造成的伤害
     private float remainHp;     // 敌人剩余HP
@@ -31,6 +29,12 @@ public class LanDamageResultBroadcastPacket extends ResponsePacket {
         return LanCommands.DAMAGE_RESULT_BROADCAST;
     }
 
+    @Override
+    public LanDamageResultBroadcastPacket copy() {
+        return copyHeaderTo(new LanDamageResultBroadcastPacket(ownerGuid, repCode,
+            enemyId, damage, remainHp, killed, attackerGuid, xpReward));
+    }
+
     public int getEnemyId() { return enemyId; }
     public float getDamage() { return damage; }
     public float getRemainHp() { return remainHp; }
@@ -0,0 +1,24 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 客户端 → 服务器：确认已成功应用的敌人快照序号
+ * 房主以此作为该客户端后续增量的基线；epoch 与快照所属纪元不符时房主忽略该确认
+ */
+public class LanEnemyAckRequestPacket extends LanRequestPacket {
+    private int epoch;
+    private int ackSeq;
+
+    public LanEnemyAckRequestPacket(int ownerGuid, int epoch, int ackSeq) {
+        super(ownerGuid);
+        this.epoch = epoch;
+        this.ackSeq = ackSeq;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.ENEMY_ACK_REQUEST;
+    }
+
+    public int getEpoch() { return epoch; }
+    public int getAckSeq() { return ackSeq; }
+}
@@ -0,0 +1,194 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.goldsprite.magicdungeon2.network.lan.codec.LanActionCodes;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireReader;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireWriter;
+
+
+/**
+ * 房主 → 单个客户端：敌人状态增量同步
+ * <p>
+ * baselineSeq = -1 表示关键帧（相对空表的全量），否则表示相对该客户端
+ * 已确认的 baselineSeq 号快照的字段级增量。序号与基线只在同一 epoch（房主为该客户端建立复制记录时分配）内有效。
+ * <p>
+ * 以紧凑二进制报文体发送：每个变化的敌人写 id + 字段位掩码，只跟随掩码中的字段；
+ * 网格坐标与序号变长编码，像素坐标/血量定点量化，动作枚举编码。
+ * 构造时立即编码且不持有传入的列表（读取字段时从报文体解码），房主端可复用增量对象与列表。
+ */
+public class LanEnemyDeltaBroadcastPacket extends LanBroadcastPacket implements CompactPacket {
+    public static final int KEYFRAME = -1;
+    /** 报文体中不含敌人条目的固定部分（纪元、序号、基线、时间戳、两个计数）的字节数上限 */
+    public static final int HEADER_SIZE = 3 + 5 + 5 + 10 + 2 + 2;
+
+    private static final int F_TYPE = EnemyStateDelta.TYPE, F_X = EnemyStateDelta.X, F_Y = EnemyStateDelta.Y,
+        F_VX = EnemyStateDelta.VISUAL_X, F_VY = EnemyStateDelta.VISUAL_Y, F_HP = EnemyStateDelta.HP,
+        F_MAX_HP = EnemyStateDelta.MAX_HP, F_ALIVE = EnemyStateDelta.ALIVE, F_ACTION = EnemyStateDelta.ACTION;
+
+    private String body;
+
+    private transient boolean decoded;
+    private transient int epoch;                    // 会话纪元（复制记录重建后改变）
+    private transient int seq;                      // 本快照序号（每个客户端独立递增）
+    private transient int baselineSeq;              // 增量基线序号（KEYFRAME 表示全量）
+    private transient long timestamp;               // 快照时间（替代每个敌人各带一份时间戳）
+    private transient List<EnemyStateDelta> changed; // 新增或字段变化的敌人
+    private transient int[] removed;                // 基线中存在、本快照中已移除的敌人ID
+
+    public LanEnemyDeltaBroadcastPacket(int ownerGuid, int repCode,
+                                        int epoch, int seq, int baselineSeq, long timestamp,
+                                        List<EnemyStateDelta> changed, int[] removed) {
+        this(ownerGuid, repCode, epoch, seq, baselineSeq, timestamp, changed, removed,
+            removed == null ? 0 : removed.length);
+    }
+
+    /** 同上，只编码 removed 的前 removedCount 个（房主端复用移除列表数组） */
+    public LanEnemyDeltaBroadcastPacket(int ownerGuid, int repCode,
+                                        int epoch, int seq, int baselineSeq, long timestamp,
+                                        List<EnemyStateDelta> changed, int[] removed, int removedCount) {
+        super(ownerGuid, repCode);
+        this.epoch = epoch;
+        this.seq = seq;
+        this.baselineSeq = baselineSeq;
+        this.timestamp = timestamp;
+        this.changed = changed;
+        this.removed = removed;
+        this.body = encode(removedCount);
+        // 不持有调用方的（可能被复用的）列表，读取时从报文体解码
+        this.changed = null;
+        this.removed = null;
+    }
+
+    private LanEnemyDeltaBroadcastPacket(int ownerGuid, int repCode, String body) {
+        super(ownerGuid, repCode);
+        this.body = body;
+    }
+
+    /** 由报文体构造（与经编解码器收到的包等价，字段在首次读取时解码） */
+    public static LanEnemyDeltaBroadcastPacket fromBody(int ownerGuid, int repCode, String body) {
+        return new LanEnemyDeltaBroadcastPacket(ownerGuid, repCode, body);
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.ENEMY_DELTA_BROADCAST;
+    }
+
+    @Override
+    public String getBody() {
+        return body;
+    }
+
+    private String encode(int removedCount) {
+        LanWireWriter w = LanWireWriter.local();
+        w.writeVarInt(epoch);
+        w.writeVarInt(seq);
+        w.writeSignedVarInt(baselineSeq);
+        w.writeVarLong(timestamp);
+        int n = changed == null ? 0 : changed.size();
+        w.writeVarInt(n);
+        for (int i = 0; i < n; i++) {
+            EnemyStateDelta d = changed.get(i);
+            int mask = d.mask; // 直接读原始字段，不经可空的包装类型
+            w.writeVarInt(d.getEnemyId());
+            w.writeVarInt(mask);
+            if ((mask & F_TYPE) != 0) w.writeString(d.enemyType);
+            if ((mask & F_X) != 0) w.writeSignedVarInt(d.x);
+            if ((mask & F_Y) != 0) w.writeSignedVarInt(d.y);
+            if ((mask & F_VX) != 0) w.writeFixed(d.visualX);
+            if ((mask & F_VY) != 0) w.writeFixed(d.visualY);
+            if ((mask & F_HP) != 0) w.writeFixed(d.hp);
+            if ((mask & F_MAX_HP) != 0) w.writeFixed(d.maxHp);
+            if ((mask & F_ALIVE) != 0) w.writeBoolean(d.alive);
+            if ((mask & F_ACTION) != 0) LanActionCodes.write(w, d.action);
+        }
+        int r = removed == null ? 0 : removedCount;
+        w.writeVarInt(r);
+        for (int i = 0; i < r; i++) w.writeVarInt(removed[i]);
+        return w.toBase64();
+    }
+
+    /**
+     * 单个敌人增量编码后的字节数（报文体 base64 之前；字符串按字符数估算），供房主端带宽预算使用
+     */
+    public static int encodedSize(EnemyStateDelta d) {
+        int size = varIntSize(d.getEnemyId()) + 2; // id + 掩码（9 位，2 字节）
+        int mask = d.mask;
+        if ((mask & F_TYPE) != 0) size += varIntSize(d.enemyType.length() + 1) + d.enemyType.length();
+        if ((mask & F_X) != 0) size += signedVarIntSize(d.x);
+        if ((mask & F_Y) != 0) size += signedVarIntSize(d.y);
+        if ((mask & F_VX) != 0) size += fixedSize(d.visualX);
+        if ((mask & F_VY) != 0) size += fixedSize(d.visualY);
+        if ((mask & F_HP) != 0) size += fixedSize(d.hp);
+        if ((mask & F_MAX_HP) != 0) size += fixedSize(d.maxHp);
+        if ((mask & F_ALIVE) != 0) size += 1;
+        if ((mask & F_ACTION) != 0) size += 1; // 常用动作为单字节枚举
+        return size;
+    }
+
+    /** 移除列表中单个 id 的字节数 */
+    public static int removedSize(int enemyId) {
+        return varIntSize(enemyId);
+    }
+
+    private static int varIntSize(int v) {
+        int n = 1;
+        while ((v & ~0x7F) != 0) {
+            v >>>= 7;
+            n++;
+        }
+        return n;
+    }
+
+    private static int signedVarIntSize(int v) {
+        return varIntSize((v << 1) ^ (v >> 31));
+    }
+
+    private static int fixedSize(float v) {
+        return signedVarIntSize(Math.round(v * LanWireWriter.FIXED_SCALE));
+    }
+
+    private void ensureDecoded() {
+        if (decoded) return;
+        decoded = true;
+        LanWireReader r = LanWireReader.fromBase64(body);
+        epoch = r.readVarInt();
+        seq = r.readVarInt();
+        baselineSeq = r.readSignedVarInt();
+        timestamp = r.readVarLong();
+        int n = r.readVarInt();
+        if (n > 0) {
+            changed = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                EnemyStateDelta d = new EnemyStateDelta(r.readVarInt());
+                int mask = r.readVarInt();
+                if ((mask & F_TYPE) != 0) d.setEnemyType(r.readString());
+                if ((mask & F_X) != 0) d.setX(r.readSignedVarInt());
+                if ((mask & F_Y) != 0) d.setY(r.readSignedVarInt());
+                if ((mask & F_VX) != 0) d.setVisualX(r.readFixed());
+                if ((mask & F_VY) != 0) d.setVisualY(r.readFixed());
+                if ((mask & F_HP) != 0) d.setHp(r.readFixed());
+                if ((mask & F_MAX_HP) != 0) d.setMaxHp(r.readFixed());
+                if ((mask & F_ALIVE) != 0) d.setAlive(r.readBoolean());
+                if ((mask & F_ACTION) != 0) d.setAction(LanActionCodes.read(r));
+                changed.add(d);
+            }
+        }
+        int rc = r.readVarInt();
+        if (rc > 0) {
+            removed = new int[rc];
+            for (int i = 0; i < rc; i++) removed[i] = r.readVarInt();
+        }
+    }
+
+    public boolean isKeyframe() { return getBaselineSeq() == KEYFRAME; }
+
+    public int getEpoch() { ensureDecoded(); return epoch; }
+    public int getSeq() { ensureDecoded(); return seq; }
+    public int getBaselineSeq() { ensureDecoded(); return baselineSeq; }
+    public long getTimestamp() { ensureDecoded(); return timestamp; }
+    public List<EnemyStateDelta> getChanged() { ensureDecoded(); return changed; }
+    public int[] getRemoved() { ensureDecoded(); return removed; }
+}
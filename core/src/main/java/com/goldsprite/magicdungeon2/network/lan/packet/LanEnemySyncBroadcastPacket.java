@@ -2,12 +2,11 @@ package com.goldsprite.magicdungeon2.network.lan.packet;
 
 import java.util.List;
 
-import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
 
 /**
  * 房主定期广播所有敌人状态给全体客户端
  */
-public class LanEnemySyncBroadcastPacket extends ResponsePacket {
+public class LanEnemySyncBroadcastPacket extends LanBroadcastPacket {
     private List<EnemyStateSnapshot> enemies;
 
     public LanEnemySyncBroadcastPacket(int ownerGuid, int repCode, List<EnemyStateSnapshot> enemies) {
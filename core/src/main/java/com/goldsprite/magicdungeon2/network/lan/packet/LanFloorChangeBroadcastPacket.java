@@ -1,12 +1,10 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
-
 /**
  * 房主向全体客户端广播"换层"信号
- * 携带新层的地图种子，所有客户端用此种子重建地图
+ * 携带新层的地图种子，所有客户端用此种子重建地图；走可靠有序通道
  */
-public class LanFloorChangeBroadcastPacket extends ResponsePacket {
+public class LanFloorChangeBroadcastPacket extends LanReliableBroadcastPacket {
     private long newSeed;   // 新一层的地图种子
     private int floor;      // 层数编号
 
@@ -22,6 +20,11 @@ public class LanFloorChangeBroadcastPacket extends ResponsePacket {
         return LanCommands.FLOOR_CHANGE_BROADCAST;
     }
 
+    @Override
+    public LanFloorChangeBroadcastPacket copy() {
+        return copyHeaderTo(new LanFloorChangeBroadcastPacket(ownerGuid, repCode, newSeed, floor));
+    }
+
     public long getNewSeed() { return newSeed; }
     public int getFloor() { return floor; }
 }
@@ -1,19 +1,25 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
 import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
-import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
 
 /**
  * 服务器向所有客户端广播"开始游戏"信号
- * 携带地图种子，确保所有端生成相同地图
+ * 携带地图种子与当前层数（中途加入独立服务器时不一定是第 1 层），确保所有端生成相同地图；走可靠有序通道
  */
-public class LanGameStartBroadcastPacket extends ResponsePacket {
+public class LanGameStartBroadcastPacket extends LanReliableBroadcastPacket {
 
     private long mapSeed; // 地图种子，所有端用此种子生成相同地图
+    private int floor;    // 当前层数
 
+    /** 从第 1 层开始 */
     public LanGameStartBroadcastPacket(int ownerGuid, int repCode, long mapSeed) {
+        this(ownerGuid, repCode, mapSeed, 1);
+    }
+
+    public LanGameStartBroadcastPacket(int ownerGuid, int repCode, long mapSeed, int floor) {
         super(ownerGuid, repCode);
         this.mapSeed = mapSeed;
+        this.floor = floor;
     }
 
     @Override
@@ -21,5 +27,11 @@ public class LanGameStartBroadcastPacket extends ResponsePacket {
         return LanCommands.GAME_START_BROADCAST;
     }
 
+    @Override
+    public LanGameStartBroadcastPacket copy() {
+        return copyHeaderTo(new LanGameStartBroadcastPacket(ownerGuid, repCode, mapSeed, floor));
+    }
+
     public long getMapSeed() { return mapSeed; }
+    public int getFloor() { return floor; }
 }
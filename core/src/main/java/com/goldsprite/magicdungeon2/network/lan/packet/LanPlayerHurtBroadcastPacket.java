@@ -1,12 +1,10 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
-
 /**
  * 房主向全体客户端广播"玩家受到敌人攻击"
- * 用于远程玩家同步扣血（房主权威判定后通知目标客户端）
+ * 用于远程玩家同步扣血（房主权威判定后通知目标客户端），走可靠有序通道
  */
-public class LanPlayerHurtBroadcastPacket extends ResponsePacket {
+public class LanPlayerHurtBroadcastPacket extends LanReliableBroadcastPacket {
     private int targetGuid;      // 被攻击的玩家GUID
     private float damage;        // 造成的伤害
     private float remainHp;      // 玩家剩余HP
@@ -27,6 +25,12 @@ public class LanPlayerHurtBroadcastPacket extends ResponsePacket {
         return LanCommands.PLAYER_HURT_BROADCAST;
     }
 
+    @Override
+    public LanPlayerHurtBroadcastPacket copy() {
+        return copyHeaderTo(new LanPlayerHurtBroadcastPacket(ownerGuid, repCode,
+            targetGuid, damage, remainHp, attackerEnemyId));
+    }
+
     public int getTargetGuid() { return targetGuid; }
     public float getDamage() { return damage; }
     public float getRemainHp() { return remainHp; }
@@ -0,0 +1,39 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 房主 → 单个客户端：输入回执
+ * 携带已处理的最后一条输入序号与该时刻的权威移动状态，客户端以此为起点重放未确认输入；
+ * 另带已入队的最后一条输入序号，客户端从其后开始重发
+ */
+public class LanPlayerInputAckBroadcastPacket extends LanBroadcastPacket {
+    private int ackSeq;
+    private int queuedSeq;
+    private int x, y;
+    private float moveTimer;
+    private int faceDx, faceDy;
+
+    public LanPlayerInputAckBroadcastPacket(int ownerGuid, int repCode, int ackSeq, int queuedSeq,
+                                            int x, int y, float moveTimer, int faceDx, int faceDy) {
+        super(ownerGuid, repCode);
+        this.ackSeq = ackSeq;
+        this.queuedSeq = queuedSeq;
+        this.x = x;
+        this.y = y;
+        this.moveTimer = moveTimer;
+        this.faceDx = faceDx;
+        this.faceDy = faceDy;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.PLAYER_INPUT_ACK;
+    }
+
+    public int getAckSeq() { return ackSeq; }
+    public int getQueuedSeq() { return queuedSeq; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public float getMoveTimer() { return moveTimer; }
+    public int getFaceDx() { return faceDx; }
+    public int getFaceDy() { return faceDy; }
+}
@@ -0,0 +1,111 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireReader;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireWriter;
+
+/**
+ * 客户端 → 服务器：编号输入命令
+ * <p>
+ * 每 tick 发送一次，携带从 firstSeq 起连续的最近若干条未确认输入（冗余抗丢包），
+ * 房主按序号去重后逐条模拟。每条输入压缩为一个字节，见 {@link #encode}。
+ * 攻击力与冷却由客户端属性计算后随包上报；位置完全由房主模拟，不再上报。
+ * viewTick 为客户端产生最新一条输入时所见敌人状态的房主 tick，房主据此回溯敌人位置结算攻击（延迟补偿）。
+ * <p>
+ * 字段不直接进报文（transient），构造时编码为紧凑二进制报文体 body，不持有调用方的输入数组，
+ * 发送方可复用同一缓冲区；接收端首次读取字段时解码。
+ */
+public class LanPlayerInputRequestPacket extends LanRequestPacket implements CompactPacket {
+    private String body;
+
+    private transient boolean decoded;
+    private transient int firstSeq;   // inputs[0] 的序号，其余依次 +1
+    private transient byte[] inputs;  // 编码后的输入（解码时创建）
+    private transient float atk;
+    private transient float moveCooldown;
+    private transient float attackCooldown;
+    private transient long viewTick;  // 最新输入对应的所见房主 tick（0 = 未收到敌人状态）
+
+    public LanPlayerInputRequestPacket(int ownerGuid, int firstSeq, byte[] inputs,
+                                       float atk, float moveCooldown, float attackCooldown) {
+        this(ownerGuid, firstSeq, inputs, inputs.length, atk, moveCooldown, attackCooldown, 0L);
+    }
+
+    public LanPlayerInputRequestPacket(int ownerGuid, int firstSeq, byte[] inputs,
+                                       float atk, float moveCooldown, float attackCooldown, long viewTick) {
+        this(ownerGuid, firstSeq, inputs, inputs.length, atk, moveCooldown, attackCooldown, viewTick);
+    }
+
+    /** @param inputs 只读取前 count 条并立即编码，构造后调用方可继续复用 */
+    public LanPlayerInputRequestPacket(int ownerGuid, int firstSeq, byte[] inputs, int count,
+                                       float atk, float moveCooldown, float attackCooldown, long viewTick) {
+        super(ownerGuid);
+        LanWireWriter w = LanWireWriter.local();
+        w.writeVarInt(firstSeq);
+        w.writeVarInt(count);
+        for (int i = 0; i < count; i++) w.writeByte(inputs[i]);
+        // 攻击力与冷却参与房主模拟，须与客户端预测逐位一致：按原始位上报，不做定点量化
+        w.writeVarInt(Float.floatToIntBits(atk));
+        w.writeVarInt(Float.floatToIntBits(moveCooldown));
+        w.writeVarInt(Float.floatToIntBits(attackCooldown));
+        w.writeVarLong(viewTick);
+        this.body = w.toBase64();
+    }
+
+    private LanPlayerInputRequestPacket(int ownerGuid, String body) {
+        super(ownerGuid);
+        this.body = body;
+    }
+
+    /** 由报文体构造（与经编解码器收到的包等价，字段在首次读取时解码） */
+    public static LanPlayerInputRequestPacket fromBody(int ownerGuid, String body) {
+        return new LanPlayerInputRequestPacket(ownerGuid, body);
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.PLAYER_INPUT_REQUEST;
+    }
+
+    @Override
+    public String getBody() {
+        return body;
+    }
+
+    /** 发送端构造时不保留字段，两端读取时都从报文体解码 */
+    private void ensureDecoded() {
+        if (decoded) return;
+        LanWireReader r = LanWireReader.fromBase64(body);
+        firstSeq = r.readVarInt();
+        byte[] codes = new byte[r.readVarInt()];
+        for (int i = 0; i < codes.length; i++) codes[i] = (byte) r.readByte();
+        atk = Float.intBitsToFloat(r.readVarInt());
+        moveCooldown = Float.intBitsToFloat(r.readVarInt());
+        attackCooldown = Float.intBitsToFloat(r.readVarInt());
+        viewTick = r.readVarLong();
+        inputs = codes;
+        decoded = true;
+    }
+
+    /** 编码：bit0-1 = dx+1，bit2-3 = dy+1，bit4 = 魔法 */
+    public static byte encode(int dx, int dy, boolean magic) {
+        return (byte) ((dx + 1) | ((dy + 1) << 2) | (magic ? 0x10 : 0));
+    }
+
+    public static int decodeDx(byte code) { return (code & 0x3) - 1; }
+    public static int decodeDy(byte code) { return ((code >> 2) & 0x3) - 1; }
+    public static boolean decodeMagic(byte code) { return (code & 0x10) != 0; }
+
+    public int getFirstSeq() { ensureDecoded(); return firstSeq; }
+    public byte[] getInputs() { ensureDecoded(); return inputs; }
+    public float getAtk() { ensureDecoded(); return atk; }
+    public float getMoveCooldown() { ensureDecoded(); return moveCooldown; }
+    public float getAttackCooldown() { ensureDecoded(); return attackCooldown; }
+    public long getViewTick() { ensureDecoded(); return viewTick; }
+
+    /** 第 i 条输入的所见 tick：较早的输入按每条一个 tick 往前推（冗余补发的旧输入） */
+    public long viewTickAt(int i) {
+        ensureDecoded();
+        if (viewTick <= 0 || inputs == null) return 0L;
+        return Math.max(1L, viewTick - (inputs.length - 1 - i));
+    }
+}
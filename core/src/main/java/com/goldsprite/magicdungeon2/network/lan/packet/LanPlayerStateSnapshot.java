@@ -9,6 +9,7 @@ public class LanPlayerStateSnapshot {
     private float vy;
     private String action;
     private long timestamp;
+    private long tick; // 发送方模拟 tick 号（跨机器可比较的时间基准）
     // Phase 3/4 扩展字段：属性/血量可见
     private float hp;
     private float maxHp;
@@ -106,6 +107,14 @@ public class LanPlayerStateSnapshot {
         this.timestamp = timestamp;
     }
 
+    public long getTick() {
+        return tick;
+    }
+
+    public void setTick(long tick) {
+        this.tick = tick;
+    }
+
     // ============ Phase 3/4 扩展字段 ============
 
     public float getHp() { return hp; }
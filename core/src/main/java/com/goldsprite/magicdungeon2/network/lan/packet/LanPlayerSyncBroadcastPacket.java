@@ -1,13 +1,30 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanActionCodes;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireReader;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireWriter;
 
-public class LanPlayerSyncBroadcastPacket extends ResponsePacket {
-    private LanPlayerStateSnapshot state;
+/**
+ * 服务器 → 客户端：转发某个玩家的状态（高频）
+ * <p>
+ * 快照以紧凑二进制报文体发送：不含玩家名（加入时经房间成员列表下发一次，接收端沿用已知名字），
+ * 不含发送时间戳（接收端按传输层时钟记为收到时刻），guid/tick 变长编码，坐标与属性定点量化。
+ * 同一快照转发给多个客户端时只编码一次（{@link #encode}）。
+ * 包只持有报文体，不引用调用方的快照对象（服务端原地复用玩家快照）。
+ */
+public class LanPlayerSyncBroadcastPacket extends LanBroadcastPacket implements CompactPacket {
+    private String body;
+
+    private transient LanPlayerStateSnapshot state;
 
     public LanPlayerSyncBroadcastPacket(int ownerGuid, int repCode, LanPlayerStateSnapshot state) {
+        this(ownerGuid, repCode, encode(state));
+    }
+
+    /** 使用预先编码好的报文体（转发给多个客户端时共享） */
+    public LanPlayerSyncBroadcastPacket(int ownerGuid, int repCode, String body) {
         super(ownerGuid, repCode);
-        this.state = state;
+        this.body = body;
     }
 
     @Override
@@ -15,7 +32,49 @@ public class LanPlayerSyncBroadcastPacket extends ResponsePacket {
         return LanCommands.PLAYER_SYNC_BROADCAST;
     }
 
+    @Override
+    public String getBody() {
+        return body;
+    }
+
+    /** 首次调用时从报文体解码；玩家名为 null，时间戳为 0（不上线，由接收端按传输层时钟补记） */
     public LanPlayerStateSnapshot getState() {
+        if (state == null && body != null) state = decode(body);
         return state;
     }
+
+    /** 编码玩家快照（不含名字与时间戳） */
+    public static String encode(LanPlayerStateSnapshot s) {
+        if (s == null) return null;
+        LanWireWriter w = LanWireWriter.local();
+        w.writeVarInt(s.getPlayerGuid());
+        w.writeVarLong(s.getTick());
+        w.writeFixed(s.getX());
+        w.writeFixed(s.getY());
+        w.writeFixed(s.getVx());
+        w.writeFixed(s.getVy());
+        LanActionCodes.write(w, s.getAction());
+        w.writeFixed(s.getHp());
+        w.writeFixed(s.getMaxHp());
+        w.writeVarInt(s.getLevel());
+        w.writeFixed(s.getAtk());
+        w.writeFixed(s.getDef());
+        return w.toBase64();
+    }
+
+    private static LanPlayerStateSnapshot decode(String body) {
+        LanWireReader r = LanWireReader.fromBase64(body);
+        int guid = r.readVarInt();
+        long tick = r.readVarLong();
+        float x = r.readFixed(), y = r.readFixed();
+        float vx = r.readFixed(), vy = r.readFixed();
+        String action = LanActionCodes.read(r);
+        float hp = r.readFixed(), maxHp = r.readFixed();
+        int level = r.readVarInt();
+        float atk = r.readFixed(), def = r.readFixed();
+        LanPlayerStateSnapshot s = new LanPlayerStateSnapshot(guid, null, x, y, vx, vy, action,
+            0L, hp, maxHp, level, atk, def);
+        s.setTick(tick);
+        return s;
+    }
 }
@@ -1,23 +1,34 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
-
-public class LanPlayerSyncRequestPacket extends Packet {
-    private float x;
-    private float y;
-    private float vx;
-    private float vy;
-    private String action;
-    private long timestamp;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanActionCodes;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireReader;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireWriter;
+
+/**
+ * 客户端 → 服务器：本地玩家状态（高频）
+ * <p>
+ * 字段不直接进报文（transient），构造时编码为紧凑二进制报文体 body：
+ * 坐标/属性定点量化、动作枚举编码；不带时间戳，接收端按自己的传输层时钟记录收到时刻。
+ * 接收端首次读取字段时解码。
+ */
+public class LanPlayerSyncRequestPacket extends LanRequestPacket implements CompactPacket {
+    private String body;
+
+    private transient boolean decoded;
+    private transient float x;
+    private transient float y;
+    private transient float vx;
+    private transient float vy;
+    private transient String action;
     // Phase 3/4: 扩展属性
-    private float hp;
-    private float maxHp;
-    private int level;
-    private float atk;
-    private float def;
+    private transient float hp;
+    private transient float maxHp;
+    private transient int level;
+    private transient float atk;
+    private transient float def;
 
     public LanPlayerSyncRequestPacket(int ownerGuid, float x, float y, float vx, float vy,
-                                      String action, long timestamp,
+                                      String action,
                                       float hp, float maxHp, int level, float atk, float def) {
         super(ownerGuid);
         this.x = x;
@@ -25,12 +36,35 @@ public class LanPlayerSyncRequestPacket extends Packet {
         this.vx = vx;
         this.vy = vy;
         this.action = action;
-        this.timestamp = timestamp;
         this.hp = hp;
         this.maxHp = maxHp;
         this.level = level;
         this.atk = atk;
         this.def = def;
+        this.decoded = true;
+
+        LanWireWriter w = LanWireWriter.local();
+        w.writeFixed(x);
+        w.writeFixed(y);
+        w.writeFixed(vx);
+        w.writeFixed(vy);
+        LanActionCodes.write(w, action);
+        w.writeFixed(hp);
+        w.writeFixed(maxHp);
+        w.writeVarInt(level);
+        w.writeFixed(atk);
+        w.writeFixed(def);
+        this.body = w.toBase64();
+    }
+
+    private LanPlayerSyncRequestPacket(int ownerGuid, String body) {
+        super(ownerGuid);
+        this.body = body;
+    }
+
+    /** 由报文体构造（与经编解码器收到的包等价，字段在首次读取时解码） */
+    public static LanPlayerSyncRequestPacket fromBody(int ownerGuid, String body) {
+        return new LanPlayerSyncRequestPacket(ownerGuid, body);
     }
 
     @Override
@@ -38,34 +72,56 @@ public class LanPlayerSyncRequestPacket extends Packet {
         return LanCommands.PLAYER_SYNC_REQUEST;
     }
 
+    @Override
+    public String getBody() {
+        return body;
+    }
+
+    private void ensureDecoded() {
+        if (decoded) return;
+        decoded = true;
+        LanWireReader r = LanWireReader.fromBase64(body);
+        x = r.readFixed();
+        y = r.readFixed();
+        vx = r.readFixed();
+        vy = r.readFixed();
+        action = LanActionCodes.read(r);
+        hp = r.readFixed();
+        maxHp = r.readFixed();
+        level = r.readVarInt();
+        atk = r.readFixed();
+        def = r.readFixed();
+    }
+
     public float getX() {
+        ensureDecoded();
         return x;
     }
 
     public float getY() {
+        ensureDecoded();
         return y;
     }
 
     public float getVx() {
+        ensureDecoded();
         return vx;
     }
 
     public float getVy() {
+        ensureDecoded();
         return vy;
     }
 
     public String getAction() {
+        ensureDecoded();
         return action;
     }
 
-    public long getTimestamp() {
-        return timestamp;
-    }
-
     // Phase 3/4 扩展
-    public float getHp() { return hp; }
-    public float getMaxHp() { return maxHp; }
-    public int getLevel() { return level; }
-    public float getAtk() { return atk; }
-    public float getDef() { return def; }
+    public float getHp() { ensureDecoded(); return hp; }
+    public float getMaxHp() { ensureDecoded(); return maxHp; }
+    public int getLevel() { ensureDecoded(); return level; }
+    public float getAtk() { ensureDecoded(); return atk; }
+    public float getDef() { ensureDecoded(); return def; }
 }
@@ -0,0 +1,44 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 房主 → 单个客户端：某个玩家进入或离开该客户端的关注区域（生成 / 消失），走可靠有序通道
+ * <p>
+ * 进入时携带该玩家最新状态的报文体（与 {@link LanPlayerSyncBroadcastPacket} 同一编码），客户端立即显示；
+ * 离开时客户端移除该玩家，并忽略之后陆续到达的该玩家状态同步，直到再次进入。
+ */
+public class LanPlayerVisibilityBroadcastPacket extends LanReliableBroadcastPacket {
+    private int subjectGuid;   // 进入/离开的玩家GUID
+    private boolean visible;   // true = 进入，false = 离开
+    private String state;      // 进入时的玩家状态报文体（可为 null）
+
+    private transient LanPlayerStateSnapshot decoded;
+
+    public LanPlayerVisibilityBroadcastPacket(int ownerGuid, int repCode,
+                                              int subjectGuid, boolean visible, String state) {
+        super(ownerGuid, repCode);
+        this.subjectGuid = subjectGuid;
+        this.visible = visible;
+        this.state = state;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.PLAYER_VISIBILITY_BROADCAST;
+    }
+
+    @Override
+    public LanPlayerVisibilityBroadcastPacket copy() {
+        return copyHeaderTo(new LanPlayerVisibilityBroadcastPacket(ownerGuid, repCode, subjectGuid, visible, state));
+    }
+
+    public int getSubjectGuid() { return subjectGuid; }
+    public boolean isVisible() { return visible; }
+
+    /** 进入时携带的玩家状态（玩家名为 null）；没有时返回 null */
+    public LanPlayerStateSnapshot getState() {
+        if (decoded == null && state != null) {
+            decoded = new LanPlayerSyncBroadcastPacket(ownerGuid, repCode, state).getState();
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,26 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 客户端 → 服务器：可靠通道确认
+ * <p>
+ * ackSeq 之前（含）的序号已全部收到；ackBits 的第 i 位表示序号 ackSeq + 1 + i 已收到（选择确认，
+ * 第 0 位总为 0），房主据此只重传真正缺失的包。
+ */
+public class LanReliableAckRequestPacket extends LanRequestPacket {
+    private int ackSeq;
+    private int ackBits;
+
+    public LanReliableAckRequestPacket(int ownerGuid, int ackSeq, int ackBits) {
+        super(ownerGuid);
+        this.ackSeq = ackSeq;
+        this.ackBits = ackBits;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.RELIABLE_ACK_REQUEST;
+    }
+
+    public int getAckSeq() { return ackSeq; }
+    public int getAckBits() { return ackBits; }
+}
@@ -0,0 +1,32 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 走可靠有序通道的服务器 → 客户端包（开始游戏、换层、伤害结果、玩家受伤）
+ * <p>
+ * 发送时由 {@link com.goldsprite.magicdungeon2.network.lan.reliable.ReliableSender} 按目标客户端分配递增序号（从 1 开始），
+ * 客户端按序号去重、排序后再交给处理，并回发 {@link LanReliableAckRequestPacket}。
+ * 序号为 0 表示未经可靠通道（关闭可靠通道时），接收端直接处理。
+ */
+public abstract class LanReliableBroadcastPacket extends LanBroadcastPacket {
+    private int reliableSeq;
+
+    protected LanReliableBroadcastPacket(int ownerGuid, int repCode) {
+        super(ownerGuid, repCode);
+    }
+
+    /** 可靠通道序号（0 = 不可靠） */
+    public int getReliableSeq() { return reliableSeq; }
+    public void setReliableSeq(int reliableSeq) { this.reliableSeq = reliableSeq; }
+
+    /**
+     * 复制一份内容与序号相同的新包：重传时发送副本，已交给传输层的包不再修改
+     */
+    public abstract LanReliableBroadcastPacket copy();
+
+    /** 供 {@link #copy()} 实现使用：复制序号与 tick */
+    protected <T extends LanReliableBroadcastPacket> T copyHeaderTo(T target) {
+        target.setReliableSeq(reliableSeq);
+        target.setTick(getTick());
+        return target;
+    }
+}
@@ -0,0 +1,20 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 客户端 → 服务器的 LAN 专用包基类
+ * 携带发送方的模拟 tick 号（由 LanMultiplayerService 发送时统一打戳），
+ * 用于替代跨机器不可比的墙钟时间戳
+ */
+public abstract class LanRequestPacket extends Packet {
+    private long tick;
+
+    protected LanRequestPacket(int ownerGuid) {
+        super(ownerGuid);
+    }
+
+    /** 发送方模拟 tick 号（单调递增） */
+    public long getTick() { return tick; }
+    public void setTick(long tick) { this.tick = tick; }
+}
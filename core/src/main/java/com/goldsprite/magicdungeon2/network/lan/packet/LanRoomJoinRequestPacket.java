@@ -0,0 +1,23 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 客户端 → 服务器：选择房间
+ * <p>
+ * 一个端口上运行多个房间时，客户端登录成功后立即发送；服务器据此把该 guid 的后续包路由给对应房间。
+ * 未发送（旧客户端）或房间不存在时进入默认房间。
+ */
+public class LanRoomJoinRequestPacket extends LanRequestPacket {
+    private String roomName;
+
+    public LanRoomJoinRequestPacket(int ownerGuid, String roomName) {
+        super(ownerGuid);
+        this.roomName = roomName;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.ROOM_JOIN_REQUEST;
+    }
+
+    public String getRoomName() { return roomName; }
+}
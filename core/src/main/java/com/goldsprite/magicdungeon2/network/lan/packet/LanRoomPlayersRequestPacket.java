@@ -1,8 +1,6 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
-
-public class LanRoomPlayersRequestPacket extends Packet {
+public class LanRoomPlayersRequestPacket extends LanRequestPacket {
     public LanRoomPlayersRequestPacket(int ownerGuid) {
         super(ownerGuid);
     }
@@ -1,10 +1,8 @@
 package com.goldsprite.magicdungeon2.network.lan.packet;
 
-import goldsprite.myUdpNetty.codec.packets.ResponsePacket;
-
 import java.util.List;
 
-public class LanRoomPlayersResponsePacket extends ResponsePacket {
+public class LanRoomPlayersResponsePacket extends LanBroadcastPacket {
     private List<LanPlayerStateSnapshot> players;
 
     public LanRoomPlayersResponsePacket(int ownerGuid, int repCode, List<LanPlayerStateSnapshot> players) {
@@ -0,0 +1,29 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 客户端 → 服务器：登记会话恢复令牌
+ * <p>
+ * 每次登录成功后发送（在选择房间之后）。首次加入时 previousGuid = -1，房主只登记令牌；
+ * 断线重连后传输层分配了新 guid，previousGuid 为断线前的 guid，房主按令牌找到仍在宽限期内的槽位，
+ * 把原玩家转到新 guid 并回 {@link LanSessionResyncBroadcastPacket}。
+ * 令牌由客户端在加入房间时随机生成，只在本次会话内有效。
+ */
+public class LanSessionResumeRequestPacket extends LanRequestPacket {
+    private long token;
+    private int previousGuid;
+
+    public LanSessionResumeRequestPacket(int ownerGuid, long token, int previousGuid) {
+        super(ownerGuid);
+        this.token = token;
+        this.previousGuid = previousGuid;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.SESSION_RESUME_REQUEST;
+    }
+
+    public long getToken() { return token; }
+    /** 断线前的 guid（首次加入为 -1；房主校验后交给游戏线程时为接管的原 guid，槽位已过期为 -1） */
+    public int getPreviousGuid() { return previousGuid; }
+}
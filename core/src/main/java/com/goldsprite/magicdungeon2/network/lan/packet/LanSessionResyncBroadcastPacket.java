@@ -0,0 +1,59 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+/**
+ * 房主 → 单个客户端：会话恢复后的紧凑全量状态，走可靠有序通道
+ * <p>
+ * 一个包内带齐客户端断线期间可能错过的全部状态：当前层的地图种子与层数、
+ * 房主记录的该玩家状态（与 {@link LanPlayerSyncBroadcastPacket} 同一编码，血量与格子坐标以房主为准）、
+ * 该客户端关注区域内的敌人关键帧（即敌人增量复制器为新 guid 生成的首个关键帧报文体）。
+ * 客户端以关键帧为基线回发确认，之后照常接收敌人增量。
+ * previousGuid = -1 表示槽位已过期，客户端以新玩家身份继续（仍按本包切换到当前层）。
+ */
+public class LanSessionResyncBroadcastPacket extends LanReliableBroadcastPacket {
+    private int previousGuid;  // 接管的原 guid（-1 = 槽位已过期）
+    private long mapSeed;      // 当前层的地图种子
+    private int floor;         // 当前层数
+    private String player;     // 玩家状态报文体（可为 null）
+    private String enemies;    // 敌人关键帧报文体（可为 null）
+
+    private transient LanPlayerStateSnapshot decoded;
+
+    public LanSessionResyncBroadcastPacket(int ownerGuid, int repCode, int previousGuid,
+                                           long mapSeed, int floor, String player, String enemies) {
+        super(ownerGuid, repCode);
+        this.previousGuid = previousGuid;
+        this.mapSeed = mapSeed;
+        this.floor = floor;
+        this.player = player;
+        this.enemies = enemies;
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.SESSION_RESYNC_BROADCAST;
+    }
+
+    @Override
+    public LanSessionResyncBroadcastPacket copy() {
+        return copyHeaderTo(new LanSessionResyncBroadcastPacket(ownerGuid, repCode, previousGuid,
+            mapSeed, floor, player, enemies));
+    }
+
+    public int getPreviousGuid() { return previousGuid; }
+    public boolean isResumed() { return previousGuid >= 0; }
+    public long getMapSeed() { return mapSeed; }
+    public int getFloor() { return floor; }
+
+    /** 房主记录的玩家状态（玩家名为 null）；没有时返回 null */
+    public LanPlayerStateSnapshot getPlayerState() {
+        if (decoded == null && player != null) {
+            decoded = new LanPlayerSyncBroadcastPacket(ownerGuid, repCode, player).getState();
+        }
+        return decoded;
+    }
+
+    /** 敌人关键帧（每次调用新建包对象，字段在首次读取时解码）；没有时返回 null */
+    public LanEnemyDeltaBroadcastPacket getEnemyKeyframe() {
+        return enemies == null ? null : LanEnemyDeltaBroadcastPacket.fromBody(ownerGuid, repCode, enemies);
+    }
+}
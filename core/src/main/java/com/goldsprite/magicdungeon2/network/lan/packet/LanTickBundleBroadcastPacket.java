@@ -0,0 +1,105 @@
+package com.goldsprite.magicdungeon2.network.lan.packet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 房主 → 单个客户端：同一 tick 内发往该客户端的多条消息合并包
+ * <p>
+ * 编解码器按字段类型还原，因此每种可合并的消息各占一个字段（未使用的字段为 null，不进报文）。
+ * 接收端按固定顺序拆包，交给与单独到达时相同的处理逻辑：
+ * 玩家同步 → 敌人状态 → 输入回执 → 伤害结果 → 玩家受伤。
+ */
+public class LanTickBundleBroadcastPacket extends LanBroadcastPacket {
+    private List<LanPlayerSyncBroadcastPacket> playerSyncs;
+    private LanEnemySyncBroadcastPacket enemySync;
+    private LanEnemyDeltaBroadcastPacket enemyDelta;
+    private LanPlayerInputAckBroadcastPacket inputAck;
+    private List<LanDamageResultBroadcastPacket> damageResults;
+    private List<LanPlayerHurtBroadcastPacket> playerHurts;
+
+    public LanTickBundleBroadcastPacket(int ownerGuid, int repCode) {
+        super(ownerGuid, repCode);
+    }
+
+    @Override
+    public byte getCommand() {
+        return LanCommands.TICK_BUNDLE_BROADCAST;
+    }
+
+    /** 该类消息能否放进合并包 */
+    public static boolean isBundleable(LanBroadcastPacket packet) {
+        return packet instanceof LanPlayerSyncBroadcastPacket
+            || packet instanceof LanEnemySyncBroadcastPacket
+            || packet instanceof LanEnemyDeltaBroadcastPacket
+            || packet instanceof LanPlayerInputAckBroadcastPacket
+            || packet instanceof LanDamageResultBroadcastPacket
+            || packet instanceof LanPlayerHurtBroadcastPacket;
+    }
+
+    /**
+     * 放入一条消息；敌人状态与输入回执只保留最新一条（新状态完整覆盖旧状态）
+     * @return 不可合并的类型返回 false
+     */
+    public boolean add(LanBroadcastPacket packet) {
+        if (packet instanceof LanPlayerSyncBroadcastPacket) {
+            if (playerSyncs == null) playerSyncs = new ArrayList<>(4);
+            playerSyncs.add((LanPlayerSyncBroadcastPacket) packet);
+        } else if (packet instanceof LanEnemySyncBroadcastPacket) {
+            enemySync = (LanEnemySyncBroadcastPacket) packet;
+        } else if (packet instanceof LanEnemyDeltaBroadcastPacket) {
+            // 增量包各自带序号与基线，不能互相覆盖：已有一条时由调用方先发出
+            if (enemyDelta != null) return false;
+            enemyDelta = (LanEnemyDeltaBroadcastPacket) packet;
+        } else if (packet instanceof LanPlayerInputAckBroadcastPacket) {
+            inputAck = (LanPlayerInputAckBroadcastPacket) packet;
+        } else if (packet instanceof LanDamageResultBroadcastPacket) {
+            if (damageResults == null) damageResults = new ArrayList<>(4);
+            damageResults.add((LanDamageResultBroadcastPacket) packet);
+        } else if (packet instanceof LanPlayerHurtBroadcastPacket) {
+            if (playerHurts == null) playerHurts = new ArrayList<>(2);
+            playerHurts.add((LanPlayerHurtBroadcastPacket) packet);
+        } else {
+            return false;
+        }
+        return true;
+    }
+
+    /** 是否含可靠通道消息（伤害结果、玩家受伤）：发送队列拥塞时这类合并包不能丢弃 */
+    public boolean hasReliableMessages() {
+        return (damageResults != null && !damageResults.isEmpty())
+            || (playerHurts != null && !playerHurts.isEmpty());
+    }
+
+    /** 按固定顺序逐条交出内部消息 */
+    public void forEachMessage(Consumer<LanBroadcastPacket> consumer) {
+        if (playerSyncs != null) for (LanPlayerSyncBroadcastPacket p : playerSyncs) consumer.accept(p);
+        if (enemySync != null) consumer.accept(enemySync);
+        if (enemyDelta != null) consumer.accept(enemyDelta);
+        if (inputAck != null) consumer.accept(inputAck);
+        if (damageResults != null) for (LanDamageResultBroadcastPacket p : damageResults) consumer.accept(p);
+        if (playerHurts != null) for (LanPlayerHurtBroadcastPacket p : playerHurts) consumer.accept(p);
+    }
+
+    /** 按拆包顺序的第一条消息（无消息时为 null） */
+    public LanBroadcastPacket getFirstMessage() {
+        if (playerSyncs != null && !playerSyncs.isEmpty()) return playerSyncs.get(0);
+        if (enemySync != null) return enemySync;
+        if (enemyDelta != null) return enemyDelta;
+        if (inputAck != null) return inputAck;
+        if (damageResults != null && !damageResults.isEmpty()) return damageResults.get(0);
+        if (playerHurts != null && !playerHurts.isEmpty()) return playerHurts.get(0);
+        return null;
+    }
+
+    /** 内部消息条数 */
+    public int getMessageCount() {
+        return (playerSyncs == null ? 0 : playerSyncs.size())
+            + (enemySync == null ? 0 : 1)
+            + (enemyDelta == null ? 0 : 1)
+            + (inputAck == null ? 0 : 1)
+            + (damageResults == null ? 0 : damageResults.size())
+            + (playerHurts == null ? 0 : playerHurts.size());
+    }
+}
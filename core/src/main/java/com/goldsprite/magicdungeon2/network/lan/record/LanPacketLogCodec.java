@@ -0,0 +1,311 @@
+package com.goldsprite.magicdungeon2.network.lan.record;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 会话日志里的包编码：按字段反射写出包对象（含嵌套快照、列表），读回时重建同类型对象
+ * <p>
+ * 与外层协议的通用编解码器一致：序列化类层次上所有非 static、非 transient 的字段，
+ * 紧凑包（{@link com.goldsprite.magicdungeon2.network.lan.packet.CompactPacket}）只记录报文体，读回后照常惰性解码。
+ * 支持的字段类型：基本类型及其包装类、String、byte[]、List、本项目的数据对象；其他类型的字段不记录。
+ * 每个值带 1 字节类型标记；类名在一个日志内首次出现时写出，之后按编号引用（编码端与解码端按相同顺序编号）。
+ * <p>
+ * 日志只在同一版本的程序之间回放：字段按声明顺序写出，不做版本迁移。
+ * 实例非线程安全（类编号表），由 {@link LanSessionRecorder} 在写锁内使用。
+ */
+final class LanPacketLogCodec {
+    private static final byte T_NULL = 0;
+    private static final byte T_INT = 1;
+    private static final byte T_LONG = 2;
+    private static final byte T_FLOAT = 3;
+    private static final byte T_DOUBLE = 4;
+    private static final byte T_BOOL = 5;
+    private static final byte T_BYTE = 6;
+    private static final byte T_SHORT = 7;
+    private static final byte T_CHAR = 8;
+    private static final byte T_STRING = 9;
+    private static final byte T_BYTES = 10;
+    private static final byte T_LIST = 11;
+    private static final byte T_OBJECT = 12;
+
+    /** 需要逐字段记录的数据对象所在的包前缀（其余引用类型字段不记录） */
+    private static final String DATA_PACKAGE = "com.goldsprite.";
+    private static final String PROTOCOL_PACKAGE = "goldsprite.myUdpNetty.";
+
+    private static final Map<Class<?>, Field[]> LAYOUTS = new ConcurrentHashMap<>();
+    private static volatile Object unsafe;
+    private static volatile Method allocateInstance;
+
+    // 编码端：类 → 编号；解码端：编号 → 类
+    private final Map<Class<?>, Integer> classIds = new HashMap<>();
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    // ============ 编码 ============
+
+    /** 写出一个值（包对象本身也按数据对象写出） */
+    void write(Out out, Object value) {
+        if (value == null) {
+            out.put(T_NULL);
+        } else if (value instanceof Integer) {
+            out.put(T_INT).putInt((Integer) value);
+        } else if (value instanceof Long) {
+            out.put(T_LONG).putLong((Long) value);
+        } else if (value instanceof Float) {
+            out.put(T_FLOAT).putFloat((Float) value);
+        } else if (value instanceof Double) {
+            out.put(T_DOUBLE).putDouble((Double) value);
+        } else if (value instanceof Boolean) {
+            out.put(T_BOOL).put((byte) ((Boolean) value ? 1 : 0));
+        } else if (value instanceof Byte) {
+            out.put(T_BYTE).put((Byte) value);
+        } else if (value instanceof Short) {
+            out.put(T_SHORT).putShort((Short) value);
+        } else if (value instanceof Character) {
+            out.put(T_CHAR).putShort((short) (char) (Character) value);
+        } else if (value instanceof String) {
+            out.put(T_STRING).putBytes(((String) value).getBytes(StandardCharsets.UTF_8));
+        } else if (value instanceof byte[]) {
+            out.put(T_BYTES).putBytes((byte[]) value);
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            out.put(T_LIST).putInt(list.size());
+            for (int i = 0; i < list.size(); i++) write(out, list.get(i));
+        } else if (isData(value.getClass())) {
+            writeObject(out, value);
+        } else {
+            out.put(T_NULL); // 不记录的类型
+        }
+    }
+
+    private void writeObject(Out out, Object value) {
+        Class<?> type = value.getClass();
+        out.put(T_OBJECT);
+        Integer id = classIds.get(type);
+        if (id == null) {
+            classIds.put(type, classIds.size());
+            out.putInt(-1).putBytes(type.getName().getBytes(StandardCharsets.UTF_8));
+        } else {
+            out.putInt(id);
+        }
+        Field[] fields = layout(type);
+        try {
+            for (Field f : fields) {
+                Class<?> t = f.getType();
+                // 高频的基本类型字段不经装箱
+                if (t == int.class) out.put(T_INT).putInt(f.getInt(value));
+                else if (t == long.class) out.put(T_LONG).putLong(f.getLong(value));
+                else if (t == float.class) out.put(T_FLOAT).putFloat(f.getFloat(value));
+                else if (t == boolean.class) out.put(T_BOOL).put((byte) (f.getBoolean(value) ? 1 : 0));
+                else write(out, f.get(value));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法读取字段: " + type.getName(), e);
+        }
+    }
+
+    // ============ 解码 ============
+
+    Object read(ByteBuffer in) {
+        byte tag = in.get();
+        switch (tag) {
+            case T_NULL: return null;
+            case T_INT: return in.getInt();
+            case T_LONG: return in.getLong();
+            case T_FLOAT: return in.getFloat();
+            case T_DOUBLE: return in.getDouble();
+            case T_BOOL: return in.get() != 0;
+            case T_BYTE: return in.get();
+            case T_SHORT: return in.getShort();
+            case T_CHAR: return (char) in.getShort();
+            case T_STRING: return new String(readBytes(in), StandardCharsets.UTF_8);
+            case T_BYTES: return readBytes(in);
+            case T_LIST: {
+                int n = in.getInt();
+                List<Object> list = new ArrayList<>(n);
+                for (int i = 0; i < n; i++) list.add(read(in));
+                return list;
+            }
+            case T_OBJECT: return readObject(in);
+            default: throw new IllegalStateException("未知的值标记: " + tag);
+        }
+    }
+
+    private Object readObject(ByteBuffer in) {
+        int id = in.getInt();
+        Class<?> type;
+        if (id < 0) {
+            String name = new String(readBytes(in), StandardCharsets.UTF_8);
+            try {
+                type = Class.forName(name);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("日志中的类型不存在: " + name, e);
+            }
+            classes.add(type);
+        } else {
+            type = classes.get(id);
+        }
+        Object obj = instantiate(type);
+        try {
+            for (Field f : layout(type)) {
+                Object v = read(in);
+                if (v == null && f.getType().isPrimitive()) continue;
+                f.set(obj, v);
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("无法写入字段: " + type.getName(), e);
+        }
+        return obj;
+    }
+
+    private static byte[] readBytes(ByteBuffer in) {
+        byte[] b = new byte[in.getInt()];
+        in.get(b);
+        return b;
+    }
+
+    // ============ 反射 ============
+
+    private static boolean isData(Class<?> type) {
+        String name = type.getName();
+        return name.startsWith(DATA_PACKAGE) || name.startsWith(PROTOCOL_PACKAGE);
+    }
+
+    private static boolean isRecorded(Class<?> type) {
+        return type.isPrimitive() || type == String.class || type == byte[].class
+            || Number.class.isAssignableFrom(type) || type == Boolean.class || type == Character.class
+            || List.class.isAssignableFrom(type) || isData(type);
+    }
+
+    /** 类层次上需要记录的字段（父类在前，按声明顺序），按类缓存 */
+    private static Field[] layout(Class<?> type) {
+        Field[] cached = LAYOUTS.get(type);
+        if (cached != null) return cached;
+        List<Class<?>> chain = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) chain.add(0, c);
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c : chain) {
+            for (Field f : c.getDeclaredFields()) {
+                int m = f.getModifiers();
+                if (Modifier.isStatic(m) || Modifier.isTransient(m) || f.isSynthetic()) continue;
+                if (!isRecorded(f.getType())) continue;
+                f.setAccessible(true);
+                fields.add(f);
+            }
+        }
+        Field[] result = fields.toArray(new Field[0]);
+        LAYOUTS.put(type, result);
+        return result;
+    }
+
+    /** 有无参构造时使用之，否则与通用编解码器一样不经构造直接分配（字段随后逐个写入） */
+    private static Object instantiate(Class<?> type) {
+        try {
+            Constructor<?> ctor = type.getDeclaredConstructor();
+            ctor.setAccessible(true);
+            return ctor.newInstance();
+        } catch (NoSuchMethodException e) {
+            // 没有无参构造：走分配器
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法构造: " + type.getName(), e);
+        }
+        try {
+            if (allocateInstance == null) {
+                Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+                Field f = unsafeClass.getDeclaredField("theUnsafe");
+                f.setAccessible(true);
+                unsafe = f.get(null);
+                allocateInstance = unsafeClass.getMethod("allocateInstance", Class.class);
+            }
+            return allocateInstance.invoke(unsafe, type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("无法分配: " + type.getName(), e);
+        }
+    }
+
+    /** 可增长的写缓冲（写锁内复用，避免每条记录分配） */
+    static final class Out {
+        private ByteBuffer buf = ByteBuffer.allocate(1024);
+
+        Out clear() {
+            buf.clear();
+            return this;
+        }
+
+        int length() {
+            return buf.position();
+        }
+
+        /** 已写内容（只读视图，position = 0） */
+        ByteBuffer flip() {
+            ByteBuffer view = buf.duplicate();
+            view.flip();
+            return view;
+        }
+
+        private void ensure(int n) {
+            if (buf.remaining() >= n) return;
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + n));
+            buf.flip();
+            bigger.put(buf);
+            buf = bigger;
+        }
+
+        Out put(byte v) {
+            ensure(1);
+            buf.put(v);
+            return this;
+        }
+
+        Out putShort(short v) {
+            ensure(2);
+            buf.putShort(v);
+            return this;
+        }
+
+        Out putInt(int v) {
+            ensure(4);
+            buf.putInt(v);
+            return this;
+        }
+
+        Out putLong(long v) {
+            ensure(8);
+            buf.putLong(v);
+            return this;
+        }
+
+        Out putFloat(float v) {
+            ensure(4);
+            buf.putFloat(v);
+            return this;
+        }
+
+        Out putDouble(double v) {
+            ensure(8);
+            buf.putDouble(v);
+            return this;
+        }
+
+        Out putBytes(byte[] b) {
+            ensure(4 + b.length);
+            buf.putInt(b.length);
+            buf.put(b);
+            return this;
+        }
+
+        /** 在指定位置覆写 int（回填长度） */
+        void setInt(int index, int v) {
+            buf.putInt(index, v);
+        }
+    }
+}
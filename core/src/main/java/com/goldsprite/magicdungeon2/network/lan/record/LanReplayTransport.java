@@ -0,0 +1,279 @@
+package com.goldsprite.magicdungeon2.network.lan.record;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+import com.goldsprite.magicdungeon2.network.lan.transport.LanClientTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanServerTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanTransport;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 会话日志回放驱动：作为传输层交给 {@link com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService}，
+ * 把日志里收到的包按原顺序重新投递给服务（不打开套接字）
+ * <p>
+ * 用法：{@code service.setTransport(replay)}，再按日志的模式 {@code join} 或 {@code startHost}，
+ * 然后 {@link #play} 或逐条 {@link #step()}。客户端端点的登录在日志的登录条目处完成（guid 与录制时相同）；
+ * 服务端端点把日志中出现过的请求来源视为已接入的客户端。
+ * 服务在回放中发出的包不会发到任何地方，只计数并交给 {@link #setOutboundListener} 设置的监听（与录制的发出对比即回归检查）。
+ * 协议计时（{@link #currentTimeMillis()}）返回当前条目的录制时刻，节流、重传超时与录制时一致。
+ * <p>
+ * 线程约定：投递在调用 play / step 的线程；聊天不录制，回放中为空操作。
+ */
+public class LanReplayTransport implements LanTransport {
+    private final LanSessionLog log;
+    private final Subscribers serverSubscribers = new Subscribers();
+    private final Subscribers clientSubscribers = new Subscribers();
+    private final Set<Integer> clients = ConcurrentHashMap.newKeySet();
+    private volatile IntConsumer loginSuccess;
+    private volatile Consumer<Packet> outboundListener;
+    private LanSessionLog.Entry peeked;
+    private volatile long nowMicros;
+
+    private String sessionMode;
+    private String sessionName;
+    private int sessionGuid = -1;
+    private long replayed;
+    private long recordedOut;
+    private volatile long liveOut;
+
+    public LanReplayTransport(LanSessionLog log) {
+        this.log = log;
+    }
+
+    // ============ LanTransport ============
+
+    @Override
+    public LanServerTransport startServer(int port) {
+        return new ReplayServer();
+    }
+
+    @Override
+    public LanClientTransport connect(String hostIp, int hostPort) {
+        return new ReplayClient();
+    }
+
+    @Override
+    public String getLocalAddress() {
+        return "replay";
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return nowMicros / 1000L;
+    }
+
+    @Override
+    public long nanoTime() {
+        return nowMicros * 1000L;
+    }
+
+    // ============ 回放 ============
+
+    /** 下一条记录（不消耗）；读完返回 null */
+    public LanSessionLog.Entry peek() {
+        if (peeked == null) peeked = log.next();
+        return peeked;
+    }
+
+    /**
+     * 回放下一条记录
+     * @return 已读完返回 false
+     */
+    public boolean step() {
+        LanSessionLog.Entry e = peek();
+        if (e == null) return false;
+        peeked = null;
+        nowMicros = e.getTimeMicros();
+        replayed++;
+        switch (e.getKind()) {
+            case LanSessionLog.KIND_SESSION:
+                sessionMode = e.getMode();
+                sessionName = e.getName();
+                sessionGuid = e.getPeer();
+                break;
+            case LanSessionLog.KIND_LOGIN:
+                if (e.getEndpoint() == LanSessionLog.ENDPOINT_CLIENT) {
+                    IntConsumer onSuccess = loginSuccess;
+                    if (onSuccess != null) onSuccess.accept(e.getPeer());
+                } else {
+                    clients.add(e.getPeer());
+                }
+                break;
+            case LanSessionLog.KIND_IN:
+                if (e.getEndpoint() == LanSessionLog.ENDPOINT_SERVER) {
+                    clients.add(e.getPacket().getOwnerGuid());
+                    serverSubscribers.dispatch(e.getPacket());
+                } else {
+                    clientSubscribers.dispatch(e.getPacket());
+                }
+                break;
+            case LanSessionLog.KIND_OUT:
+                recordedOut++;
+                break;
+            default:
+                break;
+        }
+        return true;
+    }
+
+    /**
+     * 回放到日志结束
+     * @param speed 1 = 按录制时的时间间隔（1×），2 = 两倍速；≤ 0 = 尽快回放
+     * @param onTick 每当下一条记录的本地 tick 变化时、投递之前调用（回放时驱动模拟，可为 null）
+     * @return 回放的记录数
+     */
+    public long play(float speed, LongConsumer onTick) {
+        long startWall = System.nanoTime();
+        long startLog = -1L;
+        long lastTick = Long.MIN_VALUE;
+        long count = 0;
+        LanSessionLog.Entry e;
+        while ((e = peek()) != null) {
+            if (speed > 0f) {
+                if (startLog < 0L) startLog = e.getTimeMicros();
+                long due = startWall + (long) ((e.getTimeMicros() - startLog) * 1000.0 / speed);
+                long wait;
+                while ((wait = due - System.nanoTime()) > 0L) LockSupport.parkNanos(wait);
+            }
+            if (onTick != null && e.getTick() != lastTick) {
+                lastTick = e.getTick();
+                nowMicros = e.getTimeMicros();
+                onTick.accept(lastTick);
+            }
+            step();
+            count++;
+        }
+        return count;
+    }
+
+    /** 服务在回放中发出的包（录制时的发出可与之对比） */
+    public void setOutboundListener(Consumer<Packet> listener) {
+        this.outboundListener = listener;
+    }
+
+    private void onLiveSend(Packet packet) {
+        liveOut++;
+        Consumer<Packet> listener = outboundListener;
+        if (listener != null) listener.accept(packet);
+    }
+
+    // ============ 查询 ============
+
+    /** 会话条目：录制时的模式（HOST / CLIENT / NONE），未读到时为 null */
+    public String getSessionMode() {
+        return sessionMode;
+    }
+
+    public String getSessionName() {
+        return sessionName;
+    }
+
+    /** 会话条目：录制开始时的本地 guid（开始录制时尚未登录为 -1） */
+    public int getSessionGuid() {
+        return sessionGuid;
+    }
+
+    /** 已回放的记录数 */
+    public long getReplayed() {
+        return replayed;
+    }
+
+    /** 日志中录制的发出包数（已回放部分） */
+    public long getRecordedOut() {
+        return recordedOut;
+    }
+
+    /** 回放中服务实际发出的包数 */
+    public long getLiveOut() {
+        return liveOut;
+    }
+
+    // ============ 端点 ============
+
+    /** 按包的实际类型分发给订阅者 */
+    private static final class Subscribers {
+        private final Map<Class<?>, List<Consumer<Packet>>> map = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        <T extends Packet> void add(Class<T> type, Consumer<T> consumer) {
+            map.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add((Consumer<Packet>) consumer);
+        }
+
+        void dispatch(Packet packet) {
+            List<Consumer<Packet>> list = map.get(packet.getClass());
+            if (list == null) return;
+            for (int i = 0; i < list.size(); i++) list.get(i).accept(packet);
+        }
+    }
+
+    private final class ReplayServer implements LanServerTransport {
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            serverSubscribers.add(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            onLiveSend(packet);
+        }
+
+        @Override
+        public boolean hasClient(int guid) {
+            return clients.contains(guid);
+        }
+
+        @Override
+        public String getClientName(int guid) {
+            return guid == sessionGuid ? sessionName : null;
+        }
+
+        @Override
+        public void forEachClient(IntConsumer consumer) {
+            for (Integer guid : clients) consumer.accept(guid);
+        }
+
+        @Override
+        public void stop() {
+            clients.clear();
+        }
+    }
+
+    private final class ReplayClient implements LanClientTransport {
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            clientSubscribers.add(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            onLiveSend(packet);
+        }
+
+        @Override
+        public void login(String name, IntConsumer onSuccess, Consumer<String> onFailure) {
+            loginSuccess = onSuccess;
+        }
+
+        @Override
+        public void sendChat(int ownerGuid, String message) {
+        }
+
+        @Override
+        public void setChatListener(Consumer<String> listener) {
+        }
+
+        @Override
+        public void stop() {
+            loginSuccess = null;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.goldsprite.magicdungeon2.network.lan.record;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * LAN 会话日志的顺序读取（只读内存映射）
+ * <p>
+ * 文件头 {@value #HEADER_SIZE} 字节：magic、版本、录制开始的墙上时间、已写长度、条目数。
+ * 之后为连续的条目：int 长度（不含自身）、类型、端点、本地 tick、本地单调时刻（微秒）、对端 guid、内容。
+ * <ul>
+ *   <li>{@link #KIND_SESSION}：录制开始时的模式与名字（对端 guid 字段为本地 guid）</li>
+ *   <li>{@link #KIND_LOGIN}：端点登录成功，对端 guid 字段为分配的 guid</li>
+ *   <li>{@link #KIND_IN} / {@link #KIND_OUT}：收到 / 发出的包（{@link LanPacketLogCodec} 编码）</li>
+ * </ul>
+ * 单个日志文件需小于 2GB（一次映射）。包对象在读出条目时解码（类编号依赖读取顺序）。
+ */
+public class LanSessionLog {
+    public static final int MAGIC = 0x4D444C52; // "MDLR"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+
+    public static final byte KIND_SESSION = 1;
+    public static final byte KIND_LOGIN = 2;
+    public static final byte KIND_IN = 3;
+    public static final byte KIND_OUT = 4;
+
+    /** 条目所属端点：服务端（房主收到的请求、发出的广播） */
+    public static final int ENDPOINT_SERVER = 0;
+    /** 条目所属端点：客户端（收到的广播、发出的请求；房主的本地玩家也是客户端端点） */
+    public static final int ENDPOINT_CLIENT = 1;
+
+    private final ByteBuffer data;
+    private final long startWallMillis;
+    private final long entryCount;
+    private final LanPacketLogCodec codec = new LanPacketLogCodec();
+
+    private LanSessionLog(ByteBuffer data, long startWallMillis, long entryCount) {
+        this.data = data;
+        this.startWallMillis = startWallMillis;
+        this.entryCount = entryCount;
+    }
+
+    /** 打开日志文件（映射到已写长度为止） */
+    public static LanSessionLog open(File path) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(path, "r"); FileChannel channel = file.getChannel()) {
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0L, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) throw new IOException("不是会话日志: " + path);
+            if (header.getInt(4) != VERSION) throw new IOException("不支持的日志版本: " + header.getInt(4));
+            long end = header.getLong(16);
+            if (end > Integer.MAX_VALUE) throw new IOException("日志超过 2GB: " + path);
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0L, end);
+            data.position(HEADER_SIZE);
+            // 映射在通道关闭后仍然有效
+            return new LanSessionLog(data, header.getLong(8), header.getLong(24));
+        }
+    }
+
+    /** 读取下一条；读完返回 null */
+    public Entry next() {
+        if (data.remaining() < 4) return null;
+        int len = data.getInt();
+        if (len <= 0 || len > data.remaining()) return null; // 录制中断的残缺条目
+        int end = data.position() + len;
+        Entry e = new Entry();
+        e.kind = data.get();
+        e.endpoint = data.get();
+        e.tick = data.getLong();
+        e.timeMicros = data.getLong();
+        e.peer = data.getInt();
+        if (e.kind == KIND_SESSION) {
+            e.mode = readString(data);
+            e.name = readString(data);
+        } else if (e.kind == KIND_IN || e.kind == KIND_OUT) {
+            // 类编号按出现顺序分配：即使调用方不取包也要按序解码
+            e.packet = (Packet) codec.read(data);
+        }
+        data.position(end);
+        return e;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] b = new byte[in.getInt()];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /** 录制开始时的墙上时间（毫秒，仅供显示） */
+    public long getStartWallMillis() {
+        return startWallMillis;
+    }
+
+    /** 文件头记录的条目数 */
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /** 日志中的一条记录 */
+    public static final class Entry {
+        byte kind;
+        int endpoint;
+        long tick;
+        long timeMicros;
+        int peer;
+        String mode;
+        String name;
+        Packet packet;
+
+        public byte getKind() { return kind; }
+        public int getEndpoint() { return endpoint; }
+        /** 记录时的本地 tick */
+        public long getTick() { return tick; }
+        /** 记录时的本地单调时刻（微秒，取自传输层时钟） */
+        public long getTimeMicros() { return timeMicros; }
+        /** 对端 guid（会话 / 登录条目为本地或分配的 guid） */
+        public int getPeer() { return peer; }
+        /** 会话条目：录制开始时的模式 */
+        public String getMode() { return mode; }
+        /** 会话条目：本地名字 */
+        public String getName() { return name; }
+        /** 收发条目：包对象 */
+        public Packet getPacket() { return packet; }
+    }
+}
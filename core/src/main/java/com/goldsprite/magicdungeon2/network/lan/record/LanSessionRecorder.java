@@ -0,0 +1,189 @@
+package com.goldsprite.magicdungeon2.network.lan.record;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * LAN 会话录制：把收发的每个包连同本地 tick 与时刻追加到内存映射的二进制日志
+ * <p>
+ * 写入只是在锁内把包编码进复用缓冲、再拷贝进映射区域（无系统调用、无逐条分配），
+ * 映射区域写满时在文件末尾映射下一段 {@link #CHUNK_SIZE}；刷盘交给操作系统，{@link #close()} 时强制落盘。
+ * 文件头记录已写长度与条目数，每写一条更新一次，进程异常退出时已写入的条目仍可读出。
+ * 文件末尾可能留有未使用的零字节（映射区域无法可靠截断），读取以文件头的长度为准。
+ * <p>
+ * 格式见 {@link LanSessionLog}。线程约定：收发可在任意线程（网络线程、游戏线程、发送 I/O 线程）。
+ */
+public class LanSessionRecorder implements AutoCloseable {
+    /** 每次映射的区域大小 */
+    public static final int CHUNK_SIZE = 4 * 1024 * 1024;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final LanPacketLogCodec codec = new LanPacketLogCodec();
+    private final LanPacketLogCodec.Out scratch = new LanPacketLogCodec.Out();
+    private final long maxBytes;
+    private MappedByteBuffer chunk;
+    private long chunkStart;
+    private long position = LanSessionLog.HEADER_SIZE;
+    private long entries;
+    private long skipped;
+    private boolean stopped; // 写满或出错：之后的条目全部跳过（类编号表与文件保持一致）
+    private boolean closed;
+
+    /** 不限制日志大小 */
+    public LanSessionRecorder(File path) throws IOException {
+        this(path, Long.MAX_VALUE);
+    }
+
+    /**
+     * 创建（覆盖）日志文件
+     * @param maxBytes 日志上限（字节），写满后停止录制，之后的条目计入 {@link #getSkipped()}
+     */
+    public LanSessionRecorder(File path, long maxBytes) throws IOException {
+        this.maxBytes = maxBytes;
+        file = new RandomAccessFile(path, "rw");
+        file.setLength(0L);
+        channel = file.getChannel();
+        header = channel.map(FileChannel.MapMode.READ_WRITE, 0L, LanSessionLog.HEADER_SIZE);
+        header.putInt(0, LanSessionLog.MAGIC);
+        header.putInt(4, LanSessionLog.VERSION);
+        header.putLong(8, System.currentTimeMillis());
+        writeHeader();
+        mapChunk(0);
+    }
+
+    // ============ 条目 ============
+
+    /** 会话开始（录制开始时的模式、本地 guid 与名字） */
+    public void recordSession(long tick, long timeMicros, String mode, int localGuid, String name) {
+        synchronized (this) {
+            if (!accepting()) return;
+            LanPacketLogCodec.Out out = begin(LanSessionLog.KIND_SESSION, LanSessionLog.ENDPOINT_CLIENT, tick, timeMicros, localGuid);
+            out.putBytes(bytes(mode));
+            out.putBytes(bytes(name));
+            commit(out);
+        }
+    }
+
+    /** 某个端点登录成功（客户端端点为本地 guid，服务端端点为接入的客户端 guid） */
+    public void recordLogin(int endpoint, long tick, long timeMicros, int guid) {
+        synchronized (this) {
+            if (!accepting()) return;
+            commit(begin(LanSessionLog.KIND_LOGIN, endpoint, tick, timeMicros, guid));
+        }
+    }
+
+    /** 收到的包（peer 为来源：客户端端点收到的来自房主，服务端端点收到的来自 ownerGuid） */
+    public void recordInbound(int endpoint, long tick, long timeMicros, int peer, Packet packet) {
+        recordPacket(LanSessionLog.KIND_IN, endpoint, tick, timeMicros, peer, packet);
+    }
+
+    /** 发出的包（tick 已打戳） */
+    public void recordOutbound(int endpoint, long tick, long timeMicros, int peer, Packet packet) {
+        recordPacket(LanSessionLog.KIND_OUT, endpoint, tick, timeMicros, peer, packet);
+    }
+
+    private void recordPacket(byte kind, int endpoint, long tick, long timeMicros, int peer, Packet packet) {
+        synchronized (this) {
+            if (!accepting()) return;
+            LanPacketLogCodec.Out out = begin(kind, endpoint, tick, timeMicros, peer);
+            try {
+                codec.write(out, packet);
+            } catch (RuntimeException e) {
+                stop();
+                return;
+            }
+            commit(out);
+        }
+    }
+
+    private boolean accepting() {
+        if (closed) return false;
+        if (stopped) skipped++;
+        return !stopped;
+    }
+
+    private void stop() {
+        stopped = true;
+        skipped++;
+    }
+
+    private LanPacketLogCodec.Out begin(byte kind, int endpoint, long tick, long timeMicros, int peer) {
+        return scratch.clear().putInt(0).put(kind).put((byte) endpoint)
+            .putLong(tick).putLong(timeMicros).putInt(peer);
+    }
+
+    /** 回填长度后拷贝进映射区域 */
+    private void commit(LanPacketLogCodec.Out out) {
+        int len = out.length();
+        if (position + len > maxBytes) {
+            stop();
+            return;
+        }
+        out.setInt(0, len - 4);
+        try {
+            if (chunkStart + chunk.capacity() - position < len) mapChunk(len);
+        } catch (IOException e) {
+            stop();
+            return;
+        }
+        chunk.put(out.flip());
+        position += len;
+        entries++;
+        writeHeader();
+    }
+
+    private void mapChunk(int atLeast) throws IOException {
+        chunkStart = position;
+        chunk = channel.map(FileChannel.MapMode.READ_WRITE, chunkStart, Math.max(CHUNK_SIZE, atLeast));
+    }
+
+    private void writeHeader() {
+        header.putLong(16, position);
+        header.putLong(24, entries);
+    }
+
+    private static byte[] bytes(String s) {
+        return (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+    }
+
+    // ============ 生命周期 ============
+
+    /** 强制落盘并关闭文件（之后的记录调用被忽略） */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            if (chunk != null) chunk.force();
+            header.force();
+            channel.close();
+            file.close();
+        }
+    }
+
+    /** 已写入的字节数（含文件头） */
+    public synchronized long getBytesWritten() {
+        return position;
+    }
+
+    public synchronized long getEntryCount() {
+        return entries;
+    }
+
+    /** 写满、编码或映射失败后未写入的条目数 */
+    public synchronized long getSkipped() {
+        return skipped;
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+}
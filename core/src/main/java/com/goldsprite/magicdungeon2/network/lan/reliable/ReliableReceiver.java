@@ -0,0 +1,84 @@
+package com.goldsprite.magicdungeon2.network.lan.reliable;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import com.goldsprite.magicdungeon2.network.lan.packet.LanReliableBroadcastPacket;
+
+/**
+ * 客户端可靠通道：按序号去重、缓存乱序到达的包，严格按序号顺序交出
+ * <p>
+ * 序号从 1 开始连续递增。等于期望序号的包立即交出，并接着交出缓存中随后连续的包；
+ * 更大的序号在窗口（{@value #WINDOW}）内先缓存，超出窗口的丢弃（房主会重传）；
+ * 小于期望序号或已缓存的视为重复。每收到一个可靠包（包括重复）都应回发确认，
+ * 以免确认丢失后房主一直重传。
+ * <p>
+ * 线程约定：只在网络线程调用；加锁以便游戏线程读取确认状态。
+ */
+public class ReliableReceiver {
+    /** 乱序缓存窗口（2 的幂） */
+    public static final int WINDOW = 256;
+
+    private final LanReliableBroadcastPacket[] buffer = new LanReliableBroadcastPacket[WINDOW];
+    private int nextExpected = 1;
+    private long delivered;
+    private long duplicates;
+
+    /**
+     * 收到一个可靠包
+     * @param deliver 按序交出（可能一次交出多条缓存的包）
+     * @return 是否为新包（重复或超出窗口返回 false）
+     */
+    public synchronized boolean receive(LanReliableBroadcastPacket packet, Consumer<? super LanReliableBroadcastPacket> deliver) {
+        int seq = packet.getReliableSeq();
+        if (seq < nextExpected) {
+            duplicates++;
+            return false;
+        }
+        if (seq - nextExpected >= WINDOW) return false;
+        int slot = seq & (WINDOW - 1);
+        if (buffer[slot] != null) {
+            duplicates++;
+            return false;
+        }
+        buffer[slot] = packet;
+        LanReliableBroadcastPacket next;
+        while ((next = buffer[nextExpected & (WINDOW - 1)]) != null) {
+            buffer[nextExpected & (WINDOW - 1)] = null;
+            nextExpected++;
+            delivered++;
+            deliver.accept(next);
+        }
+        return true;
+    }
+
+    /** 累计确认：该序号之前（含）的包已全部交出 */
+    public synchronized int getAckSeq() {
+        return nextExpected - 1;
+    }
+
+    /** 选择确认位图：第 i 位表示序号 getAckSeq() + 1 + i 已缓存（第 0 位总为 0） */
+    public synchronized int getAckBits() {
+        int bits = 0;
+        for (int i = 1; i < 32; i++) {
+            if (buffer[(nextExpected + i) & (WINDOW - 1)] != null) bits |= 1 << i;
+        }
+        return bits;
+    }
+
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    /** 新会话（重新加入）时调用 */
+    public synchronized void reset() {
+        Arrays.fill(buffer, null);
+        nextExpected = 1;
+        delivered = 0;
+        duplicates = 0;
+    }
+}
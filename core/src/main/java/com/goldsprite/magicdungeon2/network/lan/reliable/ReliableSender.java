@@ -0,0 +1,152 @@
+package com.goldsprite.magicdungeon2.network.lan.reliable;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+import com.goldsprite.magicdungeon2.network.lan.packet.LanBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanReliableBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanPeerStats;
+
+/**
+ * 房主端可靠通道：按客户端分配序号、保存未确认包、超时选择重传
+ * <p>
+ * {@link #register} 给即将发出的包分配序号并保存一份副本；客户端的确认
+ * （累计序号 + 选择确认位图）到达后移除已收到的包。每 tick 调用 {@link #resend}：
+ * 超过重传超时仍未确认的包发送副本，之后超时翻倍（上限 {@link #MAX_RTO_MS}）；
+ * 确认位图显示后面的包已到而前面的缺失时，缺失的包不等超时立即重传一次。
+ * 客户端离线前包会一直重传，由 {@link #retainClients} 清理。
+ * <p>
+ * 线程约定：游戏线程（广播、重传）与网络线程（转发开始游戏、处理确认）都会调用，所有方法加锁。
+ */
+public class ReliableSender {
+    /** 尚无 RTT 样本时的重传超时 */
+    public static final long INITIAL_RTO_MS = 250L;
+    public static final long MIN_RTO_MS = 60L;
+    public static final long MAX_RTO_MS = 2000L;
+
+    private final Map<Integer, Channel> channels = new HashMap<>();
+    private long registered;
+    private long retransmits;
+
+    /**
+     * 给发往 packet.getOwnerGuid() 的包分配序号并登记为未确认
+     * @param rtoMs 该客户端当前的重传超时
+     */
+    public synchronized void register(LanReliableBroadcastPacket packet, long now, long rtoMs) {
+        int target = packet.getOwnerGuid();
+        Channel ch = channels.get(target);
+        if (ch == null) {
+            ch = new Channel();
+            channels.put(target, ch);
+        }
+        packet.setReliableSeq(ch.nextSeq++);
+        ch.unacked.addLast(new Entry(packet.copy(), now + rtoMs, rtoMs));
+        registered++;
+    }
+
+    /**
+     * 客户端确认：ackSeq 之前（含）全部收到，ackBits 第 i 位表示 ackSeq + 1 + i 已收到
+     */
+    public synchronized void onAck(int guid, int ackSeq, int ackBits) {
+        Channel ch = channels.get(guid);
+        if (ch == null) return;
+        int highestSelective = -1;
+        for (int i = 31; i > 0; i--) {
+            if ((ackBits & (1 << i)) != 0) {
+                highestSelective = ackSeq + 1 + i;
+                break;
+            }
+        }
+        for (Entry e : ch.unacked) {
+            int seq = e.packet.getReliableSeq();
+            int offset = seq - ackSeq - 1;
+            if (seq <= ackSeq || (offset >= 0 && offset < 32 && (ackBits & (1 << offset)) != 0)) {
+                e.acked = true;
+            } else if (seq < highestSelective && !e.fastResent) {
+                e.fastResent = true;
+                e.resendAt = 0L; // 后面的已到、这个缺失：下次 resend 立即重传
+            }
+        }
+        while (!ch.unacked.isEmpty() && ch.unacked.peekFirst().acked) ch.unacked.pollFirst();
+    }
+
+    /**
+     * 重传所有已超时的未确认包（按序号顺序）
+     * @param rtoFor 按客户端 guid 给出当前重传超时
+     * @param sender 发送副本
+     */
+    public synchronized void resend(long now, IntToLongFunction rtoFor, Consumer<LanBroadcastPacket> sender) {
+        for (Map.Entry<Integer, Channel> c : channels.entrySet()) {
+            Channel ch = c.getValue();
+            if (ch.unacked.isEmpty()) continue;
+            long baseRto = -1L;
+            for (Entry e : ch.unacked) {
+                if (e.acked || now < e.resendAt) continue;
+                if (baseRto < 0) baseRto = rtoFor.applyAsLong(c.getKey());
+                e.rtoMs = Math.min(MAX_RTO_MS, Math.max(baseRto, e.rtoMs * 2));
+                e.resendAt = now + e.rtoMs;
+                retransmits++;
+                sender.accept(e.packet.copy());
+            }
+        }
+    }
+
+    /** 按链路统计计算重传超时：平滑 RTT + 4×抖动（RFC 6298），限制在 [MIN, MAX] */
+    public static long rtoFor(LanPeerStats peer) {
+        if (peer == null || peer.getSrttMs() < 0) return INITIAL_RTO_MS;
+        long rto = (long) (peer.getSrttMs() + 4f * peer.getRttVarMs());
+        return Math.max(MIN_RTO_MS, Math.min(MAX_RTO_MS, rto));
+    }
+
+    /** 丢弃已断线客户端的通道 */
+    public synchronized void retainClients(IntPredicate alive) {
+        channels.keySet().removeIf(guid -> !alive.test(guid));
+    }
+
+    public synchronized void clear() {
+        channels.clear();
+    }
+
+    /** 发往该客户端尚未确认的包数 */
+    public synchronized int getUnackedCount(int guid) {
+        Channel ch = channels.get(guid);
+        if (ch == null) return 0;
+        int n = 0;
+        for (Entry e : ch.unacked) if (!e.acked) n++;
+        return n;
+    }
+
+    /** 累计登记的可靠包数 */
+    public synchronized long getRegistered() {
+        return registered;
+    }
+
+    /** 累计重传次数 */
+    public synchronized long getRetransmits() {
+        return retransmits;
+    }
+
+    /** 单个客户端的发送状态：下一个序号与按序号排列的未确认包 */
+    private static final class Channel {
+        int nextSeq = 1;
+        final ArrayDeque<Entry> unacked = new ArrayDeque<>();
+    }
+
+    private static final class Entry {
+        final LanReliableBroadcastPacket packet; // 保存的副本，每次重传再复制
+        long resendAt;
+        long rtoMs;
+        boolean acked;
+        boolean fastResent;
+
+        Entry(LanReliableBroadcastPacket packet, long resendAt, long rtoMs) {
+            this.packet = packet;
+            this.resendAt = resendAt;
+            this.rtoMs = rtoMs;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.goldsprite.magicdungeon2.network.lan.replication;
+
+import java.util.Objects;
+
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateDelta;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
+
+/**
+ * 敌人快照字段级差分/还原工具（纯函数，无状态）
+ * <p>
+ * 时间戳不参与差分：增量包在包级别携带一份时间戳，还原时统一写回。
+ */
+public final class EnemyDeltaCodec {
+
+    private EnemyDeltaCodec() {}
+
+    /**
+     * 计算 current 相对 base 的字段级增量
+     * @param base 基线快照（null 表示客户端没有该敌人，输出全字段）
+     * @return 增量；无任何变化时返回 null
+     */
+    public static EnemyStateDelta diff(EnemyStateSnapshot base, EnemyStateSnapshot current) {
+        EnemyStateDelta d = new EnemyStateDelta();
+        return diffInto(base, current, d) ? d : null;
+    }
+
+    /**
+     * 同 {@link #diff}，结果写入调用方复用的增量对象（字段以原始类型写入，不分配）
+     * @return 是否有变化（false 时 out 内容无意义）
+     */
+    public static boolean diffInto(EnemyStateSnapshot base, EnemyStateSnapshot current, EnemyStateDelta out) {
+        EnemyStateDelta d = out.reset(current.getEnemyId());
+        if (base == null || !Objects.equals(base.getEnemyType(), current.getEnemyType())) d.setEnemyType(current.getEnemyType());
+        if (base == null || base.getX() != current.getX()) d.setX(current.getX());
+        if (base == null || base.getY() != current.getY()) d.setY(current.getY());
+        if (base == null || Float.compare(base.getVisualX(), current.getVisualX()) != 0) d.setVisualX(current.getVisualX());
+        if (base == null || Float.compare(base.getVisualY(), current.getVisualY()) != 0) d.setVisualY(current.getVisualY());
+        if (base == null || Float.compare(base.getHp(), current.getHp()) != 0) d.setHp(current.getHp());
+        if (base == null || Float.compare(base.getMaxHp(), current.getMaxHp()) != 0) d.setMaxHp(current.getMaxHp());
+        if (base == null || base.isAlive() != current.isAlive()) d.setAlive(current.isAlive());
+        if (base == null || !Objects.equals(base.getAction(), current.getAction())) d.setAction(current.getAction());
+        return base == null || !d.isEmpty();
+    }
+
+    /**
+     * 将增量应用到基线上，返回新的快照（不修改 base）
+     * @param base 基线快照（null 表示新出现的敌人）
+     * @param timestamp 包级时间戳
+     */
+    public static EnemyStateSnapshot apply(EnemyStateSnapshot base, EnemyStateDelta d, long timestamp) {
+        EnemyStateSnapshot s = base != null ? copy(base) : new EnemyStateSnapshot();
+        s.setEnemyId(d.getEnemyId());
+        if (d.has(EnemyStateDelta.TYPE)) s.setEnemyType(d.getEnemyType());
+        if (d.has(EnemyStateDelta.X)) s.setX(d.getX());
+        if (d.has(EnemyStateDelta.Y)) s.setY(d.getY());
+        if (d.has(EnemyStateDelta.VISUAL_X)) s.setVisualX(d.getVisualX());
+        if (d.has(EnemyStateDelta.VISUAL_Y)) s.setVisualY(d.getVisualY());
+        if (d.has(EnemyStateDelta.HP)) s.setHp(d.getHp());
+        if (d.has(EnemyStateDelta.MAX_HP)) s.setMaxHp(d.getMaxHp());
+        if (d.has(EnemyStateDelta.ALIVE)) s.setAlive(d.getAlive());
+        if (d.has(EnemyStateDelta.ACTION)) s.setAction(d.getAction());
+        s.setTimestamp(timestamp);
+        return s;
+    }
+
+    /** 两个快照的同步字段是否完全一致（忽略时间戳；不分配） */
+    public static boolean sameState(EnemyStateSnapshot a, EnemyStateSnapshot b) {
+        return a.getEnemyId() == b.getEnemyId()
+            && Objects.equals(a.getEnemyType(), b.getEnemyType())
+            && a.getX() == b.getX() && a.getY() == b.getY()
+            && Float.compare(a.getVisualX(), b.getVisualX()) == 0
+            && Float.compare(a.getVisualY(), b.getVisualY()) == 0
+            && Float.compare(a.getHp(), b.getHp()) == 0
+            && Float.compare(a.getMaxHp(), b.getMaxHp()) == 0
+            && a.isAlive() == b.isAlive()
+            && Objects.equals(a.getAction(), b.getAction());
+    }
+
+    public static EnemyStateSnapshot copy(EnemyStateSnapshot s) {
+        return new EnemyStateSnapshot(s.getEnemyId(), s.getEnemyType(), s.getX(), s.getY(),
+            s.getVisualX(), s.getVisualY(), s.getHp(), s.getMaxHp(),
+            s.isAlive(), s.getAction(), s.getTimestamp());
+    }
+}
@@ -0,0 +1,117 @@
+package com.goldsprite.magicdungeon2.network.lan.replication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateDelta;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyDeltaBroadcastPacket;
+
+/**
+ * 客户端敌人增量接收器
+ * <p>
+ * 保留最近若干个已还原快照（按序号环形存放），以便按包内 baselineSeq 找到基线还原完整状态。
+ * 基线已不在窗口内时丢弃该包，等待房主的关键帧恢复；乱序迟到的旧包（含旧关键帧）一律丢弃，不回退状态。
+ * <p>
+ * 序号只在同一会话纪元内有意义：房主重建该客户端的复制记录后序号从 0 重新开始并换用新纪元，
+ * 收到新纪元的关键帧时清空历史从头接收，其他纪元的增量一律丢弃；刚被替换的纪元迟到的包同样丢弃。
+ * 只在网络接收线程调用。
+ */
+public class EnemyDeltaReceiver {
+    public static final int HISTORY_SIZE = EnemyReplicator.HISTORY_SIZE;
+
+    @SuppressWarnings("unchecked")
+    private final Map<Integer, EnemyStateSnapshot>[] history = new Map[HISTORY_SIZE];
+    private final int[] historySeq = new int[HISTORY_SIZE];
+    private int lastAppliedSeq = -1;
+    private int epoch = -1;
+    private int retiredEpoch = -1;
+
+    public EnemyDeltaReceiver() {
+        Arrays.fill(historySeq, -1);
+    }
+
+    /**
+     * 应用一个增量包
+     * @return 还原后的完整敌人列表；过期、重复或缺少基线时返回 null
+     */
+    public List<EnemyStateSnapshot> apply(LanEnemyDeltaBroadcastPacket packet) {
+        int seq = packet.getSeq();
+        int packetEpoch = packet.getEpoch();
+        if (packetEpoch != epoch) {
+            // 另一纪元：只有新纪元的关键帧能作为起点，旧基线全部作废
+            if (!packet.isKeyframe() || packetEpoch == retiredEpoch) return null;
+            int previous = epoch;
+            reset();
+            retiredEpoch = previous;
+            epoch = packetEpoch;
+        }
+        Map<Integer, EnemyStateSnapshot> base;
+        if (packet.isKeyframe()) {
+            if (seq <= lastAppliedSeq) return null; // 乱序迟到的旧关键帧
+            base = null;
+        } else {
+            if (seq <= lastAppliedSeq) return null; // 乱序到达的旧包
+            base = stateAt(packet.getBaselineSeq());
+            if (base == null) return null;          // 基线丢失，等待关键帧
+        }
+
+        long ts = packet.getTimestamp();
+        LinkedHashMap<Integer, EnemyStateSnapshot> next = new LinkedHashMap<>();
+        if (base != null) {
+            for (EnemyStateSnapshot s : base.values()) next.put(s.getEnemyId(), s);
+            int[] removed = packet.getRemoved();
+            if (removed != null) {
+                for (int id : removed) next.remove(id);
+            }
+        }
+        if (packet.getChanged() != null) {
+            for (EnemyStateDelta d : packet.getChanged()) {
+                next.put(d.getEnemyId(), EnemyDeltaCodec.apply(next.get(d.getEnemyId()), d, ts));
+            }
+        }
+
+        int slot = seq % HISTORY_SIZE;
+        history[slot] = next;
+        historySeq[slot] = seq;
+        lastAppliedSeq = seq;
+
+        List<EnemyStateSnapshot> out = new ArrayList<>(next.size());
+        for (EnemyStateSnapshot s : next.values()) {
+            // 未变化的敌人沿用基线对象，这里统一刷新为本包时间戳
+            if (s.getTimestamp() != ts) {
+                s = EnemyDeltaCodec.copy(s);
+                s.setTimestamp(ts);
+                next.put(s.getEnemyId(), s);
+            }
+            out.add(s);
+        }
+        return out;
+    }
+
+    public int getLastAppliedSeq() {
+        return lastAppliedSeq;
+    }
+
+    /** 当前所在的会话纪元（确认时一并回发，房主只接受本纪元的确认）；尚未收到关键帧时为 -1 */
+    public int getEpoch() {
+        return epoch;
+    }
+
+    public void reset() {
+        Arrays.fill(history, null);
+        Arrays.fill(historySeq, -1);
+        lastAppliedSeq = -1;
+        epoch = -1;
+        retiredEpoch = -1;
+    }
+
+    private Map<Integer, EnemyStateSnapshot> stateAt(int seq) {
+        if (seq < 0) return null;
+        int slot = seq % HISTORY_SIZE;
+        return historySeq[slot] == seq ? history[slot] : null;
+    }
+}
@@ -0,0 +1,458 @@
+package com.goldsprite.magicdungeon2.network.lan.replication;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import com.goldsprite.magicdungeon2.network.lan.LanSyncRate;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateDelta;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyDeltaBroadcastPacket;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * 房主端敌人增量复制器
+ * <p>
+ * 为每个客户端维护一段"已发送快照"历史（按序号环形存放）以及该客户端最后确认的序号。
+ * 每次广播时以已确认快照为基线计算字段级增量，未确认的变化会在后续包中重复携带，
+ * 因此丢包无需重传；基线过旧或到达关键帧周期时改发全量关键帧用于恢复。
+ * <p>
+ * 发送频率：每个客户端有最短发送间隔（由调用方按链路自适应给出）；设置了关注点（该客户端玩家位置）时，
+ * 距离超过 {@link #getFarDistance()} 格的敌人只在每 {@link #getFarDivisor()} 次发送中携带一次变化，
+ * 被跳过的变化不写入已发送历史，之后照常随增量补发。新出现的敌人与关键帧不受限制。
+ * <p>
+ * 带宽预算（{@link #buildFor(int, List, long, long, int)} 给出字节数时）：每个有变化的敌人每次按权重累积优先级
+ * （离关注点越近越高，出现/死亡、客户端尚未看到的掉血、正在追踪该客户端玩家时加倍），
+ * 按优先级从高到低放入本次增量直到预算用完，发出的清零，其余推迟到之后的包（同样不写入历史），
+ * 拥塞时表现为次要敌人更新变慢而不是整包过大被丢弃。关键帧必须完整，不受预算限制。
+ * <p>
+ * 会话纪元：每个客户端的复制记录创建时分配一个纪元号（随包下发、随确认回传），记录被清理后重建时
+ * 序号从 0 重新开始、纪元随之改变，旧纪元的确认不会被误当作新记录中同序号快照的确认。
+ * <p>
+ * 线程约定：{@link #buildFor} 只在游戏线程调用；{@link #onAck} 来自网络线程，仅写入 volatile 序号。
+ * 历史快照、增量对象（原始类型字段）、移除列表均按客户端复用，客户端表按 guid 线性查找不装箱，
+ * 稳态下每次广播除增量包本身（及其报文体）外不分配。
+ */
+public class EnemyReplicator {
+    /** 历史窗口长度（每 tick 最多发送一次，30Hz 下约 2.1 秒），与 {@link EnemyDeltaReceiver#HISTORY_SIZE} 保持一致 */
+    public static final int HISTORY_SIZE = 64;
+    /** 关键帧周期上限：短于历史窗口覆盖的时长，基线滑出窗口前总能等到下一个关键帧 */
+    public static final long MAX_KEYFRAME_INTERVAL_MS = (HISTORY_SIZE - 1) * LanSyncRate.TICK_INTERVAL_MS;
+    /** 未确认时同一状态的重发间隔（毫秒），避免静止时每帧重复发送 */
+    private static final long RESEND_INTERVAL_MS = 100L;
+    /** 单个增量报文体的字节上限（base64 前；编码后约 1.3KB，不超过常见 MTU） */
+    public static final int DATAGRAM_BUDGET = 1000;
+
+    // 优先级权重：距离每增加 4 格权重减半；出现/死亡、未同步的掉血、追踪该玩家时的倍数
+    private static final float DISTANCE_FALLOFF = 0.25f;
+    private static final float SPAWN_WEIGHT = 4f;
+    private static final float DAMAGE_WEIGHT = 3f;
+    private static final float AGGRO_WEIGHT = 3f;
+
+    // 每个敌人在本次构建中的处理方式
+    private static final byte SAME = 0, SEND = 1, KEEP = 2, DEFER = 3;
+
+    /** 纪元号分配（进程内递增，起点随机以免房主重启后与客户端残留的纪元相同；取低 16 位，变长编码不超过 3 字节） */
+    private static final AtomicInteger EPOCHS = new AtomicInteger(new Random().nextInt());
+
+    // 客户端很少，按 guid 线性查找；增删在写锁下整体替换数组，网络线程的 onAck 无锁读取当前数组
+    private volatile ClientBaseline[] clients = new ClientBaseline[0];
+    private volatile long keyframeIntervalMs = Math.min(2000L, MAX_KEYFRAME_INTERVAL_MS);
+    private volatile int farDistance = 12;
+    private volatile int farDivisor = 4;
+    private volatile long deferredCount;
+
+    /**
+     * 为指定客户端生成本次增量包
+     * @param targetGuid 目标客户端
+     * @param current 房主当前的敌人快照（按渲染顺序；只在调用期间读取，调用方可复用）
+     * @param now 当前时间（毫秒）
+     * @return 增量包；无需发送时返回 null
+     */
+    public LanEnemyDeltaBroadcastPacket buildFor(int targetGuid, List<EnemyStateSnapshot> current, long now) {
+        return buildFor(targetGuid, current, now, 0L);
+    }
+
+    /**
+     * 同 {@link #buildFor(int, List, long)}，距该客户端上次发送不足 minIntervalMs 时不发送（关键帧除外）
+     */
+    public LanEnemyDeltaBroadcastPacket buildFor(int targetGuid, List<EnemyStateSnapshot> current, long now,
+                                                 long minIntervalMs) {
+        return buildFor(targetGuid, current, now, minIntervalMs, 0);
+    }
+
+    /**
+     * 同 {@link #buildFor(int, List, long, long)}，增量报文体不超过 byteBudget 字节（≤ 0 表示不限）：
+     * 超出时按累积优先级取舍，至少放入一个变化
+     */
+    public LanEnemyDeltaBroadcastPacket buildFor(int targetGuid, List<EnemyStateSnapshot> current, long now,
+                                                 long minIntervalMs, int byteBudget) {
+        ClientBaseline cb = obtain(targetGuid);
+
+        boolean keyframe = now - cb.lastKeyframeMillis >= keyframeIntervalMs;
+        if (!keyframe && cb.lastSentSeq >= 0 && now - cb.lastSentMillis < minIntervalMs) return null;
+        int acked = cb.ackedSeq;
+        // 基线距今已满一个历史窗口时，本次写入会覆盖基线所在槽位，直接发关键帧
+        Frame base = keyframe || cb.nextSeq - acked >= HISTORY_SIZE ? null : cb.stateAt(acked);
+        if (base == null) keyframe = true;
+
+        // 静止且上次发送已确认（或刚发过），不重复发送
+        if (!keyframe && cb.lastSentSeq >= 0) {
+            Frame lastSent = cb.stateAt(cb.lastSentSeq);
+            if (lastSent != null && lastSent.sameAs(current)
+                && (acked >= cb.lastSentSeq || now - cb.lastSentMillis < RESEND_INTERVAL_MS)) {
+                return null;
+            }
+        }
+
+        // 第一遍：逐个敌人计算增量并标记处理方式（增量对象按下标复用，增量包构造时立即编码，不持有它们）
+        int n = current.size();
+        cb.ensureCapacity(n);
+        boolean throttleFar = !keyframe && cb.hasFocus && cb.rounds++ % farDivisor != 0;
+        int candidates = 0;
+        for (int i = 0; i < n; i++) {
+            EnemyStateSnapshot s = current.get(i);
+            EnemyStateSnapshot prev = base == null ? null : base.find(s.getEnemyId());
+            cb.prev[i] = prev;
+            if (throttleFar && prev != null && cb.isFar(s, farDistance)) {
+                cb.mark[i] = KEEP;
+                continue;
+            }
+            boolean diff = EnemyDeltaCodec.diffInto(prev, s, cb.delta(i));
+            cb.mark[i] = diff ? SEND : SAME;
+            if (diff) cb.order[candidates++] = i;
+        }
+        int removedCount = 0;
+        int removedBytes = 0;
+        if (base != null) {
+            for (int i = 0; i < base.size(); i++) {
+                int id = base.get(i).getEnemyId();
+                if (contains(current, id)) continue;
+                cb.addRemoved(removedCount++, id);
+                removedBytes += LanEnemyDeltaBroadcastPacket.removedSize(id);
+            }
+        }
+        if (!keyframe && byteBudget > 0) {
+            applyBudget(cb, targetGuid, current, candidates,
+                byteBudget - LanEnemyDeltaBroadcastPacket.HEADER_SIZE - removedBytes);
+        }
+
+        // 第二遍：按原顺序收集增量与本次发出后客户端将持有的状态（被跳过的敌人保持基线值，新出现的暂不出现）
+        List<EnemyStateDelta> changed = cb.changed;
+        changed.clear();
+        List<EnemyStateSnapshot> sent = cb.sent;
+        sent.clear();
+        for (int i = 0; i < n; i++) {
+            byte mark = cb.mark[i];
+            if (mark == SEND || mark == SAME) {
+                sent.add(current.get(i));
+                if (mark == SEND) changed.add(cb.delta(i));
+            } else if (cb.prev[i] != null) {
+                sent.add(cb.prev[i]);
+            }
+            cb.prev[i] = null;
+        }
+
+        // 只有被降频/推迟的变化、且客户端已与基线一致：没有新内容
+        if (!keyframe && changed.isEmpty() && removedCount == 0 && acked >= cb.lastSentSeq) return null;
+
+        int seq = cb.nextSeq++;
+        cb.store(seq, sent); // 上面已保证不会覆盖 base 所在槽位
+        cb.lastSentSeq = seq;
+        cb.lastSentMillis = now;
+        if (keyframe) cb.lastKeyframeMillis = now;
+
+        return new LanEnemyDeltaBroadcastPacket(targetGuid, IStatus.RETURN_SUCCESS,
+            cb.epoch, seq, keyframe ? LanEnemyDeltaBroadcastPacket.KEYFRAME : acked, now,
+            changed.isEmpty() ? null : changed, removedCount == 0 ? null : cb.removed, removedCount);
+    }
+
+    /**
+     * 带宽预算：有变化的敌人累积优先级后按从高到低放入，放不下的标记为推迟（继续尝试更小的条目）；
+     * 发出的优先级清零，推迟与被降频的保留累积值，没有变化的清零
+     */
+    private void applyBudget(ClientBaseline cb, int targetGuid, List<EnemyStateSnapshot> current,
+                             int candidates, int budget) {
+        for (int k = 0; k < candidates; k++) {
+            int i = cb.order[k];
+            EnemyStateSnapshot s = current.get(i);
+            cb.prio[i] = cb.priorityOf(s.getEnemyId()) + weight(cb, targetGuid, s, cb.prev[i]);
+        }
+        // 按优先级降序插入排序（敌人数很少）
+        for (int a = 1; a < candidates; a++) {
+            int idx = cb.order[a];
+            float p = cb.prio[idx];
+            int b = a - 1;
+            while (b >= 0 && cb.prio[cb.order[b]] < p) {
+                cb.order[b + 1] = cb.order[b];
+                b--;
+            }
+            cb.order[b + 1] = idx;
+        }
+        int used = 0;
+        for (int k = 0; k < candidates; k++) {
+            int i = cb.order[k];
+            int size = LanEnemyDeltaBroadcastPacket.encodedSize(cb.delta(i));
+            if (k > 0 && used + size > budget) {
+                cb.mark[i] = DEFER;
+                deferredCount++;
+                continue;
+            }
+            used += size;
+            cb.prio[i] = 0f;
+        }
+        cb.beginPriorities();
+        for (int i = 0; i < current.size(); i++) {
+            int id = current.get(i).getEnemyId();
+            byte mark = cb.mark[i];
+            if (mark == DEFER || mark == SEND) cb.putPriority(id, cb.prio[i]);
+            else if (mark == KEEP) cb.putPriority(id, cb.priorityOf(id));
+        }
+        cb.endPriorities();
+    }
+
+    /** 本次累积的优先级权重 */
+    private static float weight(ClientBaseline cb, int targetGuid, EnemyStateSnapshot s, EnemyStateSnapshot prev) {
+        float w = 1f;
+        if (cb.hasFocus) {
+            int d = Math.max(Math.abs(s.getX() - cb.focusX), Math.abs(s.getY() - cb.focusY));
+            w = 1f / (1f + d * DISTANCE_FALLOFF);
+        }
+        if (prev == null || prev.isAlive() != s.isAlive()) w *= SPAWN_WEIGHT;
+        else if (s.getHp() < prev.getHp()) w *= DAMAGE_WEIGHT;
+        if (s.getAggroGuid() == targetGuid) w *= AGGRO_WEIGHT;
+        return w;
+    }
+
+    /** 网络线程：客户端确认了 epoch 纪元中的 seq 号快照 */
+    public void onAck(int guid, int epoch, int seq) {
+        ClientBaseline cb = find(guid);
+        if (cb == null || cb.epoch != epoch) return; // 记录重建前的确认与当前序号无关
+        // 只接受比当前更新、且确实发出过的序号（乱序到达的旧确认直接忽略）
+        if (seq > cb.ackedSeq && seq < cb.nextSeq) cb.ackedSeq = seq;
+    }
+
+    /** 游戏线程：设置该客户端玩家的格子坐标，用于降低远处敌人的发送频率 */
+    public void setFocus(int guid, int x, int y) {
+        ClientBaseline cb = obtain(guid);
+        cb.focusX = x;
+        cb.focusY = y;
+        cb.hasFocus = true;
+    }
+
+    /** 只保留满足条件的客户端（用于清理已断线的 guid） */
+    public synchronized void retainClients(IntPredicate alive) {
+        ClientBaseline[] current = clients;
+        int n = 0;
+        for (ClientBaseline cb : current) if (alive.test(cb.guid)) n++;
+        if (n == current.length) return;
+        ClientBaseline[] next = new ClientBaseline[n];
+        int k = 0;
+        for (ClientBaseline cb : current) if (alive.test(cb.guid)) next[k++] = cb;
+        clients = next;
+    }
+
+    public synchronized void clear() {
+        clients = new ClientBaseline[0];
+    }
+
+    private ClientBaseline find(int guid) {
+        ClientBaseline[] current = clients;
+        for (int i = 0; i < current.length; i++) if (current[i].guid == guid) return current[i];
+        return null;
+    }
+
+    /** 取得客户端的基线记录，不存在时创建（只在新客户端出现时加锁并替换数组） */
+    private ClientBaseline obtain(int guid) {
+        ClientBaseline cb = find(guid);
+        if (cb != null) return cb;
+        synchronized (this) {
+            cb = find(guid);
+            if (cb != null) return cb;
+            ClientBaseline[] current = clients;
+            ClientBaseline[] next = Arrays.copyOf(current, current.length + 1);
+            cb = new ClientBaseline(guid);
+            next[current.length] = cb;
+            clients = next;
+            return cb;
+        }
+    }
+
+    public long getKeyframeIntervalMs() {
+        return keyframeIntervalMs;
+    }
+
+    /** 关键帧周期（毫秒），超过 {@link #MAX_KEYFRAME_INTERVAL_MS} 时取上限 */
+    public void setKeyframeIntervalMs(long keyframeIntervalMs) {
+        this.keyframeIntervalMs = Math.min(keyframeIntervalMs, MAX_KEYFRAME_INTERVAL_MS);
+    }
+
+    /** 超过该切比雪夫距离（格）的敌人视为远处 */
+    public int getFarDistance() {
+        return farDistance;
+    }
+
+    public void setFarDistance(int tiles) {
+        this.farDistance = tiles;
+    }
+
+    /** 因带宽预算被推迟的敌人变化累计次数 */
+    public long getDeferredCount() {
+        return deferredCount;
+    }
+
+    /** 远处敌人每几次发送携带一次变化（1 表示不降频） */
+    public int getFarDivisor() {
+        return farDivisor;
+    }
+
+    public void setFarDivisor(int divisor) {
+        this.farDivisor = Math.max(1, divisor);
+    }
+
+    private static boolean contains(List<EnemyStateSnapshot> list, int enemyId) {
+        for (int i = 0; i < list.size(); i++) if (list.get(i).getEnemyId() == enemyId) return true;
+        return false;
+    }
+
+    /** 一个已发送快照：按顺序保存的敌人状态（对象在槽位被覆盖时复用），敌人数很少，按 id 线性查找 */
+    private static final class Frame {
+        private final ArrayList<EnemyStateSnapshot> states = new ArrayList<>();
+        private final ArrayList<EnemyStateSnapshot> spare = new ArrayList<>();
+
+        void copyFrom(List<EnemyStateSnapshot> src) {
+            spare.addAll(states);
+            states.clear();
+            for (int i = 0; i < src.size(); i++) {
+                EnemyStateSnapshot s = spare.isEmpty() ? new EnemyStateSnapshot() : spare.remove(spare.size() - 1);
+                states.add(s.copyFrom(src.get(i)));
+            }
+        }
+
+        EnemyStateSnapshot find(int enemyId) {
+            for (int i = 0; i < states.size(); i++) {
+                EnemyStateSnapshot s = states.get(i);
+                if (s.getEnemyId() == enemyId) return s;
+            }
+            return null;
+        }
+
+        boolean sameAs(List<EnemyStateSnapshot> current) {
+            if (states.size() != current.size()) return false;
+            for (int i = 0; i < current.size(); i++) {
+                EnemyStateSnapshot s = current.get(i);
+                EnemyStateSnapshot prev = find(s.getEnemyId());
+                if (prev == null || !EnemyDeltaCodec.sameState(prev, s)) return false;
+            }
+            return true;
+        }
+
+        int size() { return states.size(); }
+        EnemyStateSnapshot get(int i) { return states.get(i); }
+    }
+
+    /** 单个客户端的基线状态（只在游戏线程读写，ackedSeq 除外） */
+    private static final class ClientBaseline {
+        final int guid;
+        final Frame[] history = new Frame[HISTORY_SIZE];
+        final int[] historySeq = new int[HISTORY_SIZE];
+        final ArrayList<EnemyStateDelta> changed = new ArrayList<>();
+        final ArrayList<EnemyStateDelta> deltaPool = new ArrayList<>();
+        final ArrayList<EnemyStateSnapshot> sent = new ArrayList<>();
+        // 按当前列表下标：基线状态、处理方式、候选顺序、优先级（复用，按敌人数扩容）
+        EnemyStateSnapshot[] prev = new EnemyStateSnapshot[0];
+        int[] removed = new int[8]; // 本次的移除列表（只编码前若干个）
+        byte[] mark = new byte[0];
+        int[] order = new int[0];
+        float[] prio = new float[0];
+        // 按敌人 id 的累积优先级（双缓冲，每次只保留当前列表中的敌人）
+        int[] prioIds = new int[8], nextIds = new int[8];
+        float[] prioVals = new float[8], nextVals = new float[8];
+        int prioCount, nextCount;
+        int focusX, focusY;
+        boolean hasFocus;
+        int rounds; // 远处敌人降频计数（每次尝试发送 +1，不依赖是否真正发出）
+        final int epoch = EPOCHS.incrementAndGet() & 0xFFFF;
+        int nextSeq = 0;
+        int lastSentSeq = -1;
+        long lastSentMillis;
+        long lastKeyframeMillis = Long.MIN_VALUE / 2;
+        volatile int ackedSeq = -1;
+
+        ClientBaseline(int guid) {
+            this.guid = guid;
+            Arrays.fill(historySeq, -1);
+        }
+
+        void addRemoved(int i, int enemyId) {
+            if (i == removed.length) removed = Arrays.copyOf(removed, i * 2);
+            removed[i] = enemyId;
+        }
+
+        boolean isFar(EnemyStateSnapshot s, int farDistance) {
+            int d = Math.max(Math.abs(s.getX() - focusX), Math.abs(s.getY() - focusY));
+            return d > farDistance;
+        }
+
+        void ensureCapacity(int n) {
+            if (mark.length >= n) return;
+            int cap = Math.max(n, mark.length * 2);
+            prev = new EnemyStateSnapshot[cap];
+            mark = new byte[cap];
+            order = new int[cap];
+            prio = new float[cap];
+        }
+
+        float priorityOf(int enemyId) {
+            for (int i = 0; i < prioCount; i++) if (prioIds[i] == enemyId) return prioVals[i];
+            return 0f;
+        }
+
+        void beginPriorities() {
+            nextCount = 0;
+        }
+
+        void putPriority(int enemyId, float value) {
+            if (value <= 0f) return;
+            if (nextCount == nextIds.length) {
+                nextIds = Arrays.copyOf(nextIds, nextCount * 2);
+                nextVals = Arrays.copyOf(nextVals, nextCount * 2);
+            }
+            nextIds[nextCount] = enemyId;
+            nextVals[nextCount++] = value;
+        }
+
+        void endPriorities() {
+            int[] ids = prioIds;
+            float[] vals = prioVals;
+            prioIds = nextIds;
+            prioVals = nextVals;
+            prioCount = nextCount;
+            nextIds = ids;
+            nextVals = vals;
+        }
+
+        /** 第 i 个复用的增量对象 */
+        EnemyStateDelta delta(int i) {
+            while (deltaPool.size() <= i) deltaPool.add(new EnemyStateDelta());
+            return deltaPool.get(i);
+        }
+
+        void store(int seq, List<EnemyStateSnapshot> states) {
+            int slot = seq % HISTORY_SIZE;
+            if (history[slot] == null) history[slot] = new Frame();
+            history[slot].copyFrom(states);
+            historySeq[slot] = seq;
+        }
+
+        Frame stateAt(int seq) {
+            if (seq < 0) return null;
+            int slot = seq % HISTORY_SIZE;
+            return historySeq[slot] == seq ? history[slot] : null;
+        }
+    }
+}
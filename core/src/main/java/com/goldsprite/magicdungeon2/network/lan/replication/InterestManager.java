@@ -0,0 +1,218 @@
+package com.goldsprite.magicdungeon2.network.lan.replication;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntPredicate;
+
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
+
+/**
+ * 房主端关注区域（AOI）管理：按网格距离与视线为每个客户端计算"相关实体"集合
+ * <p>
+ * 规则（切比雪夫距离，以该客户端玩家的权威位置为关注点）：
+ * <ul>
+ *   <li>距离 ≤ {@link #getNearRadius()}：总是相关（贴身的实体隔墙也要看到）</li>
+ *   <li>距离 ≤ {@link #getViewRadius()} 且视线不被墙阻挡：进入相关集合</li>
+ *   <li>已在集合中的实体距离 ≤ viewRadius + {@link #getHysteresis()} 时保留（不再要求视线），
+ *       避免在边界或墙角来回进出</li>
+ * </ul>
+ * 敌人：{@link #filterEnemies} 给出该客户端可见的子集，交给 {@link EnemyReplicator}，
+ * 新进入的敌人作为新实体全量下发（生成），离开的敌人进入增量包的移除列表（消失）。
+ * 玩家：{@link #updatePlayer} 返回进入/离开，由调用方发送显隐消息；网络线程转发玩家同步时以
+ * {@link #isPlayerHidden} 过滤。
+ * <p>
+ * 没有关注点的客户端（尚未上报位置）、关闭 AOI 时一切相关。
+ * 线程约定：除 {@link #isPlayerHidden} 外只在游戏线程调用；隐藏集合为并发集合，供网络线程读取。
+ */
+public class InterestManager {
+    public static final int DEFAULT_VIEW_RADIUS = 8;
+    public static final int DEFAULT_NEAR_RADIUS = 2;
+    public static final int DEFAULT_HYSTERESIS = 2;
+
+    /** {@link #updatePlayer} 返回值：相关性不变 */
+    public static final int UNCHANGED = 0;
+    /** {@link #updatePlayer} 返回值：进入相关集合（需发送生成） */
+    public static final int ENTER = 1;
+    /** {@link #updatePlayer} 返回值：离开相关集合（需发送消失） */
+    public static final int LEAVE = -1;
+
+    private final ConcurrentHashMap<Integer, Viewer> viewers = new ConcurrentHashMap<>();
+    private volatile boolean enabled = true;
+    private volatile int viewRadius = DEFAULT_VIEW_RADIUS;
+    private volatile int nearRadius = DEFAULT_NEAR_RADIUS;
+    private volatile int hysteresis = DEFAULT_HYSTERESIS;
+    private int[][] map;
+
+    /** 当前层地图（map[y][x]，用于视线判定；null 时只按距离） */
+    public void setMap(int[][] map) {
+        this.map = map;
+    }
+
+    /** 设置客户端的关注点（其玩家的权威网格坐标） */
+    public void setFocus(int viewerGuid, int x, int y) {
+        Viewer v = viewers.computeIfAbsent(viewerGuid, g -> new Viewer());
+        v.x = x;
+        v.y = y;
+        v.hasFocus = true;
+    }
+
+    // ============ 敌人 ============
+
+    /**
+     * 该客户端相关的敌人子集（保持原顺序）
+     * @param all 房主当前全部敌人快照（只在调用期间读取）
+     * @return 关闭 AOI 或无关注点时返回 all 本身；否则返回该客户端复用的列表，下次调用前有效
+     */
+    public List<EnemyStateSnapshot> filterEnemies(int viewerGuid, List<EnemyStateSnapshot> all) {
+        Viewer v = viewers.get(viewerGuid);
+        if (!enabled || v == null || !v.hasFocus) return all;
+        List<EnemyStateSnapshot> out = v.enemyView;
+        out.clear();
+        BitSet relevant = v.enemies;
+        for (int i = 0; i < all.size(); i++) {
+            EnemyStateSnapshot s = all.get(i);
+            int id = s.getEnemyId();
+            if (id < 0) { // 无编号的实体无法跟踪进出，始终下发
+                out.add(s);
+                continue;
+            }
+            boolean now = isRelevant(v.x, v.y, s.getX(), s.getY(), relevant.get(id));
+            relevant.set(id, now);
+            if (now) out.add(s);
+        }
+        return out;
+    }
+
+    /** 换层：敌人编号重新分配前清空各客户端的敌人相关记录 */
+    public void clearEnemies() {
+        for (Viewer v : viewers.values()) v.enemies.clear();
+    }
+
+    // ============ 玩家 ============
+
+    /**
+     * 更新 subject 玩家对 viewer 客户端的相关性
+     * @return {@link #ENTER} / {@link #LEAVE} / {@link #UNCHANGED}
+     */
+    public int updatePlayer(int viewerGuid, int subjectGuid, int x, int y) {
+        if (viewerGuid == subjectGuid) return UNCHANGED;
+        Viewer v = viewers.get(viewerGuid);
+        if (v == null) return UNCHANGED; // 未知客户端：默认相关，无隐藏记录
+        boolean wasVisible = !v.hiddenPlayers.contains(subjectGuid);
+        boolean visible = !enabled || !v.hasFocus || isRelevant(v.x, v.y, x, y, wasVisible);
+        if (visible == wasVisible) return UNCHANGED;
+        if (visible) {
+            v.hiddenPlayers.remove(subjectGuid);
+            return ENTER;
+        }
+        v.hiddenPlayers.add(subjectGuid);
+        return LEAVE;
+    }
+
+    /** 网络线程：subject 玩家的状态是否不应转发给 viewer 客户端 */
+    public boolean isPlayerHidden(int viewerGuid, int subjectGuid) {
+        Viewer v = viewers.get(viewerGuid);
+        return v != null && v.hiddenPlayers.contains(subjectGuid);
+    }
+
+    // ============ 规则 ============
+
+    /**
+     * 相关性判定
+     * @param wasRelevant 上次是否相关（滞后保留）
+     */
+    public boolean isRelevant(int fx, int fy, int x, int y, boolean wasRelevant) {
+        int d = Math.max(Math.abs(x - fx), Math.abs(y - fy));
+        if (d <= nearRadius) return true;
+        if (wasRelevant) return d <= viewRadius + hysteresis;
+        return d <= viewRadius && hasLineOfSight(map, fx, fy, x, y);
+    }
+
+    /**
+     * 两格之间的视线（Bresenham 直线，端点不计）：经过墙格或地图外即被阻挡；map 为 null 时视为通透
+     */
+    public static boolean hasLineOfSight(int[][] map, int x0, int y0, int x1, int y1) {
+        if (map == null || (x0 == x1 && y0 == y1)) return true;
+        int dx = Math.abs(x1 - x0), dy = Math.abs(y1 - y0);
+        int sx = x0 < x1 ? 1 : -1, sy = y0 < y1 ? 1 : -1;
+        int err = dx - dy;
+        int x = x0, y = y0;
+        while (true) {
+            int e2 = err * 2;
+            if (e2 > -dy) { err -= dy; x += sx; }
+            if (e2 < dx) { err += dx; y += sy; }
+            if (x == x1 && y == y1) return true;
+            if (y < 0 || y >= map.length || x < 0 || x >= map[y].length) return false;
+            if (map[y][x] == WorldConfig.T_WALL) return false;
+        }
+    }
+
+    // ============ 生命周期 ============
+
+    /**
+     * 移除已断线的客户端，并从其余客户端的隐藏集合中去掉已断线的玩家
+     */
+    public void retainViewers(IntPredicate alive) {
+        viewers.keySet().removeIf(guid -> !alive.test(guid));
+        for (Viewer v : viewers.values()) {
+            if (!v.hiddenPlayers.isEmpty()) v.hiddenPlayers.removeIf(guid -> !alive.test(guid));
+        }
+    }
+
+    public void clear() {
+        viewers.clear();
+    }
+
+    /**
+     * 是否启用 AOI；关闭后下一轮更新时所有隐藏的玩家都会以"进入"恢复，敌人全部下发
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getViewRadius() {
+        return viewRadius;
+    }
+
+    /** 视野半径（格） */
+    public void setViewRadius(int viewRadius) {
+        this.viewRadius = Math.max(0, viewRadius);
+    }
+
+    public int getNearRadius() {
+        return nearRadius;
+    }
+
+    /** 无视视线的近身半径（格） */
+    public void setNearRadius(int nearRadius) {
+        this.nearRadius = Math.max(0, nearRadius);
+    }
+
+    public int getHysteresis() {
+        return hysteresis;
+    }
+
+    /** 已相关实体的额外保留距离（格） */
+    public void setHysteresis(int hysteresis) {
+        this.hysteresis = Math.max(0, hysteresis);
+    }
+
+    /** 单个客户端的关注点与相关记录 */
+    private static final class Viewer {
+        int x, y;
+        boolean hasFocus;
+        /** 上次相关的敌人编号（游戏线程） */
+        final BitSet enemies = new BitSet();
+        final List<EnemyStateSnapshot> enemyView = new ArrayList<>();
+        /** 当前对该客户端隐藏的玩家（网络线程读取） */
+        final Set<Integer> hiddenPlayers = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -0,0 +1,91 @@
+package com.goldsprite.magicdungeon2.network.lan.stats;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 以 2 的幂分桶的无锁直方图（记录零分配，可多线程并发写）
+ * <p>
+ * 第 0 桶只放 0，第 i 桶放 [2^(i-1), 2^i)；分位数返回所在桶的上界，误差不超过一倍，
+ * 足够回答"包大多多大、RTT 大概多少"这类问题。
+ */
+public class LanNetHistogram {
+    private static final int BUCKETS = 32;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(value));
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value)) {
+            // 其他线程刚写入了更大的值，重试
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long c = count.get();
+        return c == 0 ? 0 : (double) sum.get() / c;
+    }
+
+    /** 近似分位数（p ∈ [0,1]），返回所在桶的上界，不超过记录到的最大值 */
+    public long percentile(double p) {
+        long c = count.get();
+        if (c == 0) return 0;
+        long rank = (long) Math.ceil(Math.max(0, Math.min(1, p)) * c);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank && seen > 0) {
+                long upper = i == 0 ? 0 : (1L << i) - 1;
+                return Math.min(upper, max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /** 并入另一个直方图的全部样本（汇总多个对端/客户端时使用） */
+    public void addAll(LanNetHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.buckets.get(i);
+            if (n != 0) buckets.addAndGet(i, n);
+        }
+        count.addAndGet(other.count.get());
+        sum.addAndGet(other.sum.get());
+        long value = other.max.get(), m;
+        while (value > (m = max.get()) && !max.compareAndSet(m, value)) {
+            // 其他线程刚写入了更大的值，重试
+        }
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /** 追加 {"n":..,"mean":..,"p50":..,"p99":..,"max":..} */
+    void appendJson(StringBuilder sb) {
+        sb.append("{\"n\":").append(getCount())
+            .append(",\"mean\":").append(Math.round(getMean()))
+            .append(",\"p50\":").append(percentile(0.5))
+            .append(",\"p99\":").append(percentile(0.99))
+            .append(",\"max\":").append(getMax())
+            .append('}');
+    }
+}
@@ -0,0 +1,403 @@
+package com.goldsprite.magicdungeon2.network.lan.stats;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+import com.goldsprite.gdengine.log.DLog;
+import com.goldsprite.magicdungeon2.network.lan.LanPacketBundler;
+import com.goldsprite.magicdungeon2.network.lan.packet.CompactPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * LAN 网络统计收集器（每个 LanMultiplayerService 一份）
+ * <p>
+ * 按包类型（LanCommands 命令字）统计收发条数、字节与包体大小直方图；
+ * 按对端统计数据报、字节、速率、RTT、丢失与重复；另记录各队列 drain 耗时。
+ * 合并包拆开后按内部消息类型计数，合并包自身的命令字只计外层开销，因此各类型字节相加等于总字节。
+ * <p>
+ * 字节数为估算值：编解码器不暴露实际编码长度，紧凑报文按报文体长度加外层开销计算，
+ * 其余按 {@link LanPacketBundler#estimateBytes} 的保守估算。
+ * <p>
+ * 线程约定：record* 可在任意线程调用（原子计数，零分配）；{@link #update}、{@link #toJson} 在游戏线程调用。
+ */
+public class LanNetStats {
+    /** 客户端视角下的唯一对端：房主 */
+    public static final int HOST_PEER = -1;
+
+    // ============ drain 队列编号 ============
+    public static final int DRAIN_EVENTS = 0;
+    public static final int DRAIN_ATTACKS = 1;
+    public static final int DRAIN_DAMAGE_RESULTS = 2;
+    public static final int DRAIN_PLAYER_HURTS = 3;
+    public static final int DRAIN_INPUTS = 4;
+    private static final String[] DRAIN_NAMES = {"events", "attacks", "damageResults", "playerHurts", "inputs"};
+
+    private static final int COMMANDS = 256;
+    private static final long RATE_WINDOW_MS = 1000L;
+
+    private volatile boolean enabled = true;
+
+    // 按命令字（无符号）索引
+    private final AtomicLongArray sentMessages = new AtomicLongArray(COMMANDS);
+    private final AtomicLongArray sentBytes = new AtomicLongArray(COMMANDS);
+    private final AtomicLongArray recvMessages = new AtomicLongArray(COMMANDS);
+    private final AtomicLongArray recvBytes = new AtomicLongArray(COMMANDS);
+    private final AtomicReferenceArray<LanNetHistogram> sizeHistograms = new AtomicReferenceArray<>(COMMANDS);
+    private final AtomicReferenceArray<String> commandNames = new AtomicReferenceArray<>(COMMANDS);
+
+    private final Map<Integer, LanPeerStats> peers = new ConcurrentHashMap<>();
+    private final LanNetHistogram[] drainMicros = new LanNetHistogram[DRAIN_NAMES.length];
+
+    // 合并包内部消息计数（发送可能来自游戏线程或网络线程，按方向各一个，迭代时加锁）
+    private final BundleCounter sentCounter = new BundleCounter(true);
+    private final BundleCounter recvCounter = new BundleCounter(false);
+
+    // 速率（游戏线程）
+    private final long[] prevSentBytes = new long[COMMANDS];
+    private final long[] prevRecvBytes = new long[COMMANDS];
+    private final long[] prevSentMessages = new long[COMMANDS];
+    private final long[] prevRecvMessages = new long[COMMANDS];
+    private final float[] sentBytesPerSec = new float[COMMANDS];
+    private final float[] recvBytesPerSec = new float[COMMANDS];
+    private final float[] sentPerSec = new float[COMMANDS];
+    private final float[] recvPerSec = new float[COMMANDS];
+    private long lastRateMillis = -1L;
+    private volatile String summaryText = "";
+    private final StringBuilder summary = new StringBuilder(512);
+
+    // 周期性 JSON 输出
+    private File dumpFile;
+    private long dumpIntervalMs;
+    private long lastDumpMillis;
+
+    public LanNetStats() {
+        for (int i = 0; i < drainMicros.length; i++) drainMicros[i] = new LanNetHistogram();
+    }
+
+    // ============ 记录（任意线程） ============
+
+    /** 发出一个数据报（peer 为目标 guid，客户端发往房主用 {@link #HOST_PEER}） */
+    public void recordSent(Packet packet, int peer) {
+        if (!enabled) return;
+        int bytes = recordMessages(packet, sentCounter);
+        LanPeerStats ps = peer(peer);
+        ps.sentDatagrams.incrementAndGet();
+        ps.sentBytes.addAndGet(bytes);
+    }
+
+    /** 收到一个数据报（合并包拆出的内部消息不要再单独调用） */
+    public void recordReceived(Packet packet, int peer) {
+        if (!enabled) return;
+        int bytes = recordMessages(packet, recvCounter);
+        LanPeerStats ps = peer(peer);
+        ps.recvDatagrams.incrementAndGet();
+        ps.recvBytes.addAndGet(bytes);
+    }
+
+    /** 记录一次 drain 的耗时（纳秒） */
+    public void recordDrain(int queue, long nanos) {
+        if (!enabled) return;
+        drainMicros[queue].record(nanos / 1000L);
+    }
+
+    /** 发出带序号、对端会确认的包（RTT 探针） */
+    public void onProbeSent(int peer, int seq, long nanos) {
+        if (!enabled || seq < 0) return;
+        peer(peer).onProbeSent(seq, nanos);
+    }
+
+    /** 对端确认了某个序号 */
+    public void onProbeAcked(int peer, int seq, long nanos) {
+        if (!enabled || seq < 0) return;
+        LanPeerStats ps = peers.get(peer);
+        if (ps != null) ps.onProbeAcked(seq, nanos);
+    }
+
+    /** 收到覆盖序号 [first, last] 的包（丢失/重复检测） */
+    public void onSequence(int peer, int first, int last) {
+        if (!enabled) return;
+        peer(peer).onSequence(first, last);
+    }
+
+    /** 丢弃已断开对端的统计 */
+    public void retainPeers(IntPredicate alive) {
+        peers.keySet().removeIf(guid -> guid != HOST_PEER && !alive.test(guid));
+    }
+
+    /** 返回数据报字节数；合并包逐条计入内部消息的类型 */
+    private int recordMessages(Packet packet, BundleCounter counter) {
+        if (packet instanceof LanTickBundleBroadcastPacket) {
+            int inner;
+            synchronized (counter) {
+                counter.bytes = 0;
+                ((LanTickBundleBroadcastPacket) packet).forEachMessage(counter);
+                inner = counter.bytes;
+            }
+            count(packet, LanPacketBundler.BUNDLE_OVERHEAD_BYTES, counter.sent);
+            return inner + LanPacketBundler.BUNDLE_OVERHEAD_BYTES;
+        }
+        int bytes = estimateBytes(packet);
+        count(packet, bytes, counter.sent);
+        return bytes;
+    }
+
+    private void count(Packet packet, int bytes, boolean sent) {
+        int cmd = packet.getCommand() & 0xFF;
+        if (sent) {
+            sentMessages.incrementAndGet(cmd);
+            sentBytes.addAndGet(cmd, bytes);
+        } else {
+            recvMessages.incrementAndGet(cmd);
+            recvBytes.addAndGet(cmd, bytes);
+        }
+        LanNetHistogram h = sizeHistograms.get(cmd);
+        if (h == null) {
+            sizeHistograms.compareAndSet(cmd, null, new LanNetHistogram());
+            commandNames.compareAndSet(cmd, null, commandName(packet));
+            h = sizeHistograms.get(cmd);
+        }
+        h.record(bytes);
+    }
+
+    private LanPeerStats peer(int peer) {
+        LanPeerStats ps = peers.get(peer);
+        if (ps == null) ps = peers.computeIfAbsent(peer, LanPeerStats::new);
+        return ps;
+    }
+
+    private static String commandName(Packet packet) {
+        String name = packet.getClass().getSimpleName();
+        if (name.startsWith("Lan")) name = name.substring(3);
+        if (name.endsWith("Packet")) name = name.substring(0, name.length() - 6);
+        return name;
+    }
+
+    /** 编码后大小估算（字节） */
+    public static int estimateBytes(Packet packet) {
+        if (packet instanceof LanBroadcastPacket) return LanPacketBundler.estimateBytes((LanBroadcastPacket) packet);
+        if (packet instanceof CompactPacket) {
+            String body = ((CompactPacket) packet).getBody();
+            return 60 + (body == null ? 0 : body.length());
+        }
+        return 120;
+    }
+
+    // ============ 速率与输出（游戏线程） ============
+
+    /** 每帧/每 tick 调用：满一秒刷新速率与概要文本，到期时输出 JSON */
+    public void update(long nowMillis) {
+        if (lastRateMillis < 0) {
+            lastRateMillis = nowMillis;
+            lastDumpMillis = nowMillis;
+            return;
+        }
+        long elapsed = nowMillis - lastRateMillis;
+        if (elapsed >= RATE_WINDOW_MS) {
+            float k = 1000f / elapsed;
+            for (int c = 0; c < COMMANDS; c++) {
+                sentBytesPerSec[c] = rate(sentBytes.get(c), prevSentBytes, c, k);
+                recvBytesPerSec[c] = rate(recvBytes.get(c), prevRecvBytes, c, k);
+                sentPerSec[c] = rate(sentMessages.get(c), prevSentMessages, c, k);
+                recvPerSec[c] = rate(recvMessages.get(c), prevRecvMessages, c, k);
+            }
+            for (LanPeerStats ps : peers.values()) {
+                long sb = ps.sentBytes.get(), rb = ps.recvBytes.get();
+                long sd = ps.sentDatagrams.get(), rd = ps.recvDatagrams.get();
+                ps.sentBytesPerSec = (sb - ps.prevSentBytes) * k;
+                ps.recvBytesPerSec = (rb - ps.prevRecvBytes) * k;
+                ps.sentPerSec = (sd - ps.prevSentDatagrams) * k;
+                ps.recvPerSec = (rd - ps.prevRecvDatagrams) * k;
+                ps.prevSentBytes = sb;
+                ps.prevRecvBytes = rb;
+                ps.prevSentDatagrams = sd;
+                ps.prevRecvDatagrams = rd;
+            }
+            lastRateMillis = nowMillis;
+            rebuildSummary();
+        }
+        if (dumpIntervalMs > 0 && nowMillis - lastDumpMillis >= dumpIntervalMs) {
+            lastDumpMillis = nowMillis;
+            dump();
+        }
+    }
+
+    private static float rate(long total, long[] prev, int c, float k) {
+        float r = (total - prev[c]) * k;
+        prev[c] = total;
+        return r;
+    }
+
+    /** 覆盖层用的多行概要（每秒重建一次，逐帧读取不分配） */
+    public String getSummaryText() {
+        return summaryText;
+    }
+
+    private void rebuildSummary() {
+        StringBuilder sb = summary;
+        sb.setLength(0);
+        float up = 0, down = 0, upN = 0, downN = 0;
+        for (int c = 0; c < COMMANDS; c++) {
+            up += sentBytesPerSec[c];
+            down += recvBytesPerSec[c];
+            upN += sentPerSec[c];
+            downN += recvPerSec[c];
+        }
+        sb.append("网络 ↑").append(kb(up)).append("KB/s ").append(Math.round(upN)).append("条/s")
+            .append("  ↓").append(kb(down)).append("KB/s ").append(Math.round(downN)).append("条/s");
+        for (int c = 0; c < COMMANDS; c++) {
+            if (sentPerSec[c] <= 0 && recvPerSec[c] <= 0) continue;
+            sb.append('\n').append(commandNames.get(c)).append("  ↑").append(kb(sentBytesPerSec[c]))
+                .append("KB/s ").append(Math.round(sentPerSec[c])).append("/s  ↓")
+                .append(kb(recvBytesPerSec[c])).append("KB/s ").append(Math.round(recvPerSec[c])).append("/s");
+        }
+        for (LanPeerStats ps : peers.values()) {
+            sb.append('\n').append(ps.peer == HOST_PEER ? "房主" : "#" + ps.peer)
+                .append("  RTT ");
+            if (ps.getSrttMs() < 0) sb.append('-');
+            else sb.append(Math.round(ps.getSrttMs())).append('±').append(Math.round(ps.getRttVarMs())).append("ms");
+            sb.append("  丢失 ").append(ps.getLost()).append("  重复 ").append(ps.getDuplicates())
+                .append("  ↑").append(kb(ps.sentBytesPerSec)).append("KB/s ↓").append(kb(ps.recvBytesPerSec)).append("KB/s");
+        }
+        summaryText = sb.toString();
+    }
+
+    private static String kb(float bytesPerSec) {
+        return String.valueOf(Math.round(bytesPerSec / 102.4f) / 10f);
+    }
+
+    /** 周期性输出 JSON：file 为 null 时写入日志；intervalMs <= 0 关闭 */
+    public void setDump(File file, long intervalMs) {
+        this.dumpFile = file;
+        this.dumpIntervalMs = intervalMs;
+    }
+
+    private void dump() {
+        String json = toJson(System.currentTimeMillis());
+        if (dumpFile == null) {
+            DLog.logT("NETSTATS", "%s", json);
+            return;
+        }
+        try {
+            Files.write(dumpFile.toPath(), json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            DLog.logT("LAN", "网络统计写入失败: %s", e.getMessage());
+        }
+    }
+
+    /** 当前全部统计的 JSON 文本 */
+    public String toJson(long nowMillis) {
+        StringBuilder sb = new StringBuilder(2048);
+        sb.append("{\"time\":").append(nowMillis).append(",\"commands\":[");
+        boolean first = true;
+        for (int c = 0; c < COMMANDS; c++) {
+            LanNetHistogram h = sizeHistograms.get(c);
+            if (h == null) continue;
+            if (!first) sb.append(',');
+            first = false;
+            sb.append("{\"cmd\":").append(c)
+                .append(",\"name\":\"").append(commandNames.get(c)).append('"')
+                .append(",\"sentMsgs\":").append(sentMessages.get(c))
+                .append(",\"sentBytes\":").append(sentBytes.get(c))
+                .append(",\"recvMsgs\":").append(recvMessages.get(c))
+                .append(",\"recvBytes\":").append(recvBytes.get(c))
+                .append(",\"sentBytesPerSec\":").append(Math.round(sentBytesPerSec[c]))
+                .append(",\"recvBytesPerSec\":").append(Math.round(recvBytesPerSec[c]))
+                .append(",\"sentPerSec\":").append(Math.round(sentPerSec[c]))
+                .append(",\"recvPerSec\":").append(Math.round(recvPerSec[c]))
+                .append(",\"size\":");
+            h.appendJson(sb);
+            sb.append('}');
+        }
+        sb.append("],\"peers\":[");
+        first = true;
+        for (LanPeerStats ps : peers.values()) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append("{\"peer\":").append(ps.peer)
+                .append(",\"sentDatagrams\":").append(ps.getSentDatagrams())
+                .append(",\"sentBytes\":").append(ps.getSentBytes())
+                .append(",\"recvDatagrams\":").append(ps.getRecvDatagrams())
+                .append(",\"recvBytes\":").append(ps.getRecvBytes())
+                .append(",\"sentBytesPerSec\":").append(Math.round(ps.sentBytesPerSec))
+                .append(",\"recvBytesPerSec\":").append(Math.round(ps.recvBytesPerSec))
+                .append(",\"lost\":").append(ps.getLost())
+                .append(",\"duplicates\":").append(ps.getDuplicates())
+                .append(",\"srttMs\":").append(ps.getSrttMs())
+                .append(",\"rttVarMs\":").append(ps.getRttVarMs())
+                .append(",\"rttMicros\":");
+            ps.rttMicros.appendJson(sb);
+            sb.append('}');
+        }
+        sb.append("],\"drainMicros\":{");
+        for (int i = 0; i < DRAIN_NAMES.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(DRAIN_NAMES[i]).append("\":");
+            drainMicros[i].appendJson(sb);
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    // ============ 查询 ============
+
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public boolean isEnabled() { return enabled; }
+
+    public long getSentMessages(byte command) { return sentMessages.get(command & 0xFF); }
+    public long getSentBytes(byte command) { return sentBytes.get(command & 0xFF); }
+    public long getRecvMessages(byte command) { return recvMessages.get(command & 0xFF); }
+    public long getRecvBytes(byte command) { return recvBytes.get(command & 0xFF); }
+
+    /** 包体大小直方图（该类型尚未出现时为 null） */
+    public LanNetHistogram getSizeHistogram(byte command) { return sizeHistograms.get(command & 0xFF); }
+
+    /** 对端统计（尚未收发过时为 null） */
+    public LanPeerStats getPeer(int peer) { return peers.get(peer); }
+
+    public LanNetHistogram getDrainHistogram(int queue) { return drainMicros[queue]; }
+
+    /** 清空全部统计（速率窗口重新开始） */
+    public void reset() {
+        for (int c = 0; c < COMMANDS; c++) {
+            sentMessages.set(c, 0);
+            sentBytes.set(c, 0);
+            recvMessages.set(c, 0);
+            recvBytes.set(c, 0);
+            sizeHistograms.set(c, null);
+            prevSentBytes[c] = prevRecvBytes[c] = prevSentMessages[c] = prevRecvMessages[c] = 0;
+            sentBytesPerSec[c] = recvBytesPerSec[c] = sentPerSec[c] = recvPerSec[c] = 0;
+        }
+        peers.clear();
+        for (LanNetHistogram h : drainMicros) h.reset();
+        lastRateMillis = -1L;
+        summaryText = "";
+    }
+
+    /** 合并包内部消息计数器：按消息类型计入，累加字节 */
+    private final class BundleCounter implements Consumer<LanBroadcastPacket> {
+        final boolean sent;
+        int bytes;
+
+        BundleCounter(boolean sent) {
+            this.sent = sent;
+        }
+
+        @Override
+        public void accept(LanBroadcastPacket message) {
+            int b = estimateBytes(message);
+            count(message, b, sent);
+            bytes += b;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.goldsprite.magicdungeon2.network.lan.stats;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个对端（房主端为某个客户端 guid，客户端为房主）的收发统计
+ * <p>
+ * 字节、数据报、丢失、重复为累计值，可多线程写；速率由 {@link LanNetStats#update} 在游戏线程按秒计算。
+ * RTT 由带序号的"探针"估算：发出时登记序号与时间，收到对端对该序号的确认时取差值，
+ * 按 RFC 6298 的方式做平滑（srtt/rttvar）。
+ */
+public class LanPeerStats {
+    private static final int PROBE_SLOTS = 64;
+
+    final int peer;
+
+    final AtomicLong sentDatagrams = new AtomicLong();
+    final AtomicLong sentBytes = new AtomicLong();
+    final AtomicLong recvDatagrams = new AtomicLong();
+    final AtomicLong recvBytes = new AtomicLong();
+    final AtomicLong lost = new AtomicLong();
+    final AtomicLong duplicates = new AtomicLong();
+
+    final LanNetHistogram rttMicros = new LanNetHistogram();
+    private volatile float srttMs = -1f;
+    private volatile float rttVarMs;
+
+    // 探针环（按序号取模；游戏线程登记、网络线程确认，加锁）
+    private final int[] probeSeq = new int[PROBE_SLOTS];
+    private final long[] probeNanos = new long[PROBE_SLOTS];
+    // 序号流（丢失/重复检测）
+    private int lastSeq = -1;
+
+    // 速率（游戏线程计算）
+    long prevSentBytes, prevRecvBytes, prevSentDatagrams, prevRecvDatagrams;
+    volatile float sentBytesPerSec, recvBytesPerSec, sentPerSec, recvPerSec;
+
+    LanPeerStats(int peer) {
+        this.peer = peer;
+        Arrays.fill(probeSeq, -1);
+    }
+
+    synchronized void onProbeSent(int seq, long nanos) {
+        int slot = seq & (PROBE_SLOTS - 1);
+        probeSeq[slot] = seq;
+        probeNanos[slot] = nanos;
+    }
+
+    /** 对端确认了 seq：命中未过期的探针则产生一个 RTT 样本（每个探针只用一次） */
+    void onProbeAcked(int seq, long nanos) {
+        long sentAt;
+        synchronized (this) {
+            int slot = seq & (PROBE_SLOTS - 1);
+            if (probeSeq[slot] != seq) return;
+            probeSeq[slot] = -1;
+            sentAt = probeNanos[slot];
+        }
+        long micros = (nanos - sentAt) / 1000L;
+        if (micros < 0) return;
+        rttMicros.record(micros);
+        float sample = micros / 1000f;
+        float srtt = srttMs;
+        if (srtt < 0) {
+            srttMs = sample;
+            rttVarMs = sample / 2f;
+        } else {
+            rttVarMs = 0.75f * rttVarMs + 0.25f * Math.abs(srtt - sample);
+            srttMs = 0.875f * srtt + 0.125f * sample;
+        }
+    }
+
+    /**
+     * 收到覆盖序号 [first, last] 的包：跳过的序号计为丢失，完全没有新序号的包计为重复/乱序
+     * 序号回到 0 视为对端重置（重连、关键帧重建）
+     */
+    synchronized void onSequence(int first, int last) {
+        if (first == 0 && lastSeq > 0 && last < lastSeq) {
+            lastSeq = last;
+            return;
+        }
+        if (last <= lastSeq) {
+            duplicates.incrementAndGet();
+            return;
+        }
+        if (lastSeq >= 0 && first > lastSeq + 1) lost.addAndGet(first - lastSeq - 1);
+        lastSeq = last;
+    }
+
+    public int getPeer() { return peer; }
+    public long getSentBytes() { return sentBytes.get(); }
+    public long getRecvBytes() { return recvBytes.get(); }
+    public long getSentDatagrams() { return sentDatagrams.get(); }
+    public long getRecvDatagrams() { return recvDatagrams.get(); }
+    public long getLost() { return lost.get(); }
+    public long getDuplicates() { return duplicates.get(); }
+    /** 平滑 RTT（毫秒），尚无样本时为 -1 */
+    public float getSrttMs() { return srttMs; }
+    public float getRttVarMs() { return rttVarMs; }
+    public LanNetHistogram getRttHistogram() { return rttMicros; }
+    public float getSentBytesPerSec() { return sentBytesPerSec; }
+    public float getRecvBytesPerSec() { return recvBytesPerSec; }
+    public float getSentPerSec() { return sentPerSec; }
+    public float getRecvPerSec() { return recvPerSec; }
+}
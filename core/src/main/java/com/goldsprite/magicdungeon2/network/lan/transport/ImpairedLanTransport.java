@@ -0,0 +1,364 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import com.goldsprite.gdengine.log.DLog;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 弱网模拟：包装任意传输，在发送侧按方向施加延迟、抖动、丢包、复制与乱序（见 {@link NetworkConditions}）
+ * <p>
+ * 上行（客户端 → 房主）与下行（房主 → 客户端）各一组参数、各一个随机数发生器，
+ * 相同种子与相同发送序列得到相同的损伤结果。被延迟的包进入按（到达时间, 发送顺序）排序的队列，
+ * 到期后交给底层传输发出；时间取底层的 {@link LanTransport#nanoTime()}（回环传输为虚拟时间）。
+ * 登录与聊天视为控制消息，不受损伤，直接经底层发出。
+ * <p>
+ * 典型用法：真机调试 {@code new QueuedLanTransport(new ImpairedLanTransport(new UdpLanTransport(), seed))}，
+ * 由内部线程按时发出；测试包装 {@link LoopbackLanTransport} 且不启动线程，每步先 {@link #pump()} 再推进回环。
+ * 关闭（{@link #setEnabled}）后新发的包直接透传，已在队列中的包照常按时发出。
+ * 复制的包是同一个对象发出两次（经 UDP 时各自编码）。
+ */
+public class ImpairedLanTransport implements LanTransport {
+    private static final String TAG = "LAN";
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+    private static final long BUSY_PARK_NANOS = 1_000_000L;
+
+    private final LanTransport base;
+    private final NetworkConditions upstream = new NetworkConditions();
+    private final NetworkConditions downstream = new NetworkConditions();
+    private final PriorityQueue<Pending> queue = new PriorityQueue<>();
+    private Random upRandom;
+    private Random downRandom;
+    private long order;
+    private volatile boolean enabled = true;
+
+    private long sent;
+    private long delivered;
+    private long dropped;
+    private long duplicated;
+    private long reordered;
+
+    private volatile Thread scheduler;
+    private volatile boolean running;
+    private volatile boolean sleeping;
+
+    /** 启动内部发送线程（真实网络） */
+    public ImpairedLanTransport(LanTransport base, long seed) {
+        this(base, seed, true);
+    }
+
+    /**
+     * @param seed 损伤抽样的随机种子
+     * @param startThread false 时不启动线程，由调用方 {@link #pump()}（测试保持确定性）
+     */
+    public ImpairedLanTransport(LanTransport base, long seed, boolean startThread) {
+        this.base = base;
+        setSeed(seed);
+        if (startThread) {
+            running = true;
+            Thread t = new Thread(this::runScheduler, "lan-impair");
+            t.setDaemon(true);
+            scheduler = t;
+            t.start();
+        }
+    }
+
+    // ============ 配置 ============
+
+    /** 客户端 → 房主方向的参数（可直接修改） */
+    public NetworkConditions getUpstream() {
+        return upstream;
+    }
+
+    /** 房主 → 客户端方向的参数（可直接修改） */
+    public NetworkConditions getDownstream() {
+        return downstream;
+    }
+
+    /** 两个方向设为同一组参数 */
+    public void setConditions(NetworkConditions conditions) {
+        upstream.set(conditions);
+        downstream.set(conditions);
+    }
+
+    /** 重新设定种子（两个方向分别派生），之后的抽样序列可复现 */
+    public synchronized void setSeed(long seed) {
+        upRandom = new Random(seed);
+        downRandom = new Random(seed ^ 0x5DEECE66DL);
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ============ LanTransport ============
+
+    @Override
+    public LanServerTransport startServer(int port) {
+        LanServerTransport server = base.startServer(port);
+        return server == null ? null : new ImpairedServer(server);
+    }
+
+    @Override
+    public LanClientTransport connect(String hostIp, int hostPort) {
+        LanClientTransport client = base.connect(hostIp, hostPort);
+        return client == null ? null : new ImpairedClient(client);
+    }
+
+    @Override
+    public String getLocalAddress() {
+        return base.getLocalAddress();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return base.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return base.nanoTime();
+    }
+
+    public LanTransport getBase() {
+        return base;
+    }
+
+    // ============ 调度 ============
+
+    /** 按方向参数抽样后入队；关闭或该方向无损伤时直接发出 */
+    private void submit(Packet packet, boolean up, Consumer<Packet> sink) {
+        NetworkConditions c = up ? upstream : downstream;
+        if (!enabled || c.isClean()) {
+            sink.accept(packet);
+            return;
+        }
+        long nowMs = base.nanoTime() / 1_000_000L;
+        boolean wake;
+        synchronized (this) {
+            Random random = up ? upRandom : downRandom;
+            sent++;
+            if (c.sampleLoss(random)) {
+                dropped++;
+                return;
+            }
+            int copies = 1;
+            if (c.sampleDuplicate(random)) {
+                copies = 2;
+                duplicated++;
+            }
+            for (int i = 0; i < copies; i++) {
+                long delay = c.sampleDelayMs(random);
+                if (c.sampleReorder(random)) {
+                    delay += c.getReorderDelayMs();
+                    reordered++;
+                }
+                queue.add(new Pending(packet, sink, nowMs + delay, order++));
+            }
+            wake = sleeping;
+        }
+        if (wake) {
+            Thread t = scheduler;
+            if (t != null) LockSupport.unpark(t);
+        }
+    }
+
+    /**
+     * 在调用线程上发出所有已到期的包（不启动线程时使用）
+     * @return 本次发出的包数
+     */
+    public int pump() {
+        long nowMs = base.nanoTime() / 1_000_000L;
+        int count = 0;
+        Pending p;
+        while ((p = pollDue(nowMs)) != null) {
+            try {
+                p.sink.accept(p.packet);
+            } catch (Exception e) {
+                DLog.logT(TAG, "弱网模拟发送异常: %s", e.getMessage());
+            }
+            count++;
+        }
+        return count;
+    }
+
+    private synchronized Pending pollDue(long nowMs) {
+        Pending head = queue.peek();
+        if (head == null || head.deliverAt > nowMs) return null;
+        delivered++;
+        return queue.poll();
+    }
+
+    private void runScheduler() {
+        while (running) {
+            if (pump() > 0) continue;
+            boolean idle;
+            synchronized (this) {
+                sleeping = true;
+                idle = queue.isEmpty();
+            }
+            // 队列为空时长睡（入队会唤醒），有待发包时按毫秒粒度轮询到期
+            if (running) LockSupport.parkNanos(this, idle ? IDLE_PARK_NANOS : BUSY_PARK_NANOS);
+            sleeping = false;
+        }
+    }
+
+    /** 停止内部线程并丢弃尚未发出的包（底层端点由各自的 stop 关闭） */
+    public void shutdown() {
+        Thread t = scheduler;
+        running = false;
+        scheduler = null;
+        if (t != null) LockSupport.unpark(t);
+        synchronized (this) {
+            queue.clear();
+        }
+    }
+
+    // ============ 统计 ============
+
+    /** 经过损伤抽样的包数（直接透传的不计） */
+    public synchronized long getSent() {
+        return sent;
+    }
+
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    public synchronized long getDuplicated() {
+        return duplicated;
+    }
+
+    public synchronized long getReordered() {
+        return reordered;
+    }
+
+    /** 队列中尚未到期的包数 */
+    public synchronized int getInFlight() {
+        return queue.size();
+    }
+
+    // ============ 端点 ============
+
+    private final class ImpairedServer implements LanServerTransport {
+        private final LanServerTransport server;
+        private final Consumer<Packet> sink;
+        private volatile boolean stopped;
+
+        ImpairedServer(LanServerTransport server) {
+            this.server = server;
+            this.sink = packet -> {
+                if (!stopped) server.send(packet);
+            };
+        }
+
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            server.subscribe(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            if (!stopped) submit(packet, false, sink);
+        }
+
+        @Override
+        public boolean hasClient(int guid) {
+            return server.hasClient(guid);
+        }
+
+        @Override
+        public String getClientName(int guid) {
+            return server.getClientName(guid);
+        }
+
+        @Override
+        public void forEachClient(IntConsumer consumer) {
+            server.forEachClient(consumer);
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+            server.stop();
+        }
+    }
+
+    private final class ImpairedClient implements LanClientTransport {
+        private final LanClientTransport client;
+        private final Consumer<Packet> sink;
+        private volatile boolean stopped;
+
+        ImpairedClient(LanClientTransport client) {
+            this.client = client;
+            this.sink = packet -> {
+                if (!stopped) client.send(packet);
+            };
+        }
+
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            client.subscribe(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            if (!stopped) submit(packet, true, sink);
+        }
+
+        @Override
+        public void login(String name, IntConsumer onSuccess, Consumer<String> onFailure) {
+            client.login(name, onSuccess, onFailure);
+        }
+
+        @Override
+        public void sendChat(int ownerGuid, String message) {
+            client.sendChat(ownerGuid, message);
+        }
+
+        @Override
+        public void setChatListener(Consumer<String> listener) {
+            client.setChatListener(listener);
+        }
+
+        @Override
+        public void stop() {
+            stopped = true;
+            client.stop();
+        }
+    }
+
+    /** 队列中等待到期的一份包 */
+    private static final class Pending implements Comparable<Pending> {
+        final Packet packet;
+        final Consumer<Packet> sink;
+        final long deliverAt;
+        final long order;
+
+        Pending(Packet packet, Consumer<Packet> sink, long deliverAt, long order) {
+            this.packet = packet;
+            this.sink = sink;
+            this.deliverAt = deliverAt;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Pending o) {
+            if (deliverAt != o.deliverAt) return Long.compare(deliverAt, o.deliverAt);
+            return Long.compare(order, o.order);
+        }
+    }
+}
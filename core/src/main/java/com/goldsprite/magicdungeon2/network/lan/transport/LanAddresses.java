@@ -0,0 +1,100 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InterfaceAddress;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 本机网络接口工具：选择对局域网可见的本机地址、列出各接口的广播地址
+ * <p>
+ * {@link InetAddress#getLocalHost()} 常解析到 127.0.1.1 或虚拟网卡（Docker/VMware/VPN），
+ * 这里逐个接口打分：已启用、非回环、IPv4 为前提，私有网段与带广播地址的物理网卡优先。
+ */
+public final class LanAddresses {
+    private static final String[] VIRTUAL_NAME_HINTS = {
+        "docker", "veth", "br-", "virbr", "vmnet", "vbox", "virtualbox", "vethernet", "hyper-v",
+        "tun", "tap", "utun", "wg", "zt", "tailscale", "vpn"
+    };
+
+    private LanAddresses() {
+    }
+
+    /** 最可能被同一局域网其他设备访问到的本机 IPv4 地址（找不到时退回 getLocalHost，再退回 127.0.0.1） */
+    public static String preferredLocalAddress() {
+        String best = null;
+        int bestScore = Integer.MIN_VALUE;
+        try {
+            Enumeration<NetworkInterface> it = NetworkInterface.getNetworkInterfaces();
+            while (it != null && it.hasMoreElements()) {
+                NetworkInterface ni = it.nextElement();
+                if (!isUsable(ni)) continue;
+                boolean virtual = ni.isVirtual() || isLikelyVirtual(ni.getName()) || isLikelyVirtual(ni.getDisplayName());
+                for (InterfaceAddress ia : ni.getInterfaceAddresses()) {
+                    InetAddress addr = ia.getAddress();
+                    if (!(addr instanceof Inet4Address) || addr.isLoopbackAddress() || addr.isLinkLocalAddress()) continue;
+                    int score = score(addr.isSiteLocalAddress(), ia.getBroadcast() != null, virtual);
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = addr.getHostAddress();
+                    }
+                }
+            }
+        } catch (Exception ignored) {
+            // 部分平台（受限沙箱/安卓旧版本）禁止枚举接口，走下面的兜底
+        }
+        if (best != null) return best;
+        try {
+            return InetAddress.getLocalHost().getHostAddress();
+        } catch (Exception e) {
+            return "127.0.0.1";
+        }
+    }
+
+    /** 各可用 IPv4 接口的定向广播地址，外加受限广播 255.255.255.255（无可用接口时返回空表） */
+    public static List<InetAddress> broadcastAddresses() {
+        List<InetAddress> out = new ArrayList<>();
+        try {
+            Enumeration<NetworkInterface> it = NetworkInterface.getNetworkInterfaces();
+            while (it != null && it.hasMoreElements()) {
+                NetworkInterface ni = it.nextElement();
+                if (!isUsable(ni)) continue;
+                for (InterfaceAddress ia : ni.getInterfaceAddresses()) {
+                    InetAddress b = ia.getBroadcast();
+                    if (b != null && !out.contains(b)) out.add(b);
+                }
+            }
+            if (!out.isEmpty()) out.add(InetAddress.getByName("255.255.255.255"));
+        } catch (Exception ignored) {
+            // 同上：无法枚举时由调用方决定兜底（如只发回环）
+        }
+        return out;
+    }
+
+    /** 接口名是否像虚拟网卡（容器网桥、虚拟机、VPN 隧道） */
+    static boolean isLikelyVirtual(String name) {
+        if (name == null) return false;
+        String n = name.toLowerCase(Locale.ROOT);
+        for (String hint : VIRTUAL_NAME_HINTS) {
+            if (n.startsWith(hint) || n.contains(" " + hint) || n.contains(hint + " ")) return true;
+        }
+        return false;
+    }
+
+    /** 私有网段 +4，有广播地址 +2，虚拟网卡 -5 */
+    static int score(boolean siteLocal, boolean hasBroadcast, boolean virtual) {
+        int score = 0;
+        if (siteLocal) score += 4;
+        if (hasBroadcast) score += 2;
+        if (virtual) score -= 5;
+        return score;
+    }
+
+    private static boolean isUsable(NetworkInterface ni) throws Exception {
+        return ni.isUp() && !ni.isLoopback() && !ni.isPointToPoint();
+    }
+}
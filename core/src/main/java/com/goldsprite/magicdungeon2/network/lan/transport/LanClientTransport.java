@@ -0,0 +1,34 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 传输层的客户端：登录、聊天与向服务端发包
+ * <p>
+ * 订阅回调在传输层的接收线程执行（UDP 为网络线程，回环为调用 pump 的线程）。
+ */
+public interface LanClientTransport {
+    /** 订阅服务端发来的某类包 */
+    <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer);
+
+    /** 发给服务端；发出后包归传输层所有 */
+    void send(Packet packet);
+
+    /**
+     * 以 name 登录
+     * @param onSuccess 收到服务端分配的 guid
+     * @param onFailure 登录被拒绝（失败原因）
+     */
+    void login(String name, IntConsumer onSuccess, Consumer<String> onFailure);
+
+    /** 发送聊天消息（由服务端转发给全体客户端） */
+    void sendChat(int ownerGuid, String message);
+
+    /** 收到服务端转发的聊天消息 */
+    void setChatListener(Consumer<String> listener);
+
+    void stop();
+}
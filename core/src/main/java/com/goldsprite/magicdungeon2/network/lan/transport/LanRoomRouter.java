@@ -0,0 +1,261 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanRoomJoinRequestPacket;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 多房间共用一个端口：一个底层服务端（共享套接字 I/O）+ 按 guid 把客户端包路由给各房间
+ * <p>
+ * 每个房间通过 {@link #roomTransport(String)} 得到一个传输视图，交给该房间自己的
+ * {@link LanMultiplayerService}；视图的服务端只"看到"分配给本房间的客户端，订阅的回调只收到这些客户端的包。
+ * 房间的模拟可以各自运行在独立线程上，路由表为并发结构，订阅回调仍在底层接收线程执行。
+ * <p>
+ * 分配规则：客户端登录后发送 {@link LanRoomJoinRequestPacket} 选择房间（不存在时进入默认房间）；
+ * 未发送选择的旧客户端在发出第一个其他包、或登录 {@link #JOIN_GRACE_MS} 毫秒后进入默认房间（最早创建的房间）。
+ * 聊天由底层传输直接转发，不分房间。
+ */
+public class LanRoomRouter {
+    /** 登录后等待选择房间的时间，超时进入默认房间 */
+    public static final long JOIN_GRACE_MS = 500L;
+    /** 检查新登录/已下线客户端的最小间隔（各房间每 tick 都会遍历客户端） */
+    private static final long REFRESH_INTERVAL_MS = 50L;
+
+    private final LanTransport base;
+    private final int port;
+    private volatile LanServerTransport server;
+
+    private final List<RoomServer> rooms = new CopyOnWriteArrayList<>();
+    private final Map<Integer, RoomServer> assigned = new ConcurrentHashMap<>();
+    private final Map<Integer, Long> pendingSince = new ConcurrentHashMap<>();
+    private final Set<Class<?>> routedTypes = ConcurrentHashMap.newKeySet();
+    // refresh 只在持锁时使用
+    private final IntConsumer pendingCollector = this::collectPending;
+    private long refreshNow;
+    private long lastRefresh = Long.MIN_VALUE;
+
+    public LanRoomRouter(LanTransport base, int port) {
+        this.base = base;
+        this.port = port;
+    }
+
+    /** 启动共享的底层服务端；失败（端口占用等）返回 false */
+    public synchronized boolean start() {
+        if (server != null) return true;
+        LanMultiplayerService.ensureLanProtocolRegistered();
+        LanServerTransport s = base.startServer(port);
+        if (s == null) return false;
+        s.subscribe(LanRoomJoinRequestPacket.class, this::onJoinRequest);
+        server = s;
+        return true;
+    }
+
+    /** 停止底层服务端（所有房间随之失去连接） */
+    public synchronized void stop() {
+        LanServerTransport s = server;
+        server = null;
+        if (s != null) s.stop();
+        rooms.clear();
+        assigned.clear();
+        pendingSince.clear();
+        routedTypes.clear();
+    }
+
+    /** 某个房间的传输视图：其 startServer 返回只含本房间客户端的服务端（端口参数忽略，共用路由器端口） */
+    public LanTransport roomTransport(String roomName) {
+        return new RoomTransport(roomName);
+    }
+
+    /** 客户端所在房间名（未分配返回 null） */
+    public String getRoomOf(int guid) {
+        RoomServer room = assigned.get(guid);
+        return room == null ? null : room.name;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public int getRoomCount() {
+        return rooms.size();
+    }
+
+    // ============ 分配 ============
+
+    private void onJoinRequest(LanRoomJoinRequestPacket packet) {
+        RoomServer target = findRoom(packet.getRoomName());
+        if (target == null) target = defaultRoom();
+        if (target != null) assign(packet.getOwnerGuid(), target);
+    }
+
+    private synchronized void assign(int guid, RoomServer room) {
+        LanServerTransport s = server;
+        if (s == null || !s.hasClient(guid)) return;
+        assigned.put(guid, room);
+        pendingSince.remove(guid);
+    }
+
+    /** 收到未分配客户端的普通包：说明它不会再选房间，直接进默认房间 */
+    private RoomServer roomForActive(int guid) {
+        RoomServer room = assigned.get(guid);
+        if (room != null) return room;
+        room = defaultRoom();
+        if (room != null) assign(guid, room);
+        return assigned.get(guid);
+    }
+
+    /** 节流地登记新登录的客户端、把超时未选择的放进默认房间、清理已下线的客户端 */
+    private synchronized void refresh() {
+        LanServerTransport s = server;
+        if (s == null) return;
+        long now = base.currentTimeMillis();
+        if (now - lastRefresh < REFRESH_INTERVAL_MS && lastRefresh != Long.MIN_VALUE) return;
+        lastRefresh = now;
+        refreshNow = now;
+        s.forEachClient(pendingCollector);
+        assigned.keySet().removeIf(guid -> !s.hasClient(guid));
+        pendingSince.keySet().removeIf(guid -> !s.hasClient(guid));
+    }
+
+    private void collectPending(int guid) {
+        if (assigned.containsKey(guid)) return;
+        Long since = pendingSince.putIfAbsent(guid, refreshNow);
+        if (since != null && refreshNow - since >= JOIN_GRACE_MS) {
+            RoomServer room = defaultRoom();
+            if (room != null) {
+                assigned.put(guid, room);
+                pendingSince.remove(guid);
+            }
+        }
+    }
+
+    private RoomServer findRoom(String name) {
+        if (name == null) return null;
+        for (int i = 0; i < rooms.size(); i++) {
+            RoomServer room = rooms.get(i);
+            if (room.name.equals(name)) return room;
+        }
+        return null;
+    }
+
+    private RoomServer defaultRoom() {
+        return rooms.isEmpty() ? null : rooms.get(0);
+    }
+
+    /** 某类包第一次被任一房间订阅时，在底层服务端挂一个按 guid 分发的回调 */
+    private <T extends Packet> void route(Class<T> type) {
+        LanServerTransport s = server;
+        if (s == null || !routedTypes.add(type)) return;
+        s.subscribe(type, packet -> {
+            RoomServer room = roomForActive(packet.getOwnerGuid());
+            if (room != null) room.dispatch(packet);
+        });
+    }
+
+    // ============ 房间视图 ============
+
+    private final class RoomTransport implements LanTransport {
+        private final String name;
+
+        RoomTransport(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public LanServerTransport startServer(int ignoredPort) {
+            if (server == null || findRoom(name) != null) return null;
+            RoomServer room = new RoomServer(name);
+            rooms.add(room);
+            return room;
+        }
+
+        @Override
+        public LanClientTransport connect(String hostIp, int hostPort) {
+            return base.connect(hostIp, hostPort);
+        }
+
+        @Override
+        public String getLocalAddress() {
+            return base.getLocalAddress();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return base.currentTimeMillis();
+        }
+
+        @Override
+        public long nanoTime() {
+            return base.nanoTime();
+        }
+    }
+
+    private final class RoomServer implements LanServerTransport {
+        final String name;
+        private final Map<Class<?>, List<Consumer<Packet>>> subscribers = new ConcurrentHashMap<>();
+
+        RoomServer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            subscribers.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add((Consumer<Packet>) consumer);
+            route(type);
+        }
+
+        void dispatch(Packet packet) {
+            List<Consumer<Packet>> list = subscribers.get(packet.getClass());
+            if (list == null) return;
+            for (int i = 0; i < list.size(); i++) list.get(i).accept(packet);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            LanServerTransport s = server;
+            if (s != null && assigned.get(packet.getOwnerGuid()) == this) s.send(packet);
+        }
+
+        @Override
+        public boolean hasClient(int guid) {
+            LanServerTransport s = server;
+            return s != null && assigned.get(guid) == this && s.hasClient(guid);
+        }
+
+        @Override
+        public String getClientName(int guid) {
+            LanServerTransport s = server;
+            return s != null && assigned.get(guid) == this ? s.getClientName(guid) : null;
+        }
+
+        @Override
+        public void forEachClient(IntConsumer consumer) {
+            refresh();
+            for (Map.Entry<Integer, RoomServer> e : assigned.entrySet()) {
+                if (e.getValue() == this) consumer.accept(e.getKey());
+            }
+        }
+
+        /** 只关闭本房间：其客户端重新等待分配，共享的底层服务端继续运行 */
+        @Override
+        public void stop() {
+            rooms.remove(this);
+            long now = base.currentTimeMillis();
+            assigned.entrySet().removeIf(e -> {
+                if (e.getValue() != this) return false;
+                pendingSince.put(e.getKey(), now);
+                return true;
+            });
+        }
+    }
+}
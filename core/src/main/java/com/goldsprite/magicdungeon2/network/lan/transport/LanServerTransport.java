@@ -0,0 +1,30 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 传输层的服务端：已登录客户端表 + 按 guid 发包
+ * <p>
+ * 登录由传输层自行处理（分配 guid、记录名字），服务只看到登录成功后的客户端。
+ * 订阅回调在传输层的接收线程执行（UDP 为网络线程，回环为调用 pump 的线程）。
+ */
+public interface LanServerTransport {
+    /** 订阅客户端发来的某类包 */
+    <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer);
+
+    /** 发给 packet.getOwnerGuid() 对应的客户端；发出后包归传输层所有 */
+    void send(Packet packet);
+
+    boolean hasClient(int guid);
+
+    /** 客户端登录名（不存在时为 null） */
+    String getClientName(int guid);
+
+    /** 遍历当前已登录客户端的 guid */
+    void forEachClient(IntConsumer consumer);
+
+    void stop();
+}
@@ -0,0 +1,30 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+/**
+ * LanMultiplayerService 下层的可替换传输
+ * <p>
+ * 默认 {@link UdpLanTransport} 使用 TestNetty 的 UDP Server/Client（服务再包一层 {@link QueuedLanTransport}，广播经每客户端队列由 I/O 线程发出）；
+ * {@link LoopbackLanTransport} 在同一 JVM 内用内存队列连接房主与多个客户端，供测试与压测使用；
+ * {@link ImpairedLanTransport} 可包装任一传输，按方向模拟延迟、抖动、丢包、复制与乱序；
+ * {@link com.goldsprite.magicdungeon2.network.lan.record.LanReplayTransport} 把录制的会话日志离线回放给服务。
+ * 服务只通过本接口及 {@link LanServerTransport}/{@link LanClientTransport} 收发包，协议计时也取自本接口。
+ */
+public interface LanTransport {
+    /**
+     * 启动服务端并监听端口
+     * @return 启动失败（端口占用、处理器初始化超时）返回 null
+     */
+    LanServerTransport startServer(int port);
+
+    /** 连接到房主（登录由 {@link LanClientTransport#login} 发起） */
+    LanClientTransport connect(String hostIp, int hostPort);
+
+    /** 本机对外地址（房主信息显示、客户端连接用） */
+    String getLocalAddress();
+
+    /** 协议计时用的当前时间（毫秒）：节流、心跳、重传超时都按它计算；回环传输为虚拟时间 */
+    long currentTimeMillis();
+
+    /** RTT 探针用的高精度时间（纳秒），与 {@link #currentTimeMillis()} 同一时间基准 */
+    long nanoTime();
+}
@@ -0,0 +1,337 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 进程内回环传输：房主与多个客户端在同一 JVM 内经内存队列通信，不打开任何套接字
+ * <p>
+ * 所有发出的包先进入按（到达时间, 发送顺序）排序的队列，只有调用 {@link #pump(long)} 时才在调用线程上投递，
+ * 因此投递顺序完全确定；相同种子与相同调用序列得到相同结果。时间是虚拟的（服务的节流、重传也按它计时）：
+ * 发送时刻取最近一次 pump 的时间，到达时间 = 发送时刻 + 延迟 + [0, 抖动) 的随机值，抖动大于 0 时会产生乱序。
+ * 丢包只作用于游戏包；登录与聊天视为可靠控制消息，只受延迟影响。
+ * <p>
+ * 包在同一 JVM 内直接传递对象（不经编解码），与 UDP 一样发出后归接收方所有。
+ * 线程约定：发送可在任意线程；投递只在调用 pump 的线程。
+ */
+public class LoopbackLanTransport implements LanTransport {
+    /** 单次 pump 的投递上限，防止协议来回触发导致死循环 */
+    private static final int MAX_DELIVERIES_PER_PUMP = 1_000_000;
+
+    private final Map<Integer, LoopServer> servers = new ConcurrentHashMap<>();
+    private final PriorityQueue<Datagram> queue = new PriorityQueue<>();
+    private final Random random;
+
+    private long now;
+    private long order;
+    private long latencyMs;
+    private long jitterMs;
+    private float lossRate;
+
+    private long sent;
+    private long delivered;
+    private long dropped;
+    private volatile long serverHandlerNanos; // 只在投递线程写
+
+    public LoopbackLanTransport() {
+        this(0L);
+    }
+
+    /** @param seed 丢包与抖动的随机种子 */
+    public LoopbackLanTransport(long seed) {
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public LanServerTransport startServer(int port) {
+        LoopServer server = new LoopServer(port);
+        return servers.putIfAbsent(port, server) == null ? server : null;
+    }
+
+    @Override
+    public LanClientTransport connect(String hostIp, int hostPort) {
+        return new LoopClient(hostPort);
+    }
+
+    @Override
+    public String getLocalAddress() {
+        return "loopback";
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return getNow();
+    }
+
+    @Override
+    public long nanoTime() {
+        return getNow() * 1_000_000L;
+    }
+
+    // ============ 投递 ============
+
+    /** 投递到达时间不晚于当前虚拟时间的包（包括投递过程中新发出、同样已到达的包） */
+    public int pump() {
+        return pump(getNow());
+    }
+
+    /**
+     * 把虚拟时间推进到 nowMillis（不会倒退），按到达顺序投递所有已到达的包
+     * @return 本次投递的包数
+     */
+    public int pump(long nowMillis) {
+        synchronized (this) {
+            if (nowMillis > now) now = nowMillis;
+        }
+        int count = 0;
+        Datagram d;
+        while (count < MAX_DELIVERIES_PER_PUMP && (d = pollDue()) != null) {
+            d.deliver();
+            count++;
+        }
+        return count;
+    }
+
+    /** 推进虚拟时间 ms 毫秒并投递 */
+    public int advance(long ms) {
+        return pump(getNow() + ms);
+    }
+
+    private synchronized Datagram pollDue() {
+        Datagram head = queue.peek();
+        if (head == null || head.deliverAt > now) return null;
+        delivered++;
+        return queue.poll();
+    }
+
+    private synchronized void enqueue(Datagram d, boolean lossy) {
+        sent++;
+        if (lossy && lossRate > 0 && random.nextFloat() < lossRate) {
+            dropped++;
+            return;
+        }
+        long delay = latencyMs + (jitterMs > 0 ? (long) (random.nextDouble() * jitterMs) : 0L);
+        d.deliverAt = now + delay;
+        d.order = order++;
+        queue.add(d);
+    }
+
+    // ============ 链路条件 ============
+
+    /**
+     * 单向延迟与抖动（毫秒）：每个包额外延迟 [0, jitterMs) 的随机值，抖动使包乱序到达
+     */
+    public synchronized void setLatency(long latencyMs, long jitterMs) {
+        this.latencyMs = Math.max(0L, latencyMs);
+        this.jitterMs = Math.max(0L, jitterMs);
+    }
+
+    /** 游戏包丢失概率 [0, 1] */
+    public synchronized void setLossRate(float lossRate) {
+        this.lossRate = Math.max(0f, Math.min(1f, lossRate));
+    }
+
+    public synchronized long getNow() {
+        return now;
+    }
+
+    /** 队列中尚未投递的包数 */
+    public synchronized int getInFlight() {
+        return queue.size();
+    }
+
+    public synchronized long getSent() {
+        return sent;
+    }
+
+    public synchronized long getDelivered() {
+        return delivered;
+    }
+
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /** 服务端处理收到的包累计耗时（纳秒，真实时间）：压测时即房主在网络线程上的开销 */
+    public long getServerHandlerNanos() {
+        return serverHandlerNanos;
+    }
+
+    // ============ 端点 ============
+
+    /** 按包的实际类型分发给订阅者 */
+    private static class Subscribers {
+        private final Map<Class<?>, List<Consumer<Packet>>> map = new ConcurrentHashMap<>();
+
+        @SuppressWarnings("unchecked")
+        <T extends Packet> void add(Class<T> type, Consumer<T> consumer) {
+            map.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add((Consumer<Packet>) consumer);
+        }
+
+        void dispatch(Packet packet) {
+            List<Consumer<Packet>> list = map.get(packet.getClass());
+            if (list == null) return;
+            for (int i = 0; i < list.size(); i++) list.get(i).accept(packet);
+        }
+    }
+
+    private final class LoopServer implements LanServerTransport {
+        final int port;
+        final Subscribers subscribers = new Subscribers();
+        final Map<Integer, LoopClient> clients = new ConcurrentHashMap<>();
+        volatile boolean running = true;
+        int nextGuid = 1;
+
+        LoopServer(int port) {
+            this.port = port;
+        }
+
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            subscribers.add(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            LoopClient target = clients.get(packet.getOwnerGuid());
+            if (target == null || !running) return;
+            enqueue(new Datagram(() -> {
+                if (!target.closed) target.subscribers.dispatch(packet);
+            }), true);
+        }
+
+        @Override
+        public boolean hasClient(int guid) {
+            return clients.containsKey(guid);
+        }
+
+        @Override
+        public String getClientName(int guid) {
+            LoopClient c = clients.get(guid);
+            return c == null ? null : c.name;
+        }
+
+        @Override
+        public void forEachClient(IntConsumer consumer) {
+            for (Integer guid : clients.keySet()) consumer.accept(guid);
+        }
+
+        @Override
+        public void stop() {
+            running = false;
+            servers.remove(port, this);
+            clients.clear();
+        }
+
+        /** 在投递线程上处理登录：分配 guid 并登记 */
+        synchronized int accept(LoopClient client) {
+            int guid = nextGuid++;
+            client.guid = guid;
+            clients.put(guid, client);
+            return guid;
+        }
+
+        void relayChat(String message) {
+            for (LoopClient c : clients.values()) {
+                enqueue(new Datagram(() -> {
+                    Consumer<String> listener = c.chatListener;
+                    if (!c.closed && listener != null) listener.accept(message);
+                }), false);
+            }
+        }
+    }
+
+    private final class LoopClient implements LanClientTransport {
+        final int hostPort;
+        final Subscribers subscribers = new Subscribers();
+        volatile Consumer<String> chatListener;
+        volatile String name;
+        volatile int guid = -1;
+        volatile boolean closed;
+
+        LoopClient(int hostPort) {
+            this.hostPort = hostPort;
+        }
+
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            subscribers.add(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            if (closed) return;
+            enqueue(new Datagram(() -> {
+                LoopServer server = servers.get(hostPort);
+                if (server != null && server.running && server.clients.get(packet.getOwnerGuid()) == this) {
+                    long start = System.nanoTime();
+                    server.subscribers.dispatch(packet);
+                    serverHandlerNanos += System.nanoTime() - start;
+                }
+            }), true);
+        }
+
+        @Override
+        public void login(String name, IntConsumer onSuccess, Consumer<String> onFailure) {
+            this.name = name;
+            enqueue(new Datagram(() -> {
+                LoopServer server = servers.get(hostPort);
+                if (server == null || !server.running) return; // 与 UDP 一样无应答
+                int assigned = server.accept(this);
+                enqueue(new Datagram(() -> {
+                    if (!closed) onSuccess.accept(assigned);
+                }), false);
+            }), false);
+        }
+
+        @Override
+        public void sendChat(int ownerGuid, String message) {
+            if (closed) return;
+            enqueue(new Datagram(() -> {
+                LoopServer server = servers.get(hostPort);
+                if (server != null && server.running) server.relayChat(message);
+            }), false);
+        }
+
+        @Override
+        public void setChatListener(Consumer<String> listener) {
+            this.chatListener = listener;
+        }
+
+        @Override
+        public void stop() {
+            closed = true;
+            LoopServer server = servers.get(hostPort);
+            if (server != null && guid >= 0) server.clients.remove(guid, this);
+        }
+    }
+
+    /** 队列中的一个数据报：到达时在投递线程上执行 */
+    private static final class Datagram implements Comparable<Datagram> {
+        final Runnable action;
+        long deliverAt;
+        long order;
+
+        Datagram(Runnable action) {
+            this.action = action;
+        }
+
+        void deliver() {
+            action.run();
+        }
+
+        @Override
+        public int compareTo(Datagram o) {
+            if (deliverAt != o.deliverAt) return Long.compare(deliverAt, o.deliverAt);
+            return Long.compare(order, o.order);
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.util.Random;
+
+/**
+ * 单个方向的链路损伤参数（供 {@link ImpairedLanTransport} 使用）
+ * <p>
+ * 每个包独立抽样：先按 {@link #getLossRate()} 丢弃，再按 {@link #getDuplicateRate()} 复制一份；
+ * 每份的单向延迟 = 基础延迟 + 抖动（按 {@link Jitter} 分布抽样），
+ * 再以 {@link #getReorderRate()} 的概率额外滞留 {@link #getReorderDelayMs()}，被后发的包超过。
+ * 参数可在运行中修改（调试场景实时调节），抽样时每个字段只读一次。
+ */
+public class NetworkConditions {
+
+    /** 抖动分布 */
+    public enum Jitter {
+        /** [0, jitter) 均匀分布 */
+        UNIFORM,
+        /** 以基础延迟为中心、标准差为 jitter 的正态分布（不低于 0） */
+        NORMAL,
+        /** 长尾分布（形状 2.5 的帕累托，尺度为 jitter，上限 10 倍）：模拟 Wi-Fi 重传造成的偶发大延迟 */
+        PARETO
+    }
+
+    private static final double PARETO_SHAPE = 2.5;
+    private static final double PARETO_CAP = 10.0;
+
+    private volatile long latencyMs;
+    private volatile long jitterMs;
+    private volatile Jitter jitter = Jitter.UNIFORM;
+    private volatile float lossRate;
+    private volatile float duplicateRate;
+    private volatile float reorderRate;
+    private volatile long reorderDelayMs = 20L;
+
+    /** 无损链路 */
+    public static NetworkConditions none() {
+        return new NetworkConditions();
+    }
+
+    /** 一般家用 Wi-Fi：单向 15ms，长尾抖动，1% 丢包，少量复制与乱序 */
+    public static NetworkConditions wifi() {
+        return new NetworkConditions().setLatency(15L, 8L, Jitter.PARETO)
+            .setLossRate(0.01f).setDuplicateRate(0.002f).setReorderRate(0.01f);
+    }
+
+    /** 信号较差的 Wi-Fi：单向 60ms，明显抖动，5% 丢包 */
+    public static NetworkConditions poorWifi() {
+        return new NetworkConditions().setLatency(60L, 30L, Jitter.PARETO)
+            .setLossRate(0.05f).setDuplicateRate(0.01f).setReorderRate(0.03f);
+    }
+
+    /**
+     * 基础延迟与抖动（毫秒）
+     * @param distribution 抖动分布
+     */
+    public NetworkConditions setLatency(long latencyMs, long jitterMs, Jitter distribution) {
+        this.latencyMs = Math.max(0L, latencyMs);
+        this.jitterMs = Math.max(0L, jitterMs);
+        this.jitter = distribution == null ? Jitter.UNIFORM : distribution;
+        return this;
+    }
+
+    /** 丢包概率 [0, 1] */
+    public NetworkConditions setLossRate(float lossRate) {
+        this.lossRate = clamp01(lossRate);
+        return this;
+    }
+
+    /** 复制概率 [0, 1]：被复制的包到达两次（各自独立抽样延迟） */
+    public NetworkConditions setDuplicateRate(float duplicateRate) {
+        this.duplicateRate = clamp01(duplicateRate);
+        return this;
+    }
+
+    /** 乱序概率 [0, 1] 与被滞留包的额外延迟（毫秒） */
+    public NetworkConditions setReorderRate(float reorderRate) {
+        this.reorderRate = clamp01(reorderRate);
+        return this;
+    }
+
+    public NetworkConditions setReorderDelayMs(long reorderDelayMs) {
+        this.reorderDelayMs = Math.max(0L, reorderDelayMs);
+        return this;
+    }
+
+    /** 复制另一组参数（调试场景切换预设） */
+    public NetworkConditions set(NetworkConditions other) {
+        setLatency(other.latencyMs, other.jitterMs, other.jitter);
+        setLossRate(other.lossRate);
+        setDuplicateRate(other.duplicateRate);
+        setReorderRate(other.reorderRate);
+        setReorderDelayMs(other.reorderDelayMs);
+        return this;
+    }
+
+    /** 是否不施加任何损伤 */
+    public boolean isClean() {
+        return latencyMs == 0L && jitterMs == 0L && lossRate == 0f && duplicateRate == 0f && reorderRate == 0f;
+    }
+
+    // ============ 抽样（调用方持有 random 的锁） ============
+
+    boolean sampleLoss(Random random) {
+        float p = lossRate;
+        return p > 0f && random.nextFloat() < p;
+    }
+
+    boolean sampleDuplicate(Random random) {
+        float p = duplicateRate;
+        return p > 0f && random.nextFloat() < p;
+    }
+
+    boolean sampleReorder(Random random) {
+        float p = reorderRate;
+        return p > 0f && random.nextFloat() < p;
+    }
+
+    /** 不含乱序滞留的单向延迟（毫秒） */
+    long sampleDelayMs(Random random) {
+        long base = latencyMs;
+        long j = jitterMs;
+        if (j <= 0L) return base;
+        switch (jitter) {
+            case NORMAL:
+                return Math.max(0L, base + Math.round(random.nextGaussian() * j));
+            case PARETO: {
+                double u = 1.0 - random.nextDouble(); // (0, 1]
+                double tail = Math.min(PARETO_CAP, Math.pow(u, -1.0 / PARETO_SHAPE) - 1.0);
+                return base + Math.round(tail * j);
+            }
+            case UNIFORM:
+            default:
+                return base + (long) (random.nextDouble() * j);
+        }
+    }
+
+    // ============ 查询 ============
+
+    public long getLatencyMs() {
+        return latencyMs;
+    }
+
+    public long getJitterMs() {
+        return jitterMs;
+    }
+
+    public Jitter getJitter() {
+        return jitter;
+    }
+
+    public float getLossRate() {
+        return lossRate;
+    }
+
+    public float getDuplicateRate() {
+        return duplicateRate;
+    }
+
+    public float getReorderRate() {
+        return reorderRate;
+    }
+
+    public long getReorderDelayMs() {
+        return reorderDelayMs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%dms±%dms(%s) 丢%.1f%% 复%.1f%% 乱%.1f%%", latencyMs, jitterMs, jitter,
+            lossRate * 100f, duplicateRate * 100f, reorderRate * 100f);
+    }
+
+    private static float clamp01(float v) {
+        return Math.max(0f, Math.min(1f, v));
+    }
+}
@@ -0,0 +1,324 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+
+import com.goldsprite.gdengine.log.DLog;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanReliableBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * 每客户端一个有界发送队列 + 专用网络 I/O 线程
+ * <p>
+ * {@link #send} 只把包放进目标客户端的队列（常数时间，不做编码与套接字调用），
+ * I/O 线程轮流从各客户端队列取出最多 {@link #BATCH_PER_CLIENT} 个包交给底层服务端发送，
+ * 慢客户端不会拖住游戏线程，也不会饿死其他客户端。
+ * <p>
+ * 背压：队列达到容量时先丢弃队列中最旧的一条"可丢弃"包（过时的状态同步，新状态会完整覆盖它）；
+ * 队列里全是不可丢弃的包时，新来的可丢弃包直接丢弃，不可丢弃的包（可靠事件等）仍然入队、从不丢弃。
+ * 同一客户端的包保持先后顺序。
+ * <p>
+ * 不启动 I/O 线程时由调用方 {@link #drain()}（测试与回环压测保持确定性）。
+ */
+public class QueuedLanServer implements LanServerTransport {
+    private static final String TAG = "LAN";
+    /** 默认每客户端队列容量（包数） */
+    public static final int DEFAULT_CAPACITY = 256;
+    /** I/O 线程每轮从单个客户端取出的最大包数 */
+    public static final int BATCH_PER_CLIENT = 32;
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+
+    private final LanServerTransport base;
+    private final int capacity;
+    private final Predicate<Packet> droppable;
+    private final Map<Integer, ClientQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+
+    private volatile Thread ioThread;
+    private volatile boolean running;
+    private volatile boolean sleeping;
+
+    /** 使用默认策略（{@link #isStaleState}）与默认容量，并启动 I/O 线程 */
+    public QueuedLanServer(LanServerTransport base) {
+        this(base, DEFAULT_CAPACITY, QueuedLanServer::isStaleState, true);
+    }
+
+    /**
+     * @param capacity 每客户端队列容量
+     * @param droppable 拥塞时可以丢弃的包
+     * @param startIoThread false 时不启动线程，由调用方 {@link #drain()}
+     */
+    public QueuedLanServer(LanServerTransport base, int capacity, Predicate<Packet> droppable, boolean startIoThread) {
+        this.base = base;
+        this.capacity = Math.max(1, capacity);
+        this.droppable = droppable;
+        if (startIoThread) {
+            running = true;
+            Thread t = new Thread(this::runIo, "lan-send-io");
+            t.setDaemon(true);
+            ioThread = t;
+            t.start();
+        }
+    }
+
+    /**
+     * 默认背压策略：非可靠的广播包都是可被后续状态覆盖的状态更新（玩家/敌人同步、输入回执、成员列表）；
+     * 可靠事件与含可靠消息的合并包不可丢弃，非 LAN 协议包也不丢弃
+     */
+    public static boolean isStaleState(Packet packet) {
+        if (!(packet instanceof LanBroadcastPacket) || packet instanceof LanReliableBroadcastPacket) return false;
+        if (packet instanceof LanTickBundleBroadcastPacket) {
+            return !((LanTickBundleBroadcastPacket) packet).hasReliableMessages();
+        }
+        return true;
+    }
+
+    // ============ 发送（游戏线程） ============
+
+    @Override
+    public void send(Packet packet) {
+        int guid = packet.getOwnerGuid();
+        ClientQueue q = queues.get(guid);
+        if (q == null) {
+            q = new ClientQueue(guid);
+            ClientQueue prev = queues.putIfAbsent(guid, q);
+            if (prev != null) q = prev;
+        }
+        boolean canDrop = droppable.test(packet);
+        int depth = q.offer(packet, canDrop);
+        if (depth < 0) {
+            if (depth == -1) dropped.incrementAndGet();
+            return;
+        }
+        enqueued.incrementAndGet();
+        int m;
+        while (depth > (m = maxDepth.get()) && !maxDepth.compareAndSet(m, depth)) {
+            // 其他线程刚写入了更大的值，重试
+        }
+        queued.incrementAndGet();
+        if (sleeping) { // 先计数再看标志，与 runIo 的先置标志再看计数配对
+            Thread t = ioThread;
+            if (t != null) LockSupport.unpark(t);
+        }
+    }
+
+    // ============ 发出（I/O 线程或 drain 调用方） ============
+
+    /** 在调用线程上发出全部已排队的包，返回发出数量（不启动 I/O 线程时使用） */
+    public int drain() {
+        int total = 0, n;
+        do {
+            n = drainPass(Integer.MAX_VALUE);
+            total += n;
+        } while (n > 0);
+        return total;
+    }
+
+    private void runIo() {
+        while (running) {
+            int n = drainPass(BATCH_PER_CLIENT);
+            if (n > 0) continue;
+            sleeping = true;
+            // 先声明要睡，再检查：send 看到 sleeping 会 unpark，检查之后入队的包不会被漏掉
+            if (queued.get() == 0 && running) LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            sleeping = false;
+        }
+    }
+
+    private int drainPass(int batch) {
+        int total = 0;
+        Iterator<ClientQueue> it = queues.values().iterator();
+        while (it.hasNext()) {
+            ClientQueue q = it.next();
+            // 已断线：关闭队列（空队列同样移除），之后拿到旧引用的入队会被拒绝
+            if (!base.hasClient(q.guid)) {
+                queued.addAndGet(-q.close());
+                it.remove();
+                continue;
+            }
+            if (q.isEmpty()) continue;
+            for (int i = 0; i < batch; i++) {
+                Packet p = q.poll();
+                if (p == null) break;
+                queued.decrementAndGet();
+                try {
+                    base.send(p);
+                    sent.incrementAndGet();
+                } catch (Exception e) {
+                    DLog.logT(TAG, "发送队列异常 guid=%d: %s", q.guid, e.getMessage());
+                }
+                total++;
+            }
+        }
+        return total;
+    }
+
+    // ============ 委托 ============
+
+    @Override
+    public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+        base.subscribe(type, consumer);
+    }
+
+    @Override
+    public boolean hasClient(int guid) {
+        return base.hasClient(guid);
+    }
+
+    @Override
+    public String getClientName(int guid) {
+        return base.getClientName(guid);
+    }
+
+    @Override
+    public void forEachClient(IntConsumer consumer) {
+        base.forEachClient(consumer);
+    }
+
+    /** 停止 I/O 线程（尽量发完已排队的包）并停止底层服务端 */
+    @Override
+    public void stop() {
+        Thread t = ioThread;
+        running = false;
+        ioThread = null;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(500L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        drainPass(BATCH_PER_CLIENT);
+        for (ClientQueue q : queues.values()) queued.addAndGet(-q.close());
+        queues.clear();
+        base.stop();
+    }
+
+    // ============ 统计 ============
+
+    /** 当前在队列中等待发出的包数（所有客户端） */
+    public int getQueuedCount() {
+        return queued.get();
+    }
+
+    /** 当前持有的客户端队列数（断线客户端的队列在下一轮发出时移除） */
+    public int getClientQueueCount() {
+        return queues.size();
+    }
+
+    public int getQueueDepth(int guid) {
+        ClientQueue q = queues.get(guid);
+        return q == null ? 0 : q.size();
+    }
+
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    public long getEnqueued() {
+        return enqueued.get();
+    }
+
+    public long getSent() {
+        return sent.get();
+    }
+
+    /** 因拥塞丢弃的包数（只会是可丢弃的状态包） */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /** 单个客户端的队列；游戏线程入队与 I/O 线程出队竞争同一把锁，临界区只有几次数组操作 */
+    private final class ClientQueue {
+        final int guid;
+        private final ArrayDeque<Packet> packets = new ArrayDeque<>();
+        private final ArrayDeque<Boolean> canDrop = new ArrayDeque<>();
+        private int droppableCount;
+        private boolean closed;
+
+        ClientQueue(int guid) {
+            this.guid = guid;
+        }
+
+        /**
+         * 入队
+         * @return 入队后的深度；新包被丢弃返回 -1（队列中被挤掉的旧包也计入丢弃数）；客户端已断线返回 -2
+         */
+        synchronized int offer(Packet packet, boolean drop) {
+            if (closed) return -2;
+            if (packets.size() >= capacity) {
+                if (droppableCount > 0) {
+                    removeOldestDroppable();
+                    queued.decrementAndGet();
+                    dropped.incrementAndGet();
+                } else if (drop) {
+                    return -1;
+                }
+                // 全是不可丢弃的包且新包也不可丢弃：超出容量也入队
+            }
+            packets.addLast(packet);
+            canDrop.addLast(drop);
+            if (drop) droppableCount++;
+            return packets.size();
+        }
+
+        synchronized Packet poll() {
+            Packet p = packets.pollFirst();
+            if (p != null && canDrop.pollFirst()) droppableCount--;
+            return p;
+        }
+
+        synchronized boolean isEmpty() {
+            return packets.isEmpty();
+        }
+
+        synchronized int size() {
+            return packets.size();
+        }
+
+        synchronized int close() {
+            closed = true;
+            int n = packets.size();
+            packets.clear();
+            canDrop.clear();
+            droppableCount = 0;
+            return n;
+        }
+
+        /** 通常就是队首（状态包占多数），只有队首是可靠事件时才向后扫描 */
+        private void removeOldestDroppable() {
+            Iterator<Packet> pi = packets.iterator();
+            Iterator<Boolean> di = canDrop.iterator();
+            while (pi.hasNext()) {
+                pi.next();
+                if (di.next()) {
+                    pi.remove();
+                    di.remove();
+                    droppableCount--;
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+/**
+ * 给底层传输的服务端加上每客户端发送队列与 I/O 线程（见 {@link QueuedLanServer}）
+ * <p>
+ * 游戏线程上的广播只剩入队开销；客户端方向的发送量很小（输入、确认），直接走底层传输。
+ * 默认的 {@link com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService} 传输即为
+ * {@code new QueuedLanTransport(new UdpLanTransport())}；回环测试不包装，保持单线程确定性投递。
+ */
+public class QueuedLanTransport implements LanTransport {
+    private final LanTransport base;
+    private final int capacity;
+
+    public QueuedLanTransport(LanTransport base) {
+        this(base, QueuedLanServer.DEFAULT_CAPACITY);
+    }
+
+    /** @param capacity 每客户端发送队列容量 */
+    public QueuedLanTransport(LanTransport base, int capacity) {
+        this.base = base;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public LanServerTransport startServer(int port) {
+        LanServerTransport server = base.startServer(port);
+        if (server == null) return null;
+        return new QueuedLanServer(server, capacity, QueuedLanServer::isStaleState, true);
+    }
+
+    @Override
+    public LanClientTransport connect(String hostIp, int hostPort) {
+        return base.connect(hostIp, hostPort);
+    }
+
+    @Override
+    public String getLocalAddress() {
+        return base.getLocalAddress();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return base.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return base.nanoTime();
+    }
+
+    public LanTransport getBase() {
+        return base;
+    }
+}
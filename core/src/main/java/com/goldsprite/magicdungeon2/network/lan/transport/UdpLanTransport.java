@@ -0,0 +1,172 @@
+package com.goldsprite.magicdungeon2.network.lan.transport;
+
+import java.net.InetSocketAddress;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+import goldsprite.myUdpNetty.codec.packets.BroadcastRequestPacket;
+import goldsprite.myUdpNetty.codec.packets.BroadcastResponsePacket;
+import goldsprite.myUdpNetty.codec.packets.LoginRequestPacket;
+import goldsprite.myUdpNetty.codec.packets.LoginResponsePacket;
+import goldsprite.myUdpNetty.handlers.PacketsHandler;
+import goldsprite.myUdpNetty.other.ClientInfoStatus;
+import goldsprite.myUdpNetty.starter.Client;
+import goldsprite.myUdpNetty.starter.Server;
+
+/**
+ * 基于 TestNetty UDP Server/Client 的传输（默认实现）
+ * 服务端绑定 0.0.0.0:port；客户端绑定随机本地端口
+ */
+public class UdpLanTransport implements LanTransport {
+
+    @Override
+    public LanServerTransport startServer(int port) {
+        String localIp = getLocalAddress();
+        Server server = new Server();
+        server.startAsync(new InetSocketAddress("0.0.0.0", port), new InetSocketAddress(localIp, port), false);
+        PacketsHandler handler = null;
+        for (int i = 0; i < 30; i++) { // 最多等待 3 秒
+            handler = server.getPacketsHandler();
+            if (handler != null) break;
+            sleepSilently(100);
+        }
+        if (handler == null) {
+            server.stop();
+            return null;
+        }
+        return new UdpServer(server, handler);
+    }
+
+    @Override
+    public LanClientTransport connect(String hostIp, int hostPort) {
+        Client client = new Client();
+        client.start(new InetSocketAddress("0.0.0.0", randomUdpPort()), new InetSocketAddress(hostIp, hostPort), false);
+        return new UdpClient(client);
+    }
+
+    /** 对局域网可见的本机地址（见 {@link LanAddresses#preferredLocalAddress()}） */
+    @Override
+    public String getLocalAddress() {
+        return LanAddresses.preferredLocalAddress();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    private static int randomUdpPort() {
+        return ThreadLocalRandom.current().nextInt(30000, 45000);
+    }
+
+    private static void sleepSilently(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class UdpServer implements LanServerTransport {
+        private final Server server;
+        private final PacketsHandler handler;
+
+        UdpServer(Server server, PacketsHandler handler) {
+            this.server = server;
+            this.handler = handler;
+        }
+
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            handler.addSubscriber(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            server.sendPacket(packet);
+        }
+
+        @Override
+        public boolean hasClient(int guid) {
+            return server.clients.containsKey(guid);
+        }
+
+        @Override
+        public String getClientName(int guid) {
+            ClientInfoStatus info = server.clients.get(guid);
+            return info == null ? null : info.name;
+        }
+
+        @Override
+        public void forEachClient(IntConsumer consumer) {
+            for (Integer guid : server.clients.keySet()) consumer.accept(guid);
+        }
+
+        @Override
+        public void stop() {
+            server.stop();
+        }
+    }
+
+    private static final class UdpClient implements LanClientTransport {
+        private final Client client;
+        private volatile Consumer<String> chatListener;
+
+        UdpClient(Client client) {
+            this.client = client;
+            PacketsHandler handler = client.getPacketsHandler();
+            if (handler != null) {
+                handler.addSubscriber(BroadcastResponsePacket.class, packet -> {
+                    Consumer<String> listener = chatListener;
+                    if (listener != null) listener.accept(packet.getMessage());
+                });
+            }
+        }
+
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+            PacketsHandler handler = client.getPacketsHandler();
+            if (handler != null) handler.addSubscriber(type, consumer);
+        }
+
+        @Override
+        public void send(Packet packet) {
+            client.sendPacket(packet);
+        }
+
+        @Override
+        public void login(String name, IntConsumer onSuccess, Consumer<String> onFailure) {
+            client.sendPacket(new LoginRequestPacket(-1, name, "lan"), LoginResponsePacket.class, rep -> {
+                if (IStatus.isSuccessStatus(rep)) {
+                    client.setOwnerGuid(rep.getOwnerGuid());
+                    onSuccess.accept(rep.getOwnerGuid());
+                } else {
+                    onFailure.accept(IStatus.getStatusMsg(rep));
+                }
+            });
+        }
+
+        @Override
+        public void sendChat(int ownerGuid, String message) {
+            client.sendPacket(new BroadcastRequestPacket(ownerGuid, message));
+        }
+
+        @Override
+        public void setChatListener(Consumer<String> listener) {
+            this.chatListener = listener;
+        }
+
+        @Override
+        public void stop() {
+            client.stop();
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.goldsprite.magicdungeon2.screens.main;
 
+import java.util.List;
+
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
@@ -11,6 +13,7 @@ import com.goldsprite.gdengine.neonbatch.NeonBatch;
 import com.goldsprite.magicdungeon2.assets.TextureManager;
 import com.goldsprite.magicdungeon2.core.growth.DeathPenalty;
 import com.goldsprite.magicdungeon2.core.growth.GrowthCalculator;
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
 import static com.goldsprite.magicdungeon2.screens.main.GameConfig.MAP_H;
 import static com.goldsprite.magicdungeon2.screens.main.GameConfig.MAP_W;
 import static com.goldsprite.magicdungeon2.screens.main.GameConfig.POPUP_RISE_SPEED;
@@ -30,10 +33,12 @@ public class GameRenderer {
 	public interface GameState {
 		int[][] getMap();
 		GameEntity getPlayer();
-		Array<GameEntity> getEnemies();
+		List<GameEntity> getEnemies();
 		Array<GameEntity> getRemotePlayers();
 		DeathPenalty.DeathResult getDeathResult();
 		float getGameTime();
+		/** 渲染插值系数 [0,1)：当前帧在上一/下一模拟 tick 之间的位置 */
+		float getRenderAlpha();
 		int getKillCount();
 		String getLogText();
 		Array<DamagePopup> getPopups();
@@ -41,8 +46,12 @@ public class GameRenderer {
 		boolean isLanConnected();
 		String getLanStatus();
 		int getLanPlayerCount();
+		/** 网络统计覆盖层文本（未开启或未联机时为 null） */
+		String getNetStatsText();
 	}
 
+	private static final Color NET_STATS_BG = new Color(0, 0, 0, 0.6f);
+
 	private final NeonBatch batch;
 	private final BitmapFont font;
 	private final BitmapFont hudFont;
@@ -94,11 +103,11 @@ public class GameRenderer {
 
 	/** 绘制所有实体（敌人+玩家+远程玩家） */
 	private void drawEntities() {
-		Array<GameEntity> enemies = state.getEnemies();
+		List<GameEntity> enemies = state.getEnemies();
 		GameEntity player = state.getPlayer();
 		Array<GameEntity> remotePlayers = state.getRemotePlayers();
 
-		for (int i = 0; i < enemies.size; i++) {
+		for (int i = 0; i < enemies.size(); i++) {
 			GameEntity e = enemies.get(i);
 			if (!e.alive) continue;
 			drawEntity(e, player, false);
@@ -117,8 +126,9 @@ public class GameRenderer {
 
 	/** 绘制单个实体（贴图+血条+冷却条） */
 	private void drawEntity(GameEntity e, GameEntity player, boolean isRemotePlayer) {
-		float drawX = e.visualX + e.bumpX;
-		float drawY = e.visualY + e.bumpY;
+		float alpha = state.getRenderAlpha();
+		float drawX = e.getDrawX(alpha);
+		float drawY = e.getDrawY(alpha);
 
 		TextureRegion tex = TextureManager.get(e.texName);
 		if (tex != null) {
@@ -196,7 +206,7 @@ public class GameRenderer {
 		// 第4行: 提示
 		hudFont.setColor(Color.GRAY);
 		hudFont.draw(batch, String.format("敌人:%d | ESC返回",
-			state.getEnemies().size), 10, vh - 70);
+			state.getEnemies().size()), 10, vh - 70);
 		hudFont.setColor(Color.WHITE);
 
 		batch.end();
@@ -293,6 +303,29 @@ public class GameRenderer {
 		batch.end();
 	}
 
+	// ============ 网络统计覆盖层 ============
+
+	/** 绘制网络统计（收发速率/RTT/丢包），文本由统计收集器每秒重建，逐帧绘制不分配 */
+	public void drawNetStatsOverlay() {
+		String text = state.getNetStatsText();
+		if (text == null || text.isEmpty()) return;
+
+		batch.setProjectionMatrix(uiCamera.combined);
+		batch.begin();
+
+		float vw = uiViewport.getWorldWidth();
+		float vh = uiViewport.getWorldHeight();
+		float w = 420;
+		float x = vw - w - 10;
+
+		batch.drawRect(x - 6, vh - 250, w + 12, 240, 0, 0, NET_STATS_BG, true);
+		hudFont.setColor(Color.LIME);
+		hudFont.draw(batch, text, x, vh - 16);
+		hudFont.setColor(Color.WHITE);
+
+		batch.end();
+	}
+
 	// ============ 飘字动画更新 ============
 
 	/** 更新飘字动画（上飘+淡出），应在逻辑帧调用 */
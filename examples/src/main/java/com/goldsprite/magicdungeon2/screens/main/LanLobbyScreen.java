@@ -11,6 +11,9 @@ import com.goldsprite.gdengine.screens.GScreen;
 import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
 import com.goldsprite.magicdungeon2.network.lan.LanNetworkEvent;
 import com.goldsprite.magicdungeon2.network.lan.LanRoomPlayer;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomBrowser;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomCache;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomInfo;
 import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisScrollPane;
 import com.kotcrab.vis.ui.widget.VisTable;
@@ -21,7 +24,7 @@ import com.kotcrab.vis.ui.widget.VisTextField;
  * 局域网联机大厅
  * <p>
  * 三阶段面板：
- * 1. 未连接 — 显示昵称/IP/端口 + 创建房间/加入房间
+ * 1. 未连接 — 显示昵称/IP/端口 + 创建房间/加入房间 + 局域网自动发现的房间列表
  * 2. 房主等待 — 显示成员列表 + 开始游戏/断开连接
  * 3. 客户端等待 — 显示成员列表 + 等待房主开始/断开连接
  */
@@ -41,6 +44,11 @@ public class LanLobbyScreen extends GScreen {
 	private VisTextField nameInput;
 	private VisTextField ipInput;
 	private VisTextField portInput;
+	private VisTable roomListTable;
+
+	// --- 房间发现 ---
+	private LanRoomBrowser roomBrowser;
+	private List<LanRoomCache.Entry> shownRooms; // 缓存快照引用不变即内容不变，无需重建列表
 
 	// --- 房间面板（房主/客户端共用部分） ---
 	private VisTable roomPanel;
@@ -63,10 +71,12 @@ public class LanLobbyScreen extends GScreen {
 	@Override
 	public void create() {
 		lanService = new LanMultiplayerService();
+		roomBrowser = new LanRoomBrowser();
 		buildUI();
 		if (imp != null) imp.addProcessor(stage);
 		showPhase(Phase.IDLE);
 		appendLog("欢迎来到联机大厅！请创建或加入房间。");
+		if (!roomBrowser.start()) appendLog("局域网房间发现不可用，请手动输入房主IP");
 	}
 
 	private void buildUI() {
@@ -117,6 +127,7 @@ public class LanLobbyScreen extends GScreen {
 			@Override
 			public void clicked(InputEvent event, float x, float y) {
 				if (lanService != null) lanService.stop();
+				stopRoomBrowser();
 				getScreenManager().popLastScreen();
 			}
 		});
@@ -150,6 +161,7 @@ public class LanLobbyScreen extends GScreen {
 				try {
 					int port = Integer.parseInt(portInput.getText().trim());
 					lanService.startHost(nameInput.getText().trim(), port);
+					lanService.startDiscoveryBeacon();
 					appendLog("正在创建房间...");
 					showPhase(Phase.HOST_WAITING);
 				} catch (Exception e) {
@@ -174,6 +186,79 @@ public class LanLobbyScreen extends GScreen {
 
 		idlePanel.add(hostBtn).left().padRight(8);
 		idlePanel.add(joinBtn).left().colspan(5);
+		idlePanel.row().padTop(12);
+
+		// 局域网房间列表（由 updateRoomList 按发现结果重建）
+		VisLabel listTitle = new VisLabel("--- 局域网房间 ---");
+		listTitle.setColor(Color.GRAY);
+		idlePanel.add(listTitle).colspan(6).left();
+		idlePanel.row().padTop(4);
+		roomListTable = new VisTable();
+		idlePanel.add(roomListTable).colspan(6).left().expandX().fillX();
+		updateRoomList();
+	}
+
+	/** 发现结果变化时重建房间列表（每帧调用，未变化时只比较一次引用） */
+	private void updateRoomList() {
+		if (roomListTable == null || roomBrowser == null) return;
+		List<LanRoomCache.Entry> rooms = roomBrowser.getRooms();
+		if (rooms == shownRooms) return;
+		shownRooms = rooms;
+		roomListTable.clearChildren();
+		if (rooms.isEmpty()) {
+			roomListTable.add(new VisLabel("  正在搜索..."));
+			return;
+		}
+		for (LanRoomCache.Entry entry : rooms) {
+			LanRoomInfo info = entry.getInfo();
+			VisLabel label = new VisLabel(describeRoom(entry));
+			label.setColor(info.isInGame() ? Color.ORANGE : Color.WHITE);
+			VisTextButton joinBtn = new VisTextButton("加入");
+			joinBtn.addListener(new ClickListener() {
+				@Override
+				public void clicked(InputEvent event, float x, float y) {
+					joinDiscovered(entry);
+				}
+			});
+			roomListTable.add(label).left().padRight(12);
+			roomListTable.add(joinBtn).left();
+			roomListTable.row().padTop(4);
+		}
+	}
+
+	private static String describeRoom(LanRoomCache.Entry entry) {
+		LanRoomInfo info = entry.getInfo();
+		StringBuilder sb = new StringBuilder("  ").append(info.getHostName());
+		if (info.getRoomName() != null && !info.getRoomName().equals(info.getHostName())) {
+			sb.append(" [").append(info.getRoomName()).append(']');
+		}
+		sb.append("  ").append(entry.getHostIp()).append(':').append(info.getPort())
+			.append("  ").append(info.getPlayers()).append("人")
+			.append("  ").append(info.isInGame() ? "第" + info.getFloor() + "层" : "大厅");
+		if (entry.getPingMs() >= 0) sb.append("  ").append(Math.round(entry.getPingMs())).append("ms");
+		return sb.toString();
+	}
+
+	/** 从房间列表加入：同时回填 IP/端口输入框，方便断线后手动重连 */
+	private void joinDiscovered(LanRoomCache.Entry entry) {
+		if (phase != Phase.IDLE || lanService == null) return;
+		LanRoomInfo info = entry.getInfo();
+		ipInput.setText(entry.getHostIp());
+		portInput.setText(String.valueOf(info.getPort()));
+		try {
+			lanService.join(nameInput.getText().trim(), entry.getHostIp(), info.getPort(), info.getRoomName());
+			appendLog("正在加入 " + info.getHostName() + "...");
+			showPhase(Phase.CLIENT_WAITING);
+		} catch (Exception e) {
+			appendLog("加入失败: " + e.getMessage());
+		}
+	}
+
+	private void stopRoomBrowser() {
+		if (roomBrowser != null) {
+			roomBrowser.stop();
+			roomBrowser = null;
+		}
 	}
 
 	private void buildRoomPanel() {
@@ -258,9 +343,11 @@ public class LanLobbyScreen extends GScreen {
 						refreshTimer = 0f;
 						lanService.requestRoomPlayers();
 					}
+					lanService.flushOutgoing(); // 房主：发出本帧合并的转发包
 				}
 
 				updateRoomUI();
+				if (phase == Phase.IDLE) updateRoomList();
 
 				// 宽限期倒计时（等待异步登录回调完成）
 				if (connectionGraceTimer > 0f) {
@@ -328,23 +415,27 @@ public class LanLobbyScreen extends GScreen {
 
 		// 房主需要先广播"开始游戏"信号给所有客户端（携带地图种子）
 		long mapSeed;
+		int floor = 1;
 		if (phase == Phase.HOST_WAITING && lanService != null) {
 			mapSeed = java.util.concurrent.ThreadLocalRandom.current().nextLong();
 			lanService.broadcastGameStart(mapSeed);
 		} else {
 			// 客户端：使用房主广播携带的种子
 			mapSeed = lanService != null ? lanService.getPendingMapSeed() : 0L;
+			if (lanService != null) floor = lanService.getPendingFloor();
 		}
 
 		final long finalMapSeed = mapSeed;
+		final int finalFloor = floor;
 		// 使用 playTransition：先淡入黑幕，黑幕完全变黑后再执行 goScreen
 		// 这样 goScreen 不会在当前帧的 render0 中途执行，避免状态错乱
 		getScreenManager().playTransition(() -> {
 			try {
 				final LanMultiplayerService service = this.lanService;
 				this.lanService = null; // 移交所有权（在安全时机）
+				stopRoomBrowser();
 
-				SimpleGameScreen gameScreen = new SimpleGameScreen(service, finalMapSeed);
+				SimpleGameScreen gameScreen = new SimpleGameScreen(service, finalMapSeed, finalFloor);
 				getScreenManager().goScreen(gameScreen);
 			} catch (Exception e) {
 				com.goldsprite.gdengine.log.DLog.logErr("开始游戏转场异常: " + e.getMessage());
@@ -374,5 +465,6 @@ public class LanLobbyScreen extends GScreen {
 		if (lanService != null) {
 			lanService.stop();
 		}
+		stopRoomBrowser();
 	}
 }
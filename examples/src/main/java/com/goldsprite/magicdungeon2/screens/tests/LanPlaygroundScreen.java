@@ -13,14 +13,22 @@ import com.badlogic.gdx.Input;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.goldsprite.gdengine.screens.basics.ExampleGScreen;
+import com.goldsprite.magicdungeon2.core.world.FixedTickClock;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
 import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
 import com.goldsprite.magicdungeon2.network.lan.LanNetworkEvent;
 import com.goldsprite.magicdungeon2.network.lan.LanRoomPlayer;
-import com.goldsprite.magicdungeon2.network.lan.NetworkTransform;
+import com.goldsprite.magicdungeon2.network.lan.SnapshotInterpolator;
+import com.goldsprite.magicdungeon2.network.lan.transport.ImpairedLanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.NetworkConditions;
+import com.goldsprite.magicdungeon2.network.lan.transport.QueuedLanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.UdpLanTransport;
 import com.kotcrab.vis.ui.widget.VisCheckBox;
 import com.kotcrab.vis.ui.widget.VisLabel;
 import com.kotcrab.vis.ui.widget.VisTable;
@@ -41,6 +49,16 @@ public class LanPlaygroundScreen extends ExampleGScreen {
     private VisTextField interpDelayInput;
     private VisCheckBox interpEnabledCheck;
     private VisCheckBox rawPosEnabledCheck;
+    private VisTextField impairLatencyInput;
+    private VisTextField impairJitterInput;
+    private VisTextField impairLossInput;
+    private VisTextField impairDuplicateInput;
+    private VisTextField impairReorderInput;
+    private VisTextField impairSeedInput;
+    private VisCheckBox impairEnabledCheck;
+
+    // 弱网模拟：包在 UDP 之上、发送队列之下，两个方向施加相同的损伤
+    private ImpairedLanTransport impairment;
 
     private VisLabel statusLabel;
     private VisLabel playersLabel;
@@ -53,7 +71,12 @@ public class LanPlaygroundScreen extends ExampleGScreen {
     private float roomRefreshTimer = 0f;
     private final ArrayDeque<String> logs = new ArrayDeque<>();
     private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss", Locale.CHINA);
-    private final Map<Integer, NetworkTransform> remoteInterpStates = new HashMap<>();
+    private final Map<Integer, SnapshotInterpolator> remoteInterpStates = new HashMap<>();
+    private final float[] interpOut = new float[2];
+    private boolean interpEnabled = true;
+    // 本屏没有世界模拟，只用时钟给发出的状态包打 tick，作为远端插值的时间基准
+    private final FixedTickClock simClock = new FixedTickClock(WorldConfig.TICK_RATE, WorldConfig.MAX_TICKS_PER_FRAME);
+    private long simTick;
 
     @Override
     public String getIntroduction() {
@@ -67,6 +90,9 @@ public class LanPlaygroundScreen extends ExampleGScreen {
         getImp().addProcessor(uiStage);
 
         shapeRenderer = new ShapeRenderer();
+        impairment = new ImpairedLanTransport(new UdpLanTransport(), 1L);
+        impairment.setEnabled(false);
+        lanService.setTransport(new QueuedLanTransport(impairment));
         localX = getViewCenter().x;
         localY = getViewCenter().y;
 
@@ -89,6 +115,13 @@ public class LanPlaygroundScreen extends ExampleGScreen {
         interpDelayInput = new VisTextField("80");
         interpEnabledCheck = new VisCheckBox("开启平滑(绿色)", true);
         rawPosEnabledCheck = new VisCheckBox("显示原始位置(红色)", false);
+        impairLatencyInput = new VisTextField("60");
+        impairJitterInput = new VisTextField("30");
+        impairLossInput = new VisTextField("5");
+        impairDuplicateInput = new VisTextField("1");
+        impairReorderInput = new VisTextField("3");
+        impairSeedInput = new VisTextField("1");
+        impairEnabledCheck = new VisCheckBox("弱网模拟", false);
 
         VisTextButton hostBtn = new VisTextButton("启动房主");
         VisTextButton joinBtn = new VisTextButton("加入房间");
@@ -112,17 +145,31 @@ public class LanPlaygroundScreen extends ExampleGScreen {
                     
                     long delayMs = Long.parseLong(interpDelayInput.getText().trim());
                     boolean enabled = interpEnabledCheck.isChecked();
-                    for (NetworkTransform nt : remoteInterpStates.values()) {
-                        nt.setInterpolationDelayMs(delayMs);
-                        nt.setInterpolationEnabled(enabled);
+                    interpEnabled = enabled;
+                    for (SnapshotInterpolator interp : remoteInterpStates.values()) {
+                        interp.setDelay(delayMs / 1000f);
                     }
+                    lanService.setInterpolationDelay(delayMs / 1000f);
                     appendLog("配置已应用: 发送间隔=" + syncMs + "ms, 插值延迟=" + delayMs + "ms, 平滑=" + enabled);
+                    applyImpairment();
                 } catch (Exception e) {
                     appendLog("配置应用失败: " + e.getMessage());
                 }
             }
         });
 
+        // 勾选即生效，不必再点"应用配置"
+        impairEnabledCheck.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                try {
+                    applyImpairment();
+                } catch (Exception e) {
+                    appendLog("弱网配置无效: " + e.getMessage());
+                }
+            }
+        });
+
         hostBtn.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
@@ -197,6 +244,25 @@ public class LanPlaygroundScreen extends ExampleGScreen {
         root.add(rawPosEnabledCheck).left();
         root.row().padTop(8);
 
+        root.add(new VisLabel("单向延迟(ms)")).left();
+        root.add(impairLatencyInput).width(80).padRight(8);
+        root.add(new VisLabel("抖动(ms)")).left();
+        root.add(impairJitterInput).width(80).padRight(8);
+        root.add(new VisLabel("丢包(%)")).left();
+        root.add(impairLossInput).width(80).padRight(8);
+        root.row().padTop(8);
+
+        root.add(new VisLabel("复制(%)")).left();
+        root.add(impairDuplicateInput).width(80).padRight(8);
+        root.add(new VisLabel("乱序(%)")).left();
+        root.add(impairReorderInput).width(80).padRight(8);
+        root.add(new VisLabel("种子")).left();
+        root.add(impairSeedInput).width(80).padRight(8);
+        root.row().padTop(8);
+
+        root.add(impairEnabledCheck).left().colspan(6);
+        root.row().padTop(8);
+
         root.add(chatInput).left().colspan(3).expandX().fillX().padRight(6);
         root.add(chatBtn).left().padRight(6);
         root.add(applyConfigBtn).left().colspan(2);
@@ -209,7 +275,8 @@ public class LanPlaygroundScreen extends ExampleGScreen {
 
     @Override
     public void render0(float delta) {
-        long nowMs = System.currentTimeMillis();
+        simTick += simClock.advance(delta);
+        lanService.setLocalTick(simTick);
         drawWorldBackground();
 
         handleInput(delta);
@@ -222,10 +289,11 @@ public class LanPlaygroundScreen extends ExampleGScreen {
                 lanService.requestRoomPlayers();
             }
             lanService.sendLocalState(localX, localY, velocityX(), velocityY(), isMoving() ? "move" : "idle", 0, 0, 0, 0, 0);
+            lanService.flushOutgoing(); // 作为房主时发出本帧合并的转发包
         }
 
-        updateRemoteInterpStates(lanService.getRemotePlayers());
-        drawPlayers(nowMs);
+        updateRemoteInterpStates(lanService.getRemotePlayers(), delta);
+        drawPlayers();
         updatePlayersLabel();
         updateStatusLabel();
 
@@ -241,7 +309,7 @@ public class LanPlaygroundScreen extends ExampleGScreen {
         shapeRenderer.end();
     }
 
-    private void drawPlayers(long nowMs) {
+    private void drawPlayers() {
         shapeRenderer.setProjectionMatrix(getUIViewport().getCamera().combined);
         shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
 
@@ -249,19 +317,17 @@ public class LanPlaygroundScreen extends ExampleGScreen {
         shapeRenderer.setColor(Color.valueOf("2ECC71"));
         shapeRenderer.circle(localX, localY, 12f);
 
-        for (NetworkTransform state : remoteInterpStates.values()) {
+        for (SnapshotInterpolator interp : remoteInterpStates.values()) {
             // 红色：无平滑（直接使用最新收到的位置）
-            if (rawPosEnabledCheck.isChecked()) {
-                float[] rawPos = state.getRawPosition();
+            if (rawPosEnabledCheck.isChecked() && interp.sampleLatest(interpOut)) {
                 shapeRenderer.setColor(Color.valueOf("E74C3C"));
-                shapeRenderer.circle(rawPos[0], rawPos[1], 10f);
+                shapeRenderer.circle(interpOut[0], interpOut[1], 10f);
             }
 
-            // 绿色：有平滑（使用插值后的位置）
-            if (state.isInterpolationEnabled()) {
-                float[] interpPos = state.getInterpolatedPosition(nowMs);
+            // 绿色：有平滑（快照插值，断档时有限外推）
+            if (interpEnabled && interp.sample(interpOut)) {
                 shapeRenderer.setColor(Color.valueOf("2ECC71"));
-                shapeRenderer.circle(interpPos[0], interpPos[1], 10f);
+                shapeRenderer.circle(interpOut[0], interpOut[1], 10f);
             }
         }
 
@@ -310,11 +376,33 @@ public class LanPlaygroundScreen extends ExampleGScreen {
         }
     }
 
+    /** 按输入框设置弱网参数（两个方向相同，长尾抖动；丢包、复制、乱序各自独立设置） */
+    private void applyImpairment() {
+        long latency = Long.parseLong(impairLatencyInput.getText().trim());
+        long jitter = Long.parseLong(impairJitterInput.getText().trim());
+        float loss = Float.parseFloat(impairLossInput.getText().trim()) / 100f;
+        float duplicate = Float.parseFloat(impairDuplicateInput.getText().trim()) / 100f;
+        float reorder = Float.parseFloat(impairReorderInput.getText().trim()) / 100f;
+        impairment.setConditions(new NetworkConditions()
+            .setLatency(latency, jitter, NetworkConditions.Jitter.PARETO)
+            .setLossRate(loss).setDuplicateRate(duplicate).setReorderRate(reorder));
+        impairment.setSeed(Long.parseLong(impairSeedInput.getText().trim()));
+        impairment.setEnabled(impairEnabledCheck.isChecked());
+        appendLog(impairment.isEnabled() ? "弱网模拟: " + impairment.getUpstream() : "弱网模拟已关闭");
+    }
+
     private void updateStatusLabel() {
         statusLabel.setText(
             "状态: " + lanService.getMode() +
                 (lanService.isConnected() ? " | 已连接" : " | 未连接") +
-                " | guid=" + lanService.getLocalGuid()
+                " | guid=" + lanService.getLocalGuid() +
+                (lanService.getMode() == LanMultiplayerService.Mode.CLIENT && lanService.isClockSynced()
+                    ? String.format(" | RTT %.1fms 偏移 %.1fms", lanService.getClockSync().getRttMs(),
+                        lanService.getClockSync().getOffsetMs())
+                    : "") +
+                (impairment != null && impairment.isEnabled()
+                    ? " | 弱网 丢" + impairment.getDropped() + " 复" + impairment.getDuplicated() + " 乱" + impairment.getReordered()
+                    : "")
         );
     }
 
@@ -345,18 +433,24 @@ public class LanPlaygroundScreen extends ExampleGScreen {
         logsLabel.setText(sb.toString());
     }
 
-    private void updateRemoteInterpStates(List<LanRoomPlayer> latest) {
+    private void updateRemoteInterpStates(List<LanRoomPlayer> latest, float delta) {
         for (LanRoomPlayer player : latest) {
-            NetworkTransform state = remoteInterpStates.get(player.getGuid());
-            if (state == null) {
-                state = new NetworkTransform();
+            SnapshotInterpolator interp = remoteInterpStates.get(player.getGuid());
+            if (interp == null) {
+                interp = new SnapshotInterpolator();
                 try {
-                    state.setInterpolationDelayMs(Long.parseLong(interpDelayInput.getText().trim()));
-                    state.setInterpolationEnabled(interpEnabledCheck.isChecked());
+                    interp.setDelay(Long.parseLong(interpDelayInput.getText().trim()) / 1000f);
                 } catch (Exception ignored) {}
-                remoteInterpStates.put(player.getGuid(), state);
+                remoteInterpStates.put(player.getGuid(), interp);
             }
-            state.pushSnapshot(player);
+            // 按发送方 tick 作为快照时间，重复快照会被丢弃
+            interp.push(player.getTick() * (double) WorldConfig.TICK_DT, player.getX(), player.getY());
+        }
+        // 已与房主对时则以估计的房主时钟为回放基准（不受快照到达抖动影响）
+        double clock = lanService.getSnapshotClock();
+        for (SnapshotInterpolator interp : remoteInterpStates.values()) {
+            if (Double.isNaN(clock)) interp.advance(delta);
+            else interp.advance(delta, clock);
         }
     }
 
@@ -375,6 +469,7 @@ public class LanPlaygroundScreen extends ExampleGScreen {
     @Override
     public void dispose() {
         lanService.stop();
+        if (impairment != null) impairment.shutdown();
         if (shapeRenderer != null) shapeRenderer.dispose();
         if (uiStage != null) uiStage.dispose();
     }
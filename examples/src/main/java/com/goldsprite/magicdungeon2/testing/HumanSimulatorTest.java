@@ -2,9 +2,9 @@ package com.goldsprite.magicdungeon2.testing;
 
 import com.goldsprite.gdengine.screens.ScreenManager;
 import com.goldsprite.gdengine.testing.AutoTestManager;
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
 import com.goldsprite.magicdungeon2.input.InputAction;
 import com.goldsprite.magicdungeon2.input.InputManager;
-import com.goldsprite.magicdungeon2.screens.main.GameEntity;
 import com.goldsprite.magicdungeon2.screens.main.SimpleGameScreen;
 
 /**
@@ -62,7 +62,7 @@ public class HumanSimulatorTest implements IGameAutoTest {
 
 		atm.add(new AutoTestManager.AssertTask("验证4只敌人", () -> {
 			SimpleGameScreen gs = getGameScreen();
-			return gs != null && gs.getEnemies().size == 4;
+			return gs != null && gs.getEnemies().size() == 4;
 		}));
 
 		atm.add(new AutoTestManager.AssertTask("验证玩家HP=100", () -> {
@@ -95,7 +95,7 @@ public class HumanSimulatorTest implements IGameAutoTest {
 
 		atm.add(new AutoTestManager.AssertTask("敌人剩余≤3只", () -> {
 			SimpleGameScreen gs = getGameScreen();
-			return gs != null && gs.getEnemies().size <= 3;
+			return gs != null && gs.getEnemies().size() <= 3;
 		}));
 
 		atm.addWait(0.3f);
@@ -177,7 +177,7 @@ public class HumanSimulatorTest implements IGameAutoTest {
 			atm.log(String.format("玩家 HP: %.0f/%.0f", p.hp, p.getMaxHp()));
 			atm.log(String.format("存活: %s", p.alive ? "是" : "否"));
 			atm.log(String.format("击杀数: %d", gs.getKillCount()));
-			atm.log(String.format("剩余敌人: %d", gs.getEnemies().size));
+			atm.log(String.format("剩余敌人: %d", gs.getEnemies().size()));
 			atm.log(String.format("游戏时间: %.1f秒", gs.getGameTime()));
 			atm.log(String.format("日志: %s", gs.getLogText()));
 		});
@@ -219,7 +219,7 @@ public class HumanSimulatorTest implements IGameAutoTest {
 	/** 在敌人列表中按名字查找 */
 	private GameEntity findEnemyByName(SimpleGameScreen gs, String name) {
 		var enemies = gs.getEnemies();
-		for (int i = 0; i < enemies.size; i++) {
+		for (int i = 0; i < enemies.size(); i++) {
 			GameEntity e = enemies.get(i);
 			if (e.alive && e.texName.equals(name)) return e;
 		}
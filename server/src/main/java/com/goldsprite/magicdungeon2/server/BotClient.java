@@ -0,0 +1,156 @@
+package com.goldsprite.magicdungeon2.server;
+
+import java.util.Random;
+import java.util.function.Consumer;
+
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.PlayerInput;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.network.lan.LanClientPredictor;
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.LanNetworkEvent;
+import com.goldsprite.magicdungeon2.network.lan.RemotePlayerView;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerHurtBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanTransport;
+
+/**
+ * 压测用的无头脚本客户端
+ * <p>
+ * 与真实客户端走同一条路径：经传输层登录，收到"开始游戏"后建立 REPLICA 世界并做客户端预测，
+ * 每 tick 发送输入命令与本地状态、按间隔发送攻击请求，并消费全部广播（事件、伤害、受伤、敌人状态、远程玩家）。
+ * 移动为随机游走：每隔若干 tick 随机换一个方向（含停下）。
+ */
+public class BotClient {
+	/** 平均每隔多少 tick 发一次攻击请求 */
+	private static final int ATTACK_INTERVAL_TICKS = 45;
+
+	private final int index;
+	private final Random random;
+	private final LanMultiplayerService lanService = new LanMultiplayerService();
+	private final PlayerInput input = new PlayerInput();
+
+	private GameWorld world;
+	private LanClientPredictor predictor;
+	private int dirTicks;
+	private int attackTicks;
+
+	private long damageResults;
+	private long playerHurts;
+	private long floorChanges;
+	private long attacksSent;
+
+	// 每 tick 的消费回调只创建一次
+	private final Consumer<LanNetworkEvent> eventHandler = this::onNetworkEvent;
+	private final Consumer<LanDamageResultBroadcastPacket> damageHandler = this::onDamageResult;
+	private final Consumer<LanPlayerHurtBroadcastPacket> hurtHandler = this::onPlayerHurt;
+
+	public BotClient(int index, LanTransport transport, long seed) {
+		this.index = index;
+		this.random = new Random(seed);
+		this.attackTicks = random.nextInt(ATTACK_INTERVAL_TICKS);
+		lanService.setTransport(transport);
+	}
+
+	public void join(String hostIp, int hostPort) {
+		lanService.join("bot-" + index, hostIp, hostPort);
+	}
+
+	/** 推进一个固定 tick：消费广播 → 脚本输入 → 预测 → 发送 */
+	public void tick(float dt) {
+		lanService.drainEvents(eventHandler);
+		if (world == null || !lanService.isConnected()) return;
+
+		predictor.update();
+		lanService.drainDamageResults(damageHandler);
+		lanService.drainPlayerHurts(hurtHandler);
+		lanService.getLatestEnemyStates();
+		RemotePlayerView view = lanService.getRemotePlayerView();
+		view.size();
+
+		GameEntity player = world.getPlayer();
+		scriptInput(player);
+		world.tick(dt, input);
+		input.clearTriggers();
+		lanService.setLocalTick(world.getTickCount());
+
+		if (player.alive) {
+			lanService.sendLocalState(player.x, player.y, player.x * WorldConfig.TILE, player.y * WorldConfig.TILE,
+				player.moveTimer > 0 ? "walk" : "idle",
+				player.hp, player.getMaxHp(), player.stats.getLevel(),
+				player.stats.getATK(), player.stats.getDEF());
+			if (--attackTicks <= 0) {
+				attackTicks = ATTACK_INTERVAL_TICKS / 2 + random.nextInt(ATTACK_INTERVAL_TICKS);
+				lanService.sendAttackRequest(random.nextInt(4) == 0 ? "magic" : "physical",
+					player.x, player.y, player.faceDx, player.faceDy, player.stats.getATK());
+				attacksSent++;
+			}
+		}
+		predictor.onTick();
+	}
+
+	public void stop() {
+		lanService.stop();
+	}
+
+	private void scriptInput(GameEntity player) {
+		if (!player.alive) {
+			input.respawn = true;
+			return;
+		}
+		if (--dirTicks > 0) return;
+		dirTicks = 10 + random.nextInt(30);
+		switch (random.nextInt(5)) {
+			case 0: input.dx = 1; input.dy = 0; break;
+			case 1: input.dx = -1; input.dy = 0; break;
+			case 2: input.dx = 0; input.dy = 1; break;
+			case 3: input.dx = 0; input.dy = -1; break;
+			default: input.dx = 0; input.dy = 0; break;
+		}
+	}
+
+	private void onNetworkEvent(LanNetworkEvent e) {
+		switch (e.getType()) {
+			case GAME_START:
+				world = new GameWorld(GameWorld.Role.REPLICA, e.getMapSeed());
+				if (e.getFloor() > 1) world.enterFloor(e.getMapSeed(), e.getFloor());
+				predictor = new LanClientPredictor(lanService, world);
+				break;
+			case FLOOR_CHANGE:
+				floorChanges++;
+				if (world != null) world.enterFloor(e.getMapSeed(), e.getFloor());
+				break;
+			default:
+				break;
+		}
+	}
+
+	private void onDamageResult(LanDamageResultBroadcastPacket dr) {
+		damageResults++;
+		if (dr.isKilled() && dr.getAttackerGuid() == lanService.getLocalGuid()) {
+			world.applyNetworkKill(dr.getXpReward());
+		}
+	}
+
+	private void onPlayerHurt(LanPlayerHurtBroadcastPacket ph) {
+		playerHurts++;
+		if (ph.getTargetGuid() == lanService.getLocalGuid()) {
+			world.applyPlayerHurt(ph.getDamage(), ph.getRemainHp());
+		}
+	}
+
+	/** 已登录且已收到"开始游戏" */
+	public boolean isReady() {
+		return world != null && lanService.isConnected();
+	}
+
+	public LanMultiplayerService getLanService() {
+		return lanService;
+	}
+
+	public long getDamageResults() { return damageResults; }
+	public long getPlayerHurts() { return playerHurts; }
+	public long getFloorChanges() { return floorChanges; }
+	public long getAttacksSent() { return attacksSent; }
+}
@@ -0,0 +1,193 @@
+package com.goldsprite.magicdungeon2.server;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+
+import com.goldsprite.gdengine.log.DLog;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.core.world.WorldEvent;
+import com.goldsprite.magicdungeon2.network.lan.LanHostAuthority;
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.LanNetworkEvent;
+import com.goldsprite.magicdungeon2.network.lan.LanSessionSlots;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomInfo;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanTransport;
+
+/**
+ * 独立服务器中的单个房间
+ * <p>
+ * 持有一个 {@link GameWorld}（DEDICATED 角色，无本地玩家），每 tick 推进世界并通过
+ * {@link LanHostAuthority} 收发网络数据。敌人以远程玩家为仇恨目标；
+ * 任一远程玩家踏上楼梯即由世界触发换层。空房间不推进模拟。
+ */
+public class DedicatedRoom {
+	private static final String TAG = "SERVER";
+	/** 新玩家等待会话登记的最长 tick 数：登记丢失时仍按新加入处理 */
+	private static final int JOIN_WAIT_TICKS = WorldConfig.TICK_RATE;
+
+	private final String name;
+	private final int port;
+	private final LanMultiplayerService lanService = new LanMultiplayerService();
+
+	private GameWorld world;
+	private LanHostAuthority hostAuthority;
+
+	// 只在模拟线程读写；信标线程读取人数走 playerCount
+	private final Set<Integer> knownGuids = new HashSet<>();
+	private volatile int playerCount;
+	private final Set<Integer> guidScratch = new HashSet<>();
+	// 已登录、尚未决定是否发送"开始游戏"的玩家 → 已等待的 tick 数
+	private final Map<Integer, Integer> pendingJoins = new HashMap<>();
+	// 每 tick 的消费回调只创建一次
+	private final Consumer<LanNetworkEvent> netEventHandler = this::onNetworkEvent;
+	private final Consumer<WorldEvent> worldEventHandler = this::onWorldEvent;
+
+	public DedicatedRoom(String name, int port) {
+		this.name = name;
+		this.port = port;
+	}
+
+	/** 使用指定传输层（压测工具用进程内回环，无需套接字） */
+	public DedicatedRoom(String name, int port, LanTransport transport) {
+		this(name, port);
+		lanService.setTransport(transport);
+	}
+
+	public boolean start() {
+		lanService.startDedicated(port);
+		if (!lanService.isConnected()) return false;
+
+		world = new GameWorld(GameWorld.Role.DEDICATED, ThreadLocalRandom.current().nextLong());
+		hostAuthority = new LanHostAuthority(lanService, world);
+		DLog.logT(TAG, "[%s] 已启动: 端口=%d 种子=%d", name, port, world.getMapSeed());
+		return true;
+	}
+
+	/** 推进一个固定 tick */
+	public void tick(float dt) {
+		lanService.drainEvents(netEventHandler);
+		syncMembership();
+		if (knownGuids.isEmpty()) return; // 空房间不跑模拟
+
+		world.tick(dt, null);
+		lanService.setLocalTick(world.getTickCount());
+		hostAuthority.update();
+		world.drainEvents(worldEventHandler);
+		lanService.flushOutgoing();
+		lanService.updateNetStats();
+	}
+
+	/** 每隔 seconds 秒把本房间的网络统计写入工作目录下的 netstats-房间名.json */
+	public void setNetStatsDump(int seconds) {
+		File file = new File("netstats-" + name + ".json");
+		lanService.getNetStats().setDump(file, seconds * 1000L);
+		DLog.logT(TAG, "[%s] 网络统计输出: %s (每 %d 秒)", name, file.getAbsolutePath(), seconds);
+	}
+
+	public void stop() {
+		lanService.stop();
+		knownGuids.clear();
+		pendingJoins.clear();
+		playerCount = 0;
+	}
+
+	private void onNetworkEvent(LanNetworkEvent e) {
+		DLog.logT(TAG, "[%s] %s", name, e.getMessage());
+	}
+
+	private void onWorldEvent(WorldEvent e) {
+		hostAuthority.onWorldEvent(e);
+		if (e.type == WorldEvent.Type.FLOOR_CHANGE) {
+			DLog.logT(TAG, "[%s] 进入第%d层 种子=%d", name, e.intValue, e.seed);
+		}
+	}
+
+	/**
+	 * 检测加入/离开的玩家：新玩家直接收到"开始游戏"（当前层种子与层数），中途加入无需房主操作。
+	 * 断线重连的客户端同样以新 guid 登录，等它登记会话（一个往返）后再决定：
+	 * 以重连登记的由全量状态恢复，不发"开始游戏"（否则客户端会重建世界）
+	 */
+	private void syncMembership() {
+		guidScratch.clear();
+		lanService.collectClientGuids(guidScratch);
+		for (Integer guid : guidScratch) {
+			if (knownGuids.add(guid)) {
+				pendingJoins.put(guid, 0);
+				DLog.logT(TAG, "[%s] 玩家登录: guid=%d (第%d层)", name, guid, world.getCurrentFloor());
+			}
+		}
+		if (knownGuids.retainAll(guidScratch)) {
+			DLog.logT(TAG, "[%s] 玩家离开，剩余 %d 人", name, knownGuids.size());
+		}
+		playerCount = knownGuids.size();
+		if (!pendingJoins.isEmpty()) resolvePendingJoins();
+		lanService.pruneDisconnectedPlayers();
+	}
+
+	private void resolvePendingJoins() {
+		LanSessionSlots sessions = lanService.getSessions();
+		Iterator<Map.Entry<Integer, Integer>> it = pendingJoins.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Integer, Integer> entry = it.next();
+			int guid = entry.getKey();
+			if (!knownGuids.contains(guid)) {
+				it.remove();
+			} else if (sessions.isBound(guid)) {
+				it.remove();
+				if (sessions.isResume(guid)) {
+					DLog.logT(TAG, "[%s] 玩家重连: guid=%d", name, guid);
+				} else {
+					startPlayer(guid);
+				}
+			} else if (entry.getValue() >= JOIN_WAIT_TICKS) {
+				it.remove();
+				startPlayer(guid);
+			} else {
+				entry.setValue(entry.getValue() + 1);
+			}
+		}
+	}
+
+	private void startPlayer(int guid) {
+		lanService.sendGameStartTo(guid, world.getMapSeed(), world.getCurrentFloor());
+		DLog.logT(TAG, "[%s] 玩家加入: guid=%d (第%d层)", name, guid, world.getCurrentFloor());
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public int getCurrentFloor() {
+		return world != null ? world.getCurrentFloor() : 0;
+	}
+
+	/** 当前人数（模拟线程每 tick 更新，可在任意线程读取） */
+	public int getPlayerCount() {
+		return playerCount;
+	}
+
+	/**
+	 * 本房间的信标信息（由 {@link DedicatedServerApp} 的房间信标器在其线程上读取）
+	 * @param joinName 客户端加入时选择的房间名（共用端口时为房间名，独占端口时为 null）
+	 */
+	public LanRoomInfo describe(String joinName) {
+		if (!lanService.isConnected()) return null;
+		return new LanRoomInfo(name, joinName, port, getPlayerCount(), getCurrentFloor());
+	}
+
+	/** 本房间的联机服务（读取网络统计、可靠通道计数等） */
+	public LanMultiplayerService getLanService() {
+		return lanService;
+	}
+}
@@ -0,0 +1,98 @@
+package com.goldsprite.magicdungeon2.server;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.utils.Array;
+import com.goldsprite.gdengine.log.DLog;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomAnnouncer;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanRoomRouter;
+import com.goldsprite.magicdungeon2.network.lan.transport.QueuedLanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.UdpLanTransport;
+
+/**
+ * 无头服务器应用：每个房间在自己的 {@link RoomSimThread} 上按固定步长推进，渲染线程不参与模拟
+ * <p>
+ * 共享端口模式下所有房间共用一个 UDP 端口（{@link LanRoomRouter} 按 guid 把包路由到各房间），
+ * 客户端登录后选择房间；否则每个房间独占一个端口（basePort 起依次 +1）。
+ * 开启房间发现时，各房间的信息由同一个 {@link LanRoomAnnouncer} 在局域网广播。
+ */
+public class DedicatedServerApp extends ApplicationAdapter {
+	private static final String TAG = "SERVER";
+
+	private final int basePort;
+	private final int roomCount;
+	private final int tickRate;
+	private final int statsSeconds;
+	private final boolean sharedPort;
+	private final boolean discovery;
+	private final Array<RoomSimThread> threads = new Array<>();
+	private LanRoomRouter router;
+	private LanRoomAnnouncer announcer;
+
+	public DedicatedServerApp(int basePort, int roomCount, int tickRate, int statsSeconds,
+			boolean sharedPort, boolean discovery) {
+		this.basePort = basePort;
+		this.roomCount = roomCount;
+		this.tickRate = tickRate;
+		this.statsSeconds = statsSeconds;
+		this.sharedPort = sharedPort;
+		this.discovery = discovery;
+	}
+
+	@Override
+	public void create() {
+		if (sharedPort) {
+			router = new LanRoomRouter(new QueuedLanTransport(new UdpLanTransport()), basePort);
+			if (!router.start()) {
+				DLog.logT(TAG, "共享端口 %d 启动失败", basePort);
+				router = null;
+				return;
+			}
+		}
+		if (discovery) announcer = new LanRoomAnnouncer();
+		for (int i = 0; i < roomCount; i++) {
+			String name = "room-" + (i + 1);
+			DedicatedRoom room = sharedPort
+				? new DedicatedRoom(name, basePort, router.roomTransport(name))
+				: new DedicatedRoom(name, basePort + i);
+			if (room.start()) {
+				if (statsSeconds > 0) room.setNetStatsDump(statsSeconds);
+				RoomSimThread thread = new RoomSimThread(room, tickRate);
+				threads.add(thread);
+				thread.start();
+				if (announcer != null) {
+					String joinName = sharedPort ? name : null;
+					announcer.addRoom(() -> room.describe(joinName));
+				}
+			} else {
+				DLog.logT(TAG, "房间 %s 启动失败 (端口 %d)", room.getName(), room.getPort());
+			}
+		}
+		if (announcer != null && !announcer.start()) announcer = null;
+		DLog.logT(TAG, "独立服务器就绪: %d 个房间%s", threads.size,
+			sharedPort ? "，共用端口 " + basePort : "");
+		// Ctrl+C 时释放端口
+		Runtime.getRuntime().addShutdownHook(new Thread(this::stopRooms, "server-shutdown"));
+	}
+
+	@Override
+	public void dispose() {
+		stopRooms();
+	}
+
+	private synchronized void stopRooms() {
+		if (announcer != null) {
+			announcer.stop();
+			announcer = null;
+		}
+		for (int i = 0; i < threads.size; i++) {
+			RoomSimThread thread = threads.get(i);
+			thread.shutdown(1000L);
+			thread.getRoom().stop();
+		}
+		threads.clear();
+		if (router != null) {
+			router.stop();
+			router = null;
+		}
+	}
+}
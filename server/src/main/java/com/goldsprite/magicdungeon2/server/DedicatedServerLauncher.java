@@ -0,0 +1,51 @@
+package com.goldsprite.magicdungeon2.server;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+
+/**
+ * 无头独立服务器入口（无窗口、无 GL、无贴图/字体）
+ * <p>
+ * 用法: {@code DedicatedServerLauncher [--port 25565] [--rooms 1] [--shared 1] [--discovery 1] [--tick 30] [--stats 10]}
+ * <ul>
+ *   <li>--port  UDP 端口（共享模式下所有房间共用；否则为第一个房间的端口，后续房间依次 +1）</li>
+ *   <li>--rooms 同一进程内运行的房间数，每个房间一个模拟线程</li>
+ *   <li>--shared 1 = 所有房间共用一个端口、客户端登录后选择房间（默认）；0 = 每个房间独占端口</li>
+ *   <li>--discovery 1 = 在局域网广播各房间信标，客户端大厅自动列出（默认）；0 = 关闭</li>
+ *   <li>--tick  模拟频率（Hz），默认与客户端一致（{@link WorldConfig#TICK_RATE}）</li>
+ *   <li>--stats 每隔多少秒把各房间的网络统计写入 netstats-房间名.json，默认 0（关闭）</li>
+ * </ul>
+ */
+public class DedicatedServerLauncher {
+
+	public static void main(String[] args) {
+		int port = 25565;
+		int rooms = 1;
+		int tickRate = WorldConfig.TICK_RATE;
+		int statsSeconds = 0;
+		boolean shared = true;
+		boolean discovery = true;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			switch (args[i]) {
+				case "--port": port = Integer.parseInt(args[i + 1]); break;
+				case "--rooms": rooms = Integer.parseInt(args[i + 1]); break;
+				case "--tick": tickRate = Integer.parseInt(args[i + 1]); break;
+				case "--stats": statsSeconds = Integer.parseInt(args[i + 1]); break;
+				case "--shared": shared = !"0".equals(args[i + 1]) && !"false".equals(args[i + 1]); break;
+				case "--discovery": discovery = !"0".equals(args[i + 1]) && !"false".equals(args[i + 1]); break;
+				default: System.err.println("[SERVER] 未知参数: " + args[i]); break;
+			}
+		}
+
+		Thread.setDefaultUncaughtExceptionHandler((t, e) -> {
+			System.err.println("[CRITICAL] Uncaught exception in thread " + t.getName());
+			e.printStackTrace();
+			System.exit(1);
+		});
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1; // 模拟在各房间线程上运行，主循环只负责生命周期
+		new HeadlessApplication(new DedicatedServerApp(port, rooms, tickRate, statsSeconds, shared, discovery), config);
+	}
+}
@@ -0,0 +1,52 @@
+package com.goldsprite.magicdungeon2.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.goldsprite.gdengine.log.DLog;
+
+/**
+ * 压测应用：在 create 中依次运行各阶段并打印汇总表，完成后退出
+ * 放在 HeadlessApplication 里运行，保证游戏逻辑依赖的 Gdx 环境可用
+ */
+public class LoadTestApp extends ApplicationAdapter {
+	private static final String TAG = "LOADTEST";
+
+	private final LoadTestRunner runner;
+	private final int[] clients;
+	private final String outPath;
+
+	public LoadTestApp(LoadTestRunner runner, int[] clients, String outPath) {
+		this.runner = runner;
+		this.clients = clients;
+		this.outPath = outPath;
+	}
+
+	@Override
+	public void create() {
+		StringBuilder table = new StringBuilder(LoadTestResult.tableHeader()).append('\n');
+		StringBuilder json = new StringBuilder("[");
+		for (int i = 0; i < clients.length; i++) {
+			DLog.logT(TAG, "阶段 %d/%d: %d 个客户端", i + 1, clients.length, clients[i]);
+			LoadTestResult result = runner.run(clients[i]);
+			table.append(result.toTableRow()).append('\n');
+			if (i > 0) json.append(',');
+			json.append(result.toJson());
+		}
+		json.append(']');
+		System.out.println(table);
+		if (outPath != null) {
+			try {
+				Files.write(Paths.get(outPath), json.toString().getBytes(StandardCharsets.UTF_8));
+				DLog.logT(TAG, "结果已写入 %s", outPath);
+			} catch (IOException e) {
+				DLog.logT(TAG, "写入 %s 失败: %s", outPath, e.getMessage());
+			}
+		}
+		Gdx.app.exit();
+	}
+}
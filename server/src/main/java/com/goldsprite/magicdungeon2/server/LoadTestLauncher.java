@@ -0,0 +1,57 @@
+package com.goldsprite.magicdungeon2.server;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+
+/**
+ * 无头压测入口：按客户端数逐级运行机器人，输出房主 tick 耗时、每客户端带宽、输入往返延迟分位数与 GC 情况
+ * <p>
+ * 用法: {@code LoadTestLauncher [--clients 2,4,8,16,32,64] [--seconds 10] [--latency 0] [--jitter 0]
+ * [--loss 0] [--seed 1] [--connect host:port] [--out loadtest.json]}
+ * <ul>
+ *   <li>--clients 逗号分隔的各阶段客户端数</li>
+ *   <li>--seconds 每阶段的测量时长（模拟秒，预热不计入）</li>
+ *   <li>--latency/--jitter/--loss 进程内回环的单向延迟、抖动（毫秒）与丢包率</li>
+ *   <li>--connect 连接已运行的独立服务器（UDP，仅统计客户端侧指标）</li>
+ *   <li>--out     把各阶段结果写成 JSON 数组</li>
+ * </ul>
+ */
+public class LoadTestLauncher {
+
+	public static void main(String[] args) {
+		int[] clients = {2, 4, 8, 16, 32, 64};
+		LoadTestRunner runner = new LoadTestRunner();
+		long latency = 0, jitter = 0;
+		String out = null;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			switch (args[i]) {
+				case "--clients": clients = parseList(value); break;
+				case "--seconds": runner.setSeconds(Integer.parseInt(value)); break;
+				case "--latency": latency = Long.parseLong(value); break;
+				case "--jitter": jitter = Long.parseLong(value); break;
+				case "--loss": runner.setLossRate(Float.parseFloat(value)); break;
+				case "--seed": runner.setSeed(Long.parseLong(value)); break;
+				case "--connect": {
+					int colon = value.lastIndexOf(':');
+					runner.setRemote(value.substring(0, colon), Integer.parseInt(value.substring(colon + 1)));
+					break;
+				}
+				case "--out": out = value; break;
+				default: System.err.println("[LOADTEST] 未知参数: " + args[i]); break;
+			}
+		}
+		runner.setLatency(latency, jitter);
+
+		HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+		config.updatesPerSecond = -1; // 压测在 create 中一次跑完，不需要渲染回调
+		new HeadlessApplication(new LoadTestApp(runner, clients, out), config);
+	}
+
+	private static int[] parseList(String value) {
+		String[] parts = value.split(",");
+		int[] result = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) result[i] = Integer.parseInt(parts[i].trim());
+		return result;
+	}
+}
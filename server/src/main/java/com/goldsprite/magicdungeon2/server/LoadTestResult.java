@@ -0,0 +1,98 @@
+package com.goldsprite.magicdungeon2.server;
+
+import java.util.Locale;
+
+import com.goldsprite.magicdungeon2.network.lan.stats.LanNetHistogram;
+
+/**
+ * 压测单个阶段（固定客户端数）的汇总结果
+ * 时间类直方图单位为微秒；字节数为 LanNetStats 的估算值（编解码器不暴露实际大小）
+ */
+public class LoadTestResult {
+	public final int clients;
+	public int readyClients;
+	public int ticks;
+	public float simSeconds;
+
+	/** 房主每 tick 的模拟 + 广播耗时（微秒）；连接远程服务器时为 null */
+	public LanNetHistogram hostTickMicros;
+	/** 房主每 tick 内处理收到的包的耗时（微秒）；连接远程服务器时为 null */
+	public LanNetHistogram hostRecvMicros;
+	/** 输入 → 权威回执的往返延迟（微秒，全部机器人汇总） */
+	public final LanNetHistogram inputRttMicros = new LanNetHistogram();
+
+	/** 每个客户端平均下行 / 上行字节每秒 */
+	public float downBytesPerClient;
+	public float upBytesPerClient;
+
+	public long gcCount;
+	public long gcMillis;
+	/** 房主 tick 平均分配字节数（-1 = JVM 不支持按线程统计） */
+	public long hostAllocPerTick = -1;
+
+	public long retransmits;
+	public long dropped;
+	public long damageResults;
+
+	public LoadTestResult(int clients) {
+		this.clients = clients;
+	}
+
+	public static String tableHeader() {
+		return String.format(Locale.ROOT, "%7s %6s | %-22s | %-16s | %9s %9s | %-16s | %9s | %9s",
+			"clients", "ready", "host tick p50/p99/max", "host recv p50/p99", "down KB/s", "up KB/s",
+			"input RTT p50/p99", "GC n/ms", "alloc/tick");
+	}
+
+	public String toTableRow() {
+		return String.format(Locale.ROOT, "%7d %6d | %-22s | %-16s | %9.1f %9.1f | %-16s | %9s | %9s",
+			clients, readyClients,
+			hostTickMicros == null ? "-" : String.format(Locale.ROOT, "%.2f/%.2f/%.2f ms",
+				ms(hostTickMicros.percentile(0.5)), ms(hostTickMicros.percentile(0.99)), ms(hostTickMicros.getMax())),
+			hostRecvMicros == null ? "-" : String.format(Locale.ROOT, "%d/%d us",
+				hostRecvMicros.percentile(0.5), hostRecvMicros.percentile(0.99)),
+			downBytesPerClient / 1024f, upBytesPerClient / 1024f,
+			String.format(Locale.ROOT, "%.0f/%.0f ms", ms(inputRttMicros.percentile(0.5)), ms(inputRttMicros.percentile(0.99))),
+			gcCount + "/" + gcMillis,
+			hostAllocPerTick < 0 ? "-" : (hostAllocPerTick / 1024) + " KB");
+	}
+
+	public String toJson() {
+		StringBuilder sb = new StringBuilder(512);
+		sb.append("{\"clients\":").append(clients)
+			.append(",\"ready\":").append(readyClients)
+			.append(",\"ticks\":").append(ticks)
+			.append(",\"simSeconds\":").append(simSeconds);
+		appendHistogram(sb, "hostTickMicros", hostTickMicros);
+		appendHistogram(sb, "hostRecvMicros", hostRecvMicros);
+		appendHistogram(sb, "inputRttMicros", inputRttMicros);
+		sb.append(",\"downBytesPerClient\":").append(Math.round(downBytesPerClient))
+			.append(",\"upBytesPerClient\":").append(Math.round(upBytesPerClient))
+			.append(",\"gcCount\":").append(gcCount)
+			.append(",\"gcMillis\":").append(gcMillis)
+			.append(",\"hostAllocPerTick\":").append(hostAllocPerTick)
+			.append(",\"retransmits\":").append(retransmits)
+			.append(",\"dropped\":").append(dropped)
+			.append(",\"damageResults\":").append(damageResults)
+			.append('}');
+		return sb.toString();
+	}
+
+	private static void appendHistogram(StringBuilder sb, String name, LanNetHistogram h) {
+		sb.append(",\"").append(name).append("\":");
+		if (h == null) {
+			sb.append("null");
+			return;
+		}
+		sb.append("{\"n\":").append(h.getCount())
+			.append(",\"mean\":").append(Math.round(h.getMean()))
+			.append(",\"p50\":").append(h.percentile(0.5))
+			.append(",\"p99\":").append(h.percentile(0.99))
+			.append(",\"max\":").append(h.getMax())
+			.append('}');
+	}
+
+	private static float ms(long micros) {
+		return micros / 1000f;
+	}
+}
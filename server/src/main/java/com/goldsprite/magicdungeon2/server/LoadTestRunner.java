@@ -0,0 +1,235 @@
+package com.goldsprite.magicdungeon2.server;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.goldsprite.gdengine.log.DLog;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.LanSyncRate;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanNetHistogram;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanNetStats;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanPeerStats;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LoopbackLanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.UdpLanTransport;
+
+/**
+ * 压测执行器：一个房间 + N 个 {@link BotClient}，预热到全部就绪后运行固定时长并汇总指标
+ * <p>
+ * 默认进程内运行：房间与机器人共用一个 {@link LoopbackLanTransport}，按虚拟时间逐 tick 推进、
+ * 不按真实时间等待，因此房主耗时是纯 CPU 开销（模拟与广播计入 host tick，处理收到的包计入 host recv）；
+ * 可注入延迟、抖动与丢包。指定远程地址时机器人经 UDP 连接已运行的独立服务器并按真实时间节拍运行，
+ * 只能统计客户端侧指标。
+ */
+public class LoadTestRunner {
+	private static final String TAG = "LOADTEST";
+	/** 回环传输上的房间端口（虚拟，不占用真实端口） */
+	private static final int LOOPBACK_PORT = 26000;
+	/** 预热（登录 + 开始游戏）最多等待的 tick 数 */
+	private static final int WARMUP_TICKS = WorldConfig.TICK_RATE * 10;
+
+	private int seconds = 10;
+	private long latencyMs;
+	private long jitterMs;
+	private float lossRate;
+	private long seed = 1L;
+	private String remoteHost;
+	private int remotePort;
+
+	public LoadTestRunner setSeconds(int seconds) { this.seconds = Math.max(1, seconds); return this; }
+	public LoadTestRunner setLatency(long latencyMs, long jitterMs) { this.latencyMs = latencyMs; this.jitterMs = jitterMs; return this; }
+	public LoadTestRunner setLossRate(float lossRate) { this.lossRate = lossRate; return this; }
+	public LoadTestRunner setSeed(long seed) { this.seed = seed; return this; }
+	/** 连接远程独立服务器（host 为 null 时进程内运行） */
+	public LoadTestRunner setRemote(String host, int port) { this.remoteHost = host; this.remotePort = port; return this; }
+
+	public LoadTestResult run(int clients) {
+		return remoteHost == null ? runLoopback(clients) : runRemote(clients);
+	}
+
+	// ============ 进程内（回环） ============
+
+	private LoadTestResult runLoopback(int clients) {
+		LoadTestResult result = new LoadTestResult(clients);
+		LoopbackLanTransport loop = new LoopbackLanTransport(seed);
+		loop.setLatency(latencyMs, jitterMs);
+		DedicatedRoom room = new DedicatedRoom("load-" + clients, LOOPBACK_PORT, loop);
+		if (!room.start()) throw new IllegalStateException("回环房间启动失败");
+		List<BotClient> bots = createBots(clients, loop, loop.getLocalAddress(), LOOPBACK_PORT);
+
+		float dt = WorldConfig.TICK_DT;
+		long tickMs = LanSyncRate.TICK_INTERVAL_MS;
+		long now = loop.getNow();
+		for (int i = 0; i < WARMUP_TICKS && countReady(bots) < clients; i++) {
+			now += tickMs;
+			stepLoopback(loop, room, bots, now, dt);
+		}
+		loop.setLossRate(lossRate); // 登录与开始游戏不受丢包影响，只测稳定阶段
+		resetStats(room.getLanService(), bots);
+
+		result.hostTickMicros = new LanNetHistogram();
+		result.hostRecvMicros = new LanNetHistogram();
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		long allocTotal = 0;
+		boolean allocSupported = threads instanceof com.sun.management.ThreadMXBean
+			&& ((com.sun.management.ThreadMXBean) threads).isThreadAllocatedMemorySupported();
+		long[] gcStart = gcSnapshot();
+		int ticks = seconds * WorldConfig.TICK_RATE;
+		for (int i = 0; i < ticks; i++) {
+			now += tickMs;
+			long recvStart = loop.getServerHandlerNanos();
+			loop.pump(now);
+			for (int b = 0; b < bots.size(); b++) bots.get(b).tick(dt);
+			loop.pump(now);
+			long allocStart = allocSupported ? allocatedBytes(threads) : 0;
+			long start = System.nanoTime();
+			room.tick(dt);
+			long tickNanos = System.nanoTime() - start;
+			if (allocSupported) allocTotal += allocatedBytes(threads) - allocStart;
+			loop.pump(now);
+			result.hostTickMicros.record(tickNanos / 1000);
+			result.hostRecvMicros.record((loop.getServerHandlerNanos() - recvStart) / 1000);
+		}
+		long[] gcEnd = gcSnapshot();
+
+		result.ticks = ticks;
+		result.simSeconds = ticks * dt;
+		result.readyClients = countReady(bots);
+		result.gcCount = gcEnd[0] - gcStart[0];
+		result.gcMillis = gcEnd[1] - gcStart[1];
+		result.hostAllocPerTick = allocSupported ? allocTotal / ticks : -1;
+		result.retransmits = room.getLanService().getReliableSender().getRetransmits();
+		result.dropped = loop.getDropped();
+		LanNetStats hostStats = room.getLanService().getNetStats();
+		long down = 0;
+		for (int b = 0; b < bots.size(); b++) {
+			LanPeerStats peer = hostStats.getPeer(bots.get(b).getLanService().getLocalGuid());
+			if (peer != null) down += peer.getSentBytes();
+		}
+		result.downBytesPerClient = down / result.simSeconds / clients;
+		collectClientStats(result, bots);
+
+		for (int b = 0; b < bots.size(); b++) bots.get(b).stop();
+		room.stop();
+		return result;
+	}
+
+	/** 推进一个 tick：投递 → 机器人 → 投递 → 房间 → 投递（无延迟时一个 tick 内完成一次往返的一半） */
+	private static void stepLoopback(LoopbackLanTransport loop, DedicatedRoom room, List<BotClient> bots, long now, float dt) {
+		loop.pump(now);
+		for (int b = 0; b < bots.size(); b++) bots.get(b).tick(dt);
+		loop.pump(now);
+		room.tick(dt);
+		loop.pump(now);
+	}
+
+	// ============ 远程服务器（UDP） ============
+
+	private LoadTestResult runRemote(int clients) {
+		LoadTestResult result = new LoadTestResult(clients);
+		List<BotClient> bots = createBots(clients, new UdpLanTransport(), remoteHost, remotePort);
+		float dt = WorldConfig.TICK_DT;
+		long tickNanos = 1_000_000_000L / WorldConfig.TICK_RATE;
+
+		long next = System.nanoTime();
+		for (int i = 0; i < WARMUP_TICKS && countReady(bots) < clients; i++) {
+			for (int b = 0; b < bots.size(); b++) bots.get(b).tick(dt);
+			next = sleepUntil(next + tickNanos);
+		}
+		resetStats(null, bots);
+
+		long[] gcStart = gcSnapshot();
+		int ticks = seconds * WorldConfig.TICK_RATE;
+		long wallStart = System.nanoTime();
+		for (int i = 0; i < ticks; i++) {
+			for (int b = 0; b < bots.size(); b++) bots.get(b).tick(dt);
+			next = sleepUntil(next + tickNanos);
+		}
+		long[] gcEnd = gcSnapshot();
+
+		result.ticks = ticks;
+		result.simSeconds = (System.nanoTime() - wallStart) / 1e9f;
+		result.readyClients = countReady(bots);
+		result.gcCount = gcEnd[0] - gcStart[0];
+		result.gcMillis = gcEnd[1] - gcStart[1];
+		long down = 0;
+		for (int b = 0; b < bots.size(); b++) {
+			LanPeerStats peer = bots.get(b).getLanService().getNetStats().getPeer(LanNetStats.HOST_PEER);
+			if (peer != null) down += peer.getRecvBytes();
+		}
+		result.downBytesPerClient = down / result.simSeconds / clients;
+		collectClientStats(result, bots);
+
+		for (int b = 0; b < bots.size(); b++) bots.get(b).stop();
+		return result;
+	}
+
+	// ============ 公共 ============
+
+	private List<BotClient> createBots(int clients, LanTransport transport, String host, int port) {
+		List<BotClient> bots = new ArrayList<>(clients);
+		for (int i = 0; i < clients; i++) {
+			BotClient bot = new BotClient(i + 1, transport, seed * 31 + i);
+			bot.join(host, port);
+			bots.add(bot);
+		}
+		DLog.logT(TAG, "已启动 %d 个机器人 -> %s:%d", clients, host, port);
+		return bots;
+	}
+
+	/** 上行字节、输入往返延迟与收到的伤害结果（机器人侧） */
+	private static void collectClientStats(LoadTestResult result, List<BotClient> bots) {
+		long up = 0;
+		for (int b = 0; b < bots.size(); b++) {
+			BotClient bot = bots.get(b);
+			LanPeerStats peer = bot.getLanService().getNetStats().getPeer(LanNetStats.HOST_PEER);
+			if (peer != null) {
+				up += peer.getSentBytes();
+				result.inputRttMicros.addAll(peer.getRttHistogram());
+			}
+			result.damageResults += bot.getDamageResults();
+		}
+		result.upBytesPerClient = up / result.simSeconds / bots.size();
+	}
+
+	private static void resetStats(LanMultiplayerService host, List<BotClient> bots) {
+		if (host != null) host.getNetStats().reset();
+		for (int b = 0; b < bots.size(); b++) bots.get(b).getLanService().getNetStats().reset();
+	}
+
+	private static int countReady(List<BotClient> bots) {
+		int n = 0;
+		for (int b = 0; b < bots.size(); b++) if (bots.get(b).isReady()) n++;
+		return n;
+	}
+
+	/** [累计 GC 次数, 累计 GC 毫秒]（所有收集器之和） */
+	private static long[] gcSnapshot() {
+		long count = 0, millis = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(0, gc.getCollectionCount());
+			millis += Math.max(0, gc.getCollectionTime());
+		}
+		return new long[]{count, millis};
+	}
+
+	private static long allocatedBytes(ThreadMXBean threads) {
+		return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static long sleepUntil(long deadline) {
+		long wait = deadline - System.nanoTime();
+		if (wait > 0) {
+			try {
+				Thread.sleep(wait / 1_000_000L, (int) (wait % 1_000_000L));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		return deadline;
+	}
+}
@@ -0,0 +1,88 @@
+package com.goldsprite.magicdungeon2.server;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.concurrent.locks.LockSupport;
+
+import com.goldsprite.gdengine.log.DLog;
+import com.goldsprite.magicdungeon2.core.world.FixedTickClock;
+
+/**
+ * 单个房间的模拟线程：按固定步长推进该房间，房间之间互不等待，吞吐随核数扩展
+ * <p>
+ * 与渲染线程上的驱动方式一致，由 {@link FixedTickClock} 把实际经过的时间切成整数个 tick，
+ * 两次推进之间按剩余时间休眠。房间 tick 抛出异常时只停止该房间，不影响其他房间。
+ */
+public class RoomSimThread extends Thread {
+	private static final String TAG = "SERVER";
+
+	private final DedicatedRoom room;
+	private final FixedTickClock clock;
+	private volatile boolean running = true;
+	private volatile long ticks;
+	private volatile long busyNanos;
+
+	public RoomSimThread(DedicatedRoom room, int tickRate) {
+		super("room-sim-" + room.getName());
+		this.room = room;
+		this.clock = new FixedTickClock(tickRate);
+		setDaemon(true);
+	}
+
+	@Override
+	public void run() {
+		long stepNanos = Math.round(clock.getStepSeconds() * 1e9);
+		long last = System.nanoTime();
+		while (running) {
+			long now = System.nanoTime();
+			int steps = clock.advance((now - last) / 1e9f);
+			last = now;
+			float dt = clock.getStepSeconds();
+			try {
+				for (int s = 0; s < steps && running; s++) {
+					room.tick(dt);
+					ticks++;
+				}
+			} catch (RuntimeException e) {
+				DLog.logT(TAG, "[%s] 模拟异常，房间停止: %s", room.getName(), stackTraceOf(e));
+				room.stop();
+				return;
+			}
+			long spent = System.nanoTime() - now;
+			busyNanos += spent;
+			long sleep = (long) ((1f - clock.getAlpha()) * stepNanos) - spent;
+			if (sleep > 0) LockSupport.parkNanos(sleep);
+		}
+	}
+
+	/** 请求停止并等待线程退出（最多 timeoutMillis） */
+	public void shutdown(long timeoutMillis) {
+		running = false;
+		LockSupport.unpark(this);
+		try {
+			join(timeoutMillis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static String stackTraceOf(Throwable e) {
+		StringWriter out = new StringWriter();
+		e.printStackTrace(new PrintWriter(out));
+		return out.toString();
+	}
+
+	public DedicatedRoom getRoom() {
+		return room;
+	}
+
+	/** 已推进的 tick 数 */
+	public long getTicks() {
+		return ticks;
+	}
+
+	/** 累计忙碌时间（纳秒）：除以运行时长即该房间占用的单核比例 */
+	public long getBusyNanos() {
+		return busyNanos;
+	}
+}
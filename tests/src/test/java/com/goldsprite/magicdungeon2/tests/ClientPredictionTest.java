@@ -0,0 +1,245 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.InputHistory;
+import com.goldsprite.magicdungeon2.core.world.PlayerInput;
+import com.goldsprite.magicdungeon2.core.world.RemoteActor;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.core.world.WorldEvent;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputRequestPacket;
+
+/**
+ * 客户端预测与服务器校正单元测试。
+ * <p>
+ * 以一个 DEDICATED 世界作房主、一个 REPLICA 世界作客户端，
+ * 中间用固定 tick 延迟的队列模拟网络往返，验证：
+ * 无冲突时预测与权威一致、权威端阻挡时客户端被校正、
+ * 冗余重发去重、远程输入队列满时留待重发、房主停顿超过冗余条数后输入按序补齐、
+ * 客户端不再持有的缺口被跳过、输入驱动后不再采信上报坐标、攻击从权威坐标结算。
+ */
+public class ClientPredictionTest {
+
+    private static final float DT = WorldConfig.TICK_DT;
+
+    /** 房主 + 客户端 + 单向延迟 latency 个 tick 的模拟链路 */
+    private static class Link {
+        final GameWorld host = new GameWorld(GameWorld.Role.DEDICATED, 5L, new Random(5));
+        final GameWorld client = new GameWorld(GameWorld.Role.REPLICA, 5L, new Random(5));
+        final ArrayDeque<int[]> toHost = new ArrayDeque<>();   // {到达tick, seq, dx, dy, magic}
+        final ArrayDeque<int[]> toClient = new ArrayDeque<>(); // {到达tick, ackSeq, x, y, faceDx, faceDy}
+        final ArrayDeque<Float> ackTimers = new ArrayDeque<>();
+        final int latency;
+        int now;
+        int corrections;
+
+        Link(int latency) {
+            this.latency = latency;
+            WorldFixtures.clearInterior(host);
+            WorldFixtures.clearInterior(client);
+            host.getEnemies().clear();
+            GameEntity p = client.getPlayer();
+            host.updateRemoteActor(WorldFixtures.GUID, p.x, p.y, 100, 5);
+            host.setRemoteCombatStats(WorldFixtures.GUID, 10, p.getMoveCooldown(), p.getAttackCooldown());
+        }
+
+        void step(int dx, int dy) {
+            now++;
+            PlayerInput in = new PlayerInput().set(dx, dy, false, false);
+            client.tick(DT, in);
+            client.drainEvents(e -> {});
+            // 客户端发送最近未确认的输入（带冗余）
+            InputHistory h = client.getInputHistory();
+            for (int i = Math.max(0, h.size() - 4); i < h.size(); i++) {
+                PlayerInput c = h.get(i);
+                toHost.add(new int[]{now + latency, c.seq, c.dx, c.dy, c.magic ? 1 : 0});
+            }
+            while (!toHost.isEmpty() && toHost.peek()[0] <= now) {
+                int[] c = toHost.poll();
+                host.queueRemoteInput(WorldFixtures.GUID, c[1], c[2], c[3], c[4] != 0);
+            }
+            host.tick(DT, null);
+            host.drainEvents(e -> {});
+            RemoteActor ra = host.getRemoteActor(WorldFixtures.GUID);
+            if (ra.consumeAckPending()) {
+                toClient.add(new int[]{now + latency, ra.lastProcessedSeq, ra.x, ra.y, ra.faceDx, ra.faceDy});
+                ackTimers.add(ra.moveTimer);
+            }
+            while (!toClient.isEmpty() && toClient.peek()[0] <= now) {
+                int[] a = toClient.poll();
+                float timer = ackTimers.poll();
+                if (client.reconcile(a[1], a[2], a[3], timer, a[4], a[5])) corrections++;
+            }
+        }
+    }
+
+    @Test
+    public void 测试_无冲突时预测与权威一致() {
+        Link link = new Link(4);
+        int[][] path = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+        for (int t = 0; t < 300; t++) {
+            int[] d = path[(t / 40) % 4];
+            link.step(d[0], d[1]);
+        }
+        for (int t = 0; t < 20; t++) link.step(0, 0); // 等待回执追平
+
+        RemoteActor ra = link.host.getRemoteActor(WorldFixtures.GUID);
+        GameEntity p = link.client.getPlayer();
+        CLogAssert.assertEquals("无校正", 0, link.corrections);
+        CLogAssert.assertEquals("X 与权威一致", ra.x, p.x);
+        CLogAssert.assertEquals("Y 与权威一致", ra.y, p.y);
+        CLogAssert.assertTrue("未确认输入不超过一个往返", link.client.getInputHistory().size() <= 2 * link.latency + 1);
+    }
+
+    @Test
+    public void 测试_权威端阻挡时客户端被校正() {
+        Link link = new Link(3);
+        GameEntity p = link.client.getPlayer();
+        int startX = p.x;
+        // 房主地图上有客户端不知道的墙
+        link.host.getMap()[p.y][startX + 2] = WorldConfig.T_WALL;
+
+        for (int t = 0; t < 60; t++) link.step(1, 0);
+        for (int t = 0; t < 20; t++) link.step(0, 0);
+
+        CLogAssert.assertTrue("发生校正", link.corrections > 0);
+        CLogAssert.assertEquals("停在墙前", startX + 1, p.x);
+        CLogAssert.assertEquals("与权威一致", link.host.getRemoteActor(WorldFixtures.GUID).x, p.x);
+    }
+
+    @Test
+    public void 测试_冗余输入去重且不再采信上报坐标() {
+        GameWorld host = new GameWorld(GameWorld.Role.DEDICATED, 1L, new Random(1));
+        WorldFixtures.clearInterior(host);
+        host.getEnemies().clear();
+        host.updateRemoteActor(WorldFixtures.GUID, 4, 4, 100, 5);
+
+        CLogAssert.assertTrue("首条入队", host.queueRemoteInput(WorldFixtures.GUID, 1, 1, 0, false));
+        CLogAssert.assertFalse("重复序号忽略", host.queueRemoteInput(WorldFixtures.GUID, 1, 1, 0, false));
+        CLogAssert.assertFalse("未知玩家忽略", host.queueRemoteInput(99, 1, 1, 0, false));
+        host.tick(DT, null);
+
+        RemoteActor ra = host.getRemoteActor(WorldFixtures.GUID);
+        CLogAssert.assertEquals("按输入移动", 5, ra.x);
+        CLogAssert.assertEquals("回执序号", 1, ra.lastProcessedSeq);
+
+        host.updateRemoteActor(WorldFixtures.GUID, 12, 12, 100, 5);
+        CLogAssert.assertEquals("输入驱动后忽略上报X", 5, ra.x);
+        CLogAssert.assertEquals("输入驱动后忽略上报Y", 4, ra.y);
+    }
+
+    @Test
+    public void 测试_远程输入队列满时留待重发() {
+        GameWorld host = new GameWorld(GameWorld.Role.DEDICATED, 1L, new Random(1));
+        WorldFixtures.clearInterior(host);
+        host.getEnemies().clear();
+        host.updateRemoteActor(WorldFixtures.GUID, 4, 4, 100, 5);
+
+        int cap = WorldConfig.REMOTE_INPUT_CAPACITY;
+        for (int seq = 1; seq <= cap; seq++) {
+            CLogAssert.assertTrue("容量内入队", host.queueRemoteInput(WorldFixtures.GUID, seq, 0, 0, false));
+        }
+        CLogAssert.assertFalse("队列满时拒绝", host.queueRemoteInput(WorldFixtures.GUID, cap + 1, 0, 0, false));
+        host.tick(DT, null);
+        RemoteActor ra = host.getRemoteActor(WorldFixtures.GUID);
+        CLogAssert.assertTrue("处理了最旧的命令", ra.lastProcessedSeq >= 1);
+        CLogAssert.assertTrue("冗余重发的命令随后入队", host.queueRemoteInput(WorldFixtures.GUID, cap + 1, 0, 0, false));
+        for (int i = 0; i < cap * 2; i++) host.tick(DT, null);
+        CLogAssert.assertEquals("全部按序处理", cap + 1, ra.lastProcessedSeq);
+    }
+
+    @Test
+    public void 测试_房主停顿超过冗余条数后输入按序补齐() {
+        GameWorld host = new GameWorld(GameWorld.Role.DEDICATED, 1L, new Random(1));
+        WorldFixtures.clearInterior(host);
+        host.getEnemies().clear();
+        host.updateRemoteActor(WorldFixtures.GUID, 4, 4, 100, 5);
+        RemoteActor ra = host.getRemoteActor(WorldFixtures.GUID);
+        int cap = WorldConfig.REMOTE_INPUT_CAPACITY;
+
+        // 客户端每 tick 产生一条输入，按回执的已入队序号之后的窗口重发；房主停顿期间没有回执
+        int newest = 0;
+        int ackedQueued = 0;
+        for (int t = 0; t < cap + 20; t++) {
+            newest++;
+            for (int seq = ackedQueued + 1; seq <= Math.min(newest, ackedQueued + cap); seq++) {
+                host.queueRemoteInput(WorldFixtures.GUID, seq, 0, 0, false);
+            }
+        }
+        CLogAssert.assertEquals("停顿期间队列已满", cap, ra.lastQueuedSeq);
+        CLogAssert.assertTrue("缺口超过旧冗余条数 8", newest - ra.lastQueuedSeq > 8);
+        CLogAssert.assertFalse("有缺口的序号不入队", host.queueRemoteInput(WorldFixtures.GUID, newest, 0, 0, false));
+
+        for (int t = 0; t < cap * 4 && ra.lastProcessedSeq < newest; t++) {
+            host.tick(DT, null);
+            if (ra.consumeAckPending()) ackedQueued = ra.lastQueuedSeq;
+            if (t < 10) newest++;
+            for (int seq = ackedQueued + 1; seq <= Math.min(newest, ackedQueued + cap); seq++) {
+                host.queueRemoteInput(WorldFixtures.GUID, seq, 0, 0, false);
+            }
+        }
+        CLogAssert.assertEquals("全部输入都被处理", newest, ra.lastProcessedSeq);
+        CLogAssert.assertEquals("没有跳过的输入", 0, host.getSkippedRemoteInputs());
+    }
+
+    @Test
+    public void 测试_客户端不再持有的缺口被跳过() {
+        GameWorld host = new GameWorld(GameWorld.Role.DEDICATED, 1L, new Random(1));
+        WorldFixtures.clearInterior(host);
+        host.getEnemies().clear();
+        host.updateRemoteActor(WorldFixtures.GUID, 4, 4, 100, 5);
+        CLogAssert.assertTrue("首条入队", host.queueRemoteInput(WorldFixtures.GUID, 1, 0, 0, false));
+
+        CLogAssert.assertEquals("窗口紧接已入队序号时不跳过", 0, host.skipRemoteInputsBefore(WorldFixtures.GUID, 2));
+        CLogAssert.assertEquals("窗口起点之前的缺口被跳过", 8, host.skipRemoteInputsBefore(WorldFixtures.GUID, 10));
+        CLogAssert.assertTrue("之后按窗口起点继续入队", host.queueRemoteInput(WorldFixtures.GUID, 10, 1, 0, false));
+        CLogAssert.assertEquals("跳过计数", 8, host.getSkippedRemoteInputs());
+    }
+
+    @Test
+    public void 测试_远程攻击从权威坐标结算() {
+        GameWorld host = new GameWorld(GameWorld.Role.DEDICATED, 2L, new Random(2));
+        WorldFixtures.clearInterior(host);
+        host.getEnemies().removeIf(e -> !"slime".equals(e.texName));
+        GameEntity slime = host.getEnemies().get(0);
+        slime.x = 6;
+        slime.y = 4;
+        slime.moveTimer = 1000f;
+        host.updateRemoteActor(WorldFixtures.GUID, 5, 4, 100, 5);
+        host.setRemoteCombatStats(WorldFixtures.GUID, 8, 0.2f, 0.2f);
+        host.queueRemoteInput(WorldFixtures.GUID, 1, 1, 0, false);
+        // 客户端事后谎报坐标不影响判定
+        host.updateRemoteActor(WorldFixtures.GUID, 1, 1, 100, 5);
+        host.tick(DT, null);
+
+        WorldEvent hit = null;
+        List<WorldEvent> list = new ArrayList<>();
+        host.drainEvents(list::add);
+        for (WorldEvent e : list) if (e.type == WorldEvent.Type.ENEMY_DAMAGED) hit = e;
+        CLogAssert.assertTrue("命中史莱姆", hit != null && hit.entity == slime);
+        CLogAssert.assertEquals("攻击者 guid", WorldFixtures.GUID, hit.guid);
+        CLogAssert.assertEquals("攻击不移动", 5, host.getRemoteActor(WorldFixtures.GUID).x);
+    }
+
+    @Test
+    public void 测试_输入编码往返() {
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int m = 0; m < 2; m++) {
+                    byte c = LanPlayerInputRequestPacket.encode(dx, dy, m == 1);
+                    CLogAssert.assertEquals("dx", dx, LanPlayerInputRequestPacket.decodeDx(c));
+                    CLogAssert.assertEquals("dy", dy, LanPlayerInputRequestPacket.decodeDy(c));
+                    CLogAssert.assertEquals("magic", m == 1, LanPlayerInputRequestPacket.decodeMagic(c));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyDeltaBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.replication.EnemyDeltaCodec;
+import com.goldsprite.magicdungeon2.network.lan.replication.EnemyDeltaReceiver;
+import com.goldsprite.magicdungeon2.network.lan.replication.EnemyReplicator;
+
+/**
+ * 敌人增量同步单元测试。
+ * <p>
+ * 验证：关键帧/增量还原结果与房主一致、静止不发包、丢包后仍能收敛、基线丢失等待关键帧、
+ * 历史槽位循环复用后结果仍一致、按客户端最短间隔节流、远处敌人降频后仍收敛、
+ * 带宽预算按优先级取舍且被推迟的敌人终会发出；乱序迟到的旧关键帧不回退状态，房主重置后的关键帧仍被接受，
+ * 会话中途重建复制记录后旧纪元的确认与迟到包不会混入新基线。
+ */
+public class EnemyDeltaReplicationTest {
+
+    private static List<EnemyStateSnapshot> floor() {
+        List<EnemyStateSnapshot> list = new ArrayList<>();
+        list.add(new EnemyStateSnapshot(1, "slime", 2, 2, 64, 64, 20, 20, true, "idle", 0));
+        list.add(new EnemyStateSnapshot(2, "skeleton", 6, 6, 192, 192, 35, 35, true, "idle", 0));
+        list.add(new EnemyStateSnapshot(3, "bat", 2, 6, 64, 192, 15, 15, true, "idle", 0));
+        return list;
+    }
+
+    private static boolean sameList(List<EnemyStateSnapshot> a, List<EnemyStateSnapshot> b) {
+        if (a == null || a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!EnemyDeltaCodec.sameState(a.get(i), b.get(i))) return false;
+        }
+        return true;
+    }
+
+    @Test
+    public void 测试_首包为关键帧且还原一致() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+
+        LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1000);
+        CLogAssert.assertTrue("首包是关键帧", p.isKeyframe());
+        CLogAssert.assertTrue("关键帧还原一致", sameList(client.apply(p), states));
+    }
+
+    @Test
+    public void 测试_确认后只发送变化字段() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        client.apply(host.buildFor(WorldFixtures.GUID, states, 1000));
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+
+        states.get(1).setVisualX(200);
+        LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1016);
+        CLogAssert.assertFalse("第二包是增量", p.isKeyframe());
+        CLogAssert.assertEquals("只有1个敌人变化", 1, p.getChanged().size());
+        CLogAssert.assertEquals("只带 visualX", 200f, p.getChanged().get(0).getVisualX());
+        CLogAssert.assertTrue("未变化字段为空", p.getChanged().get(0).getX() == null && p.getChanged().get(0).getHp() == null);
+        CLogAssert.assertTrue("增量还原一致", sameList(client.apply(p), states));
+    }
+
+    @Test
+    public void 测试_静止且已确认时不发包() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        client.apply(host.buildFor(WorldFixtures.GUID, states, 1000));
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+
+        CLogAssert.assertTrue("无变化返回 null", host.buildFor(WorldFixtures.GUID, states, 1016) == null);
+        CLogAssert.assertTrue("关键帧周期到达时仍发送", host.buildFor(WorldFixtures.GUID, states, 1000 + host.getKeyframeIntervalMs()) != null);
+    }
+
+    @Test
+    public void 测试_丢包后仍然收敛() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        client.apply(host.buildFor(WorldFixtures.GUID, states, 1000));
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+
+        // 连续 5 包全部丢失，变化累积在后续增量中
+        for (int i = 1; i <= 5; i++) {
+            states.get(0).setX(2 + i);
+            states.get(0).setHp(20 - i);
+            host.buildFor(WorldFixtures.GUID, states, 1000 + i * 16);
+        }
+        states.remove(2); // 蝙蝠被击杀移除
+        LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1100);
+        CLogAssert.assertEquals("移除列表包含蝙蝠", 3, p.getRemoved()[0]);
+        CLogAssert.assertTrue("丢包后还原一致", sameList(client.apply(p), states));
+    }
+
+    @Test
+    public void 测试_基线丢失时等待关键帧() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        LanEnemyDeltaBroadcastPacket lost = host.buildFor(WorldFixtures.GUID, states, 1000);  // 关键帧丢失
+        host.onAck(WorldFixtures.GUID, lost.getEpoch(), 0);  // 伪造确认（例如客户端重启后残留的旧确认）
+
+        states.get(0).setY(3);
+        LanEnemyDeltaBroadcastPacket delta = host.buildFor(WorldFixtures.GUID, states, 1016);
+        CLogAssert.assertTrue("缺少基线的增量被丢弃", client.apply(delta) == null);
+
+        LanEnemyDeltaBroadcastPacket key = host.buildFor(WorldFixtures.GUID, states, 1000 + host.getKeyframeIntervalMs());
+        CLogAssert.assertTrue("周期关键帧", key.isKeyframe());
+        CLogAssert.assertTrue("关键帧恢复一致", sameList(client.apply(key), states));
+    }
+
+    @Test
+    public void 测试_乱序迟到的旧关键帧被丢弃() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        LanEnemyDeltaBroadcastPacket old = host.buildFor(WorldFixtures.GUID, states, 1000);   // 在链路上被后发的包超过
+        states.get(0).setX(5);
+        LanEnemyDeltaBroadcastPacket key = host.buildFor(WorldFixtures.GUID, states, 1000 + host.getKeyframeIntervalMs());
+        CLogAssert.assertTrue("两个都是关键帧", old.isKeyframe() && key.isKeyframe());
+
+        CLogAssert.assertTrue("新关键帧还原一致", sameList(client.apply(key), states));
+        CLogAssert.assertTrue("旧关键帧被丢弃", client.apply(old) == null);
+        CLogAssert.assertEquals("序号不回退", key.getSeq(), client.getLastAppliedSeq());
+    }
+
+    @Test
+    public void 测试_房主重置后序号从头开始的关键帧仍被接受() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        long now = 1000;
+        while (client.getLastAppliedSeq() < EnemyReplicator.HISTORY_SIZE) {
+            client.apply(host.buildFor(WorldFixtures.GUID, states, now));
+            now += host.getKeyframeIntervalMs();
+        }
+
+        EnemyReplicator restarted = new EnemyReplicator();
+        states.get(1).setHp(1);
+        LanEnemyDeltaBroadcastPacket key = restarted.buildFor(WorldFixtures.GUID, states, now);
+        CLogAssert.assertEquals("新会话从 0 开始", 0, key.getSeq());
+        CLogAssert.assertTrue("重置后的关键帧被接受", sameList(client.apply(key), states));
+    }
+
+    @Test
+    public void 测试_会话中途重置复制记录后不混用旧基线() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        long now = 1000;
+        for (int t = 0; t < 10; t++) {
+            states.get(0).setX(2 + t % 5);
+            client.apply(host.buildFor(WorldFixtures.GUID, states, now));
+            host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+            now += 33;
+        }
+        int oldEpoch = client.getEpoch();
+        int oldSeq = client.getLastAppliedSeq();
+        states.get(2).setHp(3);
+        LanEnemyDeltaBroadcastPacket stale = host.buildFor(WorldFixtures.GUID, states, now); // 重置前发出、迟到的包
+
+        // 房主重建该客户端的记录（例如断线清理后重新加入），序号从 0 开始，仍在旧序号的历史窗口内
+        host.clear();
+        LanEnemyDeltaBroadcastPacket key = host.buildFor(WorldFixtures.GUID, states, now);
+        CLogAssert.assertTrue("新纪元关键帧", key.isKeyframe() && key.getSeq() < oldSeq);
+        CLogAssert.assertTrue("纪元改变", key.getEpoch() != oldEpoch);
+        CLogAssert.assertTrue("新纪元关键帧被接受", sameList(client.apply(key), states));
+        CLogAssert.assertEquals("接收端切到新纪元", key.getEpoch(), client.getEpoch());
+        CLogAssert.assertTrue("旧纪元迟到的包被丢弃", client.apply(stale) == null);
+
+        // 新记录的序号追上旧确认序号后，旧纪元的确认仍不被采纳
+        for (int t = 0; t <= oldSeq; t++) {
+            now += 33;
+            states.get(1).setY(2 + t % 4);
+            host.onAck(WorldFixtures.GUID, oldEpoch, oldSeq);
+            LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, now);
+            CLogAssert.assertTrue("未确认新纪元前只发关键帧", p.isKeyframe());
+            client.apply(p);
+        }
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+        states.get(0).setY(5);
+        LanEnemyDeltaBroadcastPacket delta = host.buildFor(WorldFixtures.GUID, states, now + 33);
+        CLogAssert.assertFalse("确认新纪元后恢复增量", delta.isKeyframe());
+        CLogAssert.assertTrue("增量还原一致", sameList(client.apply(delta), states));
+    }
+
+    @Test
+    public void 测试_历史槽位循环复用后仍一致() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        List<EnemyStateSnapshot> last = null;
+        // 超过历史窗口长度，且每隔一包丢失、确认滞后，覆盖槽位复用路径
+        for (int t = 0; t < EnemyReplicator.HISTORY_SIZE * 2 + 5; t++) {
+            states.get(t % 3).setX(2 + t % 7);
+            states.get((t + 1) % 3).setHp(10 + t % 5);
+            LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1000 + t * 16);
+            if (p == null || t % 2 == 1) continue;
+            List<EnemyStateSnapshot> out = client.apply(p);
+            if (out != null) last = out;
+            host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+        }
+        LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 99999);
+        if (p != null) last = client.apply(p);
+        CLogAssert.assertTrue("最终还原一致", sameList(last, states));
+    }
+
+    @Test
+    public void 测试_未到最短间隔不发送() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        client.apply(host.buildFor(WorldFixtures.GUID, states, 1000, 100));
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+
+        states.get(0).setVisualX(70);
+        CLogAssert.assertTrue("间隔内有变化也不发", host.buildFor(WorldFixtures.GUID, states, 1050, 100) == null);
+        LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1100, 100);
+        CLogAssert.assertTrue("到达间隔后发送", p != null);
+        CLogAssert.assertTrue("还原一致", sameList(client.apply(p), states));
+    }
+
+    @Test
+    public void 测试_远处敌人降频且最终一致() {
+        EnemyReplicator host = new EnemyReplicator();
+        host.setFarDistance(3);
+        host.setFarDivisor(4);
+        host.setFocus(WorldFixtures.GUID, 2, 2); // 敌人 2 在 (6,6)，距离 4 > 3
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        List<EnemyStateSnapshot> states = floor();
+        client.apply(host.buildFor(WorldFixtures.GUID, states, 1000));
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+
+        int farSent = 0, nearSent = 0;
+        List<EnemyStateSnapshot> last = null;
+        for (int i = 1; i <= 8; i++) {
+            states.get(0).setVisualX(64 + i);   // 近处
+            states.get(1).setVisualX(192 + i);  // 远处
+            LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1000 + i * 33L);
+            if (p == null) continue;
+            if (p.getChanged() != null) {
+                for (int k = 0; k < p.getChanged().size(); k++) {
+                    if (p.getChanged().get(k).getEnemyId() == 1) nearSent++;
+                    if (p.getChanged().get(k).getEnemyId() == 2) farSent++;
+                }
+            }
+            List<EnemyStateSnapshot> applied = client.apply(p);
+            if (applied != null) last = applied;
+            host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+        }
+        CLogAssert.assertEquals("近处每次都发", 8, nearSent);
+        CLogAssert.assertEquals("远处每 4 次发一次", 2, farSent);
+        // 停止变化后，至多 farDivisor 轮内远处敌人追上
+        for (int i = 9; i <= 12; i++) {
+            LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1000 + i * 33L);
+            if (p == null) continue;
+            List<EnemyStateSnapshot> applied = client.apply(p);
+            if (applied != null) last = applied;
+            host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+        }
+        CLogAssert.assertEquals("远处最终追上", 192f + 8, last.get(1).getVisualX(), 0f);
+        CLogAssert.assertTrue("整体一致", sameList(last, states));
+    }
+
+    @Test
+    public void 测试_带宽预算按优先级取舍且最终一致() {
+        EnemyReplicator host = new EnemyReplicator();
+        EnemyDeltaReceiver client = new EnemyDeltaReceiver();
+        host.setFarDivisor(1); // 只看预算的效果
+        host.setFocus(WorldFixtures.GUID, 0, 1);
+        List<EnemyStateSnapshot> states = new ArrayList<>();
+        for (int id = 1; id <= 8; id++) {
+            states.add(new EnemyStateSnapshot(id, "slime", id, 1, id * 32, 32, 20, 20, true, "idle", 0));
+        }
+        List<EnemyStateSnapshot> last = client.apply(host.buildFor(WorldFixtures.GUID, states, 1000, 0, 0));
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+
+        int budget = LanEnemyDeltaBroadcastPacket.HEADER_SIZE + 20; // 约能放下 3 个只变了 visualX 的敌人
+        states.get(7).withAggro(WorldFixtures.GUID); // 最远的 8 号正在追踪该玩家
+        for (EnemyStateSnapshot s : states) s.setVisualX(s.getVisualX() + 1);
+        LanEnemyDeltaBroadcastPacket p = host.buildFor(WorldFixtures.GUID, states, 1016, 0, budget);
+        List<Integer> ids = new ArrayList<>();
+        for (int k = 0; k < p.getChanged().size(); k++) ids.add(p.getChanged().get(k).getEnemyId());
+        CLogAssert.assertTrue("超出预算的变化被推迟", ids.size() < states.size() && host.getDeferredCount() > 0);
+        CLogAssert.assertTrue("最近的敌人优先", ids.contains(1));
+        CLogAssert.assertTrue("追踪该玩家的敌人优先", ids.contains(8));
+        last = client.apply(p);
+        host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+
+        // 近处 3 个持续变化，远处的只变过一次：累积优先级保证远处的也能轮到
+        boolean farSent = false;
+        for (int i = 2; i <= 12; i++) {
+            for (int k = 0; k < 3; k++) states.get(k).setVisualX(states.get(k).getVisualX() + 1);
+            p = host.buildFor(WorldFixtures.GUID, states, 1000 + i * 16L, 0, budget);
+            if (p == null) continue;
+            for (int k = 0; p.getChanged() != null && k < p.getChanged().size(); k++) {
+                if (p.getChanged().get(k).getEnemyId() == 6) farSent = true;
+            }
+            List<EnemyStateSnapshot> applied = client.apply(p);
+            if (applied != null) last = applied;
+            host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+        }
+        CLogAssert.assertTrue("远处敌人不会一直被挤掉", farSent);
+
+        for (int i = 13; i <= 20; i++) {
+            p = host.buildFor(WorldFixtures.GUID, states, 1000 + i * 16L, 0, budget);
+            if (p == null) continue;
+            List<EnemyStateSnapshot> applied = client.apply(p);
+            if (applied != null) last = applied;
+            host.onAck(WorldFixtures.GUID, client.getEpoch(), client.getLastAppliedSeq());
+        }
+        CLogAssert.assertTrue("停止变化后全部追上", sameList(last, states));
+    }
+}
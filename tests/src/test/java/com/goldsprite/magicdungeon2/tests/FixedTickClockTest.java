@@ -0,0 +1,89 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.core.world.FixedTickClock;
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.PlayerInput;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+
+/**
+ * 固定步长时钟单元测试。
+ * <p>
+ * 验证：累加器切分 tick 数与插值系数、卡顿时的追赶上限、
+ * 不同渲染帧率下世界模拟结果一致、实体 tick 间插值坐标。
+ */
+public class FixedTickClockTest {
+
+    @Test
+    public void 测试_累加器按固定步长切分() {
+        FixedTickClock clock = new FixedTickClock(30);
+        CLogAssert.assertEquals("不足一步不推进", 0, clock.advance(0.02f));
+        CLogAssert.assertEquals("插值系数 = 余量/步长", 0.6f, clock.getAlpha(), 0.001f);
+        CLogAssert.assertEquals("累计满一步后推进", 1, clock.advance(0.02f));
+        CLogAssert.assertEquals("余量保留", 0.2f, clock.getAlpha(), 0.001f);
+        CLogAssert.assertEquals("一帧可推进多步", 3, clock.advance(0.1f));
+    }
+
+    @Test
+    public void 测试_卡顿时限制追赶步数() {
+        FixedTickClock clock = new FixedTickClock(60, 4);
+        CLogAssert.assertEquals("单帧最多追赶4步", 4, clock.advance(2f));
+        CLogAssert.assertTrue("积压已丢弃，只剩不足一步", clock.getAlpha() < 1f);
+        CLogAssert.assertTrue("下一帧不再追赶积压", clock.advance(1f / 60f) <= 1);
+    }
+
+    @Test
+    public void 测试_不同帧率模拟结果一致() {
+        GameWorld slow = new GameWorld(GameWorld.Role.AUTHORITY, 777L, new Random(9));
+        GameWorld fast = new GameWorld(GameWorld.Role.AUTHORITY, 777L, new Random(9));
+        runFrames(slow, 1f / 24f, 240);   // 10 秒 @24fps
+        runFrames(fast, 1f / 144f, 1440); // 10 秒 @144fps
+
+        CLogAssert.assertEquals("tick 数一致", slow.getTickCount(), fast.getTickCount());
+        CLogAssert.assertEquals("玩家X一致", slow.getPlayer().x, fast.getPlayer().x);
+        CLogAssert.assertEquals("玩家Y一致", slow.getPlayer().y, fast.getPlayer().y);
+        CLogAssert.assertEquals("玩家HP一致", slow.getPlayer().hp, fast.getPlayer().hp, 0f);
+        CLogAssert.assertEquals("敌人数一致", slow.getEnemies().size(), fast.getEnemies().size());
+        for (int i = 0; i < slow.getEnemies().size(); i++) {
+            GameEntity a = slow.getEnemies().get(i), b = fast.getEnemies().get(i);
+            CLogAssert.assertTrue("敌人" + i + "位置一致", a.x == b.x && a.y == b.y);
+        }
+    }
+
+    @Test
+    public void 测试_实体在两个tick之间插值() {
+        GameEntity e = new GameEntity(2, 2, "slime", 20, 0, 0, 0.5f, 0, null);
+        e.snapshotDrawPos();
+        e.x = 3; // 逻辑坐标前进一格，视觉坐标在本 tick 追赶
+        e.updateVisuals(WorldConfig.TICK_DT);
+        float start = 2 * WorldConfig.TILE;
+        CLogAssert.assertEquals("alpha=0 为上一 tick", start, e.getDrawX(0f), 0.001f);
+        CLogAssert.assertEquals("alpha=1 为当前 tick", e.visualX, e.getDrawX(1f), 0.001f);
+        CLogAssert.assertEquals("alpha=0.5 取中点", (start + e.visualX) * 0.5f, e.getDrawX(0.5f), 0.001f);
+
+        e.placeAt(5, 5);
+        CLogAssert.assertEquals("瞬移不产生插值拖影", 5f * WorldConfig.TILE, e.getDrawX(0f), 0.001f);
+    }
+
+    /** 以给定帧时间驱动世界：输入每帧读取，由时钟切分为固定 tick */
+    private static void runFrames(GameWorld world, float frameDelta, int frames) {
+        FixedTickClock clock = new FixedTickClock(WorldConfig.TICK_RATE);
+        PlayerInput in = new PlayerInput();
+        int[][] dirs = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+        for (int f = 0; f < frames; f++) {
+            int steps = clock.advance(frameDelta);
+            for (int s = 0; s < steps; s++) {
+                // 输入按 tick 号决定，保证两种帧率喂入相同的输入序列
+                int[] d = dirs[(int) (world.getTickCount() / 45) % 4];
+                in.set(d[0], d[1], world.getTickCount() % 75 == 0, true);
+                world.tick(WorldConfig.TICK_DT, in);
+                world.drainEvents(e -> {});
+            }
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.core.combat.DamageType;
+import com.goldsprite.magicdungeon2.core.combat.WeaponRange;
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.PlayerInput;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.core.world.WorldEvent;
+
+/**
+ * GameWorld 无头模拟单元测试。
+ * <p>
+ * 验证：同种子同输入完全复现、本地击杀事件与奖励、客户端攻击转请求、
+ * 无头服务器远程玩家换层、敌人攻击远程玩家。
+ */
+public class GameWorldTest {
+
+    private static final float DT = 1f / 60f;
+
+    /** 只保留指定敌人，并冻结其行动 */
+    private static GameEntity keepOnly(GameWorld world, String texName, int x, int y, boolean freeze) {
+        world.getEnemies().removeIf(e -> !texName.equals(e.texName));
+        GameEntity e = world.getEnemies().get(0);
+        e.x = x;
+        e.y = y;
+        if (freeze) e.moveTimer = 1000f;
+        return e;
+    }
+
+    private static List<WorldEvent> drain(GameWorld world) {
+        List<WorldEvent> list = new ArrayList<>();
+        world.drainEvents(list::add);
+        return list;
+    }
+
+    private static WorldEvent find(List<WorldEvent> events, WorldEvent.Type type) {
+        for (WorldEvent e : events) if (e.type == type) return e;
+        return null;
+    }
+
+    @Test
+    public void 测试_相同种子与输入完全复现() {
+        GameWorld a = new GameWorld(GameWorld.Role.AUTHORITY, 12345L, new Random(42));
+        GameWorld b = new GameWorld(GameWorld.Role.AUTHORITY, 12345L, new Random(42));
+        PlayerInput in = new PlayerInput();
+        int[][] dirs = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}};
+
+        for (int t = 0; t < 5000; t++) {
+            int[] d = dirs[(t / 90) % 4];
+            in.set(d[0], d[1], t % 150 == 0, true);
+            a.tick(DT, in);
+            b.tick(DT, in);
+            a.drainEvents(e -> {});
+            b.drainEvents(e -> {});
+        }
+
+        CLogAssert.assertEquals("tick 数一致", a.getTickCount(), b.getTickCount());
+        CLogAssert.assertEquals("玩家X一致", a.getPlayer().x, b.getPlayer().x);
+        CLogAssert.assertEquals("玩家Y一致", a.getPlayer().y, b.getPlayer().y);
+        CLogAssert.assertEquals("玩家HP一致", a.getPlayer().hp, b.getPlayer().hp, 0f);
+        CLogAssert.assertEquals("楼层一致", a.getCurrentFloor(), b.getCurrentFloor());
+        CLogAssert.assertEquals("敌人数一致", a.getEnemies().size(), b.getEnemies().size());
+        for (int i = 0; i < a.getEnemies().size(); i++) {
+            GameEntity ea = a.getEnemies().get(i), eb = b.getEnemies().get(i);
+            CLogAssert.assertTrue("敌人" + i + "位置一致", ea.x == eb.x && ea.y == eb.y);
+        }
+    }
+
+    @Test
+    public void 测试_本地击杀产生事件与经验() {
+        GameWorld world = new GameWorld(GameWorld.Role.AUTHORITY, 1L, new Random(1));
+        WorldFixtures.clearInterior(world);
+        GameEntity player = world.getPlayer();
+        GameEntity slime = keepOnly(world, "slime", player.x + 1, player.y, true);
+
+        PlayerInput in = new PlayerInput().set(1, 0, false, false);
+        List<WorldEvent> events = new ArrayList<>();
+        for (int t = 0; t < 120 && slime.alive; t++) {
+            world.tick(DT, in);
+            world.drainEvents(events::add);
+        }
+
+        CLogAssert.assertFalse("史莱姆被击杀", slime.alive);
+        CLogAssert.assertTrue("敌人表已移除", world.getEnemies().isEmpty());
+        WorldEvent kill = find(events, WorldEvent.Type.ENEMY_KILLED);
+        CLogAssert.assertTrue("产生击杀事件", kill != null && kill.entity == slime);
+        CLogAssert.assertEquals("击杀者为本地玩家", WorldEvent.LOCAL, kill.guid);
+        CLogAssert.assertEquals("获得经验", 15L, player.totalXp);
+        CLogAssert.assertEquals("击杀数+1", 1, world.getKillCount());
+        CLogAssert.assertEquals("玩家原地不动", WorldConfig.SPAWN_X, player.x);
+    }
+
+    @Test
+    public void 测试_客户端攻击转为请求事件() {
+        GameWorld world = new GameWorld(GameWorld.Role.REPLICA, 1L, new Random(1));
+        WorldFixtures.clearInterior(world);
+        CLogAssert.assertTrue("客户端不本地生成敌人", world.getEnemies().isEmpty());
+
+        GameEntity player = world.getPlayer();
+        GameEntity replica = new GameEntity(player.x + 1, player.y, "slime", 20, 0, 0, 0.5f, 0, WeaponRange.MELEE);
+        world.getEnemies().add(replica);
+
+        world.tick(DT, new PlayerInput().set(1, 0, false, false));
+        WorldEvent req = find(drain(world), WorldEvent.Type.ATTACK_REQUEST);
+        CLogAssert.assertTrue("产生攻击请求", req != null);
+        CLogAssert.assertEquals("物理攻击", DamageType.PHYSICAL, req.damageType);
+        CLogAssert.assertEquals("方向向右", 1, req.dx);
+        CLogAssert.assertEquals("不在本地扣血", 20f, replica.hp, 0f);
+    }
+
+    @Test
+    public void 测试_无头服务器远程玩家踏上楼梯换层() {
+        GameWorld world = new GameWorld(GameWorld.Role.DEDICATED, 99L, new Random(7));
+        CLogAssert.assertTrue("无本地玩家", world.getPlayer() == null);
+        int[][] map = world.getMap();
+        int sx = -1, sy = -1;
+        for (int y = 0; y < WorldConfig.MAP_H; y++)
+            for (int x = 0; x < WorldConfig.MAP_W; x++)
+                if (map[y][x] == WorldConfig.T_STAIRS) { sx = x; sy = y; }
+        long oldSeed = world.getMapSeed();
+
+        world.updateRemoteActor(5, sx, sy, 100, 5);
+        world.tick(DT, null);
+        WorldEvent fc = find(drain(world), WorldEvent.Type.FLOOR_CHANGE);
+        CLogAssert.assertTrue("产生换层事件", fc != null);
+        CLogAssert.assertEquals("进入第2层", 2, world.getCurrentFloor());
+        CLogAssert.assertTrue("种子已更换", world.getMapSeed() != oldSeed && fc.seed == world.getMapSeed());
+        CLogAssert.assertEquals("新层重新生成敌人", 4, world.getEnemies().size());
+
+        // 宽限期内即使远程玩家仍停在旧坐标也不连续换层
+        world.updateRemoteActor(5, sx, sy, 100, 5);
+        world.getMap()[sy][sx] = WorldConfig.T_STAIRS;
+        world.tick(DT, null);
+        CLogAssert.assertEquals("宽限期内不重复换层", 2, world.getCurrentFloor());
+    }
+
+    @Test
+    public void 测试_敌人攻击相邻远程玩家() {
+        GameWorld world = new GameWorld(GameWorld.Role.DEDICATED, 3L, new Random(3));
+        WorldFixtures.clearInterior(world);
+        GameEntity wolf = keepOnly(world, "wolf", 6, 2, false);
+        world.updateRemoteActor(8, 7, 2, 100, 5);
+
+        world.tick(DT, null);
+        WorldEvent hurt = find(drain(world), WorldEvent.Type.REMOTE_PLAYER_HURT);
+        CLogAssert.assertTrue("远程玩家受到攻击", hurt != null);
+        CLogAssert.assertEquals("目标 guid", 8, hurt.guid);
+        CLogAssert.assertEquals("伤害 = ATK - DEF", wolf.stats.getATK() - 5f, hurt.amount, 0.001f);
+        CLogAssert.assertEquals("剩余血量", 100f - hurt.amount, hurt.remainHp, 0.001f);
+        CLogAssert.assertEquals("狼没有走进玩家格子", 6, wolf.x);
+    }
+}
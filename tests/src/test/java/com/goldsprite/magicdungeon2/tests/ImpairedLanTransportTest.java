@@ -0,0 +1,126 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanClockPingRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputAckBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.transport.ImpairedLanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanClientTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanServerTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.LoopbackLanTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.NetworkConditions;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * ImpairedLanTransport 弱网模拟单元测试（包装无损的回环传输，不启动内部线程，虚拟时间）。
+ * <p>
+ * 验证：按方向施加延迟、丢包/复制/乱序按概率发生且相同种子结果一致、关闭后直接透传。
+ */
+public class ImpairedLanTransportTest {
+
+    private static final int PORT = 7100;
+
+    /** 回环 + 弱网层 + 一个已登录的客户端 */
+    private static final class Link {
+        final LoopbackLanTransport loop = new LoopbackLanTransport();
+        final ImpairedLanTransport net;
+        final LanServerTransport server;
+        final LanClientTransport client;
+        final List<Long> upReceived = new ArrayList<>();
+        final List<Integer> downReceived = new ArrayList<>();
+        int guid = -1;
+
+        Link(long seed) {
+            net = new ImpairedLanTransport(loop, seed, false);
+            server = net.startServer(PORT);
+            client = net.connect(net.getLocalAddress(), PORT);
+            server.subscribe(LanClockPingRequestPacket.class, p -> upReceived.add(p.getClientTime()));
+            client.subscribe(LanPlayerInputAckBroadcastPacket.class, p -> downReceived.add(p.getAckSeq()));
+            client.login("p", g -> guid = g, reason -> { });
+            loop.pump();
+        }
+
+        /** 推进虚拟时间：先发出到期的损伤包，再让回环投递 */
+        void step(long ms) {
+            loop.advance(ms);
+            net.pump();
+            loop.pump();
+        }
+
+        void sendUp(long value) {
+            client.send(new LanClockPingRequestPacket(guid, value));
+        }
+
+        void sendDown(int seq) {
+            server.send(new LanPlayerInputAckBroadcastPacket(guid, IStatus.RETURN_SUCCESS, seq, seq, 0, 0, 0f, 0, 1));
+        }
+    }
+
+    @Test
+    public void 测试_按方向施加延迟() {
+        Link link = new Link(1L);
+        CLogAssert.assertTrue("已登录", link.guid > 0);
+        link.net.getUpstream().setLatency(50L, 0L, NetworkConditions.Jitter.UNIFORM);
+
+        link.sendUp(1L);
+        link.sendDown(1);
+        link.step(0L);
+        CLogAssert.assertEquals("下行无损伤立即到达", 1, link.downReceived.size());
+        CLogAssert.assertEquals("上行尚未到达", 0, link.upReceived.size());
+        link.step(49L);
+        CLogAssert.assertEquals("49ms 仍未到达", 0, link.upReceived.size());
+        link.step(1L);
+        CLogAssert.assertEquals("50ms 到达", 1, link.upReceived.size());
+        CLogAssert.assertEquals("队列已空", 0, link.net.getInFlight());
+    }
+
+    /** 每 5ms 发一个上行包，共 n 个，发完后等待全部到达 */
+    private static Link runLossy(long seed, int n) {
+        Link link = new Link(seed);
+        link.net.getUpstream().setLatency(20L, 15L, NetworkConditions.Jitter.NORMAL)
+            .setLossRate(0.2f).setDuplicateRate(0.1f).setReorderRate(0.2f);
+        for (int i = 0; i < n; i++) {
+            link.sendUp(i);
+            link.step(5L);
+        }
+        link.step(1000L);
+        return link;
+    }
+
+    @Test
+    public void 测试_丢包复制乱序按概率发生且同种子可复现() {
+        int n = 1000;
+        Link link = runLossy(7L, n);
+        ImpairedLanTransport net = link.net;
+        List<Long> got = link.upReceived;
+
+        CLogAssert.assertEquals("全部经过抽样", (long) n, net.getSent());
+        CLogAssert.assertTrue("丢包约 20%", net.getDropped() > 150 && net.getDropped() < 250);
+        CLogAssert.assertTrue("复制约 10%", net.getDuplicated() > 50 && net.getDuplicated() < 120);
+        CLogAssert.assertEquals("到达数 = 发送 - 丢弃 + 复制",
+            n - net.getDropped() + net.getDuplicated(), (long) got.size());
+        int inversions = 0;
+        for (int i = 1; i < got.size(); i++) if (got.get(i) < got.get(i - 1)) inversions++;
+        CLogAssert.assertTrue("出现乱序", inversions > 0);
+
+        CLogAssert.assertEquals("相同种子结果一致", got, runLossy(7L, n).upReceived);
+        CLogAssert.assertFalse("不同种子结果不同", got.equals(runLossy(8L, n).upReceived));
+    }
+
+    @Test
+    public void 测试_关闭后直接透传() {
+        Link link = new Link(1L);
+        link.net.setConditions(NetworkConditions.poorWifi());
+        link.net.setEnabled(false);
+        for (int i = 0; i < 100; i++) link.sendDown(i);
+        link.loop.pump();
+        CLogAssert.assertEquals("无丢失", 100, link.downReceived.size());
+        CLogAssert.assertEquals("不经过抽样", 0L, link.net.getSent());
+        CLogAssert.assertEquals("顺序不变", 99, (int) link.downReceived.get(99));
+    }
+}
@@ -0,0 +1,114 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyDeltaBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.replication.EnemyReplicator;
+import com.goldsprite.magicdungeon2.network.lan.replication.InterestManager;
+
+/**
+ * 关注区域（AOI）单元测试。
+ * <p>
+ * 验证：距离与视线判定（墙阻挡、近身无视墙）、滞后保留、玩家进入/离开的显隐变化、
+ * 过滤后的敌人列表经增量复制器表现为生成与移除、关闭 AOI 时全部下发。
+ */
+public class InterestManagerTest {
+
+    private static final int VIEWER = 7;
+    private static final int OTHER = 8;
+
+    /** 20x20 空地图，x=10 处一道竖墙（y 2..17） */
+    private static int[][] wallMap() {
+        int[][] map = new int[20][20];
+        for (int y = 2; y <= 17; y++) map[y][10] = WorldConfig.T_WALL;
+        return map;
+    }
+
+    private static EnemyStateSnapshot enemy(int id, int x, int y) {
+        return new EnemyStateSnapshot().set(id, "slime", x, y, x, y, 10f, 10f, true, "idle", 0L);
+    }
+
+    @Test
+    public void 测试_距离与视线() {
+        InterestManager im = new InterestManager();
+        int[][] map = wallMap();
+        im.setMap(map);
+        CLogAssert.assertTrue("空旷处可见", InterestManager.hasLineOfSight(map, 5, 5, 5, 12));
+        CLogAssert.assertFalse("隔墙不可见", InterestManager.hasLineOfSight(map, 8, 5, 12, 5));
+        CLogAssert.assertTrue("绕过墙端可见", InterestManager.hasLineOfSight(map, 8, 0, 12, 0));
+
+        CLogAssert.assertTrue("视野内有视线", im.isRelevant(5, 5, 9, 9, false));
+        CLogAssert.assertFalse("超出视野", im.isRelevant(5, 5, 5 + InterestManager.DEFAULT_VIEW_RADIUS + 1, 5, false));
+        CLogAssert.assertFalse("视野内但隔墙", im.isRelevant(8, 5, 13, 5, false));
+        CLogAssert.assertTrue("近身隔墙也相关", im.isRelevant(9, 5, 11, 5, false));
+    }
+
+    @Test
+    public void 测试_滞后保留() {
+        InterestManager im = new InterestManager();
+        im.setMap(wallMap());
+        int edge = 2 + InterestManager.DEFAULT_VIEW_RADIUS;
+        CLogAssert.assertFalse("未相关时视野外不进入", im.isRelevant(2, 2, 2, edge + 1, false));
+        CLogAssert.assertTrue("已相关时滞后范围内保留", im.isRelevant(2, 2, 2, edge + 1, true));
+        CLogAssert.assertTrue("已相关时隔墙也保留", im.isRelevant(8, 5, 13, 5, true));
+        CLogAssert.assertFalse("超出滞后范围离开", im.isRelevant(2, 2, 2, edge + InterestManager.DEFAULT_HYSTERESIS + 1, true));
+    }
+
+    @Test
+    public void 测试_玩家进入与离开() {
+        InterestManager im = new InterestManager();
+        im.setMap(wallMap());
+        CLogAssert.assertEquals("无关注点时不变", InterestManager.UNCHANGED, im.updatePlayer(VIEWER, OTHER, 19, 19));
+
+        im.setFocus(VIEWER, 1, 1);
+        CLogAssert.assertEquals("远处玩家离开", InterestManager.LEAVE, im.updatePlayer(VIEWER, OTHER, 19, 19));
+        CLogAssert.assertTrue("网络线程据此过滤", im.isPlayerHidden(VIEWER, OTHER));
+        CLogAssert.assertEquals("保持隐藏", InterestManager.UNCHANGED, im.updatePlayer(VIEWER, OTHER, 18, 18));
+        CLogAssert.assertEquals("走近后进入", InterestManager.ENTER, im.updatePlayer(VIEWER, OTHER, 4, 4));
+        CLogAssert.assertFalse("恢复转发", im.isPlayerHidden(VIEWER, OTHER));
+
+        im.updatePlayer(VIEWER, OTHER, 19, 19);
+        im.setEnabled(false);
+        CLogAssert.assertEquals("关闭 AOI 后恢复", InterestManager.ENTER, im.updatePlayer(VIEWER, OTHER, 19, 19));
+
+        im.setEnabled(true);
+        im.updatePlayer(VIEWER, OTHER, 19, 19);
+        im.retainViewers(guid -> guid == VIEWER);
+        CLogAssert.assertFalse("断线玩家移出隐藏集合", im.isPlayerHidden(VIEWER, OTHER));
+    }
+
+    @Test
+    public void 测试_敌人过滤表现为生成与移除() {
+        InterestManager im = new InterestManager();
+        im.setMap(wallMap());
+        EnemyReplicator replicator = new EnemyReplicator();
+        List<EnemyStateSnapshot> all = new ArrayList<>();
+        all.add(enemy(1, 3, 3));
+        all.add(enemy(2, 18, 18));
+
+        CLogAssert.assertTrue("无关注点时全部下发", im.filterEnemies(VIEWER, all) == all);
+        im.setFocus(VIEWER, 2, 2);
+        List<EnemyStateSnapshot> visible = im.filterEnemies(VIEWER, all);
+        CLogAssert.assertEquals("只下发附近的敌人", 1, visible.size());
+        LanEnemyDeltaBroadcastPacket first = replicator.buildFor(VIEWER, visible, 0L);
+        replicator.onAck(VIEWER, first.getEpoch(), first.getSeq());
+
+        all.get(0).set(1, "slime", 17, 3, 17, 3, 10f, 10f, true, "idle", 0L); // 1 号走远
+        all.get(1).set(2, "slime", 4, 4, 4, 4, 10f, 10f, true, "idle", 0L);   // 2 号走近
+        visible = im.filterEnemies(VIEWER, all);
+        CLogAssert.assertEquals("仍只有一个", 1, visible.size());
+        CLogAssert.assertEquals("走近的 2 号", 2, visible.get(0).getEnemyId());
+        LanEnemyDeltaBroadcastPacket next = replicator.buildFor(VIEWER, visible, 1L);
+        CLogAssert.assertEquals("1 号作为移除下发", "[1]", Arrays.toString(next.getRemoved()));
+
+        im.setEnabled(false);
+        CLogAssert.assertEquals("关闭 AOI 全部下发", 2, im.filterEnemies(VIEWER, all).size());
+    }
+}
@@ -0,0 +1,145 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.core.combat.CombatEngine;
+import com.goldsprite.magicdungeon2.core.combat.DamageType;
+import com.goldsprite.magicdungeon2.core.world.EnemyDefs;
+import com.goldsprite.magicdungeon2.core.world.EnemyHistory;
+import com.goldsprite.magicdungeon2.core.world.GameEntity;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.RemoteActor;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+import com.goldsprite.magicdungeon2.core.world.WorldEvent;
+
+/**
+ * 权威端延迟补偿与远程上报校验单元测试。
+ * <p>
+ * 验证：敌人位置历史按 tick 查询、按客户端所见 tick 回溯命中已移开的敌人、
+ * 回溯不超过上限、上报攻击力/冷却按权威记录钳制、旧式攻击请求的坐标校验。
+ */
+public class LagCompensationTest {
+
+    private static final float DT = WorldConfig.TICK_DT;
+
+    /** 清空内部地形、只留一只静止的史莱姆在 (6,4)，远程玩家站在 (5,4) */
+    private static GameWorld hostWithSlime() {
+        GameWorld host = new GameWorld(GameWorld.Role.DEDICATED, 2L, new Random(2));
+        WorldFixtures.clearInterior(host);
+        host.getEnemies().removeIf(e -> !"slime".equals(e.texName));
+        GameEntity slime = host.getEnemies().get(0);
+        slime.x = 6;
+        slime.y = 4;
+        slime.moveTimer = 1000f;
+        host.updateRemoteActor(WorldFixtures.GUID, 5, 4, 100, 5);
+        host.setRemoteCombatStats(WorldFixtures.GUID, 8, 0.2f, 0.2f);
+        return host;
+    }
+
+    private static WorldEvent lastDamage(GameWorld host) {
+        List<WorldEvent> list = new ArrayList<>();
+        host.drainEvents(list::add);
+        WorldEvent hit = null;
+        for (WorldEvent e : list) if (e.type == WorldEvent.Type.ENEMY_DAMAGED) hit = e;
+        return hit;
+    }
+
+    @Test
+    public void 测试_位置历史按tick查询() {
+        EnemyHistory h = new EnemyHistory(4);
+        List<GameEntity> enemies = EnemyDefs.createDefaultEnemies();
+        for (int i = 0; i < enemies.size(); i++) enemies.get(i).enemyId = i + 1;
+        h.record(10, enemies);
+        enemies.get(0).x = 9;
+        h.record(11, enemies);
+
+        CLogAssert.assertEquals("tick10 史莱姆在原位", 1, h.enemyAt(10, 2, 2));
+        CLogAssert.assertEquals("tick11 原位已空", -1, h.enemyAt(11, 2, 2));
+        CLogAssert.assertEquals("tick11 新位置", 1, h.enemyAt(11, 9, 2));
+        for (int t = 12; t <= 14; t++) h.record(t, enemies);
+        CLogAssert.assertEquals("超出容量的旧帧被覆盖", -2, h.enemyAt(10, 2, 2));
+    }
+
+    @Test
+    public void 测试_按所见tick回溯命中已移开的敌人() {
+        GameWorld host = hostWithSlime();
+        GameEntity slime = host.getEnemies().get(0);
+        for (int i = 0; i < 3; i++) host.tick(DT, null);
+        long seen = host.getTickCount();
+        host.drainEvents(e -> {});
+        // 客户端看到的是 tick 3 的画面，房主处理输入时史莱姆已走开
+        slime.y = 6;
+        host.queueRemoteInput(WorldFixtures.GUID, 1, 1, 0, false, seen);
+        host.tick(DT, null);
+
+        WorldEvent hit = lastDamage(host);
+        CLogAssert.assertTrue("按回溯位置命中史莱姆", hit != null && hit.entity == slime);
+        CLogAssert.assertEquals("计入回溯命中", 1, host.getRewoundHits());
+        CLogAssert.assertEquals("攻击不移动", 5, host.getRemoteActor(WorldFixtures.GUID).x);
+
+        // 不带所见 tick 的输入按当前位置判定：原格已空，改为移动
+        for (int seq = 2; seq < 12; seq++) { // 空输入消耗攻击冷却
+            host.queueRemoteInput(WorldFixtures.GUID, seq, 0, 0, false);
+            host.tick(DT, null);
+        }
+        host.queueRemoteInput(WorldFixtures.GUID, 12, 1, 0, false);
+        host.tick(DT, null);
+        CLogAssert.assertEquals("按当前位置移动过去", 6, host.getRemoteActor(WorldFixtures.GUID).x);
+    }
+
+    @Test
+    public void 测试_回溯不超过上限() {
+        GameWorld host = hostWithSlime();
+        GameEntity slime = host.getEnemies().get(0);
+        host.tick(DT, null);
+        long stale = host.getTickCount();
+        slime.y = 6;
+        for (int i = 0; i < WorldConfig.LAG_COMP_MAX_REWIND_TICKS + 2; i++) host.tick(DT, null);
+        host.drainEvents(e -> {});
+        host.queueRemoteInput(WorldFixtures.GUID, 1, 1, 0, false, stale);
+        host.tick(DT, null);
+
+        CLogAssert.assertTrue("过旧的所见 tick 被钳到上限，不命中", lastDamage(host) == null);
+        CLogAssert.assertEquals("未命中则移动", 6, host.getRemoteActor(WorldFixtures.GUID).x);
+    }
+
+    @Test
+    public void 测试_上报攻击力与冷却按权威记录钳制() {
+        GameWorld host = hostWithSlime();
+        int before = host.getClampedRemoteStats();
+        host.setRemoteCombatStats(WorldFixtures.GUID, 999f, 0.001f, 0.2f);
+        RemoteActor ra = host.getRemoteActor(WorldFixtures.GUID);
+
+        CLogAssert.assertEquals("攻击力不超过 0 级上限", EnemyDefs.maxPlayerAtk(0), ra.atk, 0.001f);
+        CLogAssert.assertEquals("移动冷却不低于下限", EnemyDefs.minPlayerCooldown(), ra.moveCooldown, 0.0001f);
+        CLogAssert.assertEquals("攻击冷却合法不变", 0.2f, ra.attackCooldown, 0.0001f);
+        CLogAssert.assertEquals("计入钳制", before + 1, host.getClampedRemoteStats());
+
+        host.setRemoteCombatStats(WorldFixtures.GUID, 8f, 0.2f, 0.2f);
+        CLogAssert.assertEquals("合法值原样采用", 8f, ra.atk, 0.001f);
+        CLogAssert.assertEquals("合法值不计数", before + 1, host.getClampedRemoteStats());
+    }
+
+    @Test
+    public void 测试_旧式攻击请求校验坐标与攻击力() {
+        GameWorld host = hostWithSlime();
+        GameEntity slime = host.getEnemies().get(0);
+
+        CLogAssert.assertTrue("谎报坐标被拒绝",
+            host.applyRemoteAttackRequest(WorldFixtures.GUID, DamageType.PHYSICAL, 11f, 11f, 1, 0, 8f, 0) == null);
+        CLogAssert.assertTrue("非法方向被拒绝",
+            host.applyRemoteAttackRequest(WorldFixtures.GUID, DamageType.PHYSICAL, 5f, 4f, 1, 1, 8f, 0) == null);
+        CLogAssert.assertEquals("拒绝计数", 2, host.getRejectedRemoteAttacks());
+
+        host.drainEvents(e -> {});
+        GameEntity hit = host.applyRemoteAttackRequest(WorldFixtures.GUID, DamageType.PHYSICAL, 5f, 4f, 1, 0, 9999f, 0);
+        CLogAssert.assertTrue("坐标吻合时命中", hit == slime);
+        float expected = Math.max(1, CombatEngine.calcPhysicalDamage(EnemyDefs.maxPlayerAtk(0), slime.stats.getDEF()));
+        CLogAssert.assertEquals("伤害按钳制后的攻击力计算", expected, lastDamage(host).amount, 0.001f);
+    }
+}
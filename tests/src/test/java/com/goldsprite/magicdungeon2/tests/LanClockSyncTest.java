@@ -0,0 +1,97 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.LanClockSync;
+
+/**
+ * LanClockSync 时钟偏移 / 往返时延估计单元测试（全部使用构造的微秒时刻，不依赖真实时钟）。
+ * <p>
+ * 验证：已知偏移与对称时延下的估计、离群样本丢弃与最小往返样本优先、房主 tick 推算、PING 节奏。
+ */
+public class LanClockSyncTest {
+
+    /** 房主时钟比本地快 5 秒 */
+    private static final long SKEW = 5_000_000L;
+    /** 60Hz tick */
+    private static final float TICK = 1f / 60f;
+    private static final double TICK_US = TICK * 1_000_000.0;
+
+    /** 模拟一次往返：去程 up、回程 down（微秒），房主 tick 开始于 tickStart（房主时刻） */
+    private static boolean exchange(LanClockSync sync, long t0, long up, long down, long tick, long tickStart) {
+        long serverUs = t0 + up + SKEW;
+        return sync.onPong(t0, serverUs, tick, tickStart, t0 + up + down);
+    }
+
+    @Test
+    public void 测试_对称时延下偏移与往返准确() {
+        LanClockSync sync = new LanClockSync(TICK);
+        CLogAssert.assertFalse("未收到 PONG 前未同步", sync.isSynced());
+        CLogAssert.assertEquals("未同步时往返为 -1", -1f, sync.getRttMs(), 0f);
+
+        CLogAssert.assertTrue("样本被采纳", exchange(sync, 1_000_000L, 10_000L, 10_000L, 100, SKEW));
+        CLogAssert.assertTrue("已同步", sync.isSynced());
+        CLogAssert.assertEquals("偏移 = 5000ms", 5000f, (float) sync.getOffsetMs(), 0.01f);
+        CLogAssert.assertEquals("往返 = 20ms", 20f, sync.getRttMs(), 0.01f);
+        CLogAssert.assertEquals("本地时刻换算为房主时刻", 2_000_000L + SKEW, sync.toServerMicros(2_000_000L));
+    }
+
+    @Test
+    public void 测试_离群样本被丢弃且取最小往返样本() {
+        LanClockSync sync = new LanClockSync(TICK);
+        // 不对称排队：去程 30ms 回程 2ms，偏移估计误差 14ms
+        exchange(sync, 0L, 30_000L, 2_000L, 0, 0L);
+        CLogAssert.assertEquals("首个样本直接采用", 5014f, (float) sync.getOffsetMs(), 0.01f);
+
+        // 往返 4ms 的干净样本：误差超过跳变阈值之内，按比例靠拢
+        exchange(sync, 100_000L, 2_000L, 2_000L, 0, 0L);
+        double afterGood = sync.getOffsetMs();
+        CLogAssert.assertTrue("向干净样本靠拢", afterGood < 5014.0 && afterGood >= 5000.0);
+        CLogAssert.assertEquals("往返取窗口最小值", 4f, sync.getRttMs(), 0.01f);
+
+        // 大排队的样本：往返远超最小值 2 倍，判为离群
+        CLogAssert.assertFalse("离群样本不采纳", exchange(sync, 200_000L, 80_000L, 2_000L, 0, 0L));
+        CLogAssert.assertEquals("离群计数", 1L, sync.getRejectedCount());
+        CLogAssert.assertEquals("偏移不受离群样本影响", (float) afterGood, (float) sync.getOffsetMs(), 0.001f);
+
+        // 持续的干净样本收敛到真实偏移
+        for (int i = 0; i < 40; i++) exchange(sync, 300_000L + i * 100_000L, 2_000L, 2_000L, 0, 0L);
+        CLogAssert.assertEquals("收敛到真实偏移", 5000f, (float) sync.getOffsetMs(), 0.05f);
+    }
+
+    @Test
+    public void 测试_推算房主tick() {
+        LanClockSync sync = new LanClockSync(TICK);
+        CLogAssert.assertTrue("未同步时 tick 为 NaN", Double.isNaN(sync.serverTickAt(0L)));
+        // 房主在其时刻 SKEW + 1s 进入 tick 600，回复时该 tick 已过去 5ms
+        long tickStart = SKEW + 1_000_000L;
+        long t0 = 1_000_000L + 5_000L - 10_000L; // 使房主回复时刻 = tickStart + 5ms
+        exchange(sync, t0, 10_000L, 10_000L, 600, tickStart);
+
+        CLogAssert.assertEquals("回复时刻的小数 tick", (float) (600.0 + 5_000.0 / TICK_US),
+            (float) sync.serverTickAt(t0 + 10_000L), 1e-3f);
+        CLogAssert.assertEquals("一秒后前进 60 tick", (float) (660.0 + 5_000.0 / TICK_US),
+            (float) sync.serverTickAt(t0 + 10_000L + 1_000_000L), 1e-3f);
+    }
+
+    @Test
+    public void 测试_先快速采样后低频跟踪() {
+        LanClockSync sync = new LanClockSync(TICK);
+        CLogAssert.assertTrue("首次立即 PING", sync.shouldPing(0L));
+        long t = 0L;
+        for (int i = 0; i < LanClockSync.FAST_SAMPLES; i++) {
+            sync.onPingSent(t);
+            CLogAssert.assertFalse("快速间隔内不重复发送", sync.shouldPing(t + LanClockSync.FAST_PING_INTERVAL_US - 1));
+            exchange(sync, t, 1_000L, 1_000L, 0, 0L);
+            t += LanClockSync.FAST_PING_INTERVAL_US;
+        }
+        sync.onPingSent(t);
+        CLogAssert.assertFalse("样本足够后降为低频", sync.shouldPing(t + LanClockSync.FAST_PING_INTERVAL_US));
+        CLogAssert.assertTrue("低频间隔到达后发送", sync.shouldPing(t + LanClockSync.PING_INTERVAL_US));
+
+        sync.reset();
+        CLogAssert.assertFalse("重置后未同步", sync.isSynced());
+        CLogAssert.assertTrue("重置后立即 PING", sync.shouldPing(t));
+    }
+}
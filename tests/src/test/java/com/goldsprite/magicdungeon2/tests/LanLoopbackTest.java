@@ -0,0 +1,170 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.LanNetworkEvent;
+import com.goldsprite.magicdungeon2.network.lan.LanRoomPlayer;
+import com.goldsprite.magicdungeon2.network.lan.RemotePlayerView;
+import com.goldsprite.magicdungeon2.network.lan.transport.LoopbackLanTransport;
+
+/**
+ * 进程内回环传输 + LanMultiplayerService 集成测试（不打开套接字）。
+ * <p>
+ * 验证：房主与多个客户端登录并同步玩家状态（记录原地更新，状态未变不推进视图版本）、丢包乱序链路下可靠事件恰好一次且按序到达、
+ * 相同种子的运行结果完全一致。
+ */
+public class LanLoopbackTest {
+
+    private static final int PORT = 7000;
+    private static final long TICK_MS = 33L;
+
+    /** 房主 + clientCount 个客户端，全部登录完成 */
+    private static LanMultiplayerService[] startRoom(LoopbackLanTransport loop, int clientCount) {
+        LanMultiplayerService[] all = new LanMultiplayerService[clientCount + 1];
+        all[0] = new LanMultiplayerService();
+        all[0].setTransport(loop);
+        all[0].startHost("host", PORT);
+        for (int i = 1; i <= clientCount; i++) {
+            all[i] = new LanMultiplayerService();
+            all[i].setTransport(loop);
+            all[i].join("p" + i, loop.getLocalAddress(), PORT);
+        }
+        loop.pump();
+        return all;
+    }
+
+    private static void stopAll(LanMultiplayerService[] all) {
+        for (LanMultiplayerService s : all) s.stop();
+    }
+
+    @Test
+    public void 测试_回环登录与玩家同步() {
+        LoopbackLanTransport loop = new LoopbackLanTransport(1L);
+        LanMultiplayerService[] all = startRoom(loop, 2);
+        LanMultiplayerService host = all[0], a = all[1], b = all[2];
+
+        CLogAssert.assertTrue("房主已连接", host.isConnected());
+        CLogAssert.assertTrue("客户端 A 已连接", a.isConnected());
+        CLogAssert.assertTrue("客户端 B 已连接", b.isConnected());
+        CLogAssert.assertTrue("guid 各不相同", a.getLocalGuid() != b.getLocalGuid() && a.getLocalGuid() != host.getLocalGuid());
+
+        loop.pump(TICK_MS);
+        a.sendLocalState(3f, 4f, 96f, 128f, "walk", 50f, 60f, 2, 7f, 3f);
+        loop.pump();
+        host.flushOutgoing();
+        loop.pump();
+
+        LanRoomPlayer seen = b.getRemotePlayerView().find(a.getLocalGuid());
+        CLogAssert.assertTrue("B 看到 A", seen != null);
+        CLogAssert.assertEquals("A 的位置", 3f, seen.getX(), 0f);
+        CLogAssert.assertEquals("A 的血量", 50f, seen.getHp(), 0f);
+        CLogAssert.assertTrue("房主也看到 A", host.getRemotePlayerView().find(a.getLocalGuid()) != null);
+        stopAll(all);
+    }
+
+    /** 推进一个 tick 后由 sender 上报状态，经房主转发到各客户端 */
+    private static void syncState(LoopbackLanTransport loop, LanMultiplayerService host,
+                                  LanMultiplayerService sender, float x, float vx) {
+        loop.advance(TICK_MS);
+        sender.sendLocalState(x, 4f, vx, 128f, "walk", 50f, 60f, 2, 7f, 3f);
+        loop.pump();
+        host.flushOutgoing();
+        loop.pump();
+    }
+
+    @Test
+    public void 测试_状态未变的同步原地更新且不推进视图版本() {
+        LoopbackLanTransport loop = new LoopbackLanTransport(1L);
+        LanMultiplayerService[] all = startRoom(loop, 2);
+        LanMultiplayerService host = all[0], a = all[1], b = all[2];
+
+        syncState(loop, host, a, 3f, 96f);
+        RemotePlayerView view = b.getRemotePlayerView();
+        LanRoomPlayer seen = view.find(a.getLocalGuid());
+        CLogAssert.assertTrue("B 看到 A", seen != null);
+        long version = view.getVersion();
+
+        syncState(loop, host, a, 3f, 96f);
+        CLogAssert.assertTrue("成员未变：同一视图", b.getRemotePlayerView() == view);
+        CLogAssert.assertTrue("同一条记录", view.find(a.getLocalGuid()) == seen);
+        CLogAssert.assertEquals("状态未变：版本不推进", version, view.getVersion());
+
+        syncState(loop, host, a, 5f, 160f);
+        CLogAssert.assertTrue("位置变化仍沿用视图", b.getRemotePlayerView() == view);
+        CLogAssert.assertTrue("可见字段变化：版本推进", view.getVersion() > version);
+        CLogAssert.assertEquals("记录原地更新", 5f, seen.getX(), 0f);
+        stopAll(all);
+    }
+
+    /** 丢包 + 抖动链路上连续发出伤害与换层，返回客户端收到的伤害序列与换层序列（两者分属不同队列） */
+    private static String runLossyEvents(long seed) {
+        LoopbackLanTransport loop = new LoopbackLanTransport(seed);
+        LanMultiplayerService[] all = startRoom(loop, 1);
+        LanMultiplayerService host = all[0], client = all[1];
+        client.drainEvents();
+        loop.setLatency(20L, 60L); // 抖动大于 tick 间隔：包会乱序
+        loop.setLossRate(0.3f);
+
+        final int damages = 20;
+        long now = loop.getNow();
+        for (int i = 1; i <= damages; i++) {
+            host.broadcastDamageResult(i, 1f, 10f, false, client.getLocalGuid(), 0);
+            if (i == damages / 2) host.broadcastFloorChange(99L, 2);
+        }
+        List<String> damageLog = new ArrayList<>();
+        List<String> floorLog = new ArrayList<>();
+        for (int step = 0; step < 300; step++) {
+            host.flushOutgoing();
+            now += TICK_MS;
+            loop.pump(now);
+            client.drainDamageResults(p -> damageLog.add("d" + p.getEnemyId()));
+            client.drainEvents(e -> {
+                if (e.getType() == LanNetworkEvent.Type.FLOOR_CHANGE) floorLog.add("f" + e.getFloor());
+            });
+        }
+        CLogAssert.assertTrue("链路确实丢过包", loop.getDropped() > 0);
+        CLogAssert.assertTrue("房主发生过重传", host.getReliableSender().getRetransmits() > 0);
+        CLogAssert.assertEquals("全部确认", 0, host.getReliableSender().getUnackedCount(client.getLocalGuid()));
+        stopAll(all);
+        return damageLog + " " + floorLog;
+    }
+
+    @Test
+    public void 测试_丢包乱序下可靠事件恰好一次且按序() {
+        StringBuilder expected = new StringBuilder("[");
+        for (int i = 1; i <= 20; i++) {
+            if (i > 1) expected.append(", ");
+            expected.append('d').append(i);
+        }
+        expected.append("] [f2]");
+        CLogAssert.assertEquals("恰好一次且按序", expected.toString(), runLossyEvents(42L));
+    }
+
+    @Test
+    public void 测试_相同种子结果一致() {
+        LoopbackLanTransport a = new LoopbackLanTransport(7L);
+        LoopbackLanTransport b = new LoopbackLanTransport(7L);
+        a.setLatency(10L, 50L);
+        b.setLatency(10L, 50L);
+        a.setLossRate(0.5f);
+        b.setLossRate(0.5f);
+        LanMultiplayerService[] roomA = startRoom(a, 3);
+        LanMultiplayerService[] roomB = startRoom(b, 3);
+        for (long t = TICK_MS; t <= 2000L; t += TICK_MS) {
+            a.pump(t);
+            b.pump(t);
+        }
+        CLogAssert.assertEquals("投递数一致", a.getDelivered(), b.getDelivered());
+        CLogAssert.assertEquals("丢包数一致", a.getDropped(), b.getDropped());
+        for (int i = 0; i < roomA.length; i++) {
+            CLogAssert.assertEquals("guid 分配一致", roomA[i].getLocalGuid(), roomB[i].getLocalGuid());
+        }
+        stopAll(roomA);
+        stopAll(roomB);
+    }
+}
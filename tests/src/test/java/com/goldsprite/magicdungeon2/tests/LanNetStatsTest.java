@@ -0,0 +1,129 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.LanPacketBundler;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanCommands;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerHurtBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanNetHistogram;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanNetStats;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanPeerStats;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * LanNetStats 网络统计单元测试。
+ * <p>
+ * 验证：直方图分位数与合并、合并包按内部消息类型计数、RTT 探针、序号丢失/重复检测、速率与 JSON 输出。
+ */
+public class LanNetStatsTest {
+
+    private static final int PEER = 7;
+
+    private static LanDamageResultBroadcastPacket damage() {
+        return new LanDamageResultBroadcastPacket(PEER, IStatus.RETURN_SUCCESS, 1, 5f, 10f, false, 1, 0);
+    }
+
+    @Test
+    public void 测试_直方图分位数按桶上界() {
+        LanNetHistogram h = new LanNetHistogram();
+        for (int i = 0; i < 99; i++) h.record(10);
+        h.record(1000);
+        CLogAssert.assertEquals("样本数", 100L, h.getCount());
+        CLogAssert.assertEquals("p50 落在 [8,16) 桶", 15L, h.percentile(0.5));
+        CLogAssert.assertEquals("p100 不超过最大值", 1000L, h.percentile(1.0));
+        CLogAssert.assertEquals("最大值", 1000L, h.getMax());
+    }
+
+    @Test
+    public void 测试_直方图合并() {
+        LanNetHistogram a = new LanNetHistogram();
+        LanNetHistogram b = new LanNetHistogram();
+        for (int i = 0; i < 3; i++) a.record(10);
+        b.record(500);
+        a.addAll(b);
+        CLogAssert.assertEquals("样本数相加", 4L, a.getCount());
+        CLogAssert.assertEquals("最大值取较大", 500L, a.getMax());
+        CLogAssert.assertEquals("均值", 132.5f, (float) a.getMean(), 0.001f);
+        CLogAssert.assertEquals("被并入的不变", 1L, b.getCount());
+    }
+
+    @Test
+    public void 测试_合并包按内部消息类型计数() {
+        LanNetStats stats = new LanNetStats();
+        LanTickBundleBroadcastPacket bundle = new LanTickBundleBroadcastPacket(PEER, IStatus.RETURN_SUCCESS);
+        bundle.add(damage());
+        bundle.add(damage());
+        bundle.add(new LanPlayerHurtBroadcastPacket(PEER, IStatus.RETURN_SUCCESS, PEER, 3f, 7f, 1));
+        stats.recordSent(bundle, PEER);
+
+        CLogAssert.assertEquals("伤害结果 2 条", 2L, stats.getSentMessages(LanCommands.DAMAGE_RESULT_BROADCAST));
+        CLogAssert.assertEquals("受伤 1 条", 1L, stats.getSentMessages(LanCommands.PLAYER_HURT_BROADCAST));
+        CLogAssert.assertEquals("合并包 1 个", 1L, stats.getSentMessages(LanCommands.TICK_BUNDLE_BROADCAST));
+        CLogAssert.assertEquals("合并包只计外层开销", (long) LanPacketBundler.BUNDLE_OVERHEAD_BYTES,
+            stats.getSentBytes(LanCommands.TICK_BUNDLE_BROADCAST));
+
+        LanPeerStats ps = stats.getPeer(PEER);
+        long sum = stats.getSentBytes(LanCommands.DAMAGE_RESULT_BROADCAST)
+            + stats.getSentBytes(LanCommands.PLAYER_HURT_BROADCAST)
+            + stats.getSentBytes(LanCommands.TICK_BUNDLE_BROADCAST);
+        CLogAssert.assertEquals("对端只算 1 个数据报", 1L, ps.getSentDatagrams());
+        CLogAssert.assertEquals("各类型字节之和等于数据报字节", sum, ps.getSentBytes());
+    }
+
+    @Test
+    public void 测试_RTT探针() {
+        LanNetStats stats = new LanNetStats();
+        stats.onProbeSent(PEER, 5, 0L);
+        stats.onProbeAcked(PEER, 5, 20_000_000L);
+        stats.onProbeAcked(PEER, 5, 90_000_000L); // 重复确认不产生样本
+        stats.onProbeAcked(PEER, 6, 90_000_000L); // 未登记的序号忽略
+
+        LanPeerStats ps = stats.getPeer(PEER);
+        CLogAssert.assertEquals("只有一个样本", 1L, ps.getRttHistogram().getCount());
+        CLogAssert.assertEquals("首个样本即平滑 RTT", 20f, ps.getSrttMs(), 0.01f);
+
+        stats.onProbeSent(PEER, 6, 100_000_000L);
+        stats.onProbeAcked(PEER, 6, 140_000_000L);
+        CLogAssert.assertEquals("按 1/8 平滑", 22.5f, ps.getSrttMs(), 0.01f);
+    }
+
+    @Test
+    public void 测试_序号丢失与重复() {
+        LanNetStats stats = new LanNetStats();
+        stats.onSequence(PEER, 0, 0);
+        stats.onSequence(PEER, 1, 1);
+        stats.onSequence(PEER, 4, 4);  // 跳过 2、3
+        stats.onSequence(PEER, 3, 3);  // 迟到的旧包
+        stats.onSequence(PEER, 2, 6);  // 冗余覆盖，有新序号，不算重复
+
+        LanPeerStats ps = stats.getPeer(PEER);
+        CLogAssert.assertEquals("丢失 2 个序号", 2L, ps.getLost());
+        CLogAssert.assertEquals("重复/乱序 1 个包", 1L, ps.getDuplicates());
+
+        stats.onSequence(PEER, 0, 0);  // 对端重置
+        stats.onSequence(PEER, 1, 1);
+        CLogAssert.assertEquals("重置后不误报", 2L, ps.getLost());
+    }
+
+    @Test
+    public void 测试_速率与JSON输出() {
+        LanNetStats stats = new LanNetStats();
+        stats.update(0L);
+        for (int i = 0; i < 30; i++) stats.recordReceived(damage(), LanNetStats.HOST_PEER);
+        stats.recordDrain(LanNetStats.DRAIN_EVENTS, 5_000L);
+        stats.update(1000L);
+
+        CLogAssert.assertEquals("接收条数", 30L, stats.getRecvMessages(LanCommands.DAMAGE_RESULT_BROADCAST));
+        CLogAssert.assertEquals("数据报速率", 30f, stats.getPeer(LanNetStats.HOST_PEER).getRecvPerSec(), 0.01f);
+        CLogAssert.assertTrue("概要含类型名", stats.getSummaryText().contains("DamageResultBroadcast"));
+
+        String json = stats.toJson(1000L);
+        CLogAssert.assertTrue("JSON 含命令字", json.contains("\"cmd\":" + LanCommands.DAMAGE_RESULT_BROADCAST));
+        CLogAssert.assertTrue("JSON 含对端", json.contains("\"peer\":-1"));
+        CLogAssert.assertTrue("JSON 含 drain 耗时", json.contains("\"events\":{\"n\":1"));
+    }
+}
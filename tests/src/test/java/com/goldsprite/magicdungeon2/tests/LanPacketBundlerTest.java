@@ -0,0 +1,142 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.LanPacketBundler;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyDeltaBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanFloorChangeBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerHurtBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerSyncBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * LanPacketBundler 发送合并单元测试。
+ * <p>
+ * 验证：同一 tick 多条消息合并为一个数据报、单条消息不套合并包、超出数据报上限拆分、
+ * 不可合并消息保持先后顺序、拆包顺序固定。
+ */
+public class LanPacketBundlerTest {
+
+    private static final int A = 3, B = 4;
+
+    private static LanDamageResultBroadcastPacket damage(int target, int enemyId) {
+        return new LanDamageResultBroadcastPacket(target, IStatus.RETURN_SUCCESS, enemyId, 5f, 10f, false, 1, 0);
+    }
+
+    private static LanPlayerSyncBroadcastPacket sync(int target, int guid) {
+        LanPlayerStateSnapshot s = new LanPlayerStateSnapshot(guid, "p" + guid, 1f, 2f, 32f, 64f, "idle", 0L);
+        return new LanPlayerSyncBroadcastPacket(target, IStatus.RETURN_SUCCESS, s);
+    }
+
+    private static LanEnemyDeltaBroadcastPacket delta(int target, int seq) {
+        return new LanEnemyDeltaBroadcastPacket(target, IStatus.RETURN_SUCCESS, 1, seq,
+            LanEnemyDeltaBroadcastPacket.KEYFRAME, 0L, null, null);
+    }
+
+    @Test
+    public void 测试_同一tick多条消息合并为一个数据报() {
+        LanPacketBundler bundler = new LanPacketBundler();
+        List<LanBroadcastPacket> sent = new ArrayList<>();
+        bundler.offer(damage(A, 1), sent::add);
+        bundler.offer(new LanPlayerHurtBroadcastPacket(A, IStatus.RETURN_SUCCESS, A, 3f, 7f, 1), sent::add);
+        bundler.offer(sync(A, B), sent::add);
+        bundler.offer(damage(B, 1), sent::add);
+        CLogAssert.assertTrue("flush 前不发送", sent.isEmpty());
+
+        bundler.flush(sent::add);
+        CLogAssert.assertEquals("两个客户端各一个数据报", 2, sent.size());
+        LanTickBundleBroadcastPacket bundle = null;
+        LanBroadcastPacket single = null;
+        for (LanBroadcastPacket p : sent) {
+            if (p.getOwnerGuid() == A) bundle = (LanTickBundleBroadcastPacket) p;
+            else single = p;
+        }
+        CLogAssert.assertEquals("A 的合并包含 3 条", 3, bundle.getMessageCount());
+        CLogAssert.assertTrue("B 只有一条，直接发原包", single instanceof LanDamageResultBroadcastPacket);
+        CLogAssert.assertEquals("累计消息数", 4L, bundler.getMessagesSent());
+        CLogAssert.assertEquals("累计数据报数", 2L, bundler.getDatagramsSent());
+
+        sent.clear();
+        bundler.flush(sent::add);
+        CLogAssert.assertTrue("已清空，再次 flush 不重复发送", sent.isEmpty());
+    }
+
+    @Test
+    public void 测试_拆包按固定顺序() {
+        LanPacketBundler bundler = new LanPacketBundler();
+        List<LanBroadcastPacket> sent = new ArrayList<>();
+        bundler.offer(damage(A, 9), sent::add);
+        bundler.offer(delta(A, 0), sent::add);
+        bundler.offer(sync(A, B), sent::add);
+        bundler.flush(sent::add);
+
+        List<LanBroadcastPacket> order = new ArrayList<>();
+        ((LanTickBundleBroadcastPacket) sent.get(0)).forEachMessage(order::add);
+        CLogAssert.assertTrue("玩家同步最先", order.get(0) instanceof LanPlayerSyncBroadcastPacket);
+        CLogAssert.assertTrue("敌人状态其次", order.get(1) instanceof LanEnemyDeltaBroadcastPacket);
+        CLogAssert.assertTrue("伤害结果最后", order.get(2) instanceof LanDamageResultBroadcastPacket);
+    }
+
+    @Test
+    public void 测试_超过数据报上限时拆分() {
+        LanPacketBundler bundler = new LanPacketBundler();
+        bundler.setMaxDatagramBytes(500);
+        List<LanBroadcastPacket> sent = new ArrayList<>();
+        for (int i = 0; i < 10; i++) bundler.offer(sync(A, 100 + i), sent::add);
+        bundler.flush(sent::add);
+
+        CLogAssert.assertTrue("拆成多个数据报", sent.size() > 1);
+        int total = 0;
+        for (LanBroadcastPacket p : sent) {
+            total += p instanceof LanTickBundleBroadcastPacket
+                ? ((LanTickBundleBroadcastPacket) p).getMessageCount() : 1;
+        }
+        CLogAssert.assertEquals("消息不丢失", 10, total);
+    }
+
+    @Test
+    public void 测试_不可合并消息先冲刷待发内容() {
+        LanPacketBundler bundler = new LanPacketBundler();
+        List<LanBroadcastPacket> sent = new ArrayList<>();
+        bundler.offer(damage(A, 1), sent::add);
+        bundler.offer(new LanFloorChangeBroadcastPacket(A, IStatus.RETURN_SUCCESS, 42L, 2), sent::add);
+
+        CLogAssert.assertEquals("立即发出两个数据报", 2, sent.size());
+        CLogAssert.assertTrue("先前的伤害结果在前", sent.get(0) instanceof LanDamageResultBroadcastPacket);
+        CLogAssert.assertTrue("换层在后", sent.get(1) instanceof LanFloorChangeBroadcastPacket);
+    }
+
+    @Test
+    public void 测试_同一tick两条敌人增量不互相覆盖() {
+        LanPacketBundler bundler = new LanPacketBundler();
+        List<LanBroadcastPacket> sent = new ArrayList<>();
+        bundler.offer(delta(A, 0), sent::add);
+        bundler.offer(delta(A, 1), sent::add);
+        bundler.flush(sent::add);
+
+        CLogAssert.assertEquals("分成两个数据报", 2, sent.size());
+        CLogAssert.assertEquals("先发序号 0", 0, ((LanEnemyDeltaBroadcastPacket) sent.get(0)).getSeq());
+        CLogAssert.assertEquals("后发序号 1", 1, ((LanEnemyDeltaBroadcastPacket) sent.get(1)).getSeq());
+    }
+
+    @Test
+    public void 测试_断线客户端的待发内容被丢弃() {
+        LanPacketBundler bundler = new LanPacketBundler();
+        List<LanBroadcastPacket> sent = new ArrayList<>();
+        bundler.offer(damage(A, 1), sent::add);
+        bundler.offer(damage(B, 1), sent::add);
+        bundler.retainClients(guid -> guid == A);
+        bundler.flush(sent::add);
+        CLogAssert.assertEquals("只发给在线客户端", 1, sent.size());
+        CLogAssert.assertEquals("目标为 A", A, sent.get(0).getOwnerGuid());
+    }
+}
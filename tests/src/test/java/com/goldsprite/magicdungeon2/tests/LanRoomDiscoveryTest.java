@@ -0,0 +1,98 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanDiscoveryProtocol;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomCache;
+import com.goldsprite.magicdungeon2.network.lan.discovery.LanRoomInfo;
+
+/**
+ * 局域网房间发现单元测试（不开套接字）。
+ * <p>
+ * 验证：信标/PING/PONG 编解码与非本协议数据报的拒绝、房间缓存的刷新与 TTL 淘汰、
+ * 同一主机多房间共用 ping、测 ping 节流、快照引用只在内容变化时更新。
+ */
+public class LanRoomDiscoveryTest {
+
+    private static final String HOST_A = "192.168.1.10";
+    private static final String HOST_B = "192.168.1.20";
+
+    @Test
+    public void 测试_信标编解码() {
+        byte[] buf = new byte[LanDiscoveryProtocol.MAX_DATAGRAM];
+        LanRoomInfo info = new LanRoomInfo("房主小明", "room-2", 25565, 3, 4);
+        int len = LanDiscoveryProtocol.writeBeacon(info, buf);
+
+        CLogAssert.assertEquals("类型为信标", LanDiscoveryProtocol.TYPE_BEACON, LanDiscoveryProtocol.typeOf(buf, len));
+        CLogAssert.assertEquals("往返一致", info, LanDiscoveryProtocol.readBeacon(buf, len));
+        CLogAssert.assertTrue("信标很小", len < 40);
+
+        LanRoomInfo single = new LanRoomInfo("host", null, 7000, 1, 0);
+        len = LanDiscoveryProtocol.writeBeacon(single, buf);
+        LanRoomInfo decoded = LanDiscoveryProtocol.readBeacon(buf, len);
+        CLogAssert.assertEquals("单房间无房间名", null, decoded.getRoomName());
+        CLogAssert.assertFalse("层数 0 表示在大厅", decoded.isInGame());
+
+        String longName = "abcdefghijklmnopqrstuvwxyz0123456789";
+        len = LanDiscoveryProtocol.writeBeacon(new LanRoomInfo(longName, null, 7000, 1, 0), buf);
+        CLogAssert.assertEquals("展示名截断", LanDiscoveryProtocol.MAX_NAME_CHARS,
+            LanDiscoveryProtocol.readBeacon(buf, len).getHostName().length());
+    }
+
+    @Test
+    public void 测试_PING与非本协议数据报() {
+        byte[] buf = new byte[LanDiscoveryProtocol.MAX_DATAGRAM];
+        int len = LanDiscoveryProtocol.writePong(123_456_789_012L, buf);
+        CLogAssert.assertEquals("PONG 类型", LanDiscoveryProtocol.TYPE_PONG, LanDiscoveryProtocol.typeOf(buf, len));
+        CLogAssert.assertEquals("时间戳原样回传", 123_456_789_012L, LanDiscoveryProtocol.readNonce(buf, len));
+        CLogAssert.assertEquals("PONG 不是信标", null, LanDiscoveryProtocol.readBeacon(buf, len));
+
+        byte[] junk = "MSEARCH * HTTP/1.1".getBytes();
+        CLogAssert.assertEquals("其他程序的广播", -1, LanDiscoveryProtocol.typeOf(junk, junk.length));
+        len = LanDiscoveryProtocol.writeBeacon(new LanRoomInfo("h", null, 7000, 1, 0), buf);
+        CLogAssert.assertEquals("截断的信标", null, LanDiscoveryProtocol.readBeacon(buf, len - 2));
+    }
+
+    @Test
+    public void 测试_缓存刷新与TTL淘汰() {
+        LanRoomCache cache = new LanRoomCache(3000L);
+        cache.onBeacon(HOST_A, new LanRoomInfo("A", null, 25565, 1, 0), 0L);
+        cache.onBeacon(HOST_B, new LanRoomInfo("B", null, 25565, 2, 0), 0L);
+        CLogAssert.assertEquals("两个房间", 2, cache.getRooms().size());
+
+        List<LanRoomCache.Entry> view = cache.getRooms();
+        cache.onBeacon(HOST_A, new LanRoomInfo("A", null, 25565, 1, 0), 2000L);
+        CLogAssert.assertTrue("内容不变时快照不重建", view == cache.getRooms());
+
+        CLogAssert.assertEquals("B 超时淘汰", 1, cache.evictExpired(3500L));
+        CLogAssert.assertEquals("A 刚刷新过", "A", cache.getRooms().get(0).getInfo().getHostName());
+
+        cache.onBeacon(HOST_A, new LanRoomInfo("A", null, 25565, 2, 1), 3600L);
+        CLogAssert.assertTrue("人数/层数变化更新快照", view != cache.getRooms());
+        CLogAssert.assertEquals("新人数", 2, cache.getRooms().get(0).getInfo().getPlayers());
+        CLogAssert.assertEquals("同一房间不重复", 1, cache.getRooms().size());
+    }
+
+    @Test
+    public void 测试_同主机多房间共用ping() {
+        LanRoomCache cache = new LanRoomCache();
+        cache.onBeacon(HOST_A, new LanRoomInfo("room-1", "room-1", 25565, 0, 0), 0L);
+        cache.onBeacon(HOST_A, new LanRoomInfo("room-2", "room-2", 25565, 0, 0), 0L);
+        CLogAssert.assertEquals("同端口不同房间名是两个房间", 2, cache.getRooms().size());
+        CLogAssert.assertEquals("尚未测得", -1f, cache.getRooms().get(0).getPingMs(), 0.001f);
+
+        CLogAssert.assertTrue("首次测 ping", cache.shouldPing(HOST_A, 0L));
+        CLogAssert.assertFalse("间隔内不重复测", cache.shouldPing(HOST_A, LanRoomCache.PING_INTERVAL_MS - 1));
+        CLogAssert.assertTrue("间隔后再测", cache.shouldPing(HOST_A, LanRoomCache.PING_INTERVAL_MS));
+
+        cache.onPong(HOST_A, 12.5f);
+        for (LanRoomCache.Entry e : cache.getRooms()) {
+            CLogAssert.assertEquals("两个房间都更新", 12.5f, e.getPingMs(), 0.001f);
+        }
+        cache.onBeacon(HOST_A, new LanRoomInfo("room-3", "room-3", 25565, 0, 0), 100L);
+        CLogAssert.assertEquals("新房间沿用主机 ping", 12.5f, cache.getRooms().get(2).getPingMs(), 0.001f);
+    }
+}
@@ -0,0 +1,128 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.LanNetworkEvent;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanAttackRequestPacket;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanRoomRouter;
+import com.goldsprite.magicdungeon2.network.lan.transport.LoopbackLanTransport;
+
+/**
+ * 多房间共用端口的路由测试（进程内回环，不打开套接字）。
+ * <p>
+ * 验证：客户端按房间名进入房间、未选择的进入默认房间、包只路由给所在房间、
+ * 房间只能向本房间客户端发包、关闭一个房间后其客户端回到默认房间。
+ */
+public class LanRoomRouterTest {
+
+    private static final int PORT = 7200;
+
+    /** 路由器 + 两个房间 + 客户端 a（选 room-2）与 b（不选） */
+    private static class Setup {
+        final LoopbackLanTransport loop = new LoopbackLanTransport(3L);
+        final LanRoomRouter router = new LanRoomRouter(loop, PORT);
+        final LanMultiplayerService room1 = new LanMultiplayerService();
+        final LanMultiplayerService room2 = new LanMultiplayerService();
+        final LanMultiplayerService a = new LanMultiplayerService();
+        final LanMultiplayerService b = new LanMultiplayerService();
+
+        Setup() {
+            CLogAssert.assertTrue("路由器启动", router.start());
+            room1.setTransport(router.roomTransport("room-1"));
+            room1.startDedicated(PORT);
+            room2.setTransport(router.roomTransport("room-2"));
+            room2.startDedicated(PORT);
+            a.setTransport(loop);
+            a.join("a", loop.getLocalAddress(), PORT, "room-2");
+            b.setTransport(loop);
+            b.join("b", loop.getLocalAddress(), PORT);
+            loop.pump();
+        }
+
+        void stop() {
+            a.stop();
+            b.stop();
+            room1.stop();
+            room2.stop();
+            router.stop();
+        }
+    }
+
+    private static Set<Integer> members(LanMultiplayerService room) {
+        Set<Integer> out = new HashSet<>();
+        room.collectClientGuids(out);
+        return out;
+    }
+
+    @Test
+    public void 测试_按房间名分配与默认房间() {
+        Setup s = new Setup();
+        int ga = s.a.getLocalGuid(), gb = s.b.getLocalGuid();
+
+        CLogAssert.assertTrue("两个房间都已启动", s.room1.isConnected() && s.room2.isConnected());
+        CLogAssert.assertEquals("a 进入所选房间", "room-2", s.router.getRoomOf(ga));
+        CLogAssert.assertEquals("b 进入默认房间", "room-1", s.router.getRoomOf(gb));
+        CLogAssert.assertTrue("room-1 只有 b", members(s.room1).contains(gb) && !members(s.room1).contains(ga));
+        CLogAssert.assertTrue("room-2 只有 a", members(s.room2).contains(ga) && !members(s.room2).contains(gb));
+        s.stop();
+    }
+
+    @Test
+    public void 测试_包只路由给所在房间() {
+        Setup s = new Setup();
+        s.a.sendAttackRequest("physical", 1f, 1f, 1, 0, 5f);
+        s.b.sendAttackRequest("magic", 2f, 2f, 0, 1, 5f);
+        s.loop.pump();
+
+        List<LanAttackRequestPacket> r1 = s.room1.drainAttackRequests();
+        List<LanAttackRequestPacket> r2 = s.room2.drainAttackRequests();
+        CLogAssert.assertEquals("room-1 收到 1 条", 1, r1.size());
+        CLogAssert.assertEquals("room-1 的来自 b", s.b.getLocalGuid(), r1.get(0).getOwnerGuid());
+        CLogAssert.assertEquals("room-2 收到 1 条", 1, r2.size());
+        CLogAssert.assertEquals("room-2 的来自 a", s.a.getLocalGuid(), r2.get(0).getOwnerGuid());
+
+        // 房间不能向其他房间的客户端发包
+        s.a.drainEvents();
+        s.room1.sendGameStartTo(s.a.getLocalGuid(), 11L);
+        s.room1.flushOutgoing();
+        s.room2.sendGameStartTo(s.a.getLocalGuid(), 22L, 3); // 中途加入：带房间当前层数
+        s.room2.flushOutgoing();
+        s.loop.pump();
+        int starts = 0;
+        long seed = 0;
+        int floor = 0;
+        for (LanNetworkEvent e : s.a.drainEvents()) {
+            if (e.getType() == LanNetworkEvent.Type.GAME_START) {
+                starts++;
+                seed = e.getMapSeed();
+                floor = e.getFloor();
+            }
+        }
+        CLogAssert.assertEquals("只收到本房间的开始游戏", 1, starts);
+        CLogAssert.assertEquals("种子来自 room-2", 22L, seed);
+        CLogAssert.assertEquals("层数随开始游戏下发", 3, floor);
+        CLogAssert.assertEquals("待消费的层数", 3, s.a.getPendingFloor());
+        s.stop();
+    }
+
+    @Test
+    public void 测试_关闭房间后客户端回到默认房间() {
+        Setup s = new Setup();
+        int ga = s.a.getLocalGuid();
+        s.room2.stop();
+        CLogAssert.assertEquals("剩余 1 个房间", 1, s.router.getRoomCount());
+        CLogAssert.assertTrue("a 暂不属于任何房间", s.router.getRoomOf(ga) == null);
+
+        members(s.room1); // 登记为待分配
+        s.loop.advance(LanRoomRouter.JOIN_GRACE_MS + 100);
+        CLogAssert.assertTrue("超时后进入默认房间", members(s.room1).contains(ga));
+        CLogAssert.assertTrue("room-1 仍在运行", s.room1.isConnected());
+        s.stop();
+    }
+}
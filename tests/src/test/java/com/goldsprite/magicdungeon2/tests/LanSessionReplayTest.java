@@ -0,0 +1,165 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.LanRoomPlayer;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerHurtBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerSyncBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.record.LanReplayTransport;
+import com.goldsprite.magicdungeon2.network.lan.record.LanSessionLog;
+import com.goldsprite.magicdungeon2.network.lan.record.LanSessionRecorder;
+import com.goldsprite.magicdungeon2.network.lan.transport.LoopbackLanTransport;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * 会话录制（内存映射日志）与离线回放单元测试。
+ * <p>
+ * 验证：嵌套合并包与紧凑包往返、写满上限后停止且已写条目可读、
+ * 丢包链路上录制的客户端会话回放后得到相同的伤害序列与远程玩家状态。
+ */
+public class LanSessionReplayTest {
+
+    private static final int PORT = 7200;
+    private static final long TICK_MS = 33L;
+
+    private static File tempLog() throws IOException {
+        File f = File.createTempFile("lan-session", ".mdlr");
+        f.deleteOnExit();
+        return f;
+    }
+
+    @Test
+    public void 测试_合并包与紧凑包往返() throws IOException {
+        File path = tempLog();
+        LanTickBundleBroadcastPacket bundle = new LanTickBundleBroadcastPacket(3, IStatus.RETURN_SUCCESS);
+        LanPlayerStateSnapshot state = new LanPlayerStateSnapshot(5, "A", 7f, 9f, 224.5f, 288f,
+            "walk", 123L, 40f, 60f, 2, 8f, 3f);
+        bundle.add(new LanPlayerSyncBroadcastPacket(3, IStatus.RETURN_SUCCESS, state));
+        bundle.add(new LanDamageResultBroadcastPacket(3, IStatus.RETURN_SUCCESS, 11, 4.5f, 20f, true, 5, 30));
+        bundle.add(new LanPlayerHurtBroadcastPacket(3, IStatus.RETURN_SUCCESS, 3, 2f, 18f, 11));
+        bundle.setTick(77L);
+        try (LanSessionRecorder rec = new LanSessionRecorder(path)) {
+            rec.recordOutbound(LanSessionLog.ENDPOINT_SERVER, 77L, 1_000L, 3, bundle);
+            rec.recordOutbound(LanSessionLog.ENDPOINT_SERVER, 78L, 2_000L, 3, bundle);
+        }
+
+        LanSessionLog log = LanSessionLog.open(path);
+        CLogAssert.assertEquals("文件头条目数", 2L, log.getEntryCount());
+        for (int i = 0; i < 2; i++) {
+            LanSessionLog.Entry e = log.next();
+            CLogAssert.assertEquals("类型", LanSessionLog.KIND_OUT, e.getKind());
+            CLogAssert.assertEquals("本地 tick", 77L + i, e.getTick());
+            LanTickBundleBroadcastPacket got = (LanTickBundleBroadcastPacket) e.getPacket();
+            CLogAssert.assertEquals("包头 tick", 77L, got.getTick());
+            CLogAssert.assertEquals("owner", 3, got.getOwnerGuid());
+            List<String> parts = new ArrayList<>();
+            got.forEachMessage(p -> {
+                if (p instanceof LanPlayerSyncBroadcastPacket) {
+                    LanPlayerStateSnapshot s = ((LanPlayerSyncBroadcastPacket) p).getState();
+                    parts.add("sync" + s.getPlayerGuid() + "@" + s.getX() + "," + s.getVx() + ":" + s.getAction());
+                } else if (p instanceof LanDamageResultBroadcastPacket) {
+                    LanDamageResultBroadcastPacket d = (LanDamageResultBroadcastPacket) p;
+                    parts.add("dmg" + d.getEnemyId() + "=" + d.getDamage() + (d.isKilled() ? "k" : ""));
+                } else {
+                    parts.add("hurt" + ((LanPlayerHurtBroadcastPacket) p).getRemainHp());
+                }
+            });
+            CLogAssert.assertEquals("内部消息完整还原", "[sync5@7.0,224.5:walk, dmg11=4.5k, hurt18.0]", parts.toString());
+        }
+        CLogAssert.assertTrue("读完", log.next() == null);
+    }
+
+    @Test
+    public void 测试_写满上限后停止且已写条目可读() throws IOException {
+        File path = tempLog();
+        LanDamageResultBroadcastPacket p = new LanDamageResultBroadcastPacket(1, IStatus.RETURN_SUCCESS, 1, 1f, 1f, false, 1, 0);
+        LanSessionRecorder rec = new LanSessionRecorder(path, 2048L);
+        for (int i = 0; i < 100; i++) rec.recordInbound(LanSessionLog.ENDPOINT_CLIENT, i, i, -1, p);
+        long written = rec.getEntryCount();
+        CLogAssert.assertTrue("写入了一部分", written > 0 && written < 100);
+        CLogAssert.assertEquals("其余跳过", 100L - written, rec.getSkipped());
+        CLogAssert.assertTrue("不超过上限", rec.getBytesWritten() <= 2048L);
+        rec.close();
+
+        LanSessionLog log = LanSessionLog.open(path);
+        long read = 0;
+        while (log.next() != null) read++;
+        CLogAssert.assertEquals("读出全部已写条目", written, read);
+    }
+
+    /** 房主 + 一个客户端；客户端全程录制；丢包乱序链路上发伤害与玩家状态 */
+    private static String recordLossySession(File path, List<String> damageLog) {
+        LoopbackLanTransport loop = new LoopbackLanTransport(3L);
+        LanMultiplayerService host = new LanMultiplayerService();
+        LanMultiplayerService client = new LanMultiplayerService();
+        host.setTransport(loop);
+        client.setTransport(loop);
+        CLogAssert.assertTrue("开始录制", client.startRecording(path));
+        host.startHost("host", PORT);
+        client.join("p1", loop.getLocalAddress(), PORT);
+        loop.pump();
+        loop.setLatency(20L, 60L);
+        loop.setLossRate(0.3f);
+
+        for (int i = 1; i <= 15; i++) host.broadcastDamageResult(i, 1f, 10f, false, client.getLocalGuid(), 0);
+        long now = loop.getNow();
+        for (int step = 0; step < 200; step++) {
+            host.setLocalTick(step);
+            client.setLocalTick(step);
+            if (step % 3 == 0) host.sendLocalState(step % 20, 4f, step * 2f, 128f, "walk", 80f, 100f, 3, 9f, 2f);
+            host.flushOutgoing();
+            now += TICK_MS;
+            loop.pump(now);
+            client.drainDamageResults(p -> damageLog.add("d" + p.getEnemyId()));
+        }
+        LanRoomPlayer seen = client.getRemotePlayerView().find(host.getLocalGuid());
+        String view = seen == null ? "none" : seen.getX() + "," + seen.getVx() + "," + seen.getHp();
+        client.stopRecording();
+        host.stop();
+        client.stop();
+        return view;
+    }
+
+    @Test
+    public void 测试_丢包会话回放结果一致() throws IOException {
+        File path = tempLog();
+        List<String> liveDamage = new ArrayList<>();
+        String liveView = recordLossySession(path, liveDamage);
+        CLogAssert.assertEquals("现场收到全部伤害", 15, liveDamage.size());
+
+        LanSessionLog log = LanSessionLog.open(path);
+        LanReplayTransport replay = new LanReplayTransport(log);
+        LanMultiplayerService offline = new LanMultiplayerService();
+        offline.setTransport(replay);
+        offline.join("p1", replay.getLocalAddress(), PORT);
+        List<String> replayDamage = new ArrayList<>();
+        long count = replay.play(0f, tick -> {
+            offline.setLocalTick(tick);
+            offline.drainDamageResults(p -> replayDamage.add("d" + p.getEnemyId()));
+        });
+        offline.drainDamageResults(p -> replayDamage.add("d" + p.getEnemyId()));
+
+        CLogAssert.assertEquals("回放了全部条目", log.getEntryCount(), count);
+        CLogAssert.assertEquals("录制时的模式", "NONE", replay.getSessionMode());
+        CLogAssert.assertTrue("按录制的 guid 登录", offline.isConnected() && offline.getLocalGuid() > 0);
+        CLogAssert.assertEquals("伤害序列一致", liveDamage, replayDamage);
+        LanRoomPlayer seen = null;
+        for (LanRoomPlayer p : offline.getRemotePlayers()) seen = p;
+        String view = seen == null ? "none" : seen.getX() + "," + seen.getVx() + "," + seen.getHp();
+        CLogAssert.assertEquals("远程玩家最终状态一致", liveView, view);
+        CLogAssert.assertTrue("录制过发出的包", replay.getRecordedOut() > 0);
+        CLogAssert.assertTrue("回放中服务照常发出（确认等）", replay.getLiveOut() > 0);
+        offline.stop();
+    }
+}
@@ -0,0 +1,185 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.WorldEvent;
+import com.goldsprite.magicdungeon2.network.lan.LanHostAuthority;
+import com.goldsprite.magicdungeon2.network.lan.LanMultiplayerService;
+import com.goldsprite.magicdungeon2.network.lan.LanNetworkEvent;
+import com.goldsprite.magicdungeon2.network.lan.LanSessionSlots;
+import com.goldsprite.magicdungeon2.network.lan.transport.LoopbackLanTransport;
+
+/**
+ * 断线重连（会话槽位 + 全量状态重同步）单元测试。
+ * <p>
+ * 验证：槽位的接管、宽限期与重复登记；客户端静默超时后自动重连，
+ * 房主把远程角色与玩家记录转到新 guid 并下发换层后的种子、层数与敌人表，恢复耗时远小于一秒；
+ * 宽限期过后重连按新玩家处理。
+ */
+public class LanSessionResumeTest {
+
+    private static final int PORT = 7100;
+    private static final long TICK_MS = 33L;
+    private static final float DT = TICK_MS / 1000f;
+
+    @Test
+    public void 测试_槽位接管宽限期与重复登记() {
+        LanSessionSlots slots = new LanSessionSlots();
+        slots.setGraceMs(500L);
+        List<Integer> alive = new ArrayList<>();
+        List<Integer> expired = new ArrayList<>();
+
+        CLogAssert.assertEquals("新令牌", -1, slots.bind(1L, 10));
+        alive.add(10);
+        slots.update(alive::contains, 0L, expired::add);
+        CLogAssert.assertFalse("连接中不算保留", slots.isHeld(10));
+
+        alive.clear();
+        slots.update(alive::contains, 100L, expired::add);
+        CLogAssert.assertTrue("断线后进入宽限期", slots.isHeld(10));
+
+        CLogAssert.assertEquals("新 guid 接管原槽位", 10, slots.bind(1L, 11));
+        CLogAssert.assertEquals("重发的请求结果相同", 10, slots.bind(1L, 11));
+        CLogAssert.assertEquals("接管计数", 1L, slots.getResumed());
+        alive.add(11);
+        slots.update(alive::contains, 2000L, expired::add);
+        CLogAssert.assertEquals("接管后不过期", 0, expired.size());
+
+        alive.clear();
+        slots.update(alive::contains, 3000L, expired::add);
+        slots.update(alive::contains, 3499L, expired::add);
+        CLogAssert.assertEquals("宽限期内保留", 0, expired.size());
+        slots.update(alive::contains, 3500L, expired::add);
+        CLogAssert.assertEquals("宽限期过后作废", "[11]", expired.toString());
+        CLogAssert.assertEquals("作废后按新令牌处理", -1, slots.bind(1L, 12));
+    }
+
+    /** 独立服务器 + 权威世界 + 一个客户端 */
+    private static final class Room {
+        final LoopbackLanTransport loop = new LoopbackLanTransport(3L);
+        final LanMultiplayerService host = new LanMultiplayerService();
+        final LanMultiplayerService client = new LanMultiplayerService();
+        final GameWorld world = new GameWorld(GameWorld.Role.DEDICATED, 11L, new Random(11));
+        final LanHostAuthority authority = new LanHostAuthority(host, world);
+        final List<LanNetworkEvent> resyncs = new ArrayList<>();
+        long now;
+
+        Room() {
+            loop.setLatency(30L, 0L);
+            host.setTransport(loop);
+            host.startDedicated(PORT);
+            client.setTransport(loop);
+            client.join("p1", loop.getLocalAddress(), PORT);
+            now = loop.getNow();
+        }
+
+        void step() {
+            host.pruneDisconnectedPlayers();
+            world.tick(DT, null);
+            host.setLocalTick(world.getTickCount());
+            authority.update();
+            world.drainEvents(authority::onWorldEvent);
+            host.flushOutgoing();
+            client.updateConnection();
+            if (client.isConnected()) client.sendLocalState(5f, 5f, 160f, 160f, "idle", 80f, 100f, 3, 9f, 2f);
+            client.drainEvents(e -> {
+                if (e.getType() == LanNetworkEvent.Type.RESYNC) resyncs.add(e);
+            });
+            now += TICK_MS;
+            loop.pump(now);
+        }
+
+        void steps(int n) {
+            for (int i = 0; i < n; i++) step();
+        }
+
+        void stop() {
+            client.stop();
+            host.stop();
+        }
+    }
+
+    @Test
+    public void 测试_静默超时自动重连并下发全量状态() {
+        Room room = new Room();
+        room.steps(30);
+        int oldGuid = room.client.getLocalGuid();
+        CLogAssert.assertTrue("已连接", room.client.isConnected());
+        CLogAssert.assertTrue("房主世界有远程角色", room.world.getRemoteActor(oldGuid) != null);
+        CLogAssert.assertTrue("收到过敌人", !room.client.getLatestEnemyStates().isEmpty());
+        CLogAssert.assertTrue("首次加入已登记", room.host.getSessions().isBound(oldGuid));
+        CLogAssert.assertFalse("首次加入不算重连", room.host.getSessions().isResume(oldGuid));
+
+        // 链路中断期间房主换层，客户端错过换层广播
+        room.loop.setLossRate(1f);
+        room.authority.onWorldEvent(WorldEvent.floorChange(777L, 2));
+        room.world.enterFloor(777L, 2);
+        int guard = 0;
+        while (!room.client.isResuming() && guard++ < 200) room.step();
+        CLogAssert.assertTrue("静默超时后开始重连", room.client.isResuming());
+
+        room.loop.setLossRate(0f);
+        long start = room.now;
+        guard = 0;
+        while (room.resyncs.isEmpty() && guard++ < 100) room.step();
+        CLogAssert.assertEquals("收到一次全量状态", 1, room.resyncs.size());
+        long elapsed = room.now - start;
+        CLogAssert.assertTrue("恢复耗时远小于一秒: " + elapsed + "ms", elapsed < 500L);
+
+        LanNetworkEvent e = room.resyncs.get(0);
+        CLogAssert.assertEquals("恢复原槽位", "会话已恢复", e.getMessage());
+        // 远程玩家可能恰好站在新层的楼梯上继续换层：以房主世界当前的层为准
+        CLogAssert.assertTrue("包含错过的换层", e.getFloor() >= 2);
+        CLogAssert.assertEquals("层数与房主一致", room.world.getCurrentFloor(), e.getFloor());
+        CLogAssert.assertEquals("种子与房主一致", room.world.getMapSeed(), e.getMapSeed());
+        CLogAssert.assertTrue("带玩家状态", e.getPlayerState() != null);
+
+        int newGuid = room.client.getLocalGuid();
+        CLogAssert.assertTrue("传输层分配了新 guid", newGuid != oldGuid);
+        CLogAssert.assertEquals("房主接管计数", 1L, room.host.getSessions().getResumed());
+        CLogAssert.assertTrue("以重连登记（独立服务器不再发开始游戏）", room.host.getSessions().isResume(newGuid));
+        CLogAssert.assertTrue("远程角色转到新 guid", room.world.getRemoteActor(newGuid) != null);
+        CLogAssert.assertTrue("原 guid 的远程角色已移除", room.world.getRemoteActor(oldGuid) == null);
+        CLogAssert.assertTrue("原 guid 的玩家记录已移除", room.host.getRemotePlayerView().find(oldGuid) == null);
+        CLogAssert.assertTrue("敌人表随全量状态到达", !room.client.getLatestEnemyStates().isEmpty());
+
+        // 之后照常收增量
+        long tick = room.client.getLatestEnemyStatesTick();
+        room.steps(10);
+        CLogAssert.assertTrue("敌人状态继续推进", room.client.getLatestEnemyStatesTick() > tick);
+        CLogAssert.assertEquals("没有重复的全量状态", 1, room.resyncs.size());
+        room.stop();
+    }
+
+    @Test
+    public void 测试_宽限期过后按新玩家重新加入() {
+        Room room = new Room();
+        room.host.getSessions().setGraceMs(300L);
+        room.steps(30);
+        int oldGuid = room.client.getLocalGuid();
+
+        // 重连请求在链路恢复前一直丢失，原槽位过期
+        room.loop.setLossRate(1f);
+        room.client.resume();
+        room.steps(30);
+        CLogAssert.assertEquals("槽位过期", 1L, room.host.getSessions().getExpired());
+        CLogAssert.assertTrue("原 guid 的玩家记录已清理", room.host.getRemotePlayerView().find(oldGuid) == null);
+
+        room.loop.setLossRate(0f);
+        int guard = 0;
+        while (room.resyncs.isEmpty() && guard++ < 100) room.step();
+        CLogAssert.assertEquals("收到全量状态", 1, room.resyncs.size());
+        CLogAssert.assertEquals("按新玩家处理", "已重新加入（原位置已失效）", room.resyncs.get(0).getMessage());
+        CLogAssert.assertEquals("未接管", 0L, room.host.getSessions().getResumed());
+        CLogAssert.assertTrue("槽位过期也按重连登记", room.host.getSessions().isResume(room.client.getLocalGuid()));
+        room.steps(10);
+        CLogAssert.assertTrue("新 guid 正常同步", room.host.getRemotePlayerView().find(room.client.getLocalGuid()) != null);
+        room.stop();
+    }
+}
@@ -0,0 +1,63 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.LanSyncRate;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanNetStats;
+import com.goldsprite.magicdungeon2.network.lan.stats.LanPeerStats;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * LanSyncRate 自适应同步频率单元测试。
+ * <p>
+ * 验证：无数据时用基础间隔、RTT 超阈值按比例放大、超出带宽预算放大、放大有上限、心跳判定。
+ */
+public class LanSyncRateTest {
+
+    private static final int PEER = 3;
+
+    @Test
+    public void 测试_无统计数据用基础间隔() {
+        LanSyncRate rate = new LanSyncRate();
+        CLogAssert.assertEquals("null 对端", 33L, rate.intervalFor(null, 33));
+        LanNetStats stats = new LanNetStats();
+        stats.onSequence(PEER, 0, 0); // 只创建对端
+        CLogAssert.assertEquals("无 RTT 无发送", 33L, rate.intervalFor(stats.getPeer(PEER), 33));
+    }
+
+    @Test
+    public void 测试_RTT超过阈值按比例放大() {
+        LanSyncRate rate = new LanSyncRate();
+        rate.setRttThresholdMs(100);
+        LanNetStats stats = new LanNetStats();
+        stats.onProbeSent(PEER, 1, 0L);
+        stats.onProbeAcked(PEER, 1, 150_000_000L); // 150ms，抖动初值 75ms → 300ms
+        LanPeerStats ps = stats.getPeer(PEER);
+        CLogAssert.assertEquals("3 倍", 99L, rate.intervalFor(ps, 33));
+        rate.setMaxIntervalMs(80);
+        CLogAssert.assertEquals("不超过上限", 80L, rate.intervalFor(ps, 33));
+    }
+
+    @Test
+    public void 测试_超出带宽预算放大() {
+        LanSyncRate rate = new LanSyncRate();
+        LanNetStats stats = new LanNetStats();
+        LanDamageResultBroadcastPacket p = new LanDamageResultBroadcastPacket(PEER, IStatus.RETURN_SUCCESS, 1, 5f, 10f, false, 1, 0);
+        stats.recordSent(p, PEER);
+        int bytes = LanNetStats.estimateBytes(p);
+        rate.setBandwidthBudget(bytes * 1000f / 100); // 预算只够每 100ms 一个包
+        CLogAssert.assertEquals("按预算降到 100ms", 100L, rate.intervalFor(stats.getPeer(PEER), 50));
+        CLogAssert.assertEquals("基础间隔已足够慢时不变", 200L, rate.intervalFor(stats.getPeer(PEER), 200));
+    }
+
+    @Test
+    public void 测试_心跳() {
+        LanSyncRate rate = new LanSyncRate();
+        rate.setHeartbeatMs(1000);
+        CLogAssert.assertFalse("未到心跳", rate.heartbeatDue(999));
+        CLogAssert.assertTrue("到达心跳", rate.heartbeatDue(1000));
+    }
+}
@@ -0,0 +1,146 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanActionCodes;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireReader;
+import com.goldsprite.magicdungeon2.network.lan.codec.LanWireWriter;
+import com.goldsprite.magicdungeon2.network.lan.packet.EnemyStateDelta;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanEnemyDeltaBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerStateSnapshot;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerSyncBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerSyncRequestPacket;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * LAN 紧凑二进制编码单元测试。
+ * <p>
+ * 验证：变长整数/定点量化/字符串往返、动作枚举编码、玩家快照与敌人增量报文体往返及体积。
+ */
+public class LanWireCodecTest {
+
+    private static LanWireReader roundTrip(LanWireWriter w) {
+        return LanWireReader.fromBase64(w.toBase64());
+    }
+
+    @Test
+    public void 测试_基础类型往返() {
+        LanWireWriter w = LanWireWriter.local();
+        w.writeVarInt(0);
+        w.writeVarInt(127);
+        w.writeVarInt(300);
+        w.writeSignedVarInt(-1);
+        w.writeSignedVarInt(Integer.MIN_VALUE);
+        w.writeVarLong(123456789012L);
+        w.writeFixed(12f);
+        w.writeFixed(-3.5f);
+        w.writeString("史莱姆");
+        w.writeString(null);
+        LanActionCodes.write(w, "walk");
+        LanActionCodes.write(w, "dance");
+
+        LanWireReader r = roundTrip(w);
+        CLogAssert.assertEquals("0", 0, r.readVarInt());
+        CLogAssert.assertEquals("127", 127, r.readVarInt());
+        CLogAssert.assertEquals("300", 300, r.readVarInt());
+        CLogAssert.assertEquals("-1", -1, r.readSignedVarInt());
+        CLogAssert.assertEquals("最小整数", Integer.MIN_VALUE, r.readSignedVarInt());
+        CLogAssert.assertEquals("长整数", 123456789012L, r.readVarLong());
+        CLogAssert.assertEquals("整数定点无损", 12f, r.readFixed(), 0f);
+        CLogAssert.assertEquals("负半数定点无损", -3.5f, r.readFixed(), 0f);
+        CLogAssert.assertEquals("UTF-8 字符串", "史莱姆", r.readString());
+        CLogAssert.assertTrue("null 字符串", r.readString() == null);
+        CLogAssert.assertEquals("登记动作", "walk", LanActionCodes.read(r));
+        CLogAssert.assertEquals("未登记动作原样保留", "dance", LanActionCodes.read(r));
+        CLogAssert.assertFalse("读取完毕", r.hasRemaining());
+    }
+
+    @Test
+    public void 测试_小整数只占一字节() {
+        LanWireWriter w = LanWireWriter.local();
+        w.writeVarInt(5);
+        w.writeSignedVarInt(-5);
+        LanActionCodes.write(w, "idle");
+        CLogAssert.assertEquals("三个字段共 3 字节", 3, w.length());
+    }
+
+    @Test
+    public void 测试_玩家快照往返且不含名字() {
+        LanPlayerStateSnapshot s = new LanPlayerStateSnapshot(12, "PlayerA", 7f, 9f, 224.25f, 288f,
+            "walk", 1700000000000L, 87.5f, 120f, 5, 16f, 6f);
+        s.setTick(4321L);
+        String body = LanPlayerSyncBroadcastPacket.encode(s);
+        CLogAssert.assertTrue("报文体远小于文本编码(<48)", body.length() < 48);
+
+        LanPlayerStateSnapshot d = new LanPlayerSyncBroadcastPacket(3, IStatus.RETURN_SUCCESS, body).getState();
+        CLogAssert.assertEquals("guid", 12, d.getPlayerGuid());
+        CLogAssert.assertEquals("tick", 4321L, d.getTick());
+        CLogAssert.assertEquals("网格X", 7f, d.getX(), 0f);
+        CLogAssert.assertEquals("视觉X量化误差", 224.25f, d.getVx(), 1f / 32f);
+        CLogAssert.assertEquals("动作", "walk", d.getAction());
+        CLogAssert.assertEquals("HP", 87.5f, d.getHp(), 0f);
+        CLogAssert.assertEquals("等级", 5, d.getLevel());
+        CLogAssert.assertEquals("防御", 6f, d.getDef(), 0f);
+        CLogAssert.assertTrue("名字不上线", d.getPlayerName() == null);
+    }
+
+    @Test
+    public void 测试_玩家状态请求往返() {
+        LanPlayerSyncRequestPacket p = new LanPlayerSyncRequestPacket(5, 3f, 4f, 96f, 128f, "idle",
+            50f, 100f, 2, 8f, 3f);
+        LanPlayerSyncRequestPacket d = LanPlayerSyncRequestPacket.fromBody(5, p.getBody());
+        CLogAssert.assertEquals("X", 3f, d.getX(), 0f);
+        CLogAssert.assertEquals("视觉Y", 128f, d.getVy(), 0f);
+        CLogAssert.assertEquals("动作", "idle", d.getAction());
+        CLogAssert.assertEquals("最大HP", 100f, d.getMaxHp(), 0f);
+        CLogAssert.assertEquals("攻击", 8f, d.getAtk(), 0f);
+    }
+
+    @Test
+    public void 测试_敌人增量按字段掩码往返() {
+        List<EnemyStateDelta> changed = new ArrayList<>();
+        EnemyStateDelta full = new EnemyStateDelta(1);
+        full.setEnemyType("skeleton");
+        full.setX(6);
+        full.setY(6);
+        full.setVisualX(192f);
+        full.setVisualY(192f);
+        full.setHp(35f);
+        full.setMaxHp(35f);
+        full.setAlive(true);
+        full.setAction("idle");
+        changed.add(full);
+        EnemyStateDelta hpOnly = new EnemyStateDelta(300);
+        hpOnly.setHp(12.5f);
+        changed.add(hpOnly);
+
+        LanEnemyDeltaBroadcastPacket p = new LanEnemyDeltaBroadcastPacket(3, IStatus.RETURN_SUCCESS,
+            42, 17, 15, 1700000000000L, changed, new int[]{4, 9});
+        LanEnemyDeltaBroadcastPacket d = LanEnemyDeltaBroadcastPacket.fromBody(3, IStatus.RETURN_SUCCESS, p.getBody());
+
+        CLogAssert.assertEquals("纪元", 42, d.getEpoch());
+        CLogAssert.assertEquals("序号", 17, d.getSeq());
+        CLogAssert.assertEquals("基线", 15, d.getBaselineSeq());
+        CLogAssert.assertEquals("时间戳", 1700000000000L, d.getTimestamp());
+        CLogAssert.assertEquals("变化数", 2, d.getChanged().size());
+        EnemyStateDelta a = d.getChanged().get(0);
+        CLogAssert.assertEquals("类型", "skeleton", a.getEnemyType());
+        CLogAssert.assertEquals("网格Y", Integer.valueOf(6), a.getY());
+        CLogAssert.assertEquals("存活", Boolean.TRUE, a.getAlive());
+        EnemyStateDelta b = d.getChanged().get(1);
+        CLogAssert.assertEquals("大 id", 300, b.getEnemyId());
+        CLogAssert.assertEquals("只有 HP", 12.5f, b.getHp(), 0f);
+        CLogAssert.assertTrue("未变化字段仍为 null", b.getX() == null && b.getEnemyType() == null && b.getAlive() == null);
+        CLogAssert.assertEquals("移除列表", 9, d.getRemoved()[1]);
+
+        LanEnemyDeltaBroadcastPacket key = new LanEnemyDeltaBroadcastPacket(3, IStatus.RETURN_SUCCESS,
+            42, 0, LanEnemyDeltaBroadcastPacket.KEYFRAME, 0L, null, null);
+        CLogAssert.assertTrue("关键帧标记往返",
+            LanEnemyDeltaBroadcastPacket.fromBody(3, IStatus.RETURN_SUCCESS, key.getBody()).isKeyframe());
+    }
+}
@@ -0,0 +1,196 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerHurtBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanPlayerInputAckBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanTickBundleBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.transport.LanServerTransport;
+import com.goldsprite.magicdungeon2.network.lan.transport.QueuedLanServer;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+import goldsprite.myUdpNetty.codec.codecInterfaces.Packet;
+
+/**
+ * QueuedLanServer 每客户端发送队列单元测试（底层为记录发送的假服务端）。
+ * <p>
+ * 验证：入队不直接发送、按客户端保持顺序、拥塞时丢弃最旧的状态包而不丢可靠事件、
+ * 含可靠消息的合并包不可丢弃、断线客户端的队列被关闭（队列已空时同样移除）、I/O 线程自动发出。
+ */
+public class QueuedLanServerTest {
+
+    private static final int A = 1;
+    private static final int B = 2;
+
+    /** 只记录发送的底层服务端 */
+    private static final class RecordingServer implements LanServerTransport {
+        final List<Packet> sent = new ArrayList<>();
+        final Set<Integer> clients = new HashSet<>();
+
+        RecordingServer() {
+            clients.add(A);
+            clients.add(B);
+        }
+
+        @Override
+        public <T extends Packet> void subscribe(Class<T> type, Consumer<T> consumer) {
+        }
+
+        @Override
+        public synchronized void send(Packet packet) {
+            sent.add(packet);
+        }
+
+        @Override
+        public boolean hasClient(int guid) {
+            return clients.contains(guid);
+        }
+
+        @Override
+        public String getClientName(int guid) {
+            return null;
+        }
+
+        @Override
+        public void forEachClient(IntConsumer consumer) {
+            for (int guid : clients) consumer.accept(guid);
+        }
+
+        @Override
+        public void stop() {
+        }
+
+        synchronized int size() {
+            return sent.size();
+        }
+    }
+
+    private static LanPlayerInputAckBroadcastPacket state(int guid, int seq) {
+        return new LanPlayerInputAckBroadcastPacket(guid, IStatus.RETURN_SUCCESS, seq, seq, 0, 0, 0f, 0, 1);
+    }
+
+    private static LanDamageResultBroadcastPacket reliable(int guid, int enemyId) {
+        return new LanDamageResultBroadcastPacket(guid, IStatus.RETURN_SUCCESS, enemyId, 5f, 10f, false, 1, 0);
+    }
+
+    private static QueuedLanServer manual(RecordingServer base, int capacity) {
+        return new QueuedLanServer(base, capacity, QueuedLanServer::isStaleState, false);
+    }
+
+    @Test
+    public void 测试_入队后由drain按客户端顺序发出() {
+        RecordingServer base = new RecordingServer();
+        QueuedLanServer q = manual(base, 16);
+        q.send(state(A, 1));
+        q.send(state(B, 1));
+        q.send(state(A, 2));
+        CLogAssert.assertEquals("入队不直接发送", 0, base.size());
+        CLogAssert.assertEquals("排队 3 个", 3, q.getQueuedCount());
+
+        CLogAssert.assertEquals("全部发出", 3, q.drain());
+        List<Integer> seqA = new ArrayList<>();
+        for (Packet p : base.sent) {
+            if (p.getOwnerGuid() == A) seqA.add(((LanPlayerInputAckBroadcastPacket) p).getAckSeq());
+        }
+        CLogAssert.assertEquals("同一客户端保持顺序", "[1, 2]", seqA.toString());
+        CLogAssert.assertEquals("队列清空", 0, q.getQueuedCount());
+    }
+
+    @Test
+    public void 测试_拥塞时丢弃最旧状态包不丢可靠事件() {
+        RecordingServer base = new RecordingServer();
+        QueuedLanServer q = manual(base, 4);
+        q.send(reliable(A, 100));
+        q.send(state(A, 1));
+        q.send(state(A, 2));
+        q.send(reliable(A, 101));
+        q.send(state(A, 3)); // 队满：挤掉 seq 1
+        q.send(state(A, 4)); // 队满：挤掉 seq 2
+
+        CLogAssert.assertEquals("丢弃 2 个状态包", 2L, q.getDropped());
+        CLogAssert.assertEquals("容量不变", 4, q.getQueueDepth(A));
+        q.drain();
+        StringBuilder order = new StringBuilder();
+        for (Packet p : base.sent) {
+            if (p instanceof LanDamageResultBroadcastPacket) order.append('R').append(((LanDamageResultBroadcastPacket) p).getEnemyId());
+            else order.append('S').append(((LanPlayerInputAckBroadcastPacket) p).getAckSeq());
+            order.append(' ');
+        }
+        CLogAssert.assertEquals("可靠事件保留且顺序不变", "R100 R101 S3 S4 ", order.toString());
+    }
+
+    @Test
+    public void 测试_全是可靠事件时超出容量也入队() {
+        RecordingServer base = new RecordingServer();
+        QueuedLanServer q = manual(base, 2);
+        q.send(reliable(A, 1));
+        q.send(reliable(A, 2));
+        q.send(state(A, 1));     // 无可挤掉的旧包：新状态包丢弃
+        q.send(reliable(A, 3));  // 可靠事件超出容量仍入队
+
+        CLogAssert.assertEquals("只丢弃状态包", 1L, q.getDropped());
+        CLogAssert.assertEquals("三个可靠事件都在", 3, q.getQueueDepth(A));
+
+        LanTickBundleBroadcastPacket bundle = new LanTickBundleBroadcastPacket(A, IStatus.RETURN_SUCCESS);
+        bundle.add(state(A, 2));
+        bundle.add(new LanPlayerHurtBroadcastPacket(A, IStatus.RETURN_SUCCESS, A, 3f, 7f, 1));
+        CLogAssert.assertFalse("含可靠消息的合并包不可丢弃", QueuedLanServer.isStaleState(bundle));
+        LanTickBundleBroadcastPacket states = new LanTickBundleBroadcastPacket(A, IStatus.RETURN_SUCCESS);
+        states.add(state(A, 3));
+        CLogAssert.assertTrue("纯状态合并包可丢弃", QueuedLanServer.isStaleState(states));
+    }
+
+    @Test
+    public void 测试_断线客户端的队列被关闭() {
+        RecordingServer base = new RecordingServer();
+        QueuedLanServer q = manual(base, 16);
+        q.send(state(A, 1));
+        q.send(state(B, 1));
+        base.clients.remove(B);
+
+        CLogAssert.assertEquals("只发给在线客户端", 1, q.drain());
+        CLogAssert.assertEquals("计数归零", 0, q.getQueuedCount());
+        q.send(state(B, 2));
+        q.drain();
+        CLogAssert.assertEquals("之后发往断线客户端的包也不发出", 1, base.size());
+    }
+
+    @Test
+    public void 测试_断线时队列已空也被移除() {
+        RecordingServer base = new RecordingServer();
+        QueuedLanServer q = manual(base, 16);
+        q.send(state(A, 1));
+        q.send(state(B, 1));
+        q.drain();
+        CLogAssert.assertEquals("两个客户端各一个队列", 2, q.getClientQueueCount());
+
+        base.clients.remove(B);
+        q.drain();
+        CLogAssert.assertEquals("断线客户端的空队列被移除", 1, q.getClientQueueCount());
+        CLogAssert.assertEquals("在线客户端的空队列保留", 0, q.getQueueDepth(A));
+    }
+
+    @Test
+    public void 测试_IO线程自动发出() throws InterruptedException {
+        RecordingServer base = new RecordingServer();
+        QueuedLanServer q = new QueuedLanServer(base);
+        try {
+            for (int i = 0; i < 100; i++) q.send(state(i % 2 == 0 ? A : B, i));
+            long deadline = System.currentTimeMillis() + 2000L;
+            while (base.size() < 100 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+            CLogAssert.assertEquals("100 个包全部发出", 100, base.size());
+            CLogAssert.assertEquals("发送计数", 100L, q.getSent());
+        } finally {
+            q.stop();
+        }
+    }
+}
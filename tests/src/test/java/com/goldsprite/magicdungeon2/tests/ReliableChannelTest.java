@@ -0,0 +1,146 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanDamageResultBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanFloorChangeBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.packet.LanReliableBroadcastPacket;
+import com.goldsprite.magicdungeon2.network.lan.reliable.ReliableReceiver;
+import com.goldsprite.magicdungeon2.network.lan.reliable.ReliableSender;
+
+import goldsprite.myUdpNetty.codec.codecInterfaces.IStatus;
+
+/**
+ * 可靠有序通道单元测试（ReliableSender + ReliableReceiver）。
+ * <p>
+ * 验证：乱序到达按序交出、重复包只交出一次、选择确认只重传缺失的包、超时重传与退避、
+ * 随机丢包/乱序链路下全部按序送达。
+ */
+public class ReliableChannelTest {
+
+    private static final int GUID = 5;
+    private static final long RTO = 100L;
+
+    private static LanDamageResultBroadcastPacket damage(int enemyId) {
+        return new LanDamageResultBroadcastPacket(GUID, IStatus.RETURN_SUCCESS, enemyId, 5f, 10f, false, 1, 0);
+    }
+
+    private static int idOf(LanReliableBroadcastPacket p) {
+        if (p instanceof LanDamageResultBroadcastPacket) return ((LanDamageResultBroadcastPacket) p).getEnemyId();
+        return -((LanFloorChangeBroadcastPacket) p).getFloor();
+    }
+
+    @Test
+    public void 测试_乱序到达按序交出且去重() {
+        ReliableSender sender = new ReliableSender();
+        ReliableReceiver receiver = new ReliableReceiver();
+        List<LanReliableBroadcastPacket> sent = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            LanDamageResultBroadcastPacket p = damage(i);
+            sender.register(p, 0L, RTO);
+            sent.add(p);
+        }
+        LanFloorChangeBroadcastPacket floor = new LanFloorChangeBroadcastPacket(GUID, IStatus.RETURN_SUCCESS, 99L, 2);
+        sender.register(floor, 0L, RTO);
+        sent.add(floor);
+
+        List<Integer> got = new ArrayList<>();
+        receiver.receive(sent.get(2), p -> got.add(idOf(p)));
+        receiver.receive(sent.get(3), p -> got.add(idOf(p)));
+        CLogAssert.assertEquals("缺 1、2 时不交出", 0, got.size());
+        CLogAssert.assertEquals("累计确认仍为 0", 0, receiver.getAckSeq());
+        CLogAssert.assertEquals("选择确认 3、4", (1 << 2) | (1 << 3), receiver.getAckBits());
+
+        receiver.receive(sent.get(0), p -> got.add(idOf(p)));
+        receiver.receive(sent.get(0), p -> got.add(idOf(p)));
+        receiver.receive(sent.get(1), p -> got.add(idOf(p)));
+        CLogAssert.assertEquals("按序交出", "[1, 2, 3, -2]", got.toString());
+        CLogAssert.assertEquals("累计确认", 4, receiver.getAckSeq());
+        CLogAssert.assertEquals("重复 1 次", 1L, receiver.getDuplicates());
+    }
+
+    @Test
+    public void 测试_选择确认只重传缺失的包() {
+        ReliableSender sender = new ReliableSender();
+        for (int i = 1; i <= 4; i++) sender.register(damage(i), 0L, RTO);
+
+        sender.onAck(GUID, 1, 1 << 2); // 累计到 1，位 2 即序号 4；缺 2、3
+        CLogAssert.assertEquals("剩 2、3 未确认", 2, sender.getUnackedCount(GUID));
+
+        List<Integer> resent = new ArrayList<>();
+        sender.resend(10L, g -> RTO, p -> resent.add(((LanDamageResultBroadcastPacket) p).getEnemyId()));
+        CLogAssert.assertEquals("后面已到：不等超时立即重传缺失的", "[2, 3]", resent.toString());
+
+        resent.clear();
+        sender.resend(20L, g -> RTO, p -> resent.add(((LanDamageResultBroadcastPacket) p).getEnemyId()));
+        CLogAssert.assertEquals("快速重传只一次", 0, resent.size());
+
+        sender.onAck(GUID, 4, 0);
+        CLogAssert.assertEquals("全部确认", 0, sender.getUnackedCount(GUID));
+    }
+
+    @Test
+    public void 测试_超时重传与退避() {
+        ReliableSender sender = new ReliableSender();
+        LanDamageResultBroadcastPacket original = damage(1);
+        sender.register(original, 0L, RTO);
+
+        List<LanBroadcastPacket> resent = new ArrayList<>();
+        sender.resend(RTO - 1, g -> RTO, resent::add);
+        CLogAssert.assertEquals("未超时不重传", 0, resent.size());
+        sender.resend(RTO, g -> RTO, resent::add);
+        CLogAssert.assertEquals("超时重传", 1, resent.size());
+        CLogAssert.assertTrue("重传的是副本", resent.get(0) != original);
+        CLogAssert.assertEquals("副本序号相同", 1, ((LanReliableBroadcastPacket) resent.get(0)).getReliableSeq());
+
+        sender.resend(RTO + 2 * RTO - 1, g -> RTO, resent::add);
+        CLogAssert.assertEquals("超时已翻倍", 1, resent.size());
+        sender.resend(RTO + 2 * RTO, g -> RTO, resent::add);
+        CLogAssert.assertEquals("翻倍后再重传", 2, resent.size());
+        CLogAssert.assertEquals("重传计数", 2L, sender.getRetransmits());
+    }
+
+    @Test
+    public void 测试_随机丢包乱序链路全部按序送达() {
+        Random rnd = new Random(1234);
+        ReliableSender sender = new ReliableSender();
+        ReliableReceiver receiver = new ReliableReceiver();
+        List<LanReliableBroadcastPacket> inFlight = new ArrayList<>();
+        List<Integer> got = new ArrayList<>();
+        final int total = 200;
+
+        long now = 0L;
+        int next = 1;
+        for (int step = 0; step < 2000 && got.size() < total; step++, now += 33L) {
+            // 每 tick 最多产生 2 个事件
+            for (int k = 0; k < 2 && next <= total; k++) {
+                LanDamageResultBroadcastPacket p = damage(next++);
+                sender.register(p, now, RTO);
+                inFlight.add(p);
+            }
+            sender.resend(now, g -> RTO, p -> inFlight.add((LanReliableBroadcastPacket) p));
+            // 30% 丢包，剩余打乱顺序到达；确认同样 30% 丢失
+            Collections.shuffle(inFlight, rnd);
+            for (LanReliableBroadcastPacket p : inFlight) {
+                if (rnd.nextFloat() < 0.3f) continue;
+                receiver.receive(p, d -> got.add(idOf(d)));
+                if (rnd.nextFloat() < 0.3f) continue;
+                sender.onAck(GUID, receiver.getAckSeq(), receiver.getAckBits());
+            }
+            inFlight.clear();
+        }
+
+        CLogAssert.assertEquals("全部送达", total, got.size());
+        boolean ordered = true;
+        for (int i = 0; i < got.size(); i++) if (got.get(i) != i + 1) ordered = false;
+        CLogAssert.assertTrue("严格按序", ordered);
+        CLogAssert.assertTrue("发生过重传", sender.getRetransmits() > 0);
+    }
+}
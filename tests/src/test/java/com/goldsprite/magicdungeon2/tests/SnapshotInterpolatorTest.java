@@ -0,0 +1,125 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import org.junit.Test;
+
+import com.goldsprite.CLogAssert;
+import com.goldsprite.magicdungeon2.network.lan.SnapshotInterpolator;
+
+/**
+ * SnapshotInterpolator 快照插值缓冲单元测试。
+ * <p>
+ * 验证：快照之间线性插值、乱序快照丢弃、断档外推上限、环形缓冲覆盖、瞬移清空历史、
+ * 时间轴整体回退时重置、以外部时钟推进回放。
+ */
+public class SnapshotInterpolatorTest {
+
+    private static final float STEP = 0.1f;
+
+    /** 按固定间隔压入 x = i * 10 的快照 */
+    private static SnapshotInterpolator linear(int count, float delay) {
+        SnapshotInterpolator interp = new SnapshotInterpolator();
+        interp.setDelay(delay);
+        for (int i = 0; i < count; i++) interp.push(i * STEP, i * 10f, 0f);
+        return interp;
+    }
+
+    @Test
+    public void 测试_回放时间落在快照之间线性插值() {
+        SnapshotInterpolator interp = new SnapshotInterpolator();
+        interp.setDelay(0.1f);
+        interp.push(0.0, 0f, 0f);
+        interp.push(0.1, 10f, 20f);
+        interp.push(0.2, 20f, 40f);
+        // 首个快照确定回放时钟 = 0 - delay，推进到 0.15 附近（两快照中点）
+        interp.advance(0f);
+        double target = 0.15 - interp.getRenderTime();
+        interp.advance((float) target);
+
+        float[] out = new float[2];
+        CLogAssert.assertTrue("有数据可采样", interp.sample(out));
+        double rt = interp.getRenderTime();
+        CLogAssert.assertTrue("回放时间在两快照之间", rt > 0.1 && rt < 0.2);
+        CLogAssert.assertEquals("X 按回放时间插值", (float) (rt * 100), out[0], 0.01f);
+        CLogAssert.assertEquals("Y 按回放时间插值", (float) (rt * 200), out[1], 0.01f);
+        CLogAssert.assertFalse("未进入外推", interp.isExtrapolating());
+    }
+
+    @Test
+    public void 测试_乱序与重复快照被丢弃() {
+        SnapshotInterpolator interp = linear(3, 0.1f);
+        CLogAssert.assertFalse("重复时间戳丢弃", interp.push(0.2, 999f, 0f));
+        CLogAssert.assertFalse("更早的快照丢弃", interp.push(0.05, 999f, 0f));
+        CLogAssert.assertEquals("缓冲数量不变", 3, interp.size());
+
+        float[] out = new float[2];
+        interp.sampleLatest(out);
+        CLogAssert.assertEquals("最新位置未被覆盖", 20f, out[0], 0f);
+    }
+
+    @Test
+    public void 测试_快照断档时外推有上限() {
+        SnapshotInterpolator interp = linear(3, 0f);
+        interp.setMaxExtrapolation(0.05f);
+        // 回放时钟推进到最新快照之后 0.3 秒（不触发跳变阈值，但远超外推上限）
+        for (int i = 0; i < 30; i++) interp.advance(0.1f);
+
+        float[] out = new float[2];
+        interp.sample(out);
+        CLogAssert.assertTrue("处于外推状态", interp.isExtrapolating());
+        // 速度 100/s，外推最多 0.05s → 最多多走 5
+        CLogAssert.assertTrue("超出最新位置", out[0] > 20f);
+        CLogAssert.assertTrue("外推不超过上限", out[0] <= 25f + 0.001f);
+    }
+
+    @Test
+    public void 测试_环形缓冲满后覆盖最旧快照() {
+        SnapshotInterpolator interp = new SnapshotInterpolator(4);
+        for (int i = 0; i < 10; i++) interp.push(i * STEP, i * 10f, 0f);
+        CLogAssert.assertEquals("容量固定", 4, interp.capacity());
+        CLogAssert.assertEquals("只保留最近 4 个", 4, interp.size());
+
+        float[] out = new float[2];
+        interp.sampleLatest(out);
+        CLogAssert.assertEquals("最新快照正确", 90f, out[0], 0f);
+    }
+
+    @Test
+    public void 测试_超过瞬移距离清空历史() {
+        SnapshotInterpolator interp = linear(4, 0.1f);
+        interp.setSnapDistance(50f);
+        interp.push(0.4, 1000f, 0f);
+        CLogAssert.assertEquals("瞬移后只剩新快照", 1, interp.size());
+
+        float[] out = new float[2];
+        interp.advance(0.016f);
+        interp.sample(out);
+        CLogAssert.assertEquals("直接出现在新位置，不从旧位置滑过去", 1000f, out[0], 0f);
+    }
+
+    @Test
+    public void 测试_清空后不可采样() {
+        SnapshotInterpolator interp = linear(3, 0.1f);
+        interp.clear();
+        float[] out = {-1f, -1f};
+        CLogAssert.assertFalse("空缓冲返回 false", interp.sample(out));
+        CLogAssert.assertEquals("输出不被改写", -1f, out[0], 0f);
+        CLogAssert.assertEquals("数量归零", 0, interp.size());
+    }
+
+    @Test
+    public void 测试_时间轴回退重置并按外部时钟推进() {
+        SnapshotInterpolator interp = linear(3, 0.1f);
+        CLogAssert.assertFalse("小幅回退仍按乱序丢弃", interp.push(0.15, 0f, 0f));
+        interp.push(3.0, 30f, 0f);
+        CLogAssert.assertTrue("回退超过阈值视为新时间轴", interp.push(0.5, 5f, 0f));
+        CLogAssert.assertEquals("旧时间轴被丢弃", 1, interp.size());
+
+        // 外部时钟与最新快照无关：偏差超过阈值直接跳到 clock - delay
+        interp.advance(0f, 2.0);
+        CLogAssert.assertEquals("回放时间跟随外部时钟", 1.9f, (float) interp.getRenderTime(), 1e-4f);
+        // 偏差较小时逐步靠拢，不跳变
+        interp.advance(0.1f, 2.1);
+        double rt = interp.getRenderTime();
+        CLogAssert.assertEquals("按帧时间推进", 2.0f, (float) rt, 1e-4f);
+    }
+}
@@ -0,0 +1,23 @@
+package com.goldsprite.magicdungeon2.tests;
+
+import com.goldsprite.magicdungeon2.core.world.GameWorld;
+import com.goldsprite.magicdungeon2.core.world.WorldConfig;
+
+/**
+ * 世界与同步用例共用的测试夹具：远程玩家 guid 与地形清理。
+ */
+final class WorldFixtures {
+
+    /** 用例中远程玩家（客户端）的 guid */
+    static final int GUID = 7;
+
+    private WorldFixtures() {}
+
+    /** 清空内部墙壁与楼梯，避免随机地图影响用例 */
+    static void clearInterior(GameWorld world) {
+        int[][] map = world.getMap();
+        for (int y = 1; y < WorldConfig.MAP_H - 1; y++)
+            for (int x = 1; x < WorldConfig.MAP_W - 1; x++)
+                map[y][x] = WorldConfig.T_FLOOR;
+    }
+}